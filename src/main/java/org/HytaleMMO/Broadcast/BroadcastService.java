@@ -0,0 +1,265 @@
+package org.HytaleMMO.Broadcast;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.world.entity.player.Player;
+import net.kyori.adventure.text.Component;
+import org.HytaleMMO.Character.CharacterListener;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Listeners.OnlinePlayers;
+import org.HytaleMMO.Listeners.ServerTickScheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Sends messages to every player in an area, a world or the whole server.
+ * Recipients are found through a SpatialIndex kept up to date from the
+ * CharacterManager's load, move and unload notifications. The message is
+ * built once and the same component is handed to every recipient. Small
+ * broadcasts are sent right away; larger ones (world boss announcements to
+ * hundreds of players) are queued and sent a fixed number of messages per
+ * tick so a single announcement never stalls the sending thread.
+ */
+public class BroadcastService implements CharacterListener {
+    private final SpatialIndex index;
+    private final OnlinePlayers onlinePlayers;
+    private final HytaleLogger logger;
+    private final int messagesPerTick;
+    private final long tickMs;
+    private final Queue<Announcement> pending;
+    private final AtomicLong broadcasts;
+    private final AtomicLong queued;
+    private final AtomicLong sent;
+    private ServerTickScheduler.RepeatingTask tickTask;
+
+    /**
+     * Creates a new broadcast service
+     * @param onlinePlayers The online player registry used to deliver messages
+     * @param logger The logger instance
+     * @param cellSize The edge length of a spatial index cell in blocks
+     * @param messagesPerTick The maximum number of messages sent per tick
+     * @param tickMs The interval between ticks in milliseconds
+     */
+    public BroadcastService(OnlinePlayers onlinePlayers, HytaleLogger logger, int cellSize, int messagesPerTick, long tickMs) {
+        this.index = new SpatialIndex(cellSize);
+        this.onlinePlayers = onlinePlayers;
+        this.logger = logger;
+        this.messagesPerTick = messagesPerTick;
+        this.tickMs = tickMs;
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.broadcasts = new AtomicLong();
+        this.queued = new AtomicLong();
+        this.sent = new AtomicLong();
+    }
+
+    /**
+     * Sends queued announcements on the server tick
+     * @param scheduler The server tick scheduler
+     */
+    public void start(ServerTickScheduler scheduler) {
+        if (tickTask != null) {
+            logger.at(Level.WARNING).log("Broadcast tick is already running");
+            return;
+        }
+
+        tickTask = scheduler.schedule("broadcasts", this::tick, ServerTickScheduler.ticks(tickMs));
+
+        logger.at(Level.INFO).log("Broadcast service started (" + messagesPerTick + " messages per " + tickMs + " ms)");
+    }
+
+    /**
+     * Stops the tick and sends everything still queued
+     */
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        while (!pending.isEmpty()) {
+            tick();
+        }
+        logger.at(Level.INFO).log(getReport());
+    }
+
+    @Override
+    public void onCharacterLoaded(Character character) {
+        index.update(character.getPlayerId(), character.getWorld(), character.getPosX(), character.getPosY(), character.getPosZ());
+    }
+
+    @Override
+    public void onPositionChanged(Character character) {
+        index.update(character.getPlayerId(), character.getWorld(), character.getPosX(), character.getPosY(), character.getPosZ());
+    }
+
+    @Override
+    public void onCharacterUnloading(Character character) {
+        index.remove(character.getPlayerId());
+    }
+
+    /**
+     * Sends a message to every player within a distance of a point
+     * @param world The world name
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param z Z coordinate
+     * @param radius The distance in blocks
+     * @param message The message
+     * @return The number of recipients
+     */
+    public int sendToRadius(String world, double x, double y, double z, double radius, Component message) {
+        List<UUID> recipients = new ArrayList<>();
+        index.queryRadius(world, x, y, z, radius, recipients);
+        return deliver(recipients, message);
+    }
+
+    /**
+     * Sends a message to every other player within a distance of a player
+     * @param playerId The player's UUID
+     * @param radius The distance in blocks
+     * @param message The message
+     * @return The number of recipients
+     */
+    public int sendAround(UUID playerId, double radius, Component message) {
+        List<UUID> recipients = new ArrayList<>();
+        index.queryAround(playerId, radius, recipients);
+        return deliver(recipients, message);
+    }
+
+    /**
+     * Sends a message to every player inside a horizontal rectangle
+     * @param world The world name
+     * @param minX The lowest X coordinate
+     * @param minZ The lowest Z coordinate
+     * @param maxX The highest X coordinate
+     * @param maxZ The highest Z coordinate
+     * @param message The message
+     * @return The number of recipients
+     */
+    public int sendToRegion(String world, double minX, double minZ, double maxX, double maxZ, Component message) {
+        List<UUID> recipients = new ArrayList<>();
+        index.queryRegion(world, minX, minZ, maxX, maxZ, recipients);
+        return deliver(recipients, message);
+    }
+
+    /**
+     * Sends a message to every player in a world
+     * @param world The world name
+     * @param message The message
+     * @return The number of recipients
+     */
+    public int sendToWorld(String world, Component message) {
+        List<UUID> recipients = new ArrayList<>();
+        index.queryWorld(world, recipients);
+        return deliver(recipients, message);
+    }
+
+    /**
+     * Sends a message to every online player
+     * @param message The message
+     * @return The number of recipients
+     */
+    public int sendToAll(Component message) {
+        List<UUID> recipients = new ArrayList<>(onlinePlayers.size());
+        for (Player player : onlinePlayers.all()) {
+            recipients.add(player.getUniqueId());
+        }
+        return deliver(recipients, message);
+    }
+
+    /**
+     * Sends a message to the given players, split across ticks if there are many
+     * @param recipients The players' UUIDs
+     * @param message The message
+     * @return The number of recipients
+     */
+    public int deliver(List<UUID> recipients, Component message) {
+        if (recipients.isEmpty()) {
+            return 0;
+        }
+        broadcasts.incrementAndGet();
+
+        // Small broadcasts go out right away unless they would overtake queued ones
+        if (recipients.size() <= messagesPerTick && pending.isEmpty()) {
+            send(recipients.toArray(new UUID[0]), 0, recipients.size(), message);
+            return recipients.size();
+        }
+
+        queued.incrementAndGet();
+        pending.add(new Announcement(recipients.toArray(new UUID[0]), message));
+        return recipients.size();
+    }
+
+    /**
+     * Sends up to the per-tick budget of queued messages, oldest announcement first
+     */
+    public synchronized void tick() {
+        int budget = messagesPerTick;
+        Announcement announcement;
+        while (budget > 0 && (announcement = pending.peek()) != null) {
+            int count = Math.min(budget, announcement.recipients.length - announcement.next);
+            send(announcement.recipients, announcement.next, count, announcement.message);
+            announcement.next += count;
+            budget -= count;
+            if (announcement.next >= announcement.recipients.length) {
+                pending.poll();
+            }
+        }
+    }
+
+    private void send(UUID[] recipients, int from, int count, Component message) {
+        int delivered = 0;
+        for (int i = from; i < from + count; i++) {
+            // Players that left since the broadcast was queued are skipped
+            Player player = onlinePlayers.get(recipients[i]);
+            if (player != null) {
+                player.sendMessage(message);
+                delivered++;
+            }
+        }
+        sent.addAndGet(delivered);
+    }
+
+    /**
+     * Gets the spatial index of online players
+     * @return The spatial index
+     */
+    public SpatialIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the number of announcements waiting to be sent
+     * @return The queue length
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Builds a one-line report of broadcast activity
+     * @return The report
+     */
+    public String getReport() {
+        return "Broadcasts: " + broadcasts.get() + " (" + queued.get() + " split across ticks), "
+                + sent.get() + " message(s) sent, " + index.size() + " player(s) indexed";
+    }
+
+    /**
+     * A broadcast being sent over several ticks
+     */
+    private static final class Announcement {
+        private final UUID[] recipients;
+        private final Component message;
+        private int next;
+
+        private Announcement(UUID[] recipients, Component message) {
+            this.recipients = recipients;
+            this.message = message;
+        }
+    }
+}
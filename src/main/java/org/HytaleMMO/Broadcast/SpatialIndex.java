@@ -0,0 +1,298 @@
+package org.HytaleMMO.Broadcast;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Spatial hash of player positions per world.
+ * The horizontal plane is divided into square cells; each cell lists the
+ * players standing in it, so radius and region queries only visit the cells
+ * that overlap the query area instead of every online player. A position
+ * update only moves the player between lists when it crosses a cell border.
+ */
+public class SpatialIndex {
+    private final int cellSize;
+    private final Map<UUID, Position> positions;
+    private final Map<String, Map<Long, List<Position>>> worlds;
+    private final ReentrantReadWriteLock lock;
+
+    /**
+     * Creates a new spatial index
+     * @param cellSize The edge length of a cell in blocks
+     */
+    public SpatialIndex(int cellSize) {
+        this.cellSize = cellSize;
+        this.positions = new HashMap<>();
+        this.worlds = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Adds a player or moves it to a new position
+     * @param playerId The player's UUID
+     * @param world The world name
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param z Z coordinate
+     */
+    public void update(UUID playerId, String world, double x, double y, double z) {
+        String worldKey = world != null ? world : "";
+        long cell = cellKey(cell(x), cell(z));
+        lock.writeLock().lock();
+        try {
+            Position position = positions.get(playerId);
+            if (position == null) {
+                position = new Position(playerId);
+                positions.put(playerId, position);
+            } else if (position.cell != cell || !position.world.equals(worldKey)) {
+                unlink(position);
+            } else {
+                position.set(x, y, z);
+                return;
+            }
+            position.world = worldKey;
+            position.cell = cell;
+            position.set(x, y, z);
+            worlds.computeIfAbsent(worldKey, key -> new HashMap<>())
+                    .computeIfAbsent(cell, key -> new ArrayList<>(4))
+                    .add(position);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a player
+     * @param playerId The player's UUID
+     */
+    public void remove(UUID playerId) {
+        lock.writeLock().lock();
+        try {
+            Position position = positions.remove(playerId);
+            if (position != null) {
+                unlink(position);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the players within a distance of a point
+     * @param world The world name
+     * @param x X coordinate
+     * @param y Y coordinate
+     * @param z Z coordinate
+     * @param radius The distance in blocks
+     * @param out The list the players are added to
+     * @return The number of players found
+     */
+    public int queryRadius(String world, double x, double y, double z, double radius, List<UUID> out) {
+        double radiusSquared = radius * radius;
+        int minCellX = cell(x - radius);
+        int maxCellX = cell(x + radius);
+        int minCellZ = cell(z - radius);
+        int maxCellZ = cell(z + radius);
+        int found = 0;
+
+        lock.readLock().lock();
+        try {
+            Map<Long, List<Position>> cells = worlds.get(world != null ? world : "");
+            if (cells == null) {
+                return 0;
+            }
+            for (List<Position> occupants : candidates(cells, minCellX, maxCellX, minCellZ, maxCellZ)) {
+                for (int i = 0; i < occupants.size(); i++) {
+                    Position position = occupants.get(i);
+                    double dx = position.x - x;
+                    double dy = position.y - y;
+                    double dz = position.z - z;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                        out.add(position.playerId);
+                        found++;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    /**
+     * Finds the other players within a distance of a player
+     * @param playerId The player's UUID
+     * @param radius The distance in blocks
+     * @param out The list the players are added to
+     * @return The number of players found, 0 if the player is not indexed
+     */
+    public int queryAround(UUID playerId, double radius, List<UUID> out) {
+        String world;
+        double x;
+        double y;
+        double z;
+        lock.readLock().lock();
+        try {
+            Position position = positions.get(playerId);
+            if (position == null) {
+                return 0;
+            }
+            world = position.world;
+            x = position.x;
+            y = position.y;
+            z = position.z;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        int found = queryRadius(world, x, y, z, radius, out);
+        return out.remove(playerId) ? found - 1 : found;
+    }
+
+    /**
+     * Finds the players inside a horizontal rectangle, at any height
+     * @param world The world name
+     * @param minX The lowest X coordinate
+     * @param minZ The lowest Z coordinate
+     * @param maxX The highest X coordinate
+     * @param maxZ The highest Z coordinate
+     * @param out The list the players are added to
+     * @return The number of players found
+     */
+    public int queryRegion(String world, double minX, double minZ, double maxX, double maxZ, List<UUID> out) {
+        int found = 0;
+
+        lock.readLock().lock();
+        try {
+            Map<Long, List<Position>> cells = worlds.get(world != null ? world : "");
+            if (cells == null) {
+                return 0;
+            }
+            for (List<Position> occupants : candidates(cells, cell(minX), cell(maxX), cell(minZ), cell(maxZ))) {
+                for (int i = 0; i < occupants.size(); i++) {
+                    Position position = occupants.get(i);
+                    if (position.x >= minX && position.x <= maxX && position.z >= minZ && position.z <= maxZ) {
+                        out.add(position.playerId);
+                        found++;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    /**
+     * Finds every player in a world
+     * @param world The world name
+     * @param out The list the players are added to
+     * @return The number of players found
+     */
+    public int queryWorld(String world, List<UUID> out) {
+        int found = 0;
+
+        lock.readLock().lock();
+        try {
+            Map<Long, List<Position>> cells = worlds.get(world != null ? world : "");
+            if (cells == null) {
+                return 0;
+            }
+            for (List<Position> occupants : cells.values()) {
+                for (int i = 0; i < occupants.size(); i++) {
+                    out.add(occupants.get(i).playerId);
+                    found++;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return found;
+    }
+
+    /**
+     * Gets the number of indexed players
+     * @return The player count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return positions.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the occupied cells overlapping a cell rectangle; the read lock must be held
+     * For areas larger than the occupied part of the world, every occupied cell is
+     * returned instead of probing each empty cell in the area
+     */
+    private Iterable<List<Position>> candidates(Map<Long, List<Position>> cells, int minCellX, int maxCellX,
+                                                int minCellZ, int maxCellZ) {
+        long area = (long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+        if (area > cells.size()) {
+            return cells.values();
+        }
+
+        List<List<Position>> overlapping = new ArrayList<>();
+        for (int cx = minCellX; cx <= maxCellX; cx++) {
+            for (int cz = minCellZ; cz <= maxCellZ; cz++) {
+                List<Position> occupants = cells.get(cellKey(cx, cz));
+                if (occupants != null) {
+                    overlapping.add(occupants);
+                }
+            }
+        }
+        return overlapping;
+    }
+
+    /**
+     * Removes a position from its cell list; the write lock must be held
+     */
+    private void unlink(Position position) {
+        Map<Long, List<Position>> cells = worlds.get(position.world);
+        List<Position> occupants = cells != null ? cells.get(position.cell) : null;
+        if (occupants == null) {
+            return;
+        }
+        occupants.remove(position);
+        if (occupants.isEmpty()) {
+            cells.remove(position.cell);
+            if (cells.isEmpty()) {
+                worlds.remove(position.world);
+            }
+        }
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    private static final class Position {
+        private final UUID playerId;
+        private String world;
+        private long cell;
+        private double x;
+        private double y;
+        private double z;
+
+        private Position(UUID playerId) {
+            this.playerId = playerId;
+        }
+
+        private void set(double x, double y, double z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+}
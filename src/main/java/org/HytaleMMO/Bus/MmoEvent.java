@@ -0,0 +1,126 @@
+package org.HytaleMMO.Bus;
+
+import java.util.UUID;
+
+/**
+ * A preallocated, reusable event slot of the MMO event bus.
+ * Game callbacks fill in a slot and publish it; handlers must not keep a
+ * reference to the event after onEvent returns, since the slot is reused.
+ */
+public final class MmoEvent {
+    public static final int PLAYER_JOIN = 1;
+    public static final int PLAYER_DISCONNECT = 2;
+    public static final int PLAYER_DEATH = 3;
+    public static final int PLAYER_POSITION = 4;
+    public static final int PLAYER_HEALTH = 5;
+    public static final int MOB_KILL = 6;
+    public static final int CHARACTER_SELECT = 7;
+    public static final int CHARACTER_CREATE = 8;
+
+    private int type;
+    private UUID playerId;
+    private String name;
+    private String world;
+    private double x;
+    private double y;
+    private double z;
+    private int value;
+    private Object source;
+
+    MmoEvent() {
+    }
+
+    /**
+     * Clears the slot and sets the event type
+     * @param type The event type
+     * @param playerId The UUID of the player the event is about
+     * @return This event, for chaining
+     */
+    public MmoEvent reset(int type, UUID playerId) {
+        this.type = type;
+        this.playerId = playerId;
+        this.name = null;
+        this.world = null;
+        this.x = 0;
+        this.y = 0;
+        this.z = 0;
+        this.value = 0;
+        this.source = null;
+        return this;
+    }
+
+    /**
+     * Sets the position carried by the event
+     * @return This event, for chaining
+     */
+    public MmoEvent position(double x, double y, double z, String world) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.world = world;
+        return this;
+    }
+
+    /**
+     * Sets the name carried by the event (player name, or mob type for kills)
+     * @return This event, for chaining
+     */
+    public MmoEvent name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * Sets the int value carried by the event (health, or mob type id for kills)
+     * @return This event, for chaining
+     */
+    public MmoEvent value(int value) {
+        this.value = value;
+        return this;
+    }
+
+    /**
+     * Sets the game object the event originated from (e.g. the player entity, or the command sender)
+     * @return This event, for chaining
+     */
+    public MmoEvent source(Object source) {
+        this.source = source;
+        return this;
+    }
+
+    public int getType() {
+        return type;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getWorld() {
+        return world;
+    }
+
+    public double getX() {
+        return x;
+    }
+
+    public double getY() {
+        return y;
+    }
+
+    public double getZ() {
+        return z;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public Object getSource() {
+        return source;
+    }
+}
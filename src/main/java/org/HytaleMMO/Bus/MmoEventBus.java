@@ -0,0 +1,338 @@
+package org.HytaleMMO.Bus;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Profiling.Profiler;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Internal MMO event bus backed by a preallocated ring buffer, in the style of
+ * the LMAX Disruptor.
+ * Game callbacks claim a slot, fill it in and publish it, which costs an atomic
+ * increment and a few field writes regardless of how many features subscribe.
+ * Each consumer runs on its own thread, sees every event in publication order
+ * and processes everything available in one batch. Producers only wait when
+ * the slowest consumer is a full ring behind.
+ * Events published after stop() are handed to the consumers on the
+ * publishing thread instead of being dropped.
+ */
+public class MmoEventBus {
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 100_000;
+
+    private final HytaleLogger logger;
+    private final MmoEvent[] entries;
+    private final AtomicIntegerArray available;
+    private final int mask;
+    private final int indexShift;
+    private final AtomicLong cursor;
+    private final List<Consumer> consumers;
+    private volatile long cachedGatingSequence;
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private final AtomicLong handledInline;
+    private volatile Profiler profiler;
+
+    /**
+     * Creates a new event bus
+     * @param bufferSize The number of preallocated slots (must be a power of two)
+     * @param logger The logger instance
+     */
+    public MmoEventBus(int bufferSize, HytaleLogger logger) {
+        if (Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("Buffer size must be a power of two: " + bufferSize);
+        }
+
+        this.logger = logger;
+        this.entries = new MmoEvent[bufferSize];
+        for (int i = 0; i < bufferSize; i++) {
+            entries[i] = new MmoEvent();
+        }
+        this.available = new AtomicIntegerArray(bufferSize);
+        for (int i = 0; i < bufferSize; i++) {
+            available.set(i, -1);
+        }
+        this.mask = bufferSize - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(bufferSize);
+        this.cursor = new AtomicLong(-1);
+        this.consumers = new ArrayList<>();
+        this.cachedGatingSequence = -1;
+        this.handledInline = new AtomicLong();
+    }
+
+    /**
+     * Adds a consumer; must be called before start()
+     * @param name The consumer name (used for its thread and metrics)
+     * @param handler The handler that processes events
+     */
+    public void addConsumer(String name, MmoEventHandler handler) {
+        if (running) {
+            throw new IllegalStateException("Consumers must be added before the event bus is started");
+        }
+        consumers.add(new Consumer(name, handler));
+    }
+
+    /**
+     * Records the time every consumer spends handling events while the profiler is running
+     * @param profiler The profiler
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Starts a dedicated thread for every consumer
+     */
+    public void start() {
+        if (running) {
+            logger.at(Level.WARNING).log("Event bus is already running");
+            return;
+        }
+
+        running = true;
+        for (Consumer consumer : consumers) {
+            Thread thread = new Thread(consumer, "MmoEventBus-" + consumer.name);
+            thread.setDaemon(true);
+            consumer.thread = thread;
+            thread.start();
+        }
+        logger.at(Level.INFO).log("Event bus started with " + consumers.size() + " consumer(s) and " + entries.length + " slots");
+    }
+
+    /**
+     * Waits until the consumers have processed every published event, then stops them
+     * @param timeoutMs The maximum time to wait for the consumers to catch up
+     */
+    public void stop(long timeoutMs) {
+        if (!running) {
+            return;
+        }
+
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (getQueueDepth() > 0 && System.currentTimeMillis() < deadline) {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+        running = false;
+        for (Consumer consumer : consumers) {
+            if (consumer.thread != null) {
+                LockSupport.unpark(consumer.thread);
+                try {
+                    consumer.thread.join(1000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (consumer.thread.isAlive()) {
+                    logger.at(Level.WARNING).log("Event bus consumer " + consumer.name + " did not stop, its remaining events are dropped");
+                }
+            }
+        }
+
+        // From here on, publish() hands events to the consumers directly
+        stopped = true;
+        long remaining = drainInline();
+        if (remaining > 0) {
+            logger.at(Level.WARNING).log("Event bus handled " + remaining + " event(s) left after the wait on the stopping thread");
+        }
+        logger.at(Level.INFO).log("Event bus stopped");
+    }
+
+    /**
+     * Claims the next slot for publishing
+     * Waits if the slowest consumer is a full ring behind
+     * @return The sequence of the claimed slot
+     */
+    public long next() {
+        long sequence = cursor.incrementAndGet();
+        long wrapPoint = sequence - entries.length;
+
+        if (wrapPoint > cachedGatingSequence) {
+            long gating;
+            int tries = 0;
+            while (wrapPoint > (gating = minimumConsumerSequence(sequence))) {
+                backOff(tries++);
+            }
+            cachedGatingSequence = gating;
+        }
+        return sequence;
+    }
+
+    /**
+     * Gets the event slot for a claimed sequence
+     * @param sequence The claimed sequence
+     * @return The event slot to fill in
+     */
+    public MmoEvent get(long sequence) {
+        return entries[(int) sequence & mask];
+    }
+
+    /**
+     * Makes a claimed and filled-in slot visible to the consumers
+     * @param sequence The claimed sequence
+     */
+    public void publish(long sequence) {
+        available.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+        if (stopped) {
+            handledInline.addAndGet(drainInline());
+        }
+    }
+
+    /**
+     * Hands every published event the stopped consumers have not processed yet to their handlers
+     * Consumers whose thread is still running are skipped
+     * @return The number of events handled
+     */
+    private synchronized long drainInline() {
+        long handled = 0;
+        for (Consumer consumer : consumers) {
+            if (consumer.thread != null && consumer.thread.isAlive()) {
+                continue;
+            }
+            long nextSequence = consumer.sequence.get() + 1;
+            long availableSequence = highestPublished(nextSequence, cursor.get());
+            for (long current = nextSequence; current <= availableSequence; current++) {
+                consumer.handle(current, current == availableSequence);
+                handled++;
+            }
+            if (availableSequence >= nextSequence) {
+                consumer.sequence.lazySet(availableSequence);
+            }
+        }
+        return handled;
+    }
+
+    /**
+     * Gets the number of published events the slowest consumer has not processed yet
+     * @return The queue depth
+     */
+    public long getQueueDepth() {
+        long published = cursor.get();
+        return published - minimumConsumerSequence(published);
+    }
+
+    /**
+     * Gets the lag of every consumer, in events
+     * @return Map of consumer name to the number of events it is behind
+     */
+    public Map<String, Long> getConsumerLags() {
+        long published = cursor.get();
+        Map<String, Long> lags = new LinkedHashMap<>();
+        for (Consumer consumer : consumers) {
+            lags.put(consumer.name, published - consumer.sequence.get());
+        }
+        return lags;
+    }
+
+    /**
+     * Gets the total number of events claimed since the bus was created
+     * @return The event count
+     */
+    public long getPublishedCount() {
+        return cursor.get() + 1;
+    }
+
+    /**
+     * Builds a one-line report of the queue depth and consumer lag
+     * @return The report
+     */
+    public String getReport() {
+        return "Event bus: published=" + getPublishedCount() + " depth=" + getQueueDepth() + " lag=" + getConsumerLags()
+                + " handledAfterStop=" + handledInline.get();
+    }
+
+    private long minimumConsumerSequence(long defaultValue) {
+        long minimum = defaultValue;
+        for (int i = 0; i < consumers.size(); i++) {
+            minimum = Math.min(minimum, consumers.get(i).sequence.get());
+        }
+        return minimum;
+    }
+
+    private boolean isAvailable(long sequence) {
+        return available.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * Finds the highest contiguous published sequence, since producers may publish out of order
+     */
+    private long highestPublished(long lowerBound, long availableSequence) {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isAvailable(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    private static void backOff(int tries) {
+        if (tries < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (tries < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    /**
+     * A consumer thread with its own position in the ring
+     */
+    private final class Consumer implements Runnable {
+        private final String name;
+        private final MmoEventHandler handler;
+        private final String frame;
+        private final AtomicLong sequence;
+        private Thread thread;
+
+        private Consumer(String name, MmoEventHandler handler) {
+            this.name = name;
+            this.handler = handler;
+            this.frame = handler.getClass().getSimpleName() + ".onEvent";
+            this.sequence = new AtomicLong(-1);
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (running) {
+                long nextSequence = sequence.get() + 1;
+                long availableSequence = highestPublished(nextSequence, cursor.get());
+
+                if (availableSequence < nextSequence) {
+                    backOff(idle++);
+                    continue;
+                }
+                idle = 0;
+
+                // Process everything available as one batch
+                for (long current = nextSequence; current <= availableSequence; current++) {
+                    handle(current, current == availableSequence);
+                }
+                sequence.lazySet(availableSequence);
+            }
+        }
+
+        private void handle(long current, boolean endOfBatch) {
+            // Every handler is timed here, so the handlers themselves carry no instrumentation
+            Profiler profiler = MmoEventBus.this.profiler;
+            boolean profiled = profiler != null && profiler.enter(frame);
+            try {
+                handler.onEvent(get(current), current, endOfBatch);
+            } catch (Exception e) {
+                logger.at(Level.SEVERE).log("Error in event bus consumer " + name + ": " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                if (profiled) {
+                    profiler.exit();
+                }
+            }
+        }
+    }
+}
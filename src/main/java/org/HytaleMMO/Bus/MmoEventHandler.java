@@ -0,0 +1,13 @@
+package org.HytaleMMO.Bus;
+
+public interface MmoEventHandler {
+    /**
+     * Handles an event published on the MMO event bus
+     * Called on the consumer's own thread, in publication order
+     * @param event The event (only valid for the duration of the call)
+     * @param sequence The sequence number of the event
+     * @param endOfBatch true if this is the last event currently available to the consumer
+     * @throws Exception if handling fails; the error is logged and the consumer moves on
+     */
+    void onEvent(MmoEvent event, long sequence, boolean endOfBatch) throws Exception;
+}
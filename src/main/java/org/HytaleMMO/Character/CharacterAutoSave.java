@@ -1,6 +1,7 @@
 package org.HytaleMMO.Character;
 
 import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Profiling.Profiler;
 
 import java.util.Timer;
 import java.util.TimerTask;
@@ -8,12 +9,14 @@ import java.util.logging.Level;
 
 /**
  * Handles automatic character saving at regular intervals
+ * Saves are queued in the periodic lane of the save scheduler
  */
 public class CharacterAutoSave {
     private final CharacterManager characterManager;
     private final HytaleLogger logger;
     private Timer autoSaveTimer;
     private final long saveIntervalMs;
+    private Profiler profiler = Profiler.DISABLED;
 
     /**
      * Creates a new auto-save scheduler
@@ -27,6 +30,14 @@ public class CharacterAutoSave {
         this.saveIntervalMs = saveIntervalMinutes * 60 * 1000L; // Convert minutes to milliseconds
     }
 
+    /**
+     * Records the time spent queueing auto-saves while the profiler is running
+     * @param profiler The profiler
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
     /**
      * Starts the auto-save timer
      */
@@ -43,10 +54,13 @@ public class CharacterAutoSave {
             public void run() {
                 try {
                     logger.at(Level.INFO).log("Running auto-save for characters...");
-                    int savedCount = characterManager.saveAllCharacters();
+                    // Routine saves go to the lowest priority lane
+                    int queuedCount = profiler.time("CharacterAutoSave.run", () -> characterManager.requestSaveAll(SaveLane.PERIODIC));
                     
-                    if (savedCount == 0) {
+                    if (queuedCount == 0) {
                         logger.at(Level.INFO).log("No characters to auto-save");
+                    } else {
+                        logger.at(Level.INFO).log("Queued auto-save for " + queuedCount + " character(s)");
                     }
                 } catch (Exception e) {
                     logger.at(Level.SEVERE).log("Error during auto-save: " + e.getMessage());
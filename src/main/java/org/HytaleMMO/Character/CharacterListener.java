@@ -0,0 +1,37 @@
+package org.HytaleMMO.Character;
+
+import org.HytaleMMO.Database.Tables.Character;
+
+/**
+ * Notified by the CharacterManager when characters are loaded, move, progress and are unloaded
+ * Called on the thread that loads, changes or unloads the character
+ */
+public interface CharacterListener {
+    /**
+     * Called after a character has been loaded and registered
+     * @param character The character
+     */
+    default void onCharacterLoaded(Character character) {
+    }
+
+    /**
+     * Called after a loaded character's position or world changed
+     * @param character The character
+     */
+    default void onPositionChanged(Character character) {
+    }
+
+    /**
+     * Called after a loaded character's experience or level changed
+     * @param character The character
+     */
+    default void onProgressChanged(Character character) {
+    }
+
+    /**
+     * Called before a character is unloaded, while it is still registered
+     * @param character The character
+     */
+    default void onCharacterUnloading(Character character) {
+    }
+}
@@ -3,26 +3,54 @@ package org.HytaleMMO.Character;
 import com.hypixel.hytale.logger.HytaleLogger;
 import org.HytaleMMO.Database.Tables.Character;
 import org.HytaleMMO.Database.Tables.CharacterRepository;
+import org.HytaleMMO.Database.Tables.CharacterSummary;
+import org.HytaleMMO.Database.Tables.InventoryRepository;
+import org.HytaleMMO.Inventory.InventoryManager;
+import org.HytaleMMO.Progression.ExperienceTable;
 
 import java.sql.Connection;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 
 /**
  * Manages character loading, creation, and saving for players
  */
 public class CharacterManager {
+    /** Maximum number of characters per account */
+    public static final int MAX_CHARACTERS = 8;
+
     private final CharacterRepository repository;
     private final HytaleLogger logger;
     private final Map<UUID, Character> loadedCharacters;
+    private final CharacterSlots slots;
+    private final InventoryManager inventoryManager;
+    private final SaveScheduler saveScheduler;
+    private final List<CharacterListener> listeners;
+    private final CharacterSummaryCache summaryCache;
 
     public CharacterManager(Connection connection, HytaleLogger logger) {
         this.repository = new CharacterRepository(connection, logger);
         this.logger = logger;
-        this.loadedCharacters = new HashMap<>();
+        this.loadedCharacters = new ConcurrentHashMap<>();
+        this.slots = new CharacterSlots();
+        // Full inventory rewritten every 20 deltas; untouched inventories re-encoded after 5 minutes
+        this.inventoryManager = new InventoryManager(new InventoryRepository(connection, logger), logger, 20, 5 * 60 * 1000L);
+        this.saveScheduler = new SaveScheduler(repository, inventoryManager, logger);
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.summaryCache = new CharacterSummaryCache(1024);
+    }
+
+    /**
+     * Registers a listener for character loads, movement, progress and unloads
+     * @param listener The listener
+     */
+    public void addListener(CharacterListener listener) {
+        listeners.add(listener);
     }
 
     /**
@@ -36,11 +64,25 @@ public class CharacterManager {
      * @return The loaded or newly created character
      */
     public Character loadOrCreateCharacter(UUID playerId, String playerName, double x, double y, double z, String world) {
-        // Try to find existing character(s) for this player
-        List<Character> characters = repository.findByPlayer(playerId);
+        // A save queued when the player last left must reach the database before the row is read back
+        if (!saveScheduler.flushPlayer(playerId)) {
+            logger.at(Level.SEVERE).log("Failed to write the queued saves of player: " + playerName);
+            return null;
+        }
+        // Spooled saves must reach the database before the character is read back
+        if (!saveScheduler.replaySpool()) {
+            logger.at(Level.SEVERE).log("Failed to replay spooled saves before loading player: " + playerName);
+            return null;
+        }
+        // Only summaries are read here; the full row is loaded for the chosen character alone
+        List<CharacterSummary> summaries = getCharacterSummaries(playerId);
+        if (summaries == null) {
+            logger.at(Level.SEVERE).log("Failed to read characters of player: " + playerName);
+            return null;
+        }
         
         Character character;
-        if (characters.isEmpty()) {
+        if (summaries.isEmpty()) {
             // Create new character
             logger.at(Level.INFO).log("Creating new character for player: " + playerName);
             character = createNewCharacter(playerId, playerName, x, y, z, world);
@@ -51,8 +93,12 @@ public class CharacterManager {
                 logger.at(Level.WARNING).log("Failed to save new character for player: " + playerName);
             }
         } else {
-            // Load the first character (in the future, this could be a character selection)
-            character = characters.get(0);
+            // Continue with the most recently played character (the one selected last)
+            character = repository.findById(summaries.get(0).getId());
+            if (character == null) {
+                logger.at(Level.SEVERE).log("Failed to load character " + summaries.get(0).getCharacterName() + " for player: " + playerName);
+                return null;
+            }
             logger.at(Level.INFO).log("Loaded existing character for player: " + playerName);
             
             // Update last played timestamp
@@ -65,8 +111,160 @@ public class CharacterManager {
             character.setWorld(world);
         }
         
-        // Store in memory
-        loadedCharacters.put(playerId, character);
+        return register(playerId, character);
+    }
+
+    /**
+     * Switches a player to another of their characters
+     * The current character is saved and unloaded first, and the chosen character
+     * takes its place in the world
+     * @param playerId The player's UUID
+     * @param characterName The name of the character to play
+     * @return The loaded character, or null if the player has no such character, it failed to load
+     *         or the current character could not be saved
+     */
+    public Character selectCharacter(UUID playerId, String characterName) {
+        if (!saveScheduler.flushPlayer(playerId)) {
+            return null;
+        }
+        if (!saveScheduler.replaySpool()) {
+            return null;
+        }
+        List<CharacterSummary> summaries = getCharacterSummaries(playerId);
+        CharacterSummary chosen = summaries != null ? findSummary(summaries, characterName) : null;
+        if (chosen == null) {
+            return null;
+        }
+        
+        Character current = loadedCharacters.get(playerId);
+        if (current != null && current.getId() == chosen.getId()) {
+            return current;
+        }
+        
+        Character character = repository.findById(chosen.getId());
+        if (character == null) {
+            logger.at(Level.SEVERE).log("Failed to load character " + characterName + " for player: " + playerId);
+            return null;
+        }
+        
+        if (current != null) {
+            // Write the outgoing character now so switching back never reads a stale row;
+            // if that fails it stays loaded, so its unsaved progress is not thrown away
+            if (!saveCharacter(playerId)) {
+                logger.at(Level.WARNING).log("Not switching player " + playerId + " to " + characterName
+                        + ": the current character could not be saved");
+                return null;
+            }
+            unloadCharacter(playerId);
+            character.setPosX(current.getPosX());
+            character.setPosY(current.getPosY());
+            character.setPosZ(current.getPosZ());
+            character.setWorld(current.getWorld());
+        }
+        character.setLastPlayed(System.currentTimeMillis());
+        
+        logger.at(Level.INFO).log("Player " + playerId + " selected character: " + character.getCharacterName());
+        return register(playerId, character);
+    }
+
+    /**
+     * Creates and stores an additional character for a player without loading it
+     * @param playerId The player's UUID
+     * @param characterName The new character's name
+     * @return The new character's summary, or null if the name is taken, the account is full or saving failed
+     */
+    public CharacterSummary createCharacter(UUID playerId, String characterName) {
+        List<CharacterSummary> summaries = getCharacterSummaries(playerId);
+        if (summaries == null || summaries.size() >= MAX_CHARACTERS || findSummary(summaries, characterName) != null) {
+            return null;
+        }
+        
+        // New characters start where the player's current character stands
+        Character current = loadedCharacters.get(playerId);
+        Character character = current != null
+                ? createNewCharacter(playerId, characterName, current.getPosX(), current.getPosY(), current.getPosZ(), current.getWorld())
+                : createNewCharacter(playerId, characterName, 0.0, 0.0, 0.0, null);
+        // Not played yet; keep the current character first in the list
+        character.setLastPlayed(0L);
+        
+        if (!repository.save(character)) {
+            return null;
+        }
+        CharacterSummary summary = CharacterSummary.of(character);
+        summaryCache.update(summary);
+        return summary;
+    }
+
+    /**
+     * Gets the summaries of all characters of a player, most recently played first
+     * Served from the summary cache; the database is only read on a cache miss
+     * @param playerId The player's UUID
+     * @return The summaries, or null if they could not be read
+     */
+    public List<CharacterSummary> getCharacterSummaries(UUID playerId) {
+        List<CharacterSummary> summaries = summaryCache.get(playerId);
+        if (summaries == null) {
+            summaries = repository.findSummariesByPlayer(playerId);
+            if (summaries == null) {
+                return null;
+            }
+            summaries = summaryCache.put(playerId, summaries);
+        }
+        
+        Character loaded = loadedCharacters.get(playerId);
+        if (loaded != null && loaded.getId() > 0) {
+            // The stored summary of the character in play may be behind
+            List<CharacterSummary> updated = summaryCache.update(CharacterSummary.of(loaded));
+            if (updated != null) {
+                summaries = updated;
+            }
+        }
+        return summaries;
+    }
+
+    private static CharacterSummary findSummary(List<CharacterSummary> summaries, String characterName) {
+        for (CharacterSummary summary : summaries) {
+            if (summary.getCharacterName().equalsIgnoreCase(characterName)) {
+                return summary;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Registers a loaded character as the player's active character
+     */
+    private Character register(UUID playerId, Character character) {
+        // Position and last played changed since the stored row
+        character.markDirty();
+        
+        // Load the stored inventory; it is decoded on first access
+        inventoryManager.attach(character);
+        
+        // A character still loaded for the player is replaced; listeners release its state
+        // (effects, cooldowns, queues) before its slot can go to another character
+        Character previous = loadedCharacters.get(playerId);
+        if (previous != null) {
+            for (CharacterListener listener : listeners) {
+                listener.onCharacterUnloading(previous);
+            }
+        }
+        
+        // Store in memory and assign a dense slot for per-tick systems
+        character.setSlot(slots.allocate(character));
+        previous = loadedCharacters.put(playerId, character);
+        if (previous != null) {
+            slots.free(previous.getSlot());
+        }
+        if (character.getId() > 0) {
+            summaryCache.update(CharacterSummary.of(character));
+        } else {
+            summaryCache.invalidate(playerId);
+        }
+        
+        for (CharacterListener listener : listeners) {
+            listener.onCharacterLoaded(character);
+        }
         
         return character;
     }
@@ -111,14 +309,55 @@ public class CharacterManager {
         
         // Update last played timestamp
         character.setLastPlayed(System.currentTimeMillis());
+        character.clearDirty();
         
-        // Update existing character
-        if (character.getId() > 0) {
-            return repository.update(character);
-        } else {
-            // This shouldn't happen normally, but handle it just in case
-            return repository.save(character);
+        // Goes through the scheduler so the save is spooled while the database is down
+        return saveScheduler.writeNow(character);
+    }
+
+    /**
+     * Queues a character save in a priority lane of the save scheduler
+     * The character stays queued even if it is unloaded before the write
+     * @param playerId The player's UUID
+     * @param lane The priority lane
+     * @return true if the save was queued, false if no character is loaded or the lane shed it
+     */
+    public boolean requestSave(UUID playerId, SaveLane lane) {
+        Character character = loadedCharacters.get(playerId);
+        
+        if (character == null) {
+            logger.at(Level.WARNING).log("Attempted to save character for player " + playerId + " but no character is loaded");
+            return false;
+        }
+        
+        // Update last played timestamp
+        character.setLastPlayed(System.currentTimeMillis());
+        
+        return saveScheduler.submit(character, lane);
+    }
+
+    /**
+     * Queues a save of every loaded character in a priority lane
+     * In the periodic lane, characters without unsaved changes are skipped
+     * @param lane The priority lane
+     * @return The number of characters queued
+     */
+    public int requestSaveAll(SaveLane lane) {
+        int queuedCount = 0;
+        
+        for (Map.Entry<UUID, Character> entry : loadedCharacters.entrySet()) {
+            // Routine saves skip characters that have not changed since their last save
+            Character character = entry.getValue();
+            boolean inventoryDirty = character.getInventory() != null && character.getInventory().isDirty();
+            if (lane == SaveLane.PERIODIC && !character.isDirty() && !inventoryDirty) {
+                continue;
+            }
+            if (requestSave(entry.getKey(), lane)) {
+                queuedCount++;
+            }
         }
+        
+        return queuedCount;
     }
 
     /**
@@ -157,6 +396,11 @@ public class CharacterManager {
             character.setPosY(y);
             character.setPosZ(z);
             character.setWorld(world);
+            character.markDirty();
+            
+            for (CharacterListener listener : listeners) {
+                listener.onPositionChanged(character);
+            }
         }
     }
 
@@ -168,17 +412,64 @@ public class CharacterManager {
     public void updateCharacterHealth(UUID playerId, int health) {
         Character character = loadedCharacters.get(playerId);
         
-        if (character != null) {
+        if (character != null && character.getHealth() != health) {
             character.setHealth(health);
+            character.markDirty();
         }
     }
 
+    /**
+     * Adds experience to a loaded character and advances its level
+     * Only the in-memory character is changed; persistence is up to the caller
+     * @param playerId The player's UUID
+     * @param amount The experience to add
+     * @param table The experience table used to compute the level
+     * @return The number of levels gained (0 if none or if no character is loaded)
+     */
+    public int addExperience(UUID playerId, int amount, ExperienceTable table) {
+        Character character = loadedCharacters.get(playerId);
+        
+        if (character == null || amount <= 0) {
+            return 0;
+        }
+        
+        // Clamp instead of overflowing for characters at the XP cap
+        int experience = character.getExperience();
+        experience = experience > Integer.MAX_VALUE - amount ? Integer.MAX_VALUE : experience + amount;
+        character.setExperience(experience);
+        character.markDirty();
+        
+        int oldLevel = character.getLevel();
+        int newLevel = table.levelFor(table.classId(character.getCharacterClass()), oldLevel, experience);
+        if (newLevel > oldLevel) {
+            character.setLevel(newLevel);
+        }
+        
+        for (CharacterListener listener : listeners) {
+            listener.onProgressChanged(character);
+        }
+        return Math.max(0, newLevel - oldLevel);
+    }
+
     /**
      * Removes a character from memory (when player disconnects)
      * @param playerId The player's UUID
      */
     public void unloadCharacter(UUID playerId) {
-        loadedCharacters.remove(playerId);
+        Character loaded = loadedCharacters.get(playerId);
+        if (loaded != null) {
+            for (CharacterListener listener : listeners) {
+                listener.onCharacterUnloading(loaded);
+            }
+        }
+        
+        Character character = loadedCharacters.remove(playerId);
+        if (character != null) {
+            slots.free(character.getSlot());
+            if (character.getId() > 0) {
+                summaryCache.update(CharacterSummary.of(character));
+            }
+        }
         logger.at(Level.INFO).log("Unloaded character for player: " + playerId);
     }
 
@@ -191,6 +482,48 @@ public class CharacterManager {
         return loadedCharacters.get(playerId);
     }
 
+    /**
+     * Gets the slot of a loaded character
+     * @param playerId The player's UUID
+     * @return The slot, or -1 if no character is loaded
+     */
+    public int getSlot(UUID playerId) {
+        Character character = loadedCharacters.get(playerId);
+        return character != null ? character.getSlot() : -1;
+    }
+
+    /**
+     * Gets the inventory manager
+     * @return The inventory manager
+     */
+    public InventoryManager getInventoryManager() {
+        return inventoryManager;
+    }
+
+    /**
+     * Gets the character summary cache
+     * @return The summary cache
+     */
+    public CharacterSummaryCache getSummaryCache() {
+        return summaryCache;
+    }
+
+    /**
+     * Gets the save scheduler
+     * @return The save scheduler
+     */
+    public SaveScheduler getSaveScheduler() {
+        return saveScheduler;
+    }
+
+    /**
+     * Gets the slot table of loaded characters
+     * @return The character slots
+     */
+    public CharacterSlots getSlots() {
+        return slots;
+    }
+
     /**
      * Checks if a character is loaded for a player
      * @param playerId The player's UUID
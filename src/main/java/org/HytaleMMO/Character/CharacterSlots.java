@@ -0,0 +1,76 @@
+package org.HytaleMMO.Character;
+
+import org.HytaleMMO.Database.Tables.Character;
+
+import java.util.Arrays;
+
+/**
+ * Assigns every loaded character a small, dense slot number.
+ * Systems that process all online characters every tick keep their state in
+ * primitive arrays indexed by slot instead of maps keyed by UUID. Slots of
+ * unloaded characters are reused, so the arrays stay as small as the peak
+ * number of online players.
+ */
+public class CharacterSlots {
+    private volatile Character[] characters;
+    private int[] freeSlots;
+    private int freeCount;
+    private int highWater;
+
+    public CharacterSlots() {
+        this.characters = new Character[64];
+        this.freeSlots = new int[64];
+    }
+
+    /**
+     * Assigns a slot to a character
+     * @param character The character
+     * @return The slot number
+     */
+    public synchronized int allocate(Character character) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = highWater++;
+            if (slot >= characters.length) {
+                characters = Arrays.copyOf(characters, characters.length * 2);
+            }
+        }
+        characters[slot] = character;
+        return slot;
+    }
+
+    /**
+     * Releases a slot so it can be reused
+     * @param slot The slot number
+     */
+    public synchronized void free(int slot) {
+        if (slot < 0 || slot >= highWater || characters[slot] == null) {
+            return;
+        }
+        characters[slot] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeSlots.length * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Gets the character in a slot
+     * @param slot The slot number
+     * @return The character, or null if the slot is free
+     */
+    public Character get(int slot) {
+        Character[] current = characters;
+        return slot >= 0 && slot < current.length ? current[slot] : null;
+    }
+
+    /**
+     * Gets the number of slots ever used; every allocated slot is below this bound
+     * @return The slot upper bound
+     */
+    public synchronized int getHighWater() {
+        return highWater;
+    }
+}
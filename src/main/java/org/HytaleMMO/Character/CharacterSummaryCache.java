@@ -0,0 +1,114 @@
+package org.HytaleMMO.Character;
+
+import org.HytaleMMO.Database.Tables.CharacterSummary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Least-recently-used cache of character summaries per account
+ * Holds at most a fixed number of accounts; the oldest account is evicted first.
+ * Cached lists are immutable and ordered by most recently played.
+ */
+public class CharacterSummaryCache {
+    private static final Comparator<CharacterSummary> MOST_RECENT = Comparator
+            .comparingLong(CharacterSummary::getLastPlayed).reversed()
+            .thenComparingInt(CharacterSummary::getId);
+
+    private final Map<UUID, List<CharacterSummary>> accounts;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a new summary cache
+     * @param maxAccounts The maximum number of accounts to keep
+     */
+    public CharacterSummaryCache(int maxAccounts) {
+        this.accounts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, List<CharacterSummary>> eldest) {
+                return size() > maxAccounts;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached summaries of an account
+     * @param playerId The player's UUID
+     * @return The summaries, or null if the account is not cached
+     */
+    public synchronized List<CharacterSummary> get(UUID playerId) {
+        List<CharacterSummary> summaries = accounts.get(playerId);
+        if (summaries != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return summaries;
+    }
+
+    /**
+     * Caches the summaries of an account
+     * @param playerId The player's UUID
+     * @param summaries The summaries
+     * @return The cached, sorted and immutable list
+     */
+    public synchronized List<CharacterSummary> put(UUID playerId, List<CharacterSummary> summaries) {
+        List<CharacterSummary> sorted = new ArrayList<>(summaries);
+        sorted.sort(MOST_RECENT);
+        List<CharacterSummary> cached = Collections.unmodifiableList(sorted);
+        accounts.put(playerId, cached);
+        return cached;
+    }
+
+    /**
+     * Replaces or adds one summary in a cached account, e.g. after the character was played
+     * Does nothing if the account is not cached
+     * @param summary The new summary
+     * @return The updated list, or null if the account is not cached
+     */
+    public synchronized List<CharacterSummary> update(CharacterSummary summary) {
+        List<CharacterSummary> current = accounts.get(summary.getPlayerId());
+        if (current == null) {
+            return null;
+        }
+        List<CharacterSummary> updated = new ArrayList<>(current.size() + 1);
+        for (CharacterSummary existing : current) {
+            if (existing.getId() != summary.getId()) {
+                updated.add(existing);
+            }
+        }
+        updated.add(summary);
+        return put(summary.getPlayerId(), updated);
+    }
+
+    /**
+     * Drops the cached summaries of an account
+     * @param playerId The player's UUID
+     */
+    public synchronized void invalidate(UUID playerId) {
+        accounts.remove(playerId);
+    }
+
+    /**
+     * Gets the number of cached accounts
+     * @return The number of accounts
+     */
+    public synchronized int size() {
+        return accounts.size();
+    }
+
+    /**
+     * Gets the fraction of lookups served from the cache
+     * @return The hit rate between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : hits / (double) total;
+    }
+}
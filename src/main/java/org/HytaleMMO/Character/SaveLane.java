@@ -0,0 +1,37 @@
+package org.HytaleMMO.Character;
+
+/**
+ * Priority lanes for character saves, highest priority first
+ */
+public enum SaveLane {
+    /** Disconnect and death saves: a departing player's final state never waits */
+    CRITICAL(4096, 64),
+    /** Level and experience after a level-up */
+    LEVEL_UP(8192, 32),
+    /** Routine autosaves: delayed under pressure and shed when the lane is full */
+    PERIODIC(16384, 16);
+
+    private final int capacity;
+    private final int quota;
+
+    SaveLane(int capacity, int quota) {
+        this.capacity = capacity;
+        this.quota = quota;
+    }
+
+    /**
+     * Gets the maximum number of queued requests in this lane
+     * @return The lane capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the maximum number of requests written from this lane per writer cycle
+     * @return The lane's share of the writer
+     */
+    public int getQuota() {
+        return quota;
+    }
+}
@@ -0,0 +1,649 @@
+package org.HytaleMMO.Character;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Database.CharacterSpool;
+import org.HytaleMMO.Database.DatabaseHealthMonitor;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Database.Tables.CharacterRepository;
+import org.HytaleMMO.Database.Tables.InventoryRepository.InventoryData;
+import org.HytaleMMO.Inventory.CharacterInventory;
+import org.HytaleMMO.Inventory.InventoryCodec;
+import org.HytaleMMO.Inventory.InventoryManager;
+import org.HytaleMMO.Profiling.Profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+
+/**
+ * Writes character saves to the database from prioritised lanes.
+ * Every lane has its own bounded queue and a quota of writes per writer cycle.
+ * Disconnect and death saves are always drained first; routine autosaves are
+ * held back while critical saves are waiting and are shed when their lane is
+ * full, since the next autosave will queue them again. A character that is
+ * already queued in a lane is not queued twice, because the save writes the
+ * character's state at write time. Changed inventory slots are written
+ * together with every character save.
+ * 
+ * With a spool set, saves that fail because the database is down are
+ * appended to the spool instead of being lost, and every save after them is
+ * spooled too until the spool has been replayed, so the database receives
+ * the saves in order. Spooled records are forced to disk once per cycle.
+ *
+ * The writer thread, flushPlayer() and writeNow() can write at the same time.
+ * Each claims the characters of its batch while taking it from the lanes,
+ * under a short lock, and the database I/O runs outside that lock. A claimed
+ * character is not taken by another writer until its write has finished, so
+ * the saves of one character never overlap. Replaying the spool excludes
+ * every other write.
+ */
+public class SaveScheduler {
+    private static final SaveLane[] LANES = SaveLane.values();
+
+    private final CharacterRepository repository;
+    private final InventoryManager inventoryManager;
+    private final HytaleLogger logger;
+    private final List<BlockingQueue<SaveRequest>> queues;
+    private final List<Set<Character>> queued;
+    private final AtomicLongArray written;
+    private final AtomicLongArray shed;
+    private final AtomicLongArray totalLatencyNanos;
+    private final AtomicLongArray maxLatencyNanos;
+    private final AtomicLong spooled;
+    private final AtomicLong replayed;
+    private final Object signal = new Object();
+    private final Set<Character> busy;
+    private final ReentrantReadWriteLock spoolLock;
+    private volatile boolean running;
+    private Thread writerThread;
+    private CharacterSpool spool;
+    private DatabaseHealthMonitor health;
+    private volatile Profiler profiler;
+
+    public SaveScheduler(CharacterRepository repository, InventoryManager inventoryManager, HytaleLogger logger) {
+        this.repository = repository;
+        this.inventoryManager = inventoryManager;
+        this.logger = logger;
+        this.queues = new ArrayList<>(LANES.length);
+        this.queued = new ArrayList<>(LANES.length);
+        for (SaveLane lane : LANES) {
+            queues.add(new ArrayBlockingQueue<>(lane.getCapacity()));
+            queued.add(ConcurrentHashMap.newKeySet());
+        }
+        this.written = new AtomicLongArray(LANES.length);
+        this.shed = new AtomicLongArray(LANES.length);
+        this.totalLatencyNanos = new AtomicLongArray(LANES.length);
+        this.maxLatencyNanos = new AtomicLongArray(LANES.length);
+        this.spooled = new AtomicLong();
+        this.replayed = new AtomicLong();
+        this.busy = new HashSet<>();
+        this.spoolLock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Records the time the writer thread spends writing saves while the profiler is running
+     * @param profiler The profiler
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Keeps saves in a local spool while the database is unavailable
+     * Must be set before the writer is started
+     * @param spool The opened spool
+     * @param health The monitor that detects outages and reconnects
+     */
+    public void setSpool(CharacterSpool spool, DatabaseHealthMonitor health) {
+        this.spool = spool;
+        this.health = health;
+    }
+
+    /**
+     * Starts the writer thread
+     */
+    public void start() {
+        if (running) {
+            logger.at(Level.WARNING).log("Save scheduler is already running");
+            return;
+        }
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "CharacterSaveWriter");
+        writerThread.setDaemon(false); // non-daemon thread so queued saves are not cut off
+        writerThread.start();
+        logger.at(Level.INFO).log("Character save scheduler started");
+    }
+
+    /**
+     * Stops the writer thread and writes everything still queued on the caller thread
+     */
+    public void stop() {
+        if (!running) {
+            return;
+        }
+
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        try {
+            writerThread.join(10000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writerThread = null;
+
+        // Drain in priority order
+        while (writeCycle(false) > 0) {
+            // keep draining
+        }
+        logger.at(Level.INFO).log(getReport());
+    }
+
+    /**
+     * Queues a character save
+     * @param character The character to save
+     * @param lane The priority lane
+     * @return true if the save was queued or written, false if it was shed
+     */
+    public boolean submit(Character character, SaveLane lane) {
+        int index = lane.ordinal();
+        Set<Character> pending = queued.get(index);
+        if (!pending.add(character)) {
+            // Already queued; the queued save will write the latest state
+            return true;
+        }
+
+        if (!queues.get(index).offer(new SaveRequest(character, System.nanoTime()))) {
+            pending.remove(character);
+            if (lane == SaveLane.CRITICAL || !running) {
+                // Never drop a final save: write it on the caller's thread instead
+                List<SaveRequest> batch = List.of(new SaveRequest(character, System.nanoTime()));
+                claim(batch);
+                try {
+                    write(lane, batch);
+                } finally {
+                    release(batch);
+                }
+                syncSpool();
+                recordWritten(lane, batch);
+                return true;
+            }
+            shed.incrementAndGet(index);
+            return false;
+        }
+
+        if (!running) {
+            // No writer yet (or any more); write immediately
+            writeCycle(false);
+        } else {
+            synchronized (signal) {
+                signal.notifyAll();
+            }
+        }
+        return true;
+    }
+
+    private void runWriter() {
+        while (running) {
+            try {
+                // Replay as soon as the database is back, even if nothing else is being saved
+                if (spool != null && spool.hasPending() && health.isAvailable()) {
+                    replaySpool();
+                }
+                Profiler profiler = this.profiler;
+                int written = profiler != null ? profiler.time("SaveScheduler.writeCycle", () -> writeCycle(true)) : writeCycle(true);
+                if (written == 0) {
+                    synchronized (signal) {
+                        if (running && isIdle()) {
+                            signal.wait(100);
+                        }
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.at(Level.SEVERE).log("Error in character save writer: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Writes up to each lane's quota, highest priority first
+     * @param deferRoutine true to hold back periodic saves while critical saves are waiting
+     * @return The number of saves written
+     */
+    private int writeCycle(boolean deferRoutine) {
+        int count = 0;
+        for (SaveLane lane : LANES) {
+            if (deferRoutine && lane == SaveLane.PERIODIC && !queues.get(SaveLane.CRITICAL.ordinal()).isEmpty()) {
+                continue;
+            }
+
+            List<SaveRequest> batch = take(lane);
+            if (!batch.isEmpty()) {
+                try {
+                    write(lane, batch);
+                } finally {
+                    release(batch);
+                }
+                recordWritten(lane, batch);
+                count += batch.size();
+            }
+        }
+        // One fsync for everything spooled in this cycle
+        syncSpool();
+        return count;
+    }
+
+    /**
+     * Takes up to a lane's quota of saves and claims their characters
+     * Stops at a character that another writer has claimed; its save stays queued for the next cycle
+     */
+    private List<SaveRequest> take(SaveLane lane) {
+        List<SaveRequest> batch = new ArrayList<>(lane.getQuota());
+        BlockingQueue<SaveRequest> queue = queues.get(lane.ordinal());
+        Set<Character> pending = queued.get(lane.ordinal());
+        synchronized (busy) {
+            SaveRequest request;
+            while (batch.size() < lane.getQuota() && (request = queue.peek()) != null && !busy.contains(request.character)) {
+                queue.poll();
+                // Allow the character to be queued again while this save is in flight;
+                // changes made from here on mark it dirty for the next full save
+                pending.remove(request.character);
+                if (lane != SaveLane.LEVEL_UP) {
+                    request.character.clearDirty();
+                }
+                busy.add(request.character);
+                batch.add(request);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Takes every queued save of a player's characters from a lane and claims them
+     * First waits until no other writer holds one of the player's characters, so a
+     * save that was taken before this call has reached the database when it returns
+     */
+    private List<SaveRequest> takePlayer(SaveLane lane, UUID playerId) {
+        List<SaveRequest> batch = new ArrayList<>();
+        synchronized (busy) {
+            boolean interrupted = false;
+            while (holdsPlayer(playerId)) {
+                try {
+                    busy.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+
+            queues.get(lane.ordinal()).removeIf(request -> {
+                if (!playerId.equals(request.character.getPlayerId())) {
+                    return false;
+                }
+                batch.add(request);
+                return true;
+            });
+            Set<Character> pending = queued.get(lane.ordinal());
+            for (SaveRequest request : batch) {
+                pending.remove(request.character);
+                if (lane != SaveLane.LEVEL_UP) {
+                    request.character.clearDirty();
+                }
+                busy.add(request.character);
+            }
+        }
+        return batch;
+    }
+
+    private boolean holdsPlayer(UUID playerId) {
+        for (Character character : busy) {
+            if (playerId.equals(character.getPlayerId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits until no other writer holds any of the batch's characters, then claims them
+     */
+    private void claim(List<SaveRequest> batch) {
+        List<Character> characters = new ArrayList<>(batch.size());
+        for (SaveRequest request : batch) {
+            characters.add(request.character);
+        }
+        synchronized (busy) {
+            boolean interrupted = false;
+            while (!Collections.disjoint(busy, characters)) {
+                try {
+                    busy.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            busy.addAll(characters);
+        }
+    }
+
+    private void release(List<SaveRequest> batch) {
+        synchronized (busy) {
+            for (SaveRequest request : batch) {
+                busy.remove(request.character);
+            }
+            busy.notifyAll();
+        }
+    }
+
+    /**
+     * Writes every queued save of a player's characters on the caller's thread
+     * Called before a player's characters are read, so a quick rejoin never loads
+     * a row that is older than a save still waiting in a lane
+     * @param playerId The player's UUID
+     * @return true if every queued save was written to the database or the spool
+     */
+    public boolean flushPlayer(UUID playerId) {
+        boolean complete = true;
+        for (SaveLane lane : LANES) {
+            List<SaveRequest> batch = takePlayer(lane, playerId);
+            if (batch.isEmpty()) {
+                continue;
+            }
+
+            try {
+                complete &= write(lane, batch) == batch.size();
+            } finally {
+                release(batch);
+            }
+            recordWritten(lane, batch);
+        }
+        syncSpool();
+        return complete;
+    }
+
+    /**
+     * Writes a batch to the database, or to the spool while the database is unavailable
+     * @return The number of characters written to the database or the spool
+     */
+    private int write(SaveLane lane, List<SaveRequest> batch) {
+        List<Character> characters = new ArrayList<>(batch.size());
+        for (SaveRequest request : batch) {
+            characters.add(request.character);
+        }
+
+        if (spool != null && health.isAvailable()) {
+            replaySpool();
+        }
+        spoolLock.readLock().lock();
+        try {
+            // Saves must not overtake older spooled saves of the same characters
+            if (spool != null && (!health.isAvailable() || spool.hasPending())) {
+                return spool(characters);
+            }
+            return writeToDatabase(lane, characters);
+        } finally {
+            spoolLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes a batch to the database; caller holds the spool read lock
+     * @return The number of characters written to the database or the spool
+     */
+    private int writeToDatabase(SaveLane lane, List<Character> characters) {
+        List<Character> updates = new ArrayList<>(characters.size());
+        List<Character> failed = new ArrayList<>();
+        int unsaved = 0;
+        for (Character character : characters) {
+            if (character.getId() > 0 && lane != SaveLane.CRITICAL) {
+                updates.add(character);
+            } else if (character.getId() > 0) {
+                if (!repository.update(character)) {
+                    failed.add(character);
+                }
+            } else if (!repository.save(character)) {
+                // Without an ID the character cannot be spooled; the next save inserts it
+                logger.at(Level.WARNING).log("Failed to save new character: " + character.getCharacterName());
+                character.markDirty();
+                unsaved++;
+            }
+        }
+
+        if (!updates.isEmpty()) {
+            int saved = lane == SaveLane.LEVEL_UP
+                    ? repository.updateProgressBatch(updates)
+                    : repository.updateBatch(updates);
+            if (saved < updates.size()) {
+                logger.at(Level.WARNING).log("Saved " + saved + " of " + updates.size() + " character(s) from lane " + lane);
+                failed.addAll(updates);
+            }
+        }
+
+        int persisted = characters.size() - failed.size() - unsaved;
+        if (!failed.isEmpty()) {
+            if (spool != null && health.reportFailure()) {
+                persisted += spool(failed);
+            } else {
+                for (Character character : failed) {
+                    logger.at(Level.WARNING).log("Failed to save character: " + character.getCharacterName());
+                    character.markDirty();
+                }
+            }
+        }
+        if (spool == null || health.isAvailable()) {
+            inventoryManager.flush(characters);
+        }
+        return persisted;
+    }
+
+    /**
+     * Appends characters, with their inventories if changed, to the spool
+     * @return The number of characters spooled
+     */
+    private int spool(List<Character> characters) {
+        int count = 0;
+        for (Character character : characters) {
+            CharacterInventory inventory = character.getInventory();
+            byte[] inventoryData = inventory != null && inventory.isDirty()
+                    ? InventoryCodec.encode(inventory.getContents(), null) : null;
+            if (character.getId() > 0 && spool.append(character, inventoryData)) {
+                count++;
+            } else {
+                logger.at(Level.WARNING).log("Failed to spool character: " + character.getCharacterName());
+                character.markDirty();
+            }
+        }
+        spooled.addAndGet(count);
+        return count;
+    }
+
+    private void syncSpool() {
+        if (spool != null) {
+            spool.sync();
+        }
+    }
+
+    /**
+     * Writes the spooled saves to the database and empties the spool
+     * Runs before any other save or character load while the spool holds saves,
+     * so the database never receives an older save after a newer one
+     * @return true if the spool is empty, false if saves are still waiting for the database
+     */
+    public boolean replaySpool() {
+        if (spool == null || !spool.hasPending()) {
+            return true;
+        }
+        spoolLock.writeLock().lock();
+        try {
+            return replayPending();
+        } finally {
+            spoolLock.writeLock().unlock();
+        }
+    }
+
+    private boolean replayPending() {
+        if (!spool.hasPending()) {
+            return true;
+        }
+        if (!health.isAvailable()) {
+            return false;
+        }
+        List<CharacterSpool.SpooledSave> saves = spool.read();
+        if (saves == null) {
+            return false;
+        }
+
+        List<Character> rows = new ArrayList<>(saves.size());
+        List<InventoryData> inventories = new ArrayList<>();
+        Map<Integer, byte[]> questStates = new HashMap<>();
+        for (CharacterSpool.SpooledSave save : saves) {
+            rows.add(save.getCharacter());
+            if (save.getInventory() != null) {
+                inventories.add(new InventoryData(save.getCharacter().getId(), save.getInventory()));
+            }
+            if (save.getQuestState() != null) {
+                questStates.put(save.getCharacter().getId(), save.getQuestState());
+            }
+        }
+
+        int saved = rows.isEmpty() ? 0 : repository.updateBatch(rows);
+        if (saved < rows.size() && health.reportFailure()) {
+            return false;
+        }
+        if (!inventories.isEmpty() && !inventoryManager.restore(inventories) && health.reportFailure()) {
+            return false;
+        }
+        if (!questStates.isEmpty() && repository.updateQuestStates(questStates) < 0 && health.reportFailure()) {
+            return false;
+        }
+        if (saved < rows.size()) {
+            // The database answers, so the missing rows were deleted; their saves cannot be applied
+            logger.at(Level.WARNING).log((rows.size() - saved) + " spooled save(s) did not match a stored character");
+        }
+
+        if (!spool.clear()) {
+            return false;
+        }
+        replayed.addAndGet(saves.size());
+        logger.at(Level.INFO).log("Replayed " + saves.size() + " spooled character save(s) ("
+                + inventories.size() + " with inventory)");
+        return true;
+    }
+
+    /**
+     * Writes a character on the caller's thread, bypassing the lanes
+     * @param character The character to save
+     * @return true if the save reached the database or the spool
+     */
+    public boolean writeNow(Character character) {
+        List<SaveRequest> batch = List.of(new SaveRequest(character, System.nanoTime()));
+        claim(batch);
+        int persisted;
+        try {
+            persisted = write(SaveLane.CRITICAL, batch);
+        } finally {
+            release(batch);
+        }
+        syncSpool();
+        return persisted == 1;
+    }
+
+    private void recordWritten(SaveLane lane, List<SaveRequest> batch) {
+        long now = System.nanoTime();
+        int index = lane.ordinal();
+        for (SaveRequest request : batch) {
+            long latency = now - request.enqueuedAt;
+            totalLatencyNanos.addAndGet(index, latency);
+            maxLatencyNanos.accumulateAndGet(index, latency, Math::max);
+        }
+        written.addAndGet(index, batch.size());
+    }
+
+    private boolean isIdle() {
+        for (BlockingQueue<SaveRequest> queue : queues) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of saves waiting in a lane
+     * @param lane The lane
+     * @return The queue depth
+     */
+    public int getQueueDepth(SaveLane lane) {
+        return queues.get(lane.ordinal()).size();
+    }
+
+    /**
+     * Gets the average time from submit to completed write in a lane
+     * @param lane The lane
+     * @return The average latency in milliseconds
+     */
+    public double getAverageLatencyMs(SaveLane lane) {
+        long count = written.get(lane.ordinal());
+        return count == 0 ? 0.0 : totalLatencyNanos.get(lane.ordinal()) / (double) count / 1_000_000.0;
+    }
+
+    /**
+     * Gets the longest time from submit to completed write in a lane
+     * @param lane The lane
+     * @return The maximum latency in milliseconds
+     */
+    public double getMaxLatencyMs(SaveLane lane) {
+        return maxLatencyNanos.get(lane.ordinal()) / 1_000_000.0;
+    }
+
+    /**
+     * Builds a one-line report of depth, throughput, shedding and latency per lane
+     * @return The report
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder("Save lanes:");
+        for (SaveLane lane : LANES) {
+            int index = lane.ordinal();
+            report.append(String.format(" %s[queued=%d written=%d shed=%d avg=%.1fms max=%.1fms]",
+                    lane, getQueueDepth(lane), written.get(index), shed.get(index),
+                    getAverageLatencyMs(lane), getMaxLatencyMs(lane)));
+        }
+        if (spool != null) {
+            report.append(" spooled=").append(spooled.get()).append(" replayed=").append(replayed.get())
+                    .append(spool.hasPending() ? " (spool pending)" : "");
+        }
+        return report.toString();
+    }
+
+    private static final class SaveRequest {
+        private final Character character;
+        private final long enqueuedAt;
+
+        private SaveRequest(Character character, long enqueuedAt) {
+            this.character = character;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.HytaleMMO.Combat;
+
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Character.CharacterSlots;
+import org.HytaleMMO.Database.Tables.Character;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Sums damage per player and applies it once per tick.
+ * A hit only adds its delta to a primitive array indexed by character slot;
+ * tick() then writes the net change of every touched character in one pass
+ * and resolves deaths there, so health bookkeeping scales with the number of
+ * players hit rather than the number of hits.
+ */
+public class DamageAccumulator {
+    private final CharacterManager characterManager;
+    private final DeathHandler deathHandler;
+    private final Object lock = new Object();
+    private volatile StatusEffectEngine statusEffects;
+    private int[] pendingDelta;
+    private boolean[] touched;
+    private boolean[] dead;
+    private Character[] owners;
+    private long[] lastDamagedAt;
+    private int[] touchedSlots;
+    private int touchedCount;
+    private int[] applySlots;
+    private int[] applyDeltas;
+    private Character[] applyOwners;
+
+    /**
+     * Called when accumulated damage brings a character to zero health
+     */
+    public interface DeathHandler {
+        void onDeath(Character character);
+    }
+
+    /**
+     * Creates a new damage accumulator
+     * @param characterManager The character manager holding loaded characters
+     * @param deathHandler Called for every character that dies during a tick
+     */
+    public DamageAccumulator(CharacterManager characterManager, DeathHandler deathHandler) {
+        this.characterManager = characterManager;
+        this.deathHandler = deathHandler;
+        this.pendingDelta = new int[64];
+        this.touched = new boolean[64];
+        this.dead = new boolean[64];
+        this.owners = new Character[64];
+        this.lastDamagedAt = new long[64];
+        this.touchedSlots = new int[64];
+        this.applySlots = new int[64];
+        this.applyDeltas = new int[64];
+        this.applyOwners = new Character[64];
+    }
+
+    /**
+     * Uses effective maximum health (including buffs and debuffs) when applying health changes
+     * @param statusEffects The status effect engine
+     */
+    public void setStatusEffects(StatusEffectEngine statusEffects) {
+        this.statusEffects = statusEffects;
+    }
+
+    /**
+     * Records damage taken by a player
+     * @param playerId The player's UUID
+     * @param amount The damage amount
+     */
+    public void addDamage(UUID playerId, int amount) {
+        int slot = characterManager.getSlot(playerId);
+        if (slot < 0) {
+            return;
+        }
+
+        synchronized (lock) {
+            ensureSlot(slot);
+            if (dead[slot]) {
+                // The death handler restores health; from then on the player takes hits again,
+                // even if the game never reported the death and respawn
+                Character owner = owners[slot];
+                if (owner == null || owner.getHealth() <= 0) {
+                    return;
+                }
+                dead[slot] = false;
+            }
+            pendingDelta[slot] -= amount;
+            lastDamagedAt[slot] = System.currentTimeMillis();
+            if (!touched[slot]) {
+                touched[slot] = true;
+                touchedSlots[touchedCount++] = slot;
+            }
+        }
+    }
+
+    /**
+     * Applies the net health change of every player touched since the last tick
+     * @return The number of characters updated
+     */
+    public int tick() {
+        int count;
+        synchronized (lock) {
+            count = touchedCount;
+            if (count == 0) {
+                return 0;
+            }
+            if (applySlots.length < count) {
+                applySlots = new int[touchedSlots.length];
+                applyDeltas = new int[touchedSlots.length];
+                applyOwners = new Character[touchedSlots.length];
+            }
+            for (int i = 0; i < count; i++) {
+                int slot = touchedSlots[i];
+                applySlots[i] = slot;
+                applyDeltas[i] = pendingDelta[slot];
+                applyOwners[i] = owners[slot];
+                pendingDelta[slot] = 0;
+                touched[slot] = false;
+            }
+            touchedCount = 0;
+        }
+
+        // Apply outside the lock so hits keep accumulating for the next tick
+        CharacterSlots slots = characterManager.getSlots();
+        StatusEffectEngine effects = statusEffects;
+        for (int i = 0; i < count; i++) {
+            Character character = slots.get(applySlots[i]);
+            Character owner = applyOwners[i];
+            applyOwners[i] = null;
+            // The slot may have been handed to another character since the hits were recorded
+            if (character == null || character != owner || applyDeltas[i] == 0) {
+                continue;
+            }
+
+            int health = character.getHealth() + applyDeltas[i];
+            int maxHealth = effects != null ? effects.getMaxHealth(character) : character.getMaxHealth();
+            health = Math.max(0, Math.min(maxHealth, health));
+            character.setHealth(health);
+            character.markDirty();
+
+            if (health == 0 && markDead(applySlots[i])) {
+                deathHandler.onDeath(character);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Marks a player as dead, e.g. when the game reports a death
+     * @param playerId The player's UUID
+     * @return true if the player was alive, false if the death was already resolved
+     */
+    public boolean markDead(UUID playerId) {
+        return markDead(characterManager.getSlot(playerId));
+    }
+
+    /**
+     * Clears the dead flag and any pending damage when a player respawns
+     * @param playerId The player's UUID
+     */
+    public void revive(UUID playerId) {
+        int slot = characterManager.getSlot(playerId);
+        if (slot < 0) {
+            return;
+        }
+        synchronized (lock) {
+            ensureSlot(slot);
+            dead[slot] = false;
+            pendingDelta[slot] = 0;
+        }
+    }
+
+    /**
+     * Gets when a player last took damage
+     * @param slot The character slot
+     * @return The time in milliseconds, or 0 if never
+     */
+    public long getLastDamagedAt(int slot) {
+        synchronized (lock) {
+            return slot >= 0 && slot < lastDamagedAt.length ? lastDamagedAt[slot] : 0;
+        }
+    }
+
+    /**
+     * Copies the last damage time of the first slots into an array in one pass
+     * @param target The array to fill, indexed by slot
+     * @param count The number of slots to copy
+     */
+    public void copyLastDamagedAt(long[] target, int count) {
+        synchronized (lock) {
+            int copied = Math.min(count, lastDamagedAt.length);
+            System.arraycopy(lastDamagedAt, 0, target, 0, copied);
+            Arrays.fill(target, copied, count, 0L);
+        }
+    }
+
+    private boolean markDead(int slot) {
+        if (slot < 0) {
+            return true;
+        }
+        synchronized (lock) {
+            ensureSlot(slot);
+            if (dead[slot]) {
+                return false;
+            }
+            dead[slot] = true;
+            pendingDelta[slot] = 0;
+            return true;
+        }
+    }
+
+    /**
+     * Grows the arrays to cover a slot and resets the slot's state if it now
+     * belongs to a different character than the last time it was used
+     */
+    private void ensureSlot(int slot) {
+        if (slot >= pendingDelta.length) {
+            grow(slot);
+        }
+        Character owner = characterManager.getSlots().get(slot);
+        if (owners[slot] != owner) {
+            owners[slot] = owner;
+            dead[slot] = false;
+            pendingDelta[slot] = 0;
+            lastDamagedAt[slot] = 0;
+        }
+    }
+
+    private void grow(int slot) {
+        int capacity = Math.max(slot + 1, pendingDelta.length * 2);
+        pendingDelta = Arrays.copyOf(pendingDelta, capacity);
+        touched = Arrays.copyOf(touched, capacity);
+        dead = Arrays.copyOf(dead, capacity);
+        lastDamagedAt = Arrays.copyOf(lastDamagedAt, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        touchedSlots = Arrays.copyOf(touchedSlots, capacity);
+    }
+}
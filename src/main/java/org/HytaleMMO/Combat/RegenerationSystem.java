@@ -0,0 +1,265 @@
+package org.HytaleMMO.Combat;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Character.CharacterSlots;
+import org.HytaleMMO.Database.Tables.Character;
+
+import java.util.Arrays;
+import java.util.logging.Level;
+
+/**
+ * Regenerates health and mana of all loaded characters in one pass.
+ *
+ * A pass gathers current and maximum health and mana, the regeneration
+ * rates (base rate plus status effects) and the combat state of every slot
+ * into parallel primitive arrays, runs one branch-free loop over them, and
+ * writes back only the characters whose whole-point health or mana changed,
+ * marking just those dirty. Fractional regeneration is carried over between
+ * passes. Characters that took damage recently or are dead do not regenerate
+ * health.
+ *
+ * Runs from the event bridge tick, on the same thread that applies
+ * accumulated damage. Other threads also change health and mana (death and
+ * respawn handling on the bus consumer, commands), so the write-back is a
+ * compare-and-set against the value gathered for the pass: a value changed
+ * since the gather is kept, and that character regenerates in the next pass.
+ */
+public class RegenerationSystem {
+    private final CharacterManager characterManager;
+    private final DamageAccumulator damageAccumulator;
+    private final HytaleLogger logger;
+    private final float healthPerSecond;
+    private final float manaPerSecond;
+    private final long combatMs;
+    private final long intervalMs;
+    private volatile StatusEffectEngine statusEffects;
+    private long lastPassAt;
+
+    // Per-slot working arrays, reused between passes
+    private Character[] characters = new Character[0];
+    private int[] gatheredHealth = new int[0];
+    private int[] gatheredMana = new int[0];
+    private float[] health = new float[0];
+    private float[] mana = new float[0];
+    private float[] maxHealth = new float[0];
+    private float[] maxMana = new float[0];
+    private float[] healthRate = new float[0];
+    private float[] manaRate = new float[0];
+    private float[] healthCarry = new float[0];
+    private float[] manaCarry = new float[0];
+    private long[] lastDamagedAt = new long[0];
+
+    // Cost reporting
+    private long passes;
+    private long totalNanos;
+    private long maxNanos;
+    private long lastNanos;
+    private int lastProcessed;
+    private int lastChanged;
+
+    /**
+     * Creates a new regeneration system
+     * @param characterManager The character manager holding loaded characters
+     * @param damageAccumulator Source of the combat state (time of last damage per slot)
+     * @param logger The logger instance
+     * @param healthPerSecond Base health regenerated per second out of combat
+     * @param manaPerSecond Base mana regenerated per second
+     * @param combatMs Time after the last damage during which health does not regenerate
+     * @param intervalMs Minimum time between passes
+     */
+    public RegenerationSystem(CharacterManager characterManager, DamageAccumulator damageAccumulator, HytaleLogger logger,
+                              float healthPerSecond, float manaPerSecond, long combatMs, long intervalMs) {
+        this.characterManager = characterManager;
+        this.damageAccumulator = damageAccumulator;
+        this.logger = logger;
+        this.healthPerSecond = healthPerSecond;
+        this.manaPerSecond = manaPerSecond;
+        this.combatMs = combatMs;
+        this.intervalMs = intervalMs;
+    }
+
+    /**
+     * Adds status effect bonuses to maximum values and regeneration rates
+     * @param statusEffects The status effect engine
+     */
+    public void setStatusEffects(StatusEffectEngine statusEffects) {
+        this.statusEffects = statusEffects;
+    }
+
+    /**
+     * Runs a pass if the interval has elapsed since the last one
+     * @param now The current time in milliseconds
+     * @return The number of characters changed, or 0 if no pass ran
+     */
+    public synchronized int tick(long now) {
+        if (lastPassAt == 0) {
+            lastPassAt = now;
+            return 0;
+        }
+        if (now - lastPassAt < intervalMs) {
+            return 0;
+        }
+        float seconds = (now - lastPassAt) / 1000f;
+        lastPassAt = now;
+        return pass(now, seconds);
+    }
+
+    private int pass(long now, float seconds) {
+        long start = System.nanoTime();
+        CharacterSlots slots = characterManager.getSlots();
+        int count = slots.getHighWater();
+        ensureCapacity(count);
+        StatusEffectEngine effects = statusEffects;
+
+        // Gather
+        damageAccumulator.copyLastDamagedAt(lastDamagedAt, count);
+        int processed = 0;
+        for (int slot = 0; slot < count; slot++) {
+            Character character = slots.get(slot);
+            if (character != characters[slot]) {
+                // Slot was freed or reused: drop the previous owner's fractional regeneration
+                characters[slot] = character;
+                healthCarry[slot] = 0f;
+                manaCarry[slot] = 0f;
+            }
+            if (character == null) {
+                gatheredHealth[slot] = 0;
+                gatheredMana[slot] = 0;
+                health[slot] = 0f;
+                maxHealth[slot] = 0f;
+                healthRate[slot] = 0f;
+                mana[slot] = 0f;
+                maxMana[slot] = 0f;
+                manaRate[slot] = 0f;
+                continue;
+            }
+
+            processed++;
+            int currentHealth = character.getHealth();
+            int currentMana = character.getMana();
+            boolean inCombat = now - lastDamagedAt[slot] < combatMs;
+            gatheredHealth[slot] = currentHealth;
+            gatheredMana[slot] = currentMana;
+            health[slot] = currentHealth;
+            mana[slot] = currentMana;
+            if (effects != null) {
+                maxHealth[slot] = effects.getMaxHealth(character);
+                maxMana[slot] = effects.getMaxMana(character);
+                healthRate[slot] = effects.getEffective(slot, Stat.HEALTH_REGEN, healthPerSecond);
+                manaRate[slot] = effects.getEffective(slot, Stat.MANA_REGEN, manaPerSecond);
+            } else {
+                maxHealth[slot] = character.getMaxHealth();
+                maxMana[slot] = character.getMaxMana();
+                healthRate[slot] = healthPerSecond;
+                manaRate[slot] = manaPerSecond;
+            }
+            // Dead characters and characters in combat keep their health
+            if (inCombat || currentHealth <= 0) {
+                healthRate[slot] = 0f;
+            }
+        }
+
+        // Compute: straight-line loops over contiguous arrays, which the JIT can vectorize
+        regenerate(health, healthCarry, maxHealth, healthRate, seconds, count);
+        regenerate(mana, manaCarry, maxMana, manaRate, seconds, count);
+
+        // Scatter only whole-point changes, and only over values nobody changed since the gather
+        int changed = 0;
+        for (int slot = 0; slot < count; slot++) {
+            Character character = characters[slot];
+            if (character == null) {
+                continue;
+            }
+            int newHealth = (int) health[slot];
+            int newMana = (int) mana[slot];
+            boolean updated = false;
+            if (newHealth != gatheredHealth[slot]) {
+                if (character.compareAndSetHealth(gatheredHealth[slot], newHealth)) {
+                    updated = true;
+                } else {
+                    healthCarry[slot] = 0f;
+                }
+            }
+            if (newMana != gatheredMana[slot]) {
+                if (character.compareAndSetMana(gatheredMana[slot], newMana)) {
+                    updated = true;
+                } else {
+                    manaCarry[slot] = 0f;
+                }
+            }
+            if (updated) {
+                character.markDirty();
+                changed++;
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        passes++;
+        totalNanos += elapsed;
+        maxNanos = Math.max(maxNanos, elapsed);
+        lastNanos = elapsed;
+        lastProcessed = processed;
+        lastChanged = changed;
+        return changed;
+    }
+
+    /**
+     * value = min(max, value + carry + rate * seconds), keeping the fractional part in carry
+     * Values already above the maximum (e.g. after a buff ended) are left alone
+     */
+    private static void regenerate(float[] value, float[] carry, float[] max, float[] rate, float seconds, int count) {
+        for (int i = 0; i < count; i++) {
+            float current = value[i];
+            float next = Math.min(max[i], current + carry[i] + rate[i] * seconds);
+            next = Math.max(current, next);
+            float whole = (float) Math.floor(next);
+            carry[i] = next < max[i] ? next - whole : 0f;
+            value[i] = whole;
+        }
+    }
+
+    private void ensureCapacity(int count) {
+        if (count <= health.length) {
+            return;
+        }
+        int capacity = Math.max(count, health.length * 2);
+        characters = Arrays.copyOf(characters, capacity);
+        gatheredHealth = Arrays.copyOf(gatheredHealth, capacity);
+        gatheredMana = Arrays.copyOf(gatheredMana, capacity);
+        health = Arrays.copyOf(health, capacity);
+        mana = Arrays.copyOf(mana, capacity);
+        maxHealth = Arrays.copyOf(maxHealth, capacity);
+        maxMana = Arrays.copyOf(maxMana, capacity);
+        healthRate = Arrays.copyOf(healthRate, capacity);
+        manaRate = Arrays.copyOf(manaRate, capacity);
+        healthCarry = Arrays.copyOf(healthCarry, capacity);
+        manaCarry = Arrays.copyOf(manaCarry, capacity);
+        lastDamagedAt = Arrays.copyOf(lastDamagedAt, capacity);
+    }
+
+    /**
+     * Gets the duration of the most recent pass
+     * @return The time in nanoseconds
+     */
+    public synchronized long getLastPassNanos() {
+        return lastNanos;
+    }
+
+    /**
+     * Builds a one-line report of the pass cost
+     * @return The report
+     */
+    public synchronized String getReport() {
+        long average = passes == 0 ? 0 : totalNanos / passes;
+        return "Regeneration: " + passes + " pass(es), last " + lastNanos / 1000 + " us for " + lastProcessed +
+                " character(s) (" + lastChanged + " changed), avg " + average / 1000 + " us, max " + maxNanos / 1000 + " us";
+    }
+
+    /**
+     * Logs the pass cost report
+     */
+    public void logReport() {
+        logger.at(Level.INFO).log(getReport());
+    }
+}
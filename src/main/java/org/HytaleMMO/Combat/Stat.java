@@ -0,0 +1,14 @@
+package org.HytaleMMO.Combat;
+
+/**
+ * Character stats that status effects can modify
+ */
+public enum Stat {
+    MAX_HEALTH,
+    MAX_MANA,
+    HEALTH_REGEN,
+    MANA_REGEN,
+    ATTACK,
+    DEFENSE,
+    SPEED
+}
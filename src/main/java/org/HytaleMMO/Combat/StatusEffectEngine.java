@@ -0,0 +1,512 @@
+package org.HytaleMMO.Combat;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Character.CharacterListener;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Listeners.ServerTickScheduler;
+import org.HytaleMMO.Util.TimingWheel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Buffs, debuffs and cooldowns of loaded characters.
+ *
+ * Active effects are rows in primitive arrays (type, owner slot, stacks,
+ * expiry) and every character slot lists the rows it owns. The flat and
+ * percent bonus of all effects on a stat is kept as a running sum per slot,
+ * updated when an effect is applied, stacked or removed, so reading an
+ * effective stat is two array lookups. Expiry times live in a TimingWheel;
+ * the only per-tick work is advancing it, independent of how many effects
+ * are active. Cooldowns are one expiry timestamp per slot and cooldown.
+ */
+public class StatusEffectEngine implements CharacterListener {
+    private static final int STATS = Stat.values().length;
+    private static final int NONE = -1;
+
+    private final CharacterManager characterManager;
+    private final HytaleLogger logger;
+    private final TimingWheel wheel;
+    private final TimingWheel.ExpiryHandler onExpired = this::onExpired;
+    private final long tickMs;
+    private final List<StatusEffectType> types;
+    private final Map<String, StatusEffectType> typesByName;
+    private final Map<String, Integer> cooldownIds;
+    private ServerTickScheduler.RepeatingTask tickTask;
+
+    // Running stat bonuses per slot: index slot * STATS + stat
+    private float[] flat;
+    private float[] percent;
+
+    // Effects owned by each slot: indexes into the effect rows
+    private int[][] slotEffects;
+    private int[] slotEffectCount;
+
+    // Cooldown expiry per slot and cooldown ID (allocated on first use)
+    private long[][] cooldowns;
+
+    // Effect rows
+    private int[] effectType;
+    private int[] effectSlot;
+    private int[] effectStacks;
+    private long[] effectExpiresAt;
+    private long[] effectTimer;
+    private int[] freeEffects;
+    private int freeEffectCount;
+    private int effectHighWater;
+    private int activeCount;
+
+    /**
+     * Creates a new status effect engine
+     * @param characterManager The character manager holding loaded characters
+     * @param logger The logger instance
+     * @param tickMs Resolution of effect expiry in milliseconds
+     */
+    public StatusEffectEngine(CharacterManager characterManager, HytaleLogger logger, long tickMs) {
+        this.characterManager = characterManager;
+        this.logger = logger;
+        this.tickMs = tickMs;
+        this.wheel = new TimingWheel(tickMs, 4096);
+        this.types = new ArrayList<>();
+        this.typesByName = new HashMap<>();
+        this.cooldownIds = new HashMap<>();
+
+        int slots = 64;
+        this.flat = new float[slots * STATS];
+        this.percent = new float[slots * STATS];
+        this.slotEffects = new int[slots][];
+        this.slotEffectCount = new int[slots];
+        this.cooldowns = new long[slots][];
+
+        int rows = 4096;
+        this.effectType = new int[rows];
+        this.effectSlot = new int[rows];
+        this.effectStacks = new int[rows];
+        this.effectExpiresAt = new long[rows];
+        this.effectTimer = new long[rows];
+        this.freeEffects = new int[rows];
+    }
+
+    /**
+     * Expires effects on the server tick
+     * @param scheduler The server tick scheduler
+     */
+    public void start(ServerTickScheduler scheduler) {
+        if (tickTask != null) {
+            logger.at(Level.WARNING).log("Status effect tick is already running");
+            return;
+        }
+
+        tickTask = scheduler.schedule("status effects", this::tick, ServerTickScheduler.ticks(tickMs));
+
+        logger.at(Level.INFO).log("Status effect engine started (" + types.size() + " effect type(s))");
+    }
+
+    /**
+     * Stops expiring effects
+     */
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+    }
+
+    /**
+     * Registers an effect type
+     * @param name Unique effect name (e.g. "Poison")
+     * @param stat The stat the effect modifies
+     * @param flatPerStack Flat bonus per stack (negative for a penalty)
+     * @param percentPerStack Multiplier bonus per stack as a fraction (e.g. -0.2 for -20%)
+     * @param maxStacks Maximum number of stacks, at least 1
+     * @param debuff true if the effect is harmful
+     * @return The registered type
+     */
+    public synchronized StatusEffectType registerEffect(String name, Stat stat, float flatPerStack, float percentPerStack,
+                                                        int maxStacks, boolean debuff) {
+        if (typesByName.containsKey(name)) {
+            throw new IllegalArgumentException("Status effect already registered: " + name);
+        }
+        StatusEffectType type = new StatusEffectType(types.size(), name, stat, flatPerStack, percentPerStack, Math.max(1, maxStacks), debuff);
+        types.add(type);
+        typesByName.put(name, type);
+        return type;
+    }
+
+    /**
+     * Gets a registered effect type
+     * @param name The effect name
+     * @return The type, or null if not registered
+     */
+    public synchronized StatusEffectType getEffectType(String name) {
+        return typesByName.get(name);
+    }
+
+    /**
+     * Gets the ID of a named cooldown, assigning one on first use
+     * @param name The cooldown name (e.g. an ability name)
+     * @return The cooldown ID
+     */
+    public synchronized int cooldownId(String name) {
+        return cooldownIds.computeIfAbsent(name, key -> cooldownIds.size());
+    }
+
+    /**
+     * Applies an effect, or adds stacks and refreshes the duration if it is already active
+     * @param playerId The player's UUID
+     * @param type The effect type
+     * @param stacks The number of stacks to add
+     * @param durationMs The duration from now
+     * @return true if applied, false if the player has no loaded character
+     */
+    public boolean apply(UUID playerId, StatusEffectType type, int stacks, long durationMs) {
+        return apply(characterManager.getSlot(playerId), type, stacks, durationMs);
+    }
+
+    /**
+     * Applies an effect to a character slot
+     * @param slot The character slot
+     * @param type The effect type
+     * @param stacks The number of stacks to add
+     * @param durationMs The duration from now
+     * @return true if applied, false if the slot is invalid
+     */
+    public synchronized boolean apply(int slot, StatusEffectType type, int stacks, long durationMs) {
+        if (slot < 0 || stacks < 1) {
+            return false;
+        }
+        ensureSlot(slot);
+
+        long expiresAt = System.currentTimeMillis() + durationMs;
+        int row = find(slot, type.getId());
+        if (row == NONE) {
+            row = allocateRow();
+            effectType[row] = type.getId();
+            effectSlot[row] = slot;
+            effectStacks[row] = 0;
+            addToSlot(slot, row);
+            activeCount++;
+        } else {
+            wheel.cancel(effectTimer[row]);
+        }
+
+        int added = Math.min(type.getMaxStacks(), effectStacks[row] + stacks) - effectStacks[row];
+        effectStacks[row] += added;
+        adjust(slot, type, added);
+        effectExpiresAt[row] = expiresAt;
+        effectTimer[row] = wheel.scheduleAt(expiresAt, row);
+        return true;
+    }
+
+    /**
+     * Removes an effect
+     * @param playerId The player's UUID
+     * @param type The effect type
+     * @return true if the effect was active
+     */
+    public synchronized boolean remove(UUID playerId, StatusEffectType type) {
+        int slot = characterManager.getSlot(playerId);
+        if (slot < 0 || slot >= slotEffectCount.length) {
+            return false;
+        }
+        int row = find(slot, type.getId());
+        if (row == NONE) {
+            return false;
+        }
+        wheel.cancel(effectTimer[row]);
+        removeRow(row);
+        return true;
+    }
+
+    /**
+     * Removes every effect of a player, or only the debuffs
+     * @param playerId The player's UUID
+     * @param debuffsOnly true to keep buffs
+     * @return The number of effects removed
+     */
+    public synchronized int clear(UUID playerId, boolean debuffsOnly) {
+        return clear(characterManager.getSlot(playerId), debuffsOnly);
+    }
+
+    private int clear(int slot, boolean debuffsOnly) {
+        if (slot < 0 || slot >= slotEffectCount.length) {
+            return 0;
+        }
+        int removed = 0;
+        for (int i = slotEffectCount[slot] - 1; i >= 0; i--) {
+            int row = slotEffects[slot][i];
+            if (debuffsOnly && !types.get(effectType[row]).isDebuff()) {
+                continue;
+            }
+            wheel.cancel(effectTimer[row]);
+            removeRow(row);
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Gets a stat with all active effects applied: (base + flat bonuses) * (1 + percent bonuses)
+     * @param slot The character slot
+     * @param stat The stat
+     * @param base The unmodified value
+     * @return The effective value
+     */
+    public synchronized float getEffective(int slot, Stat stat, float base) {
+        if (slot < 0 || slot >= slotEffectCount.length) {
+            return base;
+        }
+        int index = slot * STATS + stat.ordinal();
+        return (base + flat[index]) * Math.max(0f, 1f + percent[index]);
+    }
+
+    /**
+     * Gets a stat of a player with all active effects applied
+     * @param playerId The player's UUID
+     * @param stat The stat
+     * @param base The unmodified value
+     * @return The effective value
+     */
+    public float getEffective(UUID playerId, Stat stat, float base) {
+        return getEffective(characterManager.getSlot(playerId), stat, base);
+    }
+
+    /**
+     * Gets a character's maximum health with active effects applied
+     * @param character The character
+     * @return The effective maximum health, at least 1
+     */
+    public int getMaxHealth(Character character) {
+        return Math.max(1, Math.round(getEffective(character.getSlot(), Stat.MAX_HEALTH, character.getMaxHealth())));
+    }
+
+    /**
+     * Gets a character's maximum mana with active effects applied
+     * @param character The character
+     * @return The effective maximum mana, at least 0
+     */
+    public int getMaxMana(Character character) {
+        return Math.max(0, Math.round(getEffective(character.getSlot(), Stat.MAX_MANA, character.getMaxMana())));
+    }
+
+    /**
+     * Gets the stacks of an effect on a player
+     * @param playerId The player's UUID
+     * @param type The effect type
+     * @return The stack count, or 0 if the effect is not active
+     */
+    public synchronized int getStacks(UUID playerId, StatusEffectType type) {
+        int slot = characterManager.getSlot(playerId);
+        if (slot < 0 || slot >= slotEffectCount.length) {
+            return 0;
+        }
+        int row = find(slot, type.getId());
+        return row == NONE ? 0 : effectStacks[row];
+    }
+
+    /**
+     * Checks if an effect is active on a player
+     * @param playerId The player's UUID
+     * @param type The effect type
+     * @return true if active
+     */
+    public boolean hasEffect(UUID playerId, StatusEffectType type) {
+        return getStacks(playerId, type) > 0;
+    }
+
+    /**
+     * Gets the remaining duration of an effect
+     * @param playerId The player's UUID
+     * @param type The effect type
+     * @return The remaining time in milliseconds, or 0 if the effect is not active
+     */
+    public synchronized long getRemainingMs(UUID playerId, StatusEffectType type) {
+        int slot = characterManager.getSlot(playerId);
+        if (slot < 0 || slot >= slotEffectCount.length) {
+            return 0;
+        }
+        int row = find(slot, type.getId());
+        return row == NONE ? 0 : Math.max(0, effectExpiresAt[row] - System.currentTimeMillis());
+    }
+
+    /**
+     * Gets the effects active on a player
+     * @param playerId The player's UUID
+     * @return The active effect types
+     */
+    public synchronized List<StatusEffectType> getActiveEffects(UUID playerId) {
+        int slot = characterManager.getSlot(playerId);
+        List<StatusEffectType> active = new ArrayList<>();
+        if (slot < 0 || slot >= slotEffectCount.length) {
+            return active;
+        }
+        for (int i = 0; i < slotEffectCount[slot]; i++) {
+            active.add(types.get(effectType[slotEffects[slot][i]]));
+        }
+        return active;
+    }
+
+    /**
+     * Starts a cooldown if it is not already running
+     * @param playerId The player's UUID
+     * @param cooldownId The cooldown ID from cooldownId()
+     * @param durationMs The cooldown duration
+     * @return true if the cooldown was ready and has now started, false if still cooling down
+     */
+    public synchronized boolean tryStartCooldown(UUID playerId, int cooldownId, long durationMs) {
+        int slot = characterManager.getSlot(playerId);
+        if (slot < 0) {
+            return false;
+        }
+        ensureSlot(slot);
+        long[] slotCooldowns = cooldownsOf(slot, cooldownId);
+        long now = System.currentTimeMillis();
+        if (slotCooldowns[cooldownId] > now) {
+            return false;
+        }
+        slotCooldowns[cooldownId] = now + durationMs;
+        return true;
+    }
+
+    /**
+     * Gets the remaining time of a cooldown
+     * @param playerId The player's UUID
+     * @param cooldownId The cooldown ID from cooldownId()
+     * @return The remaining time in milliseconds, or 0 if ready
+     */
+    public synchronized long getCooldownRemaining(UUID playerId, int cooldownId) {
+        int slot = characterManager.getSlot(playerId);
+        if (slot < 0 || slot >= cooldowns.length || cooldowns[slot] == null || cooldownId >= cooldowns[slot].length) {
+            return 0;
+        }
+        return Math.max(0, cooldowns[slot][cooldownId] - System.currentTimeMillis());
+    }
+
+    /**
+     * Gets the number of active effects across all players
+     * @return The effect count
+     */
+    public synchronized int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * Removes expired effects
+     * @return The number of effects that expired
+     */
+    public synchronized int tick() {
+        return wheel.advance(System.currentTimeMillis(), onExpired);
+    }
+
+    private void onExpired(long payload) {
+        removeRow((int) payload);
+    }
+
+    @Override
+    public synchronized void onCharacterUnloading(Character character) {
+        int slot = character.getSlot();
+        clear(slot, false);
+        if (slot >= 0 && slot < cooldowns.length) {
+            cooldowns[slot] = null;
+        }
+    }
+
+    private int find(int slot, int typeId) {
+        int[] rows = slotEffects[slot];
+        for (int i = 0; i < slotEffectCount[slot]; i++) {
+            if (effectType[rows[i]] == typeId) {
+                return rows[i];
+            }
+        }
+        return NONE;
+    }
+
+    private void adjust(int slot, StatusEffectType type, int stacks) {
+        int index = slot * STATS + type.getStat().ordinal();
+        flat[index] += type.getFlatPerStack() * stacks;
+        percent[index] += type.getPercentPerStack() * stacks;
+    }
+
+    private void removeRow(int row) {
+        int slot = effectSlot[row];
+        adjust(slot, types.get(effectType[row]), -effectStacks[row]);
+
+        // Swap-remove from the slot's list
+        int[] rows = slotEffects[slot];
+        int count = slotEffectCount[slot];
+        for (int i = 0; i < count; i++) {
+            if (rows[i] == row) {
+                rows[i] = rows[count - 1];
+                slotEffectCount[slot] = count - 1;
+                break;
+            }
+        }
+
+        // Rounding drift is cleared when the last effect of a slot ends
+        if (slotEffectCount[slot] == 0) {
+            Arrays.fill(flat, slot * STATS, slot * STATS + STATS, 0f);
+            Arrays.fill(percent, slot * STATS, slot * STATS + STATS, 0f);
+        }
+
+        effectStacks[row] = 0;
+        freeEffects[freeEffectCount++] = row;
+        activeCount--;
+    }
+
+    private void addToSlot(int slot, int row) {
+        int[] rows = slotEffects[slot];
+        if (rows == null) {
+            rows = new int[8];
+            slotEffects[slot] = rows;
+        } else if (slotEffectCount[slot] == rows.length) {
+            rows = Arrays.copyOf(rows, rows.length * 2);
+            slotEffects[slot] = rows;
+        }
+        rows[slotEffectCount[slot]++] = row;
+    }
+
+    private int allocateRow() {
+        if (freeEffectCount > 0) {
+            return freeEffects[--freeEffectCount];
+        }
+        if (effectHighWater == effectType.length) {
+            int capacity = effectType.length * 2;
+            effectType = Arrays.copyOf(effectType, capacity);
+            effectSlot = Arrays.copyOf(effectSlot, capacity);
+            effectStacks = Arrays.copyOf(effectStacks, capacity);
+            effectExpiresAt = Arrays.copyOf(effectExpiresAt, capacity);
+            effectTimer = Arrays.copyOf(effectTimer, capacity);
+            freeEffects = Arrays.copyOf(freeEffects, capacity);
+        }
+        return effectHighWater++;
+    }
+
+    private long[] cooldownsOf(int slot, int cooldownId) {
+        long[] slotCooldowns = cooldowns[slot];
+        if (slotCooldowns == null || cooldownId >= slotCooldowns.length) {
+            slotCooldowns = slotCooldowns == null
+                    ? new long[Math.max(8, cooldownId + 1)]
+                    : Arrays.copyOf(slotCooldowns, Math.max(slotCooldowns.length * 2, cooldownId + 1));
+            cooldowns[slot] = slotCooldowns;
+        }
+        return slotCooldowns;
+    }
+
+    private void ensureSlot(int slot) {
+        if (slot < slotEffectCount.length) {
+            return;
+        }
+        int capacity = Math.max(slot + 1, slotEffectCount.length * 2);
+        flat = Arrays.copyOf(flat, capacity * STATS);
+        percent = Arrays.copyOf(percent, capacity * STATS);
+        slotEffects = Arrays.copyOf(slotEffects, capacity);
+        slotEffectCount = Arrays.copyOf(slotEffectCount, capacity);
+        cooldowns = Arrays.copyOf(cooldowns, capacity);
+    }
+}
@@ -0,0 +1,62 @@
+package org.HytaleMMO.Combat;
+
+/**
+ * Definition of a buff or debuff, registered once with the StatusEffectEngine
+ * Each stack adds the flat bonus to the stat and the percent bonus to its multiplier
+ */
+public final class StatusEffectType {
+    private final int id;
+    private final String name;
+    private final Stat stat;
+    private final float flatPerStack;
+    private final float percentPerStack;
+    private final int maxStacks;
+    private final boolean debuff;
+
+    StatusEffectType(int id, String name, Stat stat, float flatPerStack, float percentPerStack, int maxStacks, boolean debuff) {
+        this.id = id;
+        this.name = name;
+        this.stat = stat;
+        this.flatPerStack = flatPerStack;
+        this.percentPerStack = percentPerStack;
+        this.maxStacks = maxStacks;
+        this.debuff = debuff;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Stat getStat() {
+        return stat;
+    }
+
+    public float getFlatPerStack() {
+        return flatPerStack;
+    }
+
+    /**
+     * Gets the multiplier bonus per stack, e.g. 0.1 for +10%
+     * @return The percent bonus as a fraction
+     */
+    public float getPercentPerStack() {
+        return percentPerStack;
+    }
+
+    public int getMaxStacks() {
+        return maxStacks;
+    }
+
+    public boolean isDebuff() {
+        return debuff;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,108 @@
+package org.HytaleMMO.Commands;
+
+import com.hypixel.hytale.server.api.command.Command;
+import com.hypixel.hytale.server.api.command.CommandContext;
+import com.hypixel.hytale.server.api.command.CommandSender;
+import com.hypixel.hytale.server.api.entity.Player;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Database.Tables.CharacterSummary;
+import org.HytaleMMO.Listeners.PlayerEventListener;
+import org.HytaleMMO.Startup.ReadinessGate;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Command to list, create and switch between the characters of an account
+ * The list is served from character summaries; only the selected character is fully loaded
+ * Selecting and creating wait until startup has finished, like joins do, and
+ * run on the persistence consumer, which also handles joins and disconnects
+ */
+public class CharacterSelect extends Command {
+    private static final String NAME_PATTERN = "[A-Za-z0-9_]{3,16}";
+
+    private final CharacterManager characterManager;
+    private final ReadinessGate readinessGate;
+    private final PlayerEventListener eventListener;
+
+    public CharacterSelect(CharacterManager characterManager, ReadinessGate readinessGate, PlayerEventListener eventListener) {
+        super("character");
+        this.characterManager = characterManager;
+        this.readinessGate = readinessGate;
+        this.eventListener = eventListener;
+        this.setDescription("Lists, creates and selects your characters");
+        this.setUsage("/character <list|select <name>|create <name>>");
+    }
+
+    @Override
+    public void execute(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
+        // Check if the sender is a player
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("This command can only be used by players!");
+            return;
+        }
+
+        Player player = (Player) sender;
+        String[] args = context.getArgs();
+        String action = args.length > 0 ? args[0].toLowerCase() : "list";
+
+        // Characters are only loaded or created once the caches their listeners update are loaded
+        if (!action.equals("list") && !readinessGate.isOpen()) {
+            player.sendMessage("The server is still starting up. Please try again in a moment.");
+            return;
+        }
+
+        switch (action) {
+            case "list":
+                list(player);
+                break;
+            case "select":
+                if (args.length < 2) {
+                    player.sendMessage("Usage: " + this.getUsage());
+                    return;
+                }
+                eventListener.selectCharacter(player.getUniqueId(), args[1], player);
+                break;
+            case "create":
+                if (args.length < 2) {
+                    player.sendMessage("Usage: " + this.getUsage());
+                    return;
+                }
+                create(player, args[1]);
+                break;
+            default:
+                player.sendMessage("Usage: " + this.getUsage());
+                break;
+        }
+    }
+
+    private void list(Player player) {
+        List<CharacterSummary> summaries = characterManager.getCharacterSummaries(player.getUniqueId());
+        if (summaries == null) {
+            player.sendMessage("Failed to read your characters. Please try again later.");
+            return;
+        }
+        if (summaries.isEmpty()) {
+            player.sendMessage("You have no characters yet.");
+            return;
+        }
+
+        Character current = characterManager.getCharacter(player.getUniqueId());
+        player.sendMessage("Your characters (" + summaries.size() + "/" + CharacterManager.MAX_CHARACTERS + "):");
+        for (CharacterSummary summary : summaries) {
+            boolean active = current != null && current.getId() == summary.getId();
+            player.sendMessage((active ? "* " : "- ") + summary.getCharacterName()
+                    + " | Level " + summary.getLevel() + " " + summary.getCharacterClass());
+        }
+    }
+
+    private void create(Player player, String characterName) {
+        if (!characterName.matches(NAME_PATTERN)) {
+            player.sendMessage("Character names must be 3-16 letters, digits or underscores.");
+            return;
+        }
+
+        eventListener.createCharacter(player.getUniqueId(), characterName, player);
+    }
+}
@@ -0,0 +1,190 @@
+package org.HytaleMMO.Commands;
+
+import com.hypixel.hytale.server.api.command.Command;
+import com.hypixel.hytale.server.api.command.CommandContext;
+import com.hypixel.hytale.server.api.command.CommandSender;
+import com.hypixel.hytale.server.api.entity.Player;
+import net.kyori.adventure.text.Component;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Guild.GuildManager;
+import org.HytaleMMO.Guild.GuildMember;
+import org.HytaleMMO.Listeners.OnlinePlayers;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command to create, join, manage and talk to a guild
+ * All lookups are served from the in-memory guild state
+ */
+public class GuildCommand extends Command {
+    private static final String NAME_PATTERN = "[A-Za-z0-9 ]{3,32}";
+    private static final int ROSTER_PAGE_SIZE = 20;
+
+    private final GuildManager guildManager;
+    private final CharacterManager characterManager;
+    private final OnlinePlayers onlinePlayers;
+
+    public GuildCommand(GuildManager guildManager, CharacterManager characterManager, OnlinePlayers onlinePlayers) {
+        super("guild");
+        this.guildManager = guildManager;
+        this.characterManager = characterManager;
+        this.onlinePlayers = onlinePlayers;
+        this.setDescription("Creates and manages guilds");
+        this.setUsage("/guild <create <name>|invite <player>|accept|leave|kick <name>|promote <name>|demote <name>|roster [page]|chat <message>|disband>");
+    }
+
+    @Override
+    public void execute(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
+        // Check if the sender is a player
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("This command can only be used by players!");
+            return;
+        }
+
+        Player player = (Player) sender;
+        Character character = characterManager.getCharacter(player.getUniqueId());
+        if (character == null) {
+            player.sendMessage("Your character is not loaded yet.");
+            return;
+        }
+
+        String[] args = context.getArgs();
+        String action = args.length > 0 ? args[0].toLowerCase(Locale.ROOT) : "roster";
+        String argument = args.length > 1 ? String.join(" ", Arrays.copyOfRange(args, 1, args.length)) : null;
+
+        switch (action) {
+            case "create":
+                if (argument == null || !argument.matches(NAME_PATTERN)) {
+                    player.sendMessage("Guild names must be 3-32 letters, digits or spaces.");
+                    return;
+                }
+                report(player, guildManager.create(character, argument), "Guild " + argument + " created.");
+                break;
+            case "invite":
+                invite(player, character, argument);
+                break;
+            case "accept":
+                report(player, guildManager.accept(character), null);
+                break;
+            case "leave":
+                report(player, guildManager.leave(character), "You left the guild.");
+                break;
+            case "kick":
+                if (argument == null) {
+                    player.sendMessage("Usage: " + this.getUsage());
+                    return;
+                }
+                report(player, guildManager.kick(character, argument), null);
+                break;
+            case "promote":
+            case "demote":
+                if (argument == null) {
+                    player.sendMessage("Usage: " + this.getUsage());
+                    return;
+                }
+                report(player, guildManager.changeRank(character, argument, action.equals("promote")), null);
+                break;
+            case "roster":
+                roster(player, character, argument);
+                break;
+            case "chat":
+            case "c":
+                if (argument == null) {
+                    player.sendMessage("Usage: " + this.getUsage());
+                    return;
+                }
+                report(player, guildManager.chat(character, argument), null);
+                break;
+            case "disband":
+                report(player, guildManager.disband(character), null);
+                break;
+            default:
+                player.sendMessage("Usage: " + this.getUsage());
+                break;
+        }
+    }
+
+    private void invite(Player player, Character character, String targetName) {
+        if (targetName == null) {
+            player.sendMessage("Usage: " + this.getUsage());
+            return;
+        }
+        com.hypixel.hytale.world.entity.player.Player targetPlayer = onlinePlayers.getByName(targetName);
+        Character target = targetPlayer != null ? characterManager.getCharacter(targetPlayer.getUniqueId()) : null;
+        if (target == null) {
+            player.sendMessage(targetName + " is not online.");
+            return;
+        }
+
+        GuildManager.Result result = guildManager.invite(character, target);
+        if (result == GuildManager.Result.SUCCESS) {
+            String guildName = guildManager.getGuildName(guildManager.getGuildId(character.getId()));
+            targetPlayer.sendMessage(Component.text(character.getCharacterName()
+                    + " invited you to the guild " + guildName + ". Type /guild accept to join."));
+        }
+        report(player, result, "Invited " + target.getCharacterName() + ".");
+    }
+
+    private void roster(Player player, Character character, String pageArgument) {
+        int guildId = guildManager.getGuildId(character.getId());
+        if (guildId < 0) {
+            player.sendMessage("You are not in a guild.");
+            return;
+        }
+
+        int page;
+        try {
+            page = pageArgument != null ? Math.max(1, Integer.parseInt(pageArgument)) : 1;
+        } catch (NumberFormatException e) {
+            player.sendMessage("Usage: /guild roster [page]");
+            return;
+        }
+
+        List<GuildMember> roster = guildManager.getRoster(guildId);
+        int pages = Math.max(1, (roster.size() + ROSTER_PAGE_SIZE - 1) / ROSTER_PAGE_SIZE);
+        page = Math.min(page, pages);
+        player.sendMessage(guildManager.getGuildName(guildId) + " - " + roster.size() + " member(s), "
+                + guildManager.getOnlineCount(guildId) + " online (page " + page + "/" + pages + ")");
+        int end = Math.min(roster.size(), page * ROSTER_PAGE_SIZE);
+        for (int i = (page - 1) * ROSTER_PAGE_SIZE; i < end; i++) {
+            GuildMember member = roster.get(i);
+            boolean online = guildManager.isOnline(guildId, member.getCharacterId());
+            player.sendMessage((online ? "* " : "- ") + member.getCharacterName() + " (" + member.getRank() + ")");
+        }
+    }
+
+    private void report(Player player, GuildManager.Result result, String successMessage) {
+        switch (result) {
+            case SUCCESS:
+                if (successMessage != null) {
+                    player.sendMessage(successMessage);
+                }
+                break;
+            case NO_GUILD:
+                player.sendMessage("You are not in a guild.");
+                break;
+            case ALREADY_IN_GUILD:
+                player.sendMessage("That character is already in a guild.");
+                break;
+            case NAME_TAKEN:
+                player.sendMessage("That guild name is already taken.");
+                break;
+            case NOT_PERMITTED:
+                player.sendMessage("Your guild rank does not allow that.");
+                break;
+            case NOT_FOUND:
+                player.sendMessage("No such guild member.");
+                break;
+            case NO_INVITE:
+                player.sendMessage("You have no pending guild invite.");
+                break;
+            default:
+                player.sendMessage("Something went wrong. Please check server logs for details.");
+                break;
+        }
+    }
+}
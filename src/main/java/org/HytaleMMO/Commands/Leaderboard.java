@@ -0,0 +1,60 @@
+package org.HytaleMMO.Commands;
+
+import com.hypixel.hytale.server.api.command.Command;
+import com.hypixel.hytale.server.api.command.CommandContext;
+import com.hypixel.hytale.server.api.command.CommandSender;
+import com.hypixel.hytale.server.api.entity.Player;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Leaderboard.LeaderboardEntry;
+import org.HytaleMMO.Leaderboard.LeaderboardService;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Command to show the top characters, globally or within a class, and the caller's rank
+ * Served from the in-memory leaderboards; never queries the database
+ */
+public class Leaderboard extends Command {
+    private static final int TOP_COUNT = 10;
+
+    private final LeaderboardService leaderboards;
+    private final CharacterManager characterManager;
+
+    public Leaderboard(LeaderboardService leaderboards, CharacterManager characterManager) {
+        super("leaderboard");
+        this.leaderboards = leaderboards;
+        this.characterManager = characterManager;
+        this.setDescription("Shows the highest level characters");
+        this.setUsage("/leaderboard [class]");
+    }
+
+    @Override
+    public void execute(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
+        String[] args = context.getArgs();
+        String characterClass = args.length > 0 ? args[0] : null;
+        String title = characterClass != null ? characterClass : "All classes";
+
+        List<LeaderboardEntry> top = leaderboards.getTop(TOP_COUNT, characterClass);
+        if (top.isEmpty()) {
+            sender.sendMessage("No ranked characters for " + title + ".");
+            return;
+        }
+
+        sender.sendMessage("Leaderboard - " + title + " (" + leaderboards.size(characterClass) + " ranked)");
+        int rank = 1;
+        for (LeaderboardEntry entry : top) {
+            sender.sendMessage(rank++ + ". " + entry.getCharacterName() + " - level " + entry.getLevel()
+                    + " (" + entry.getExperience() + " XP)");
+        }
+
+        if (sender instanceof Player) {
+            Character character = characterManager.getCharacter(((Player) sender).getUniqueId());
+            int ownRank = character != null ? leaderboards.getRank(character.getId(), characterClass) : 0;
+            if (ownRank > 0) {
+                sender.sendMessage("Your rank: " + ownRank);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.HytaleMMO.Commands;
+
+import com.hypixel.hytale.server.api.command.Command;
+import com.hypixel.hytale.server.api.command.CommandContext;
+import com.hypixel.hytale.server.api.command.CommandSender;
+import com.hypixel.hytale.server.api.entity.Player;
+import org.HytaleMMO.Loot.LootRegistry;
+import org.HytaleMMO.Loot.LootSink;
+import org.HytaleMMO.Loot.LootTable;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Command to benchmark a loot table: rolls it many times, reports the
+ * rolls per second and the average drops per roll
+ * The rolls run on a background thread, one benchmark at a time
+ * Only admins (OP) can use this command
+ */
+public class LootRoll extends Command {
+    private static final int DEFAULT_ROLLS = 100_000;
+    private static final int MAX_ROLLS = 1_000_000;
+    private static final int DISTRIBUTION_ROLLS = 10_000;
+
+    private final LootRegistry registry;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public LootRoll(LootRegistry registry) {
+        super("lootroll");
+        this.registry = registry;
+        this.setDescription("Benchmarks a loot table");
+        this.setUsage("/lootroll <table> [rolls] [level]");
+        this.setPermission("hytale.mmo.loot.roll");
+    }
+
+    @Override
+    public void execute(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
+        // Players need permission; the console may always roll
+        if (sender instanceof Player && !((Player) sender).hasPermission(this.getPermission())) {
+            sender.sendMessage("You don't have permission to use this command!");
+            return;
+        }
+
+        String[] args = context.getArgs();
+        if (args.length < 1) {
+            sender.sendMessage("Usage: " + this.getUsage());
+            return;
+        }
+        LootTable table = registry.getTable(args[0]);
+        if (table == null) {
+            sender.sendMessage("No loot table named " + args[0] + ".");
+            return;
+        }
+
+        int rolls;
+        int level;
+        try {
+            rolls = args.length > 1 ? Math.max(1, Math.min(MAX_ROLLS, Integer.parseInt(args[1]))) : DEFAULT_ROLLS;
+            level = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        } catch (NumberFormatException e) {
+            sender.sendMessage("Usage: " + this.getUsage());
+            return;
+        }
+
+        if (!running.compareAndSet(false, true)) {
+            sender.sendMessage("A loot table benchmark is already running.");
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                benchmark(sender, table, rolls, level);
+            } catch (Exception e) {
+                sender.sendMessage("Benchmark of " + table.getId() + " failed: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                running.set(false);
+            }
+        }, "LootRoll");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void benchmark(CommandSender sender, LootTable table, int rolls, int level) {
+        // Timed pass: the sink only counts, so the numbers are the cost of rolling itself
+        CountingSink counter = new CountingSink();
+        long start = System.nanoTime();
+        for (int i = 0; i < rolls; i++) {
+            table.roll(level, counter);
+        }
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+
+        sender.sendMessage(table.getId() + ": " + rolls + " roll(s) in " + (elapsedNanos / 1_000_000) + " ms ("
+                + (long) (rolls * 1e9 / elapsedNanos) + " rolls/s), " + String.format("%.3f", (double) counter.stacks / rolls)
+                + " stack(s) and " + String.format("%.3f", (double) counter.quantity / rolls) + " item(s) per roll");
+
+        // Distribution pass over fewer rolls
+        Map<String, long[]> items = new TreeMap<>();
+        int sample = Math.min(rolls, DISTRIBUTION_ROLLS);
+        for (int i = 0; i < sample; i++) {
+            table.roll(level, (itemId, quantity) -> items.computeIfAbsent(itemId, id -> new long[1])[0] += quantity);
+        }
+        for (Map.Entry<String, long[]> item : items.entrySet()) {
+            sender.sendMessage("- " + item.getKey() + ": " + String.format("%.4f", (double) item.getValue()[0] / sample) + " per roll");
+        }
+    }
+
+    private static final class CountingSink implements LootSink {
+        private long stacks;
+        private long quantity;
+
+        @Override
+        public void drop(String itemId, int quantity) {
+            this.stacks++;
+            this.quantity += quantity;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.HytaleMMO.Commands;
+
+import com.hypixel.hytale.server.api.command.Command;
+import com.hypixel.hytale.server.api.command.CommandContext;
+import com.hypixel.hytale.server.api.command.CommandSender;
+import com.hypixel.hytale.server.api.entity.Player;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Market.Listing;
+import org.HytaleMMO.Market.MarketService;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command to search, sell on and buy from the player market
+ * Served from the in-memory order book
+ */
+public class MarketCommand extends Command {
+    private static final int PAGE_SIZE = 10;
+    private static final int DEFAULT_HOURS = 24;
+    private static final int MAX_HOURS = 72;
+
+    private final MarketService market;
+    private final CharacterManager characterManager;
+
+    public MarketCommand(MarketService market, CharacterManager characterManager) {
+        super("market");
+        this.market = market;
+        this.characterManager = characterManager;
+        this.setDescription("Buys and sells items on the player market");
+        this.setUsage("/market <search <item> [page]|sell <item> <quantity> <price> [hours]|buy <item> <quantity> <max price>|listings|cancel <id>|collect>");
+    }
+
+    @Override
+    public void execute(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
+        // Check if the sender is a player
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("This command can only be used by players!");
+            return;
+        }
+
+        Player player = (Player) sender;
+        Character character = characterManager.getCharacter(player.getUniqueId());
+        if (character == null) {
+            player.sendMessage("Your character is not loaded yet.");
+            return;
+        }
+        if (!market.isLoaded()) {
+            player.sendMessage("The market is not available right now.");
+            return;
+        }
+
+        String[] args = context.getArgs();
+        String action = args.length > 0 ? args[0].toLowerCase(Locale.ROOT) : "";
+        try {
+            switch (action) {
+                case "search":
+                    if (args.length < 2) {
+                        break;
+                    }
+                    search(player, args[1], args.length > 2 ? Math.max(1, Integer.parseInt(args[2])) : 1);
+                    return;
+                case "sell":
+                    if (args.length < 4) {
+                        break;
+                    }
+                    int hours = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_HOURS;
+                    if (hours < 1 || hours > MAX_HOURS) {
+                        player.sendMessage("Listings can last 1 to " + MAX_HOURS + " hours.");
+                        return;
+                    }
+                    report(player, market.list(character, args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]),
+                            hours * 60L * 60L * 1000L), "Listed " + args[2] + "x " + args[1] + " for " + args[3] + " "
+                            + market.getCurrencyItemId() + " each.");
+                    return;
+                case "buy":
+                    if (args.length < 4) {
+                        break;
+                    }
+                    MarketService.Purchase purchase = market.buy(character, args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+                    report(player, purchase.getResult(), "Bought " + purchase.getQuantity() + "x " + args[1] + " for "
+                            + purchase.getCost() + " " + market.getCurrencyItemId() + ".");
+                    return;
+                case "listings":
+                    listings(player, character);
+                    return;
+                case "cancel":
+                    if (args.length < 2) {
+                        break;
+                    }
+                    report(player, market.cancel(character, Long.parseLong(args[1])), "Listing cancelled.");
+                    return;
+                case "collect":
+                    int collected = market.collect(character);
+                    if (collected < 0) {
+                        player.sendMessage("Your inventory is not loaded yet.");
+                    } else if (collected == 0) {
+                        player.sendMessage(market.getClaims(character.getId()).isEmpty()
+                                ? "Nothing to collect." : "Your inventory is full.");
+                    } else {
+                        player.sendMessage("Collected " + collected + " item(s).");
+                    }
+                    return;
+                default:
+                    break;
+            }
+        } catch (NumberFormatException e) {
+            player.sendMessage("Quantities, prices and IDs must be numbers.");
+            return;
+        }
+        player.sendMessage("Usage: " + this.getUsage());
+    }
+
+    private void search(Player player, String itemId, int page) {
+        int total = market.count(itemId);
+        if (total == 0) {
+            player.sendMessage("No listings for " + itemId + ".");
+            return;
+        }
+        int pages = (total + PAGE_SIZE - 1) / PAGE_SIZE;
+        page = Math.min(page, pages);
+        player.sendMessage(itemId + " - " + total + " listing(s) (page " + page + "/" + pages + ")");
+        for (Listing listing : market.search(itemId, Integer.MAX_VALUE, (page - 1) * PAGE_SIZE, PAGE_SIZE)) {
+            player.sendMessage("- " + listing.getQuantity() + "x at " + listing.getUnitPrice() + " "
+                    + market.getCurrencyItemId() + " (" + listing.getSellerName() + ")");
+        }
+    }
+
+    private void listings(Player player, Character character) {
+        List<Listing> listings = market.getListings(character.getId());
+        Map<String, Integer> claims = market.getClaims(character.getId());
+        if (listings.isEmpty() && claims.isEmpty()) {
+            player.sendMessage("You have no listings.");
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Listing listing : listings) {
+            long minutes = Math.max(0, (listing.getExpiresAt() - now) / 60000);
+            player.sendMessage("#" + listing.getId() + " " + listing.getQuantity() + "x " + listing.getItemId() + " at "
+                    + listing.getUnitPrice() + " (" + (minutes / 60) + "h " + (minutes % 60) + "m left)");
+        }
+        if (!claims.isEmpty()) {
+            player.sendMessage("To collect: " + claims);
+        }
+    }
+
+    private void report(Player player, MarketService.Result result, String successMessage) {
+        switch (result) {
+            case SUCCESS:
+                player.sendMessage(successMessage);
+                break;
+            case NOT_LOADED:
+                player.sendMessage("Your inventory is not loaded yet.");
+                break;
+            case INVALID:
+                player.sendMessage("Invalid quantity or price.");
+                break;
+            case TOO_MANY_LISTINGS:
+                player.sendMessage("You have too many open listings.");
+                break;
+            case MISSING_ITEMS:
+                player.sendMessage("You do not have those items.");
+                break;
+            case NO_MATCH:
+                player.sendMessage("No listings match that price.");
+                break;
+            case INSUFFICIENT_FUNDS:
+                player.sendMessage("You cannot afford that.");
+                break;
+            case INVENTORY_FULL:
+                player.sendMessage("Your inventory is full.");
+                break;
+            case NOT_FOUND:
+                player.sendMessage("No such listing.");
+                break;
+            case NOT_OWNER:
+                player.sendMessage("That listing is not yours.");
+                break;
+            default:
+                player.sendMessage("Something went wrong. Please check server logs for details.");
+                break;
+        }
+    }
+}
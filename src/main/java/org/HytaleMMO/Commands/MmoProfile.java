@@ -0,0 +1,80 @@
+package org.HytaleMMO.Commands;
+
+import com.hypixel.hytale.server.api.command.Command;
+import com.hypixel.hytale.server.api.command.CommandContext;
+import com.hypixel.hytale.server.api.command.CommandSender;
+import com.hypixel.hytale.server.api.entity.Player;
+import org.HytaleMMO.Profiling.Profiler;
+
+import javax.annotation.Nonnull;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Command to profile the plugin's entry points
+ * /mmoprofile start|stop|dump|reset
+ * A dump writes the full call tree and the collapsed stacks (for flame graphs)
+ * to HytaleMMO/profiles and shows the frames with the most self time
+ * Only admins (OP) can use this command
+ */
+public class MmoProfile extends Command {
+    private static final Path PROFILE_DIRECTORY = Paths.get("HytaleMMO", "profiles");
+    private static final int TOP_FRAMES = 8;
+
+    private final Profiler profiler;
+
+    public MmoProfile(Profiler profiler) {
+        super("mmoprofile");
+        this.profiler = profiler;
+        this.setDescription("Profiles the MMO plugin");
+        this.setUsage("/mmoprofile start|stop|dump|reset");
+        this.setPermission("hytale.mmo.profile");
+    }
+
+    @Override
+    public void execute(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
+        // Players need permission; the console may always profile
+        if (sender instanceof Player && !((Player) sender).hasPermission(this.getPermission())) {
+            sender.sendMessage("You don't have permission to use this command!");
+            return;
+        }
+
+        String[] args = context.getArgs();
+        if (args.length < 1) {
+            sender.sendMessage("Usage: " + this.getUsage());
+            return;
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "start":
+                sender.sendMessage(profiler.start() ? "Profiler started." : "The profiler is already running.");
+                break;
+            case "stop":
+                sender.sendMessage(profiler.stop() ? "Profiler stopped. Use /mmoprofile dump to write the profile."
+                        : "The profiler is not running.");
+                break;
+            case "reset":
+                profiler.reset();
+                sender.sendMessage("Profile cleared.");
+                break;
+            case "dump":
+                dump(sender);
+                break;
+            default:
+                sender.sendMessage("Usage: " + this.getUsage());
+                break;
+        }
+    }
+
+    private void dump(CommandSender sender) {
+        Path report = profiler.dump(PROFILE_DIRECTORY);
+        if (report == null) {
+            sender.sendMessage("Failed to write the profile. Please check server logs for details.");
+            return;
+        }
+        sender.sendMessage("Profile written to " + report + " (flame graph stacks in the .collapsed file next to it)");
+        for (String line : profiler.getTopFrames(TOP_FRAMES)) {
+            sender.sendMessage("  " + line);
+        }
+    }
+}
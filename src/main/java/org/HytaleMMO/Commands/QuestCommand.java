@@ -0,0 +1,136 @@
+package org.HytaleMMO.Commands;
+
+import com.hypixel.hytale.server.api.command.Command;
+import com.hypixel.hytale.server.api.command.CommandContext;
+import com.hypixel.hytale.server.api.command.CommandSender;
+import com.hypixel.hytale.server.api.entity.Player;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Quests.Quest;
+import org.HytaleMMO.Quests.QuestService;
+import org.HytaleMMO.Quests.QuestState;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command to list, accept and abandon quests
+ */
+public class QuestCommand extends Command {
+    private final QuestService quests;
+    private final CharacterManager characterManager;
+
+    public QuestCommand(QuestService quests, CharacterManager characterManager) {
+        super("quests");
+        this.quests = quests;
+        this.characterManager = characterManager;
+        this.setDescription("Shows and manages your quests");
+        this.setUsage("/quests <list|available|accept <id>|abandon <id>>");
+    }
+
+    @Override
+    public void execute(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
+        // Check if the sender is a player
+        if (!(sender instanceof Player)) {
+            sender.sendMessage("This command can only be used by players!");
+            return;
+        }
+
+        Player player = (Player) sender;
+        Character character = characterManager.getCharacter(player.getUniqueId());
+        if (character == null) {
+            player.sendMessage("Your character is not loaded yet.");
+            return;
+        }
+        if (character.getQuestState() == null) {
+            player.sendMessage("Your quest log could not be loaded. Please contact an administrator.");
+            return;
+        }
+
+        String[] args = context.getArgs();
+        String action = args.length > 0 ? args[0].toLowerCase(Locale.ROOT) : "list";
+
+        switch (action) {
+            case "list":
+                list(player, character.getQuestState());
+                break;
+            case "available":
+                List<Quest> available = quests.getAvailable(character);
+                if (available.isEmpty()) {
+                    player.sendMessage("No quests available right now.");
+                    return;
+                }
+                player.sendMessage("Available quests:");
+                for (Quest quest : available) {
+                    player.sendMessage("- " + quest.getId() + ": " + quest.getName() + " (level " + quest.getMinLevel() + "+)");
+                }
+                break;
+            case "accept":
+            case "abandon":
+                if (args.length < 2) {
+                    player.sendMessage("Usage: " + this.getUsage());
+                    return;
+                }
+                QuestService.Result result = action.equals("accept")
+                        ? quests.accept(character, args[1])
+                        : quests.abandon(character, args[1]);
+                report(player, result, args[1]);
+                break;
+            default:
+                player.sendMessage("Usage: " + this.getUsage());
+                break;
+        }
+    }
+
+    private void list(Player player, QuestState state) {
+        int[] active = state.getActiveQuests();
+        player.sendMessage("Quests in progress: " + active.length + "/" + QuestState.MAX_ACTIVE
+                + " (" + state.getCompletedCount() + " completed)");
+        for (int questIndex : active) {
+            Quest quest = quests.getRegistry().getQuest(questIndex);
+            if (quest == null) {
+                continue;
+            }
+            StringBuilder line = new StringBuilder("- ").append(quest.getName()).append(':');
+            for (int i = 0; i < quest.getObjectives().size(); i++) {
+                Quest.Objective objective = quest.getObjectives().get(i);
+                line.append(' ').append(objective.getTarget()).append(' ')
+                        .append(state.getProgress(questIndex, i)).append('/').append(objective.getCount());
+            }
+            player.sendMessage(line.toString());
+        }
+    }
+
+    private void report(Player player, QuestService.Result result, String questId) {
+        switch (result) {
+            case STARTED:
+                player.sendMessage("Quest started: " + quests.getRegistry().getQuest(questId).getName());
+                break;
+            case ABANDONED:
+                player.sendMessage("Quest abandoned.");
+                break;
+            case UNKNOWN_QUEST:
+                player.sendMessage("No quest named " + questId + ".");
+                break;
+            case LEVEL_TOO_LOW:
+                player.sendMessage("You need level " + quests.getRegistry().getQuest(questId).getMinLevel() + " for that quest.");
+                break;
+            case ALREADY_ACTIVE:
+                player.sendMessage("That quest is already in progress.");
+                break;
+            case ALREADY_COMPLETED:
+                player.sendMessage("You already completed that quest.");
+                break;
+            case TOO_MANY_ACTIVE:
+                player.sendMessage("Your quest log is full.");
+                break;
+            case NOT_ACTIVE:
+                player.sendMessage("That quest is not in progress.");
+                break;
+            default:
+                player.sendMessage("Something went wrong. Please check server logs for details.");
+                break;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.HytaleMMO.Commands;
+
+import com.hypixel.hytale.server.api.command.Command;
+import com.hypixel.hytale.server.api.command.CommandContext;
+import com.hypixel.hytale.server.api.command.CommandSender;
+import com.hypixel.hytale.server.api.entity.Player;
+import org.HytaleMMO.Recipes.RecipeRegistry;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Command to reload the recipe assets without restarting the server
+ * Only admins (OP) can use this command
+ */
+public class ReloadRecipes extends Command {
+    private final RecipeRegistry recipeRegistry;
+
+    public ReloadRecipes(RecipeRegistry recipeRegistry) {
+        super("reloadrecipes");
+        this.recipeRegistry = recipeRegistry;
+        this.setDescription("Reloads the crafting recipes");
+        this.setUsage("/reloadrecipes");
+        this.setPermission("hytale.mmo.recipes.reload");
+    }
+
+    @Override
+    public void execute(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
+        // Players need permission; the console may always reload
+        if (sender instanceof Player && !((Player) sender).hasPermission(this.getPermission())) {
+            sender.sendMessage("You don't have permission to use this command!");
+            return;
+        }
+
+        if (recipeRegistry.reload()) {
+            sender.sendMessage("Reloaded " + recipeRegistry.size() + " recipe(s).");
+        } else {
+            sender.sendMessage("Failed to reload recipes. Please check server logs for details.");
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.hypixel.hytale.server.api.command.CommandContext;
 import com.hypixel.hytale.server.api.command.CommandSender;
 import com.hypixel.hytale.server.api.entity.Player;
 import org.HytaleMMO.NPC.NpcHandler;
+import org.HytaleMMO.Profiling.Profiler;
 
 import javax.annotation.Nonnull;
 import java.util.logging.Level;
@@ -17,10 +18,12 @@ import java.util.logging.Level;
 public class SpawnNPC extends Command {
     private final NpcHandler npcHandler;
     private final HytaleLogger logger;
+    private final Profiler profiler;
 
-    public SpawnNPC(NpcHandler npcHandler) {
+    public SpawnNPC(NpcHandler npcHandler, Profiler profiler) {
         super("spawnnpc");
         this.npcHandler = npcHandler;
+        this.profiler = profiler;
         this.logger = HytaleLogger.getLogger().getSubLogger("MMO-NPC");
         this.setDescription("Spawns an NPC at your location");
         this.setUsage("/spawnnpc <name>");
@@ -29,6 +32,10 @@ public class SpawnNPC extends Command {
 
     @Override
     public void execute(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
+        profiler.time("SpawnNPC.execute", () -> spawn(sender, context));
+    }
+
+    private void spawn(@Nonnull CommandSender sender, @Nonnull CommandContext context) {
         // Check if the sender is a player
         if (!(sender instanceof Player)) {
             sender.sendMessage("This command can only be used by players!");
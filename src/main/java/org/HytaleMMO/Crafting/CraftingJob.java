@@ -0,0 +1,89 @@
+package org.HytaleMMO.Crafting;
+
+import org.HytaleMMO.Recipes.Recipe;
+
+import java.util.UUID;
+
+/**
+ * One queued craft of a recipe at a bench
+ * Mutable state is only changed by the CraftingService under its lock
+ */
+public final class CraftingJob {
+    private final UUID jobId;
+    private final UUID playerId;
+    private final int characterId;
+    private final String benchId;
+    private final Recipe recipe;
+    private final int quantity;
+    private final long durationMs;
+    private final long createdAt;
+    private long completesAt;
+    int timerSlot = -1;
+    long timerHandle;
+
+    CraftingJob(UUID jobId, UUID playerId, int characterId, String benchId, Recipe recipe, int quantity,
+                long durationMs, long completesAt, long createdAt) {
+        this.jobId = jobId;
+        this.playerId = playerId;
+        this.characterId = characterId;
+        this.benchId = benchId;
+        this.recipe = recipe;
+        this.quantity = quantity;
+        this.durationMs = durationMs;
+        this.completesAt = completesAt;
+        this.createdAt = createdAt;
+    }
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public int getCharacterId() {
+        return characterId;
+    }
+
+    public String getBenchId() {
+        return benchId;
+    }
+
+    public Recipe getRecipe() {
+        return recipe;
+    }
+
+    /**
+     * Gets how many times the recipe is crafted by this job
+     * @return The craft count
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * Gets when the job completes
+     * @return The time in milliseconds, or 0 if the job is waiting behind another job
+     */
+    public long getCompletesAt() {
+        return completesAt;
+    }
+
+    void setCompletesAt(long completesAt) {
+        this.completesAt = completesAt;
+    }
+
+    @Override
+    public String toString() {
+        return recipe.getId() + " x" + quantity + " at " + benchId;
+    }
+}
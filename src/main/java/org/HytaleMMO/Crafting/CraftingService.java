@@ -0,0 +1,491 @@
+package org.HytaleMMO.Crafting;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Character.CharacterListener;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Database.Tables.CraftingJobRepository;
+import org.HytaleMMO.Database.Tables.CraftingJobRepository.StoredJob;
+import org.HytaleMMO.Inventory.CharacterInventory;
+import org.HytaleMMO.Listeners.ServerTickScheduler;
+import org.HytaleMMO.Recipes.Recipe;
+import org.HytaleMMO.Recipes.RecipeRegistry;
+import org.HytaleMMO.Util.TimingWheel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.logging.Level;
+
+/**
+ * Server-side crafting queues, one per player and bench.
+ * Ingredients are taken from the inventory when a job is queued and the
+ * output is added when it completes. Only the first job of every queue is
+ * running; its completion is a timer in a shared TimingWheel, advanced once
+ * per tick by a single thread, so in-flight crafts cost no scheduled task or
+ * thread of their own. Queued jobs are written to the database in batches
+ * and restored when the character is loaded again; time keeps running while
+ * the player is offline. A character's unwritten changes are written when it
+ * is unloaded, and a load merges in whatever is still unwritten, so a quick
+ * relog never restores a finished or cancelled job.
+ */
+public class CraftingService implements CharacterListener {
+    public enum Result {
+        QUEUED,
+        NOT_LOADED,
+        UNKNOWN_RECIPE,
+        WRONG_BENCH,
+        QUEUE_FULL,
+        MISSING_ITEMS
+    }
+
+    private static final long RETRY_WHEN_FULL_MS = 5000;
+
+    private final RecipeRegistry recipes;
+    private final CharacterManager characterManager;
+    private final CraftingJobRepository repository;
+    private final HytaleLogger logger;
+    private final int maxQueueLength;
+    private final long tickMs;
+    private final long flushIntervalMs;
+    private final TimingWheel wheel;
+    private final Map<UUID, Map<String, ArrayDeque<CraftingJob>>> queues;
+    private final Map<UUID, CraftingJob> pendingWrites;
+    private final Map<UUID, Integer> pendingDeletes;
+    private final Object flushLock = new Object();
+    private final TimingWheel.ExpiryHandler onExpired = this::onTimer;
+    private CraftingJob[] running;
+    private int[] freeTimerSlots;
+    private int freeTimerCount;
+    private int timerHighWater;
+    private long lastCreatedAt;
+    private long completedCount;
+    private ServerTickScheduler.RepeatingTask tickTask;
+    private Timer flushTimer;
+
+    /**
+     * Creates a new crafting service
+     * @param recipes The recipe registry
+     * @param characterManager The character manager holding loaded characters
+     * @param repository The crafting job repository
+     * @param logger The logger instance
+     * @param maxQueueLength Maximum number of jobs per player and bench
+     * @param tickMs Resolution of completion times in milliseconds
+     * @param flushIntervalSeconds The interval between database writes in seconds
+     */
+    public CraftingService(RecipeRegistry recipes, CharacterManager characterManager, CraftingJobRepository repository,
+                           HytaleLogger logger, int maxQueueLength, long tickMs, int flushIntervalSeconds) {
+        this.recipes = recipes;
+        this.characterManager = characterManager;
+        this.repository = repository;
+        this.logger = logger;
+        this.maxQueueLength = maxQueueLength;
+        this.tickMs = tickMs;
+        this.flushIntervalMs = flushIntervalSeconds * 1000L;
+        this.wheel = new TimingWheel(tickMs, 1024);
+        this.queues = new HashMap<>();
+        this.pendingWrites = new LinkedHashMap<>();
+        this.pendingDeletes = new LinkedHashMap<>();
+        this.running = new CraftingJob[1024];
+        this.freeTimerSlots = new int[1024];
+    }
+
+    /**
+     * Completes jobs on the server tick and starts the flush timer
+     * The flush writes to the database, so it keeps its own thread
+     * @param scheduler The server tick scheduler
+     */
+    public void start(ServerTickScheduler scheduler) {
+        if (tickTask != null) {
+            logger.at(Level.WARNING).log("Crafting service is already running");
+            return;
+        }
+
+        tickTask = scheduler.schedule("crafting", this::tick, ServerTickScheduler.ticks(tickMs));
+        flushTimer = new Timer("CraftingFlush", true);
+        flushTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (Exception e) {
+                    logger.at(Level.SEVERE).log("Error saving crafting jobs: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }, flushIntervalMs, flushIntervalMs);
+
+        logger.at(Level.INFO).log("Crafting service started (tick: " + tickMs + " ms)");
+    }
+
+    /**
+     * Stops the tick and flush timer and writes all pending job changes
+     */
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        if (flushTimer != null) {
+            flushTimer.cancel();
+            flushTimer = null;
+        }
+        flush();
+        logger.at(Level.INFO).log("Crafting service stopped (" + getRunningCount() + " running, " + completedCount + " completed)");
+    }
+
+    /**
+     * Queues a craft for a player at a bench
+     * The ingredients are removed from the player's inventory immediately
+     * @param playerId The player's UUID
+     * @param benchId The bench ID, or null for hand crafting
+     * @param recipeId The recipe ID
+     * @param quantity How many times to craft the recipe
+     * @return The result
+     */
+    public Result enqueue(UUID playerId, String benchId, String recipeId, int quantity) {
+        Character character = characterManager.getCharacter(playerId);
+        if (character == null || character.getInventory() == null) {
+            return Result.NOT_LOADED;
+        }
+        Recipe recipe = recipes.getRecipe(recipeId);
+        if (recipe == null || quantity < 1) {
+            return Result.UNKNOWN_RECIPE;
+        }
+        if (!recipe.isCraftableAt(benchId)) {
+            return Result.WRONG_BENCH;
+        }
+        String bench = benchId != null ? benchId : "";
+
+        synchronized (this) {
+            ArrayDeque<CraftingJob> queue = queueOf(playerId, bench);
+            if (queue.size() >= maxQueueLength) {
+                return Result.QUEUE_FULL;
+            }
+            if (!character.getInventory().removeItems(ingredients(recipe, quantity))) {
+                return Result.MISSING_ITEMS;
+            }
+
+            long now = System.currentTimeMillis();
+            lastCreatedAt = Math.max(now, lastCreatedAt + 1); // keeps the stored order of jobs queued in the same millisecond
+            long durationMs = Math.round(recipe.getSeconds() * 1000.0) * quantity;
+            CraftingJob job = new CraftingJob(UUID.randomUUID(), playerId, character.getId(), bench, recipe, quantity,
+                    durationMs, 0, lastCreatedAt);
+            queue.addLast(job);
+            if (queue.size() == 1) {
+                begin(job, now);
+            }
+            markWrite(job);
+        }
+        return Result.QUEUED;
+    }
+
+    /**
+     * Cancels a queued or running job and returns its ingredients
+     * @param playerId The player's UUID
+     * @param jobId The job ID
+     * @return true if the job was cancelled, false if it was not found
+     */
+    public boolean cancel(UUID playerId, UUID jobId) {
+        CraftingJob cancelled = null;
+        synchronized (this) {
+            Map<String, ArrayDeque<CraftingJob>> benches = queues.get(playerId);
+            if (benches == null) {
+                return false;
+            }
+            for (ArrayDeque<CraftingJob> queue : benches.values()) {
+                for (CraftingJob job : queue) {
+                    if (job.getJobId().equals(jobId)) {
+                        cancelled = job;
+                        break;
+                    }
+                }
+                if (cancelled != null) {
+                    boolean wasRunning = queue.peekFirst() == cancelled;
+                    queue.remove(cancelled);
+                    unschedule(cancelled);
+                    markDelete(cancelled);
+                    if (wasRunning && !queue.isEmpty()) {
+                        begin(queue.peekFirst(), System.currentTimeMillis());
+                    }
+                    break;
+                }
+            }
+        }
+        if (cancelled == null) {
+            return false;
+        }
+
+        // Refund outside the lock; the inventory has its own
+        Character character = characterManager.getCharacter(playerId);
+        if (character != null && character.getInventory() != null) {
+            for (Map.Entry<String, Integer> item : ingredients(cancelled.getRecipe(), cancelled.getQuantity()).entrySet()) {
+                if (!character.getInventory().addItems(item.getKey(), item.getValue())) {
+                    logger.at(Level.WARNING).log("No room to refund " + item.getValue() + "x " + item.getKey() + " to player " + playerId);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the jobs of a player at a bench, running job first
+     * @param playerId The player's UUID
+     * @param benchId The bench ID, or null for hand crafting
+     * @return A copy of the queue
+     */
+    public synchronized List<CraftingJob> getQueue(UUID playerId, String benchId) {
+        Map<String, ArrayDeque<CraftingJob>> benches = queues.get(playerId);
+        ArrayDeque<CraftingJob> queue = benches != null ? benches.get(benchId != null ? benchId : "") : null;
+        return queue != null ? new ArrayList<>(queue) : Collections.emptyList();
+    }
+
+    /**
+     * Gets the number of running jobs across all players
+     * @return The number of scheduled completions
+     */
+    public synchronized int getRunningCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Completes every job whose time has come
+     * @return The number of timers fired
+     */
+    public synchronized int tick() {
+        return wheel.advance(System.currentTimeMillis(), onExpired);
+    }
+
+    private void onTimer(long payload) {
+        int slot = (int) payload;
+        CraftingJob job = running[slot];
+        running[slot] = null;
+        freeTimerSlots[freeTimerCount++] = slot;
+        job.timerSlot = -1;
+        complete(job);
+    }
+
+    private void complete(CraftingJob job) {
+        Character character = characterManager.getCharacter(job.getPlayerId());
+        Recipe.Ingredient output = job.getRecipe().getPrimaryOutput();
+        if (character == null || character.getInventory() == null) {
+            return; // unloaded in the meantime; completed when the character is loaded again
+        }
+
+        long now = System.currentTimeMillis();
+        if (!character.getInventory().addItems(output.getItemId(), output.getQuantity() * job.getQuantity())) {
+            // Inventory full: keep the job finished and try again shortly
+            schedule(job, now + RETRY_WHEN_FULL_MS);
+            return;
+        }
+
+        ArrayDeque<CraftingJob> queue = queueOf(job.getPlayerId(), job.getBenchId());
+        queue.remove(job);
+        markDelete(job);
+        completedCount++;
+        if (!queue.isEmpty()) {
+            begin(queue.peekFirst(), now);
+        }
+    }
+
+    /**
+     * Starts the first job of a queue, or resumes it if it already has a completion time
+     */
+    private void begin(CraftingJob job, long now) {
+        if (job.getCompletesAt() == 0) {
+            job.setCompletesAt(now + job.getDurationMs());
+            markWrite(job);
+        }
+        schedule(job, job.getCompletesAt());
+    }
+
+    private void schedule(CraftingJob job, long timeMs) {
+        int slot;
+        if (freeTimerCount > 0) {
+            slot = freeTimerSlots[--freeTimerCount];
+        } else {
+            slot = timerHighWater++;
+            if (slot == running.length) {
+                running = Arrays.copyOf(running, running.length * 2);
+                freeTimerSlots = Arrays.copyOf(freeTimerSlots, freeTimerSlots.length * 2);
+            }
+        }
+        running[slot] = job;
+        job.timerSlot = slot;
+        job.timerHandle = wheel.scheduleAt(timeMs, slot);
+    }
+
+    private void unschedule(CraftingJob job) {
+        if (job.timerSlot < 0) {
+            return;
+        }
+        wheel.cancel(job.timerHandle);
+        running[job.timerSlot] = null;
+        freeTimerSlots[freeTimerCount++] = job.timerSlot;
+        job.timerSlot = -1;
+    }
+
+    @Override
+    public void onCharacterLoaded(Character character) {
+        if (character.getId() <= 0) {
+            return;
+        }
+
+        // Holding the flush lock means no write is in flight: the stored rows plus
+        // the pending changes below are the character's complete job state
+        synchronized (flushLock) {
+            List<StoredJob> stored = repository.findByCharacter(character.getId());
+            long now = System.currentTimeMillis();
+            synchronized (this) {
+                if (queues.containsKey(character.getPlayerId())) {
+                    return; // already restored for this player
+                }
+                Map<UUID, CraftingJob> restored = new LinkedHashMap<>();
+                for (StoredJob row : stored) {
+                    if (pendingDeletes.containsKey(row.getJobId())) {
+                        continue; // finished or cancelled, not deleted from the database yet
+                    }
+                    CraftingJob unwritten = pendingWrites.get(row.getJobId());
+                    if (unwritten != null) {
+                        restored.put(row.getJobId(), unwritten);
+                        continue;
+                    }
+                    Recipe recipe = recipes.getRecipe(row.getRecipeId());
+                    if (recipe == null) {
+                        logger.at(Level.WARNING).log("Dropping crafting job for unknown recipe " + row.getRecipeId());
+                        pendingDeletes.put(row.getJobId(), row.getCharacterId());
+                        continue;
+                    }
+                    restored.put(row.getJobId(), new CraftingJob(row.getJobId(), character.getPlayerId(), row.getCharacterId(),
+                            row.getBenchId(), recipe, row.getQuantity(), row.getDurationMs(), row.getCompletesAt(), row.getCreatedAt()));
+                }
+                // Jobs queued shortly before the last unload whose rows are not written yet
+                for (CraftingJob unwritten : pendingWrites.values()) {
+                    if (unwritten.getCharacterId() == character.getId()) {
+                        restored.putIfAbsent(unwritten.getJobId(), unwritten);
+                    }
+                }
+
+                List<CraftingJob> jobs = new ArrayList<>(restored.values());
+                jobs.sort((a, b) -> Long.compare(a.getCreatedAt(), b.getCreatedAt()));
+                for (CraftingJob job : jobs) {
+                    ArrayDeque<CraftingJob> queue = queueOf(character.getPlayerId(), job.getBenchId());
+                    queue.addLast(job);
+                    if (queue.size() == 1) {
+                        begin(job, now);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onCharacterUnloading(Character character) {
+        synchronized (this) {
+            Map<String, ArrayDeque<CraftingJob>> benches = queues.remove(character.getPlayerId());
+            if (benches != null) {
+                // Running jobs keep their completion time in the database and finish on the next load
+                for (ArrayDeque<CraftingJob> queue : benches.values()) {
+                    CraftingJob first = queue.peekFirst();
+                    if (first != null) {
+                        unschedule(first);
+                    }
+                }
+            }
+        }
+        if (character.getId() > 0) {
+            flush(character.getId());
+        }
+    }
+
+    /**
+     * Writes queued, started and finished jobs to the database in batches
+     * Failed writes are kept and retried on the next flush
+     */
+    public void flush() {
+        flush(0);
+    }
+
+    /**
+     * Writes pending job changes
+     * @param characterId Only write the changes of this character, or 0 for every character
+     */
+    private void flush(int characterId) {
+        synchronized (flushLock) {
+            List<CraftingJob> jobs = new ArrayList<>();
+            List<StoredJob> writes = new ArrayList<>();
+            Map<UUID, Integer> deletes = new LinkedHashMap<>();
+            synchronized (this) {
+                Iterator<CraftingJob> pendingJobs = pendingWrites.values().iterator();
+                while (pendingJobs.hasNext()) {
+                    CraftingJob job = pendingJobs.next();
+                    if (characterId <= 0 || job.getCharacterId() == characterId) {
+                        jobs.add(job);
+                        writes.add(new StoredJob(job.getJobId(), job.getCharacterId(), job.getBenchId(), job.getRecipe().getId(),
+                                job.getQuantity(), job.getDurationMs(), job.getCompletesAt(), job.getCreatedAt()));
+                        pendingJobs.remove();
+                    }
+                }
+                Iterator<Map.Entry<UUID, Integer>> pendingIds = pendingDeletes.entrySet().iterator();
+                while (pendingIds.hasNext()) {
+                    Map.Entry<UUID, Integer> delete = pendingIds.next();
+                    if (characterId <= 0 || delete.getValue() == characterId) {
+                        deletes.put(delete.getKey(), delete.getValue());
+                        pendingIds.remove();
+                    }
+                }
+            }
+            if (writes.isEmpty() && deletes.isEmpty()) {
+                return;
+            }
+
+            if (!writes.isEmpty() && !repository.upsertBatch(writes)) {
+                synchronized (this) {
+                    for (CraftingJob job : jobs) {
+                        // A delete of the same job supersedes the failed write
+                        if (!pendingDeletes.containsKey(job.getJobId())) {
+                            pendingWrites.putIfAbsent(job.getJobId(), job);
+                        }
+                    }
+                }
+            }
+            if (!deletes.isEmpty() && !repository.deleteBatch(new ArrayList<>(deletes.keySet()))) {
+                synchronized (this) {
+                    for (Map.Entry<UUID, Integer> delete : deletes.entrySet()) {
+                        pendingDeletes.putIfAbsent(delete.getKey(), delete.getValue());
+                    }
+                }
+            }
+        }
+    }
+
+    private void markWrite(CraftingJob job) {
+        pendingWrites.put(job.getJobId(), job);
+    }
+
+    private void markDelete(CraftingJob job) {
+        pendingWrites.remove(job.getJobId());
+        pendingDeletes.put(job.getJobId(), job.getCharacterId());
+    }
+
+    private ArrayDeque<CraftingJob> queueOf(UUID playerId, String benchId) {
+        return queues.computeIfAbsent(playerId, id -> new HashMap<>()).computeIfAbsent(benchId, id -> new ArrayDeque<>());
+    }
+
+    private static Map<String, Integer> ingredients(Recipe recipe, int quantity) {
+        Map<String, Integer> items = new HashMap<>();
+        for (Recipe.Ingredient input : recipe.getInputs()) {
+            items.merge(input.getItemId(), input.getQuantity() * quantity, Integer::sum);
+        }
+        return items;
+    }
+}
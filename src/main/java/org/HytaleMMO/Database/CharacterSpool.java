@@ -0,0 +1,370 @@
+package org.HytaleMMO.Database;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Quests.QuestState;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Local file that holds character saves while the database is unavailable.
+ *
+ * Every record is a complete snapshot of a character row and its quest
+ * state, plus the full encoded inventory when it had unsaved changes, so only
+ * the newest record of each character has to be replayed. Records are appended in save order
+ * and framed as [length][CRC32][payload]; a torn record at the end of the
+ * file (from a crash during an append) ends the replay. Appends are only
+ * buffered; sync() forces everything appended since the last call to disk
+ * at once, so a whole batch of saves shares one fsync.
+ */
+public class CharacterSpool {
+    private static final byte VERSION = 2;
+    // Records of this version were written before quest states were spooled
+    private static final byte VERSION_WITHOUT_QUESTS = 1;
+    private static final int MAX_RECORD = 1024 * 1024;
+
+    private final Path path;
+    private final HytaleLogger logger;
+    private final ByteArrayOutputStream record;
+    private final DataOutputStream recordOut;
+    private final CRC32 crc;
+    private FileOutputStream file;
+    private DataOutputStream out;
+    private volatile boolean pending;
+    private boolean unsynced;
+    private int appended;
+
+    /**
+     * Creates a spool
+     * @param path The spool file
+     * @param logger The logger instance
+     */
+    public CharacterSpool(Path path, HytaleLogger logger) {
+        this.path = path.toAbsolutePath();
+        this.logger = logger;
+        this.record = new ByteArrayOutputStream(512);
+        this.recordOut = new DataOutputStream(record);
+        this.crc = new CRC32();
+    }
+
+    /**
+     * Opens the spool file for appending
+     * Records left behind by an earlier run stay pending until they are replayed
+     * @return true if the spool was opened, false otherwise
+     */
+    public synchronized boolean open() {
+        try {
+            Files.createDirectories(path.getParent());
+            file = new FileOutputStream(path.toFile(), true);
+            out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024));
+            pending = Files.size(path) > 0;
+            if (pending) {
+                logger.at(Level.WARNING).log("Character spool contains saves from an earlier run, they will be replayed");
+            }
+            return true;
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error opening character spool: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Appends a character snapshot
+     * The record is only buffered until the next sync()
+     * @param character The character
+     * @param inventory The fully encoded inventory, or null if it has no unsaved changes
+     * @return true if the record was appended, false otherwise
+     */
+    public synchronized boolean append(Character character, byte[] inventory) {
+        if (out == null) {
+            return false;
+        }
+        try {
+            record.reset();
+            recordOut.writeByte(VERSION);
+            recordOut.writeInt(character.getId());
+            recordOut.writeLong(character.getPlayerId().getMostSignificantBits());
+            recordOut.writeLong(character.getPlayerId().getLeastSignificantBits());
+            recordOut.writeUTF(character.getCharacterName());
+            writeNullable(character.getCharacterClass());
+            recordOut.writeInt(character.getLevel());
+            recordOut.writeInt(character.getExperience());
+            recordOut.writeInt(character.getHealth());
+            recordOut.writeInt(character.getMaxHealth());
+            recordOut.writeInt(character.getMana());
+            recordOut.writeInt(character.getMaxMana());
+            recordOut.writeDouble(character.getPosX());
+            recordOut.writeDouble(character.getPosY());
+            recordOut.writeDouble(character.getPosZ());
+            writeNullable(character.getWorld());
+            recordOut.writeLong(character.getLastPlayed());
+            writeNullable(inventory);
+            QuestState questState = character.getQuestState();
+            writeNullable(questState != null ? questState.encode() : null);
+
+            crc.reset();
+            crc.update(record.toByteArray(), 0, record.size());
+            out.writeInt(record.size());
+            out.writeInt((int) crc.getValue());
+            record.writeTo(out);
+            pending = true;
+            unsynced = true;
+            appended++;
+            return true;
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error writing character spool: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    private void writeNullable(String value) throws IOException {
+        recordOut.writeBoolean(value != null);
+        if (value != null) {
+            recordOut.writeUTF(value);
+        }
+    }
+
+    private void writeNullable(byte[] value) throws IOException {
+        recordOut.writeInt(value != null ? value.length : -1);
+        if (value != null) {
+            recordOut.write(value);
+        }
+    }
+
+    private static byte[] readNullable(DataInputStream payload) throws IOException {
+        int length = payload.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        payload.readFully(value);
+        return value;
+    }
+
+    /**
+     * Writes buffered records to disk and forces them to the storage device
+     * Does nothing if no record was appended since the last sync
+     * @return true if the records are on disk, false otherwise
+     */
+    public synchronized boolean sync() {
+        if (out == null || !unsynced) {
+            return out != null;
+        }
+        try {
+            out.flush();
+            file.getFD().sync();
+            unsynced = false;
+            return true;
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error syncing character spool: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Reads the spooled saves, keeping only the newest row, inventory and quest state of each character
+     * Characters are returned in the order of their newest save
+     * @return The saves to replay, or null if the spool could not be read
+     */
+    public synchronized List<SpooledSave> read() {
+        Map<Integer, SpooledSave> saves = new LinkedHashMap<>();
+        int count = 0;
+        try {
+            if (out != null) {
+                out.flush();
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+                byte[] buffer = new byte[512];
+                while (true) {
+                    int length;
+                    int checksum;
+                    try {
+                        length = in.readInt();
+                        checksum = in.readInt();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (length <= 0 || length > MAX_RECORD) {
+                        logger.at(Level.WARNING).log("Character spool has an invalid record after " + count + " records, ignoring the rest");
+                        break;
+                    }
+                    if (buffer.length < length) {
+                        buffer = new byte[length];
+                    }
+                    try {
+                        in.readFully(buffer, 0, length);
+                    } catch (EOFException e) {
+                        logger.at(Level.WARNING).log("Character spool ends in a partial record, ignoring it");
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(buffer, 0, length);
+                    if ((int) crc.getValue() != checksum) {
+                        logger.at(Level.WARNING).log("Character spool has a corrupt record after " + count + " records, ignoring the rest");
+                        break;
+                    }
+
+                    SpooledSave save = decode(new DataInputStream(new ByteArrayInputStream(buffer, 0, length)));
+                    if (save == null) {
+                        logger.at(Level.WARNING).log("Character spool has a record of an unknown version, ignoring the rest");
+                        break;
+                    }
+                    // Re-insert so the map keeps the order of each character's newest save
+                    SpooledSave previous = saves.remove(save.character.getId());
+                    if (previous != null && (save.inventory == null || save.questState == null)) {
+                        save = new SpooledSave(save.character, save.inventory != null ? save.inventory : previous.inventory,
+                                save.questState != null ? save.questState : previous.questState);
+                    }
+                    saves.put(save.character.getId(), save);
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error reading character spool: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+        return new ArrayList<>(saves.values());
+    }
+
+    private static SpooledSave decode(DataInputStream payload) throws IOException {
+        byte version = payload.readByte();
+        if (version != VERSION && version != VERSION_WITHOUT_QUESTS) {
+            return null;
+        }
+        Character character = new Character();
+        character.setId(payload.readInt());
+        character.setPlayerId(new UUID(payload.readLong(), payload.readLong()));
+        character.setCharacterName(payload.readUTF());
+        character.setCharacterClass(payload.readBoolean() ? payload.readUTF() : null);
+        character.setLevel(payload.readInt());
+        character.setExperience(payload.readInt());
+        character.setHealth(payload.readInt());
+        character.setMaxHealth(payload.readInt());
+        character.setMana(payload.readInt());
+        character.setMaxMana(payload.readInt());
+        character.setPosX(payload.readDouble());
+        character.setPosY(payload.readDouble());
+        character.setPosZ(payload.readDouble());
+        character.setWorld(payload.readBoolean() ? payload.readUTF() : null);
+        character.setLastPlayed(payload.readLong());
+        byte[] inventory = readNullable(payload);
+        byte[] questState = version != VERSION_WITHOUT_QUESTS ? readNullable(payload) : null;
+        return new SpooledSave(character, inventory, questState);
+    }
+
+    /**
+     * Empties the spool once its saves are in the database
+     * @return true if the spool was emptied, false otherwise
+     */
+    public synchronized boolean clear() {
+        if (out == null) {
+            return false;
+        }
+        try {
+            out.flush();
+            file.getChannel().truncate(0);
+            file.getFD().sync();
+            pending = false;
+            unsynced = false;
+            return true;
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error clearing character spool: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the spool holds saves that are not in the database yet
+     * @return true if saves are waiting to be replayed
+     */
+    public boolean hasPending() {
+        return pending;
+    }
+
+    /**
+     * Gets the number of records appended since the spool was opened
+     * @return The record count
+     */
+    public synchronized int getAppended() {
+        return appended;
+    }
+
+    /**
+     * Syncs and closes the spool file
+     * Pending saves stay in the file and are replayed on the next start
+     */
+    public synchronized void close() {
+        if (out == null) {
+            return;
+        }
+        sync();
+        try {
+            out.close();
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Error closing character spool: " + e.getMessage());
+        }
+        out = null;
+        file = null;
+    }
+
+    /**
+     * A spooled character row, its encoded quest state and, if it was spooled with unsaved changes, its encoded inventory
+     */
+    public static final class SpooledSave {
+        private final Character character;
+        private final byte[] inventory;
+        private final byte[] questState;
+
+        private SpooledSave(Character character, byte[] inventory, byte[] questState) {
+            this.character = character;
+            this.inventory = inventory;
+            this.questState = questState;
+        }
+
+        /**
+         * Gets the character as it was spooled (not registered with the character manager)
+         * @return The character
+         */
+        public Character getCharacter() {
+            return character;
+        }
+
+        /**
+         * Gets the fully encoded inventory
+         * @return The inventory, or null if none was spooled
+         */
+        public byte[] getInventory() {
+            return inventory;
+        }
+
+        /**
+         * Gets the encoded quest state
+         * @return The quest state, or null if none was spooled
+         */
+        public byte[] getQuestState() {
+            return questState;
+        }
+    }
+}
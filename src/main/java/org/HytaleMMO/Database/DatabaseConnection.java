@@ -5,19 +5,44 @@ import org.HytaleMMO.Database.Migrations.MigrationManager;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
 import java.util.Properties;
 import java.util.logging.Level;
 
+/**
+ * Owns the MariaDB connection
+ * Repositories are handed a connection that forwards to the current physical
+ * connection, so reconnect() takes effect everywhere without recreating them.
+ * While the database is marked unavailable, the forwarding connection fails
+ * every call immediately instead of waiting for network timeouts.
+ * Connection errors from commit() and from the execute calls of statements
+ * created through it are reported to the health monitor, so every repository
+ * call can detect an outage. Other statement calls are forwarded unchecked and
+ * result sets are handed out unwrapped.
+ */
 public class DatabaseConnection {
-    private Connection connection;
+    private volatile Connection physical;
+    private final Connection connection;
     private final HytaleLogger logger;
     private Properties dbProperties;
+    private volatile boolean available = true;
+    private volatile boolean migrated;
+    private volatile DatabaseHealthMonitor health;
 
     public DatabaseConnection(HytaleLogger logger) {
         this.logger = logger;
+        this.connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> forward(method, args));
         loadDatabaseProperties();
     }
 
@@ -51,32 +76,97 @@ public class DatabaseConnection {
         dbProperties.setProperty("db.useSSL", "false");
     }
 
+    private Connection openPhysical() throws SQLException {
+        String host = dbProperties.getProperty("db.host");
+        String port = dbProperties.getProperty("db.port");
+        String database = dbProperties.getProperty("db.name");
+        String user = dbProperties.getProperty("db.user");
+        String password = dbProperties.getProperty("db.password");
+        String useSSL = dbProperties.getProperty("db.useSSL");
+        // Bounded timeouts so a dead database fails calls instead of hanging them
+        String connectTimeout = dbProperties.getProperty("db.connectTimeout", "5000");
+        String socketTimeout = dbProperties.getProperty("db.socketTimeout", "15000");
+
+        String url = "jdbc:mariadb://" + host + ":" + port + "/" + database + "?useSSL=" + useSSL
+                + "&connectTimeout=" + connectTimeout + "&socketTimeout=" + socketTimeout;
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    private Object forward(Method method, Object[] args) throws Throwable {
+        if (!available && !isLocalCall(method.getName())) {
+            throw new SQLTransientConnectionException("Database unavailable", "08003");
+        }
+        Connection target = physical;
+        if (target == null) {
+            throw new SQLTransientConnectionException("Database not connected", "08003");
+        }
+        if (method.getName().equals("commit")) {
+            return invoke(target, method, args, true);
+        }
+
+        Object result = invoke(target, method, args, false);
+        Class<?> type = method.getReturnType();
+        if (result != null && Statement.class.isAssignableFrom(type)) {
+            Object statement = result;
+            return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (proxy, called, calledArgs) -> invoke(statement, called, calledArgs,
+                            called.getName().startsWith("execute")));
+        }
+        return result;
+    }
+
     /**
-     * Establishes a connection to the MariaDB database
-     * @return true if connection is successful, false otherwise
+     * Calls a method of a JDBC object and, if requested, reports connection errors to the health monitor
      */
-    public boolean connect() {
+    private Object invoke(Object target, Method method, Object[] args, boolean report) throws Throwable {
         try {
-            String host = dbProperties.getProperty("db.host");
-            String port = dbProperties.getProperty("db.port");
-            String database = dbProperties.getProperty("db.name");
-            String user = dbProperties.getProperty("db.user");
-            String password = dbProperties.getProperty("db.password");
-            String useSSL = dbProperties.getProperty("db.useSSL");
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            DatabaseHealthMonitor monitor = health;
+            if (report && monitor != null && available && cause instanceof SQLException
+                    && isConnectionError((SQLException) cause)) {
+                monitor.reportConnectionError((SQLException) cause);
+            }
+            throw cause;
+        }
+    }
+
+    private static boolean isConnectionError(SQLException e) {
+        // SQL state class 08 is "connection exception"
+        String state = e.getSQLState();
+        return e instanceof SQLNonTransientConnectionException || e instanceof SQLTransientConnectionException
+                || e instanceof SQLRecoverableException || e instanceof SQLTimeoutException
+                || (state != null && state.startsWith("08"));
+    }
 
-            String url = "jdbc:mariadb://" + host + ":" + port + "/" + database + "?useSSL=" + useSSL;
+    private static boolean isLocalCall(String methodName) {
+        return methodName.equals("close") || methodName.equals("isClosed") || methodName.equals("isValid")
+                || methodName.equals("toString") || methodName.equals("hashCode") || methodName.equals("equals");
+    }
 
-            logger.at(Level.INFO).log("Connecting to MariaDB database: " + database + " at " + host + ":" + port);
+    /**
+     * Establishes a connection to the MariaDB database
+     * If it fails, the database is marked unavailable until a later connect() or reconnect() succeeds
+     * @return true if connection is successful, false otherwise
+     */
+    public synchronized boolean connect() {
+        try {
+            logger.at(Level.INFO).log("Connecting to MariaDB database: " + dbProperties.getProperty("db.name")
+                    + " at " + dbProperties.getProperty("db.host") + ":" + dbProperties.getProperty("db.port"));
             
-            connection = DriverManager.getConnection(url, user, password);
+            physical = openPhysical();
+            available = true;
             
             logger.at(Level.INFO).log("Successfully connected to MariaDB database");
             
             // Run migrations after successful connection
             runMigrations();
+            migrated = true;
             
             return true;
         } catch (SQLException e) {
+            available = false;
             logger.at(Level.SEVERE).log("Failed to connect to MariaDB database: " + e.getMessage());
             e.printStackTrace();
             return false;
@@ -87,14 +177,77 @@ public class DatabaseConnection {
      * Runs database migrations
      */
     private void runMigrations() {
-        if (connection != null) {
-            MigrationManager migrationManager = new MigrationManager(connection, logger);
-            migrationManager.runMigrations();
+        MigrationManager migrationManager = new MigrationManager(connection, logger);
+        migrationManager.runMigrations();
+    }
+
+    /**
+     * Replaces the physical connection with a new one and marks the database available
+     * Migrations are not run again, unless the first connect() failed
+     * @return true if the new connection was opened, false otherwise
+     */
+    public synchronized boolean reconnect() {
+        if (!migrated) {
+            return connect();
         }
+        try {
+            Connection replacement = openPhysical();
+            Connection previous = physical;
+            physical = replacement;
+            available = true;
+            try {
+                previous.close();
+            } catch (SQLException e) {
+                // the old connection is already broken
+            }
+            logger.at(Level.INFO).log("Reconnected to MariaDB database");
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).log("Reconnecting to MariaDB database failed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether the physical connection still answers
+     * @param timeoutSeconds How long to wait for the answer
+     * @return true if the database answered, false otherwise
+     */
+    public boolean checkHealth(int timeoutSeconds) {
+        Connection current = physical;
+        try {
+            return current != null && current.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Sets the monitor that connection errors are reported to
+     * @param health The health monitor
+     */
+    public void setHealthMonitor(DatabaseHealthMonitor health) {
+        this.health = health;
+    }
+
+    /**
+     * Marks the database unavailable; calls on the connection fail immediately until reconnect()
+     */
+    public void markUnavailable() {
+        available = false;
+    }
+
+    /**
+     * Checks whether the database is considered available
+     * @return false between markUnavailable() and a successful reconnect()
+     */
+    public boolean isAvailable() {
+        return available;
     }
 
     /**
      * Gets the current database connection
+     * The connection forwards to the physical connection, which may be replaced by reconnect()
      * @return the database connection
      */
     public Connection getConnection() {
@@ -107,7 +260,7 @@ public class DatabaseConnection {
      */
     public boolean isConnected() {
         try {
-            return connection != null && !connection.isClosed();
+            return physical != null && !physical.isClosed();
         } catch (SQLException e) {
             return false;
         }
@@ -118,8 +271,8 @@ public class DatabaseConnection {
      */
     public void disconnect() {
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            if (physical != null && !physical.isClosed()) {
+                physical.close();
                 logger.at(Level.INFO).log("Disconnected from MariaDB database");
             }
         } catch (SQLException e) {
@@ -0,0 +1,202 @@
+package org.HytaleMMO.Database;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.sql.SQLException;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Detects database outages and reconnects when the database is back.
+ * The DatabaseConnection reports connection errors from any database call
+ * here, which mark the database unavailable at once (so every further call
+ * fails immediately). The SaveScheduler reports failed saves without a known
+ * cause; for those the connection is checked on the monitor's timer, never on
+ * the reporting thread. While the database is unavailable, including when the
+ * first connect fails, reconnects are attempted with exponential backoff until
+ * one succeeds.
+ */
+public class DatabaseHealthMonitor {
+    private final DatabaseConnection database;
+    private final HytaleLogger logger;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+    private final AtomicLong outages;
+    private final AtomicLong reconnectAttempts;
+    private final CompletableFuture<Void> connected;
+    private Timer timer;
+    private long backoffMs;
+    private long downSince;
+    private boolean checkPending;
+
+    /**
+     * Creates a new health monitor
+     * @param database The database connection
+     * @param logger The logger instance
+     * @param initialBackoffMs Delay before the first reconnect attempt
+     * @param maxBackoffMs Longest delay between reconnect attempts
+     */
+    public DatabaseHealthMonitor(DatabaseConnection database, HytaleLogger logger, long initialBackoffMs, long maxBackoffMs) {
+        this.database = database;
+        this.logger = logger;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.outages = new AtomicLong();
+        this.reconnectAttempts = new AtomicLong();
+        this.connected = new CompletableFuture<>();
+    }
+
+    /**
+     * Starts the timer that runs reconnect attempts
+     */
+    public synchronized void start() {
+        if (timer != null) {
+            logger.at(Level.WARNING).log("Database health monitor is already running");
+            return;
+        }
+        timer = new Timer("DatabaseHealth", true);
+    }
+
+    /**
+     * Stops reconnect attempts
+     */
+    public synchronized void stop() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        logger.at(Level.INFO).log(getReport());
+    }
+
+    /**
+     * Connects to the database for the first time
+     * If that fails, reconnects are attempted with backoff until one succeeds; start() must have been called
+     * @return true if the first attempt succeeded
+     */
+    public boolean connect() {
+        if (database.connect()) {
+            connected.complete(null);
+            return true;
+        }
+        synchronized (this) {
+            markDown();
+            logger.at(Level.WARNING).log("Database unreachable, retrying in the background");
+        }
+        return false;
+    }
+
+    /**
+     * Gets a future completed once the database has been connected and migrated
+     * @return The future; it never completes while the database stays unreachable
+     */
+    public CompletableFuture<Void> whenConnected() {
+        return connected;
+    }
+
+    /**
+     * Reports a connection error from a database call and marks the database unavailable
+     * @param e The connection error
+     */
+    public synchronized void reportConnectionError(SQLException e) {
+        if (!database.isAvailable()) {
+            return;
+        }
+        markDown();
+        logger.at(Level.WARNING).log("Database unavailable (" + e.getMessage() + "), character saves are spooled to disk until it is back");
+    }
+
+    /**
+     * Reports a failed database call whose cause is not known
+     * The connection is checked in the background; this call does not wait for it
+     * @return true if the database is already known to be unavailable
+     */
+    public synchronized boolean reportFailure() {
+        if (!database.isAvailable()) {
+            return true;
+        }
+        if (!checkPending && timer != null) {
+            checkPending = true;
+            timer.schedule(task(this::checkHealth), 0);
+        }
+        return false;
+    }
+
+    private void checkHealth() {
+        // isValid() may block for the full timeout, so it runs without holding the monitor
+        boolean healthy = database.checkHealth(2);
+        synchronized (this) {
+            checkPending = false;
+            if (!healthy && database.isAvailable()) {
+                markDown();
+                logger.at(Level.WARNING).log("Database unavailable, character saves are spooled to disk until it is back");
+            }
+        }
+    }
+
+    private void markDown() {
+        database.markUnavailable();
+        outages.incrementAndGet();
+        downSince = System.currentTimeMillis();
+        backoffMs = initialBackoffMs;
+        schedule();
+    }
+
+    private void schedule() {
+        if (timer == null) {
+            return;
+        }
+        timer.schedule(task(this::attemptReconnect), backoffMs);
+    }
+
+    private TimerTask task(Runnable work) {
+        return new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    work.run();
+                } catch (Exception e) {
+                    logger.at(Level.SEVERE).log("Error checking database connection: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        };
+    }
+
+    private void attemptReconnect() {
+        if (database.isAvailable()) {
+            return;
+        }
+        reconnectAttempts.incrementAndGet();
+        // Opening a connection may block for the connect timeout, so it runs without holding the monitor
+        boolean reconnected = database.reconnect();
+        synchronized (this) {
+            if (reconnected) {
+                logger.at(Level.INFO).log("Database available again after " + (System.currentTimeMillis() - downSince) / 1000 + " s");
+                connected.complete(null);
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            schedule();
+        }
+    }
+
+    /**
+     * Checks whether the database is available
+     * @return true unless an outage was detected and no reconnect has succeeded yet
+     */
+    public boolean isAvailable() {
+        return database.isAvailable();
+    }
+
+    /**
+     * Gets outage statistics
+     * @return A one-line report
+     */
+    public String getReport() {
+        return "Database health: " + (database.isAvailable() ? "available" : "unavailable") + ", " + outages.get()
+                + " outage(s), " + reconnectAttempts.get() + " reconnect attempt(s)";
+    }
+}
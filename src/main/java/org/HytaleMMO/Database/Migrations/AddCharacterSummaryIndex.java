@@ -0,0 +1,37 @@
+package org.HytaleMMO.Database.Migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Covering index for character summaries: every column the character-select
+ * query reads is in the index, ordered by most recently played per player,
+ * so summary lookups never read the full table rows
+ */
+public class AddCharacterSummaryIndex implements Migration {
+    
+    @Override
+    public void up(Connection connection) throws SQLException {
+        String sql = "CREATE INDEX IF NOT EXISTS idx_character_summary ON characters " +
+                "(player_id, last_played, character_name, character_class, level, id)";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    @Override
+    public void down(Connection connection) throws SQLException {
+        String sql = "DROP INDEX IF EXISTS idx_character_summary ON characters";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "AddCharacterSummaryIndex";
+    }
+}
@@ -0,0 +1,35 @@
+package org.HytaleMMO.Database.Migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Adds the quest_state column holding each character's encoded quest progress
+ * (completed-quest bitset and active objective counters, see QuestState)
+ */
+public class AddQuestStateColumn implements Migration {
+    
+    @Override
+    public void up(Connection connection) throws SQLException {
+        String sql = "ALTER TABLE characters ADD COLUMN IF NOT EXISTS quest_state BLOB NULL";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    @Override
+    public void down(Connection connection) throws SQLException {
+        String sql = "ALTER TABLE characters DROP COLUMN IF EXISTS quest_state";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "AddQuestStateColumn";
+    }
+}
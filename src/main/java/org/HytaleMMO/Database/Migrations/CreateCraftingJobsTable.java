@@ -0,0 +1,41 @@
+package org.HytaleMMO.Database.Migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class CreateCraftingJobsTable implements Migration {
+    
+    @Override
+    public void up(Connection connection) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS crafting_jobs (" +
+                "job_id CHAR(36) PRIMARY KEY, " +
+                "character_id INT NOT NULL, " +
+                "bench_id VARCHAR(64) NOT NULL, " +
+                "recipe_id VARCHAR(128) NOT NULL, " +
+                "quantity INT NOT NULL, " +
+                "duration_ms BIGINT NOT NULL, " +
+                "completes_at BIGINT NOT NULL DEFAULT 0, " +
+                "created_at BIGINT NOT NULL, " +
+                "INDEX idx_character_id (character_id, created_at)" +
+                ")";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    @Override
+    public void down(Connection connection) throws SQLException {
+        String sql = "DROP TABLE IF EXISTS crafting_jobs";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "CreateCraftingJobsTable";
+    }
+}
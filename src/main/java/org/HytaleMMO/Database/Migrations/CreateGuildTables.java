@@ -0,0 +1,47 @@
+package org.HytaleMMO.Database.Migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class CreateGuildTables implements Migration {
+    
+    @Override
+    public void up(Connection connection) throws SQLException {
+        String guildsSql = "CREATE TABLE IF NOT EXISTS guilds (" +
+                "id INT AUTO_INCREMENT PRIMARY KEY, " +
+                "name VARCHAR(32) NOT NULL, " +
+                "created_at BIGINT NOT NULL, " +
+                "UNIQUE KEY unique_guild_name (name)" +
+                ")";
+        
+        // A character belongs to at most one guild
+        String membersSql = "CREATE TABLE IF NOT EXISTS guild_members (" +
+                "character_id INT PRIMARY KEY, " +
+                "guild_id INT NOT NULL, " +
+                "player_id VARCHAR(36) NOT NULL, " +
+                "character_name VARCHAR(50) NOT NULL, " +
+                "guild_rank TINYINT NOT NULL, " +
+                "joined_at BIGINT NOT NULL, " +
+                "INDEX idx_guild_id (guild_id)" +
+                ")";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(guildsSql);
+            stmt.executeUpdate(membersSql);
+        }
+    }
+    
+    @Override
+    public void down(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS guild_members");
+            stmt.executeUpdate("DROP TABLE IF EXISTS guilds");
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "CreateGuildTables";
+    }
+}
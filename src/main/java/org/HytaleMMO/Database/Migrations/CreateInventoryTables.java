@@ -0,0 +1,46 @@
+package org.HytaleMMO.Database.Migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class CreateInventoryTables implements Migration {
+    
+    @Override
+    public void up(Connection connection) throws SQLException {
+        // Compacted inventory, one binary blob per character
+        // last_delta_id is the newest delta already folded into the blob
+        String inventorySql = "CREATE TABLE IF NOT EXISTS character_inventory (" +
+                "character_id INT PRIMARY KEY, " +
+                "data BLOB NOT NULL, " +
+                "last_delta_id BIGINT NOT NULL DEFAULT 0, " +
+                "updated_at BIGINT NOT NULL" +
+                ")";
+        
+        // Changed slots written since the last compaction, applied in id order
+        String deltaSql = "CREATE TABLE IF NOT EXISTS character_inventory_delta (" +
+                "id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "character_id INT NOT NULL, " +
+                "data BLOB NOT NULL, " +
+                "INDEX idx_character_id (character_id, id)" +
+                ")";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(inventorySql);
+            stmt.executeUpdate(deltaSql);
+        }
+    }
+    
+    @Override
+    public void down(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS character_inventory_delta");
+            stmt.executeUpdate("DROP TABLE IF EXISTS character_inventory");
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "CreateInventoryTables";
+    }
+}
@@ -0,0 +1,36 @@
+package org.HytaleMMO.Database.Migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class CreateKillStatsTable implements Migration {
+    
+    @Override
+    public void up(Connection connection) throws SQLException {
+        String sql = "CREATE TABLE IF NOT EXISTS kill_stats (" +
+                "player_id VARCHAR(36) NOT NULL, " +
+                "mob_type VARCHAR(64) NOT NULL, " +
+                "kill_count BIGINT NOT NULL DEFAULT 0, " +
+                "PRIMARY KEY (player_id, mob_type)" +
+                ")";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    @Override
+    public void down(Connection connection) throws SQLException {
+        String sql = "DROP TABLE IF EXISTS kill_stats";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "CreateKillStatsTable";
+    }
+}
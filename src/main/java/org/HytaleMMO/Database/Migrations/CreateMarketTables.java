@@ -0,0 +1,50 @@
+package org.HytaleMMO.Database.Migrations;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class CreateMarketTables implements Migration {
+    
+    @Override
+    public void up(Connection connection) throws SQLException {
+        // Listing IDs are assigned by the MarketService, not the database
+        String listingsSql = "CREATE TABLE IF NOT EXISTS market_listings (" +
+                "id BIGINT PRIMARY KEY, " +
+                "seller_character_id INT NOT NULL, " +
+                "seller_player_id VARCHAR(36) NOT NULL, " +
+                "seller_name VARCHAR(50) NOT NULL, " +
+                "item_id VARCHAR(128) NOT NULL, " +
+                "quantity INT NOT NULL, " +
+                "unit_price INT NOT NULL, " +
+                "created_at BIGINT NOT NULL, " +
+                "expires_at BIGINT NOT NULL" +
+                ")";
+        
+        // Sale proceeds and unsold items waiting to be collected, one row per character and item
+        String claimsSql = "CREATE TABLE IF NOT EXISTS market_claims (" +
+                "character_id INT NOT NULL, " +
+                "item_id VARCHAR(128) NOT NULL, " +
+                "quantity INT NOT NULL, " +
+                "PRIMARY KEY (character_id, item_id)" +
+                ")";
+        
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate(listingsSql);
+            stmt.executeUpdate(claimsSql);
+        }
+    }
+    
+    @Override
+    public void down(Connection connection) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.executeUpdate("DROP TABLE IF EXISTS market_claims");
+            stmt.executeUpdate("DROP TABLE IF EXISTS market_listings");
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return "CreateMarketTables";
+    }
+}
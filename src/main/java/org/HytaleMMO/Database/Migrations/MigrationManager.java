@@ -8,7 +8,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 
 public class MigrationManager {
@@ -23,6 +25,13 @@ public class MigrationManager {
         
         // Register migrations here
         migrations.add(new CreateCharacterTable());
+        migrations.add(new CreateKillStatsTable());
+        migrations.add(new CreateInventoryTables());
+        migrations.add(new CreateCraftingJobsTable());
+        migrations.add(new AddCharacterSummaryIndex());
+        migrations.add(new CreateGuildTables());
+        migrations.add(new AddQuestStateColumn());
+        migrations.add(new CreateMarketTables());
     }
 
     /**
@@ -57,6 +66,22 @@ public class MigrationManager {
         return false;
     }
 
+    /**
+     * Gets the names of all executed migrations in one query
+     */
+    private Set<String> findExecutedMigrations() throws SQLException {
+        String sql = "SELECT name FROM migrations";
+        Set<String> names = new HashSet<>();
+        
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
     /**
      * Records that a migration has been executed
      */
@@ -77,8 +102,10 @@ public class MigrationManager {
         try {
             createMigrationsTable();
             
+            // One round trip for the executed set instead of one per migration
+            Set<String> executed = findExecutedMigrations();
             for (Migration migration : migrations) {
-                if (!isMigrationExecuted(migration.getName())) {
+                if (!executed.contains(migration.getName())) {
                     logger.at(Level.INFO).log("Running migration: " + migration.getName());
                     migration.up(connection);
                     recordMigration(migration.getName());
@@ -1,17 +1,25 @@
 package org.HytaleMMO.Database.Tables;
 
+import org.HytaleMMO.Inventory.CharacterInventory;
+import org.HytaleMMO.Quests.QuestState;
+
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 public class Character {
+    private static final AtomicIntegerFieldUpdater<Character> HEALTH = AtomicIntegerFieldUpdater.newUpdater(Character.class, "health");
+    private static final AtomicIntegerFieldUpdater<Character> MANA = AtomicIntegerFieldUpdater.newUpdater(Character.class, "mana");
+
     private int id;
     private UUID playerId;
     private String characterName;
     private int level;
     private String characterClass;
     private int experience;
-    private int health;
+    // Volatile: regeneration writes them back with compare-and-set while other threads may set them
+    private volatile int health;
     private int maxHealth;
-    private int mana;
+    private volatile int mana;
     private int maxMana;
     private double posX;
     private double posY;
@@ -19,6 +27,14 @@ public class Character {
     private String world;
     private long createdAt;
     private long lastPlayed;
+    // Runtime only: dense slot assigned while the character is loaded, not persisted
+    private int slot = -1;
+    // Runtime only: stored separately by the InventoryManager
+    private CharacterInventory inventory;
+    // Stored in the quest_state column and written by the QuestService; null if the stored state could not be read
+    private QuestState questState;
+    // Runtime only: set when the in-memory state differs from the last save
+    private volatile boolean dirty;
 
     public Character() {
         this.level = 1;
@@ -29,6 +45,7 @@ public class Character {
         this.maxMana = 100;
         this.createdAt = System.currentTimeMillis();
         this.lastPlayed = System.currentTimeMillis();
+        this.questState = new QuestState();
     }
 
     // Getters and Setters
@@ -88,6 +105,16 @@ public class Character {
         this.health = health;
     }
 
+    /**
+     * Sets health only if it still has the expected value
+     * @param expected The value the caller read
+     * @param health The new value
+     * @return true if set, false if another thread changed health in between
+     */
+    public boolean compareAndSetHealth(int expected, int health) {
+        return HEALTH.compareAndSet(this, expected, health);
+    }
+
     public int getMaxHealth() {
         return maxHealth;
     }
@@ -104,6 +131,16 @@ public class Character {
         this.mana = mana;
     }
 
+    /**
+     * Sets mana only if it still has the expected value
+     * @param expected The value the caller read
+     * @param mana The new value
+     * @return true if set, false if another thread changed mana in between
+     */
+    public boolean compareAndSetMana(int expected, int mana) {
+        return MANA.compareAndSet(this, expected, mana);
+    }
+
     public int getMaxMana() {
         return maxMana;
     }
@@ -159,4 +196,40 @@ public class Character {
     public void setLastPlayed(long lastPlayed) {
         this.lastPlayed = lastPlayed;
     }
+
+    public int getSlot() {
+        return slot;
+    }
+
+    public void setSlot(int slot) {
+        this.slot = slot;
+    }
+
+    public CharacterInventory getInventory() {
+        return inventory;
+    }
+
+    public void setInventory(CharacterInventory inventory) {
+        this.inventory = inventory;
+    }
+
+    public QuestState getQuestState() {
+        return questState;
+    }
+
+    public void setQuestState(QuestState questState) {
+        this.questState = questState;
+    }
+
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    public void markDirty() {
+        this.dirty = true;
+    }
+
+    public void clearDirty() {
+        this.dirty = false;
+    }
 }
@@ -1,10 +1,12 @@
 package org.HytaleMMO.Database.Tables;
 
 import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Quests.QuestState;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.logging.Level;
 
@@ -99,6 +101,107 @@ public class CharacterRepository {
         return false;
     }
 
+    /**
+     * Updates several existing characters in a single batch
+     * @param characters The characters to update
+     * @return The number of characters updated
+     */
+    public int updateBatch(List<Character> characters) {
+        String sql = "UPDATE characters SET level = ?, character_class = ?, experience = ?, " +
+                "health = ?, max_health = ?, mana = ?, max_mana = ?, pos_x = ?, pos_y = ?, " +
+                "pos_z = ?, world = ?, last_played = ? WHERE id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Character character : characters) {
+                pstmt.setInt(1, character.getLevel());
+                pstmt.setString(2, character.getCharacterClass());
+                pstmt.setInt(3, character.getExperience());
+                pstmt.setInt(4, character.getHealth());
+                pstmt.setInt(5, character.getMaxHealth());
+                pstmt.setInt(6, character.getMana());
+                pstmt.setInt(7, character.getMaxMana());
+                pstmt.setDouble(8, character.getPosX());
+                pstmt.setDouble(9, character.getPosY());
+                pstmt.setDouble(10, character.getPosZ());
+                pstmt.setString(11, character.getWorld());
+                pstmt.setLong(12, character.getLastPlayed());
+                pstmt.setInt(13, character.getId());
+                pstmt.addBatch();
+            }
+
+            int updated = 0;
+            for (int result : pstmt.executeBatch()) {
+                if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                    updated++;
+                }
+            }
+            return updated;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error updating characters: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Updates level and experience of several characters in a single batch
+     * @param characters The characters to update
+     * @return The number of characters updated
+     */
+    public int updateProgressBatch(List<Character> characters) {
+        String sql = "UPDATE characters SET level = ?, experience = ? WHERE id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Character character : characters) {
+                pstmt.setInt(1, character.getLevel());
+                pstmt.setInt(2, character.getExperience());
+                pstmt.setInt(3, character.getId());
+                pstmt.addBatch();
+            }
+
+            int updated = 0;
+            for (int result : pstmt.executeBatch()) {
+                if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                    updated++;
+                }
+            }
+            return updated;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error updating character progress: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return 0;
+    }
+
+    /**
+     * Writes the encoded quest state of several characters in a single batch
+     * @param states The encoded quest states by character ID
+     * @return The number of characters updated
+     */
+    public int updateQuestStates(Map<Integer, byte[]> states) {
+        String sql = "UPDATE characters SET quest_state = ? WHERE id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Map.Entry<Integer, byte[]> state : states.entrySet()) {
+                pstmt.setBytes(1, state.getValue());
+                pstmt.setInt(2, state.getKey());
+                pstmt.addBatch();
+            }
+
+            int updated = 0;
+            for (int result : pstmt.executeBatch()) {
+                if (result > 0 || result == Statement.SUCCESS_NO_INFO) {
+                    updated++;
+                }
+            }
+            return updated;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error updating quest states: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
     /**
      * Finds a character by player ID and character name
      * @param playerId The player's UUID
@@ -124,6 +227,57 @@ public class CharacterRepository {
         return null;
     }
 
+    /**
+     * Finds a character by ID
+     * @param characterId The character's ID
+     * @return The character if found, null otherwise
+     */
+    public Character findById(int characterId) {
+        String sql = "SELECT * FROM characters WHERE id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, characterId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapResultSetToCharacter(rs);
+                }
+            }
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error finding character: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Finds the summaries of all characters of a player, most recently played first
+     * Only reads columns of the summary covering index
+     * @param playerId The player's UUID
+     * @return List of summaries, or null on error
+     */
+    public List<CharacterSummary> findSummariesByPlayer(UUID playerId) {
+        List<CharacterSummary> summaries = new ArrayList<>();
+        String sql = "SELECT id, character_name, character_class, level, last_played FROM characters " +
+                "WHERE player_id = ? ORDER BY last_played DESC, id";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, playerId.toString());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    summaries.add(new CharacterSummary(rs.getInt(1), playerId, rs.getString(2),
+                            rs.getString(3), rs.getInt(4), rs.getLong(5)));
+                }
+            }
+            return summaries;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error finding character summaries: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
     /**
      * Finds all characters for a specific player
      * @param playerId The player's UUID
@@ -148,6 +302,41 @@ public class CharacterRepository {
         return characters;
     }
 
+    /**
+     * Receives one row of the ranking scan
+     */
+    public interface RankingRowHandler {
+        void accept(int id, UUID playerId, String characterName, String characterClass, int level, int experience);
+    }
+
+    /**
+     * Streams the ranking columns of every character, without loading full rows or the whole table at once
+     * @param handler Called once per character
+     * @return The number of characters read, or -1 on error
+     */
+    public int forEachRanking(RankingRowHandler handler) {
+        String sql = "SELECT id, player_id, character_name, character_class, level, experience FROM characters";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Fetch rows in chunks instead of buffering the full result
+            pstmt.setFetchSize(1000);
+
+            int count = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(rs.getInt(1), UUID.fromString(rs.getString(2)), rs.getString(3),
+                            rs.getString(4), rs.getInt(5), rs.getInt(6));
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error reading character rankings: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
     /**
      * Deletes a character by ID
      * @param characterId The character's ID
@@ -194,6 +383,13 @@ public class CharacterRepository {
         character.setWorld(rs.getString("world"));
         character.setCreatedAt(rs.getLong("created_at"));
         character.setLastPlayed(rs.getLong("last_played"));
+        try {
+            character.setQuestState(QuestState.decode(rs.getBytes("quest_state")));
+        } catch (IllegalArgumentException e) {
+            // Leave the state unset so the stored blob is never overwritten with an empty one
+            logger.at(Level.SEVERE).log("Invalid quest state for character " + character.getId() + ": " + e.getMessage());
+            character.setQuestState(null);
+        }
         return character;
     }
 }
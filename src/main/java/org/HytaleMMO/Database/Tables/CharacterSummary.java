@@ -0,0 +1,59 @@
+package org.HytaleMMO.Database.Tables;
+
+import java.util.UUID;
+
+/**
+ * Narrow projection of a character row, enough for a character-select screen
+ * Read from the summary covering index without touching the table rows
+ */
+public final class CharacterSummary {
+    private final int id;
+    private final UUID playerId;
+    private final String characterName;
+    private final String characterClass;
+    private final int level;
+    private final long lastPlayed;
+
+    public CharacterSummary(int id, UUID playerId, String characterName, String characterClass, int level, long lastPlayed) {
+        this.id = id;
+        this.playerId = playerId;
+        this.characterName = characterName;
+        this.characterClass = characterClass;
+        this.level = level;
+        this.lastPlayed = lastPlayed;
+    }
+
+    /**
+     * Builds the summary of a loaded character
+     * @param character The character
+     * @return The summary
+     */
+    public static CharacterSummary of(Character character) {
+        return new CharacterSummary(character.getId(), character.getPlayerId(), character.getCharacterName(),
+                character.getCharacterClass(), character.getLevel(), character.getLastPlayed());
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getCharacterName() {
+        return characterName;
+    }
+
+    public String getCharacterClass() {
+        return characterClass;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public long getLastPlayed() {
+        return lastPlayed;
+    }
+}
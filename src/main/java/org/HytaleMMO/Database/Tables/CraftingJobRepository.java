@@ -0,0 +1,166 @@
+package org.HytaleMMO.Database.Tables;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+
+public class CraftingJobRepository {
+    private final Connection connection;
+    private final HytaleLogger logger;
+
+    public CraftingJobRepository(Connection connection, HytaleLogger logger) {
+        this.connection = connection;
+        this.logger = logger;
+    }
+
+    /**
+     * Inserts new jobs and updates the completion time of existing ones in a single batch
+     * @param jobs The jobs to write
+     * @return true if successful, false otherwise
+     */
+    public boolean upsertBatch(Collection<StoredJob> jobs) {
+        String sql = "INSERT INTO crafting_jobs (job_id, character_id, bench_id, recipe_id, quantity, duration_ms, completes_at, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE completes_at = VALUES(completes_at)";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (StoredJob job : jobs) {
+                pstmt.setString(1, job.getJobId().toString());
+                pstmt.setInt(2, job.getCharacterId());
+                pstmt.setString(3, job.getBenchId());
+                pstmt.setString(4, job.getRecipeId());
+                pstmt.setInt(5, job.getQuantity());
+                pstmt.setLong(6, job.getDurationMs());
+                pstmt.setLong(7, job.getCompletesAt());
+                pstmt.setLong(8, job.getCreatedAt());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error writing crafting jobs: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Deletes finished or cancelled jobs in a single batch
+     * @param jobIds The IDs of the jobs to delete
+     * @return true if successful, false otherwise
+     */
+    public boolean deleteBatch(Collection<UUID> jobIds) {
+        String sql = "DELETE FROM crafting_jobs WHERE job_id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (UUID jobId : jobIds) {
+                pstmt.setString(1, jobId.toString());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error deleting crafting jobs: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Finds the queued jobs of a character, oldest first
+     * @param characterId The character ID
+     * @return List of jobs
+     */
+    public List<StoredJob> findByCharacter(int characterId) {
+        List<StoredJob> jobs = new ArrayList<>();
+        String sql = "SELECT * FROM crafting_jobs WHERE character_id = ? ORDER BY created_at";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setInt(1, characterId);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    jobs.add(new StoredJob(
+                            UUID.fromString(rs.getString("job_id")),
+                            rs.getInt("character_id"),
+                            rs.getString("bench_id"),
+                            rs.getString("recipe_id"),
+                            rs.getInt("quantity"),
+                            rs.getLong("duration_ms"),
+                            rs.getLong("completes_at"),
+                            rs.getLong("created_at")
+                    ));
+                }
+            }
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error finding crafting jobs: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return jobs;
+    }
+
+    /**
+     * A crafting job as stored in the database
+     */
+    public static final class StoredJob {
+        private final UUID jobId;
+        private final int characterId;
+        private final String benchId;
+        private final String recipeId;
+        private final int quantity;
+        private final long durationMs;
+        private final long completesAt;
+        private final long createdAt;
+
+        public StoredJob(UUID jobId, int characterId, String benchId, String recipeId, int quantity,
+                         long durationMs, long completesAt, long createdAt) {
+            this.jobId = jobId;
+            this.characterId = characterId;
+            this.benchId = benchId;
+            this.recipeId = recipeId;
+            this.quantity = quantity;
+            this.durationMs = durationMs;
+            this.completesAt = completesAt;
+            this.createdAt = createdAt;
+        }
+
+        public UUID getJobId() {
+            return jobId;
+        }
+
+        public int getCharacterId() {
+            return characterId;
+        }
+
+        public String getBenchId() {
+            return benchId;
+        }
+
+        public String getRecipeId() {
+            return recipeId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+
+        /**
+         * @return When the job completes in milliseconds, or 0 if it has not started
+         */
+        public long getCompletesAt() {
+            return completesAt;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+    }
+}
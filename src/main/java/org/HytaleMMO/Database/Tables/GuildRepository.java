@@ -0,0 +1,239 @@
+package org.HytaleMMO.Database.Tables;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+
+public class GuildRepository {
+    private final Connection connection;
+    private final HytaleLogger logger;
+
+    public GuildRepository(Connection connection, HytaleLogger logger) {
+        this.connection = connection;
+        this.logger = logger;
+    }
+
+    /**
+     * Inserts a new guild
+     * @param name The guild name
+     * @param createdAt The creation time in milliseconds
+     * @return The new guild's ID, or -1 if the name is taken or the insert failed
+     */
+    public int createGuild(String name, long createdAt) {
+        String sql = "INSERT INTO guilds (name, created_at) VALUES (?, ?)";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, name);
+            pstmt.setLong(2, createdAt);
+
+            if (pstmt.executeUpdate() > 0) {
+                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        return generatedKeys.getInt(1);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error creating guild: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Deletes a guild and all of its memberships
+     * @param guildId The guild ID
+     * @return true if successful, false otherwise
+     */
+    public boolean deleteGuild(int guildId) {
+        try (PreparedStatement members = connection.prepareStatement("DELETE FROM guild_members WHERE guild_id = ?");
+             PreparedStatement guild = connection.prepareStatement("DELETE FROM guilds WHERE id = ?")) {
+            members.setInt(1, guildId);
+            members.executeUpdate();
+            guild.setInt(1, guildId);
+            guild.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error deleting guild: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Finds all guilds
+     * @return List of guilds, or null on error
+     */
+    public List<StoredGuild> findAllGuilds() {
+        List<StoredGuild> guilds = new ArrayList<>();
+        String sql = "SELECT id, name, created_at FROM guilds";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                guilds.add(new StoredGuild(rs.getInt(1), rs.getString(2), rs.getLong(3)));
+            }
+            return guilds;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error finding guilds: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Finds all guild memberships
+     * @return List of memberships, or null on error
+     */
+    public List<StoredMember> findAllMembers() {
+        List<StoredMember> members = new ArrayList<>();
+        String sql = "SELECT character_id, guild_id, player_id, character_name, guild_rank, joined_at FROM guild_members";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setFetchSize(1000);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    members.add(new StoredMember(rs.getInt(1), rs.getInt(2), UUID.fromString(rs.getString(3)),
+                            rs.getString(4), rs.getInt(5), rs.getLong(6)));
+                }
+            }
+            return members;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error finding guild members: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Inserts new memberships and updates changed ones in a single batch
+     * @param members The memberships to write
+     * @return true if successful, false otherwise
+     */
+    public boolean upsertMembers(Collection<StoredMember> members) {
+        String sql = "INSERT INTO guild_members (character_id, guild_id, player_id, character_name, guild_rank, joined_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE guild_id = VALUES(guild_id), " +
+                "character_name = VALUES(character_name), guild_rank = VALUES(guild_rank), joined_at = VALUES(joined_at)";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (StoredMember member : members) {
+                pstmt.setInt(1, member.getCharacterId());
+                pstmt.setInt(2, member.getGuildId());
+                pstmt.setString(3, member.getPlayerId().toString());
+                pstmt.setString(4, member.getCharacterName());
+                pstmt.setInt(5, member.getRank());
+                pstmt.setLong(6, member.getJoinedAt());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error writing guild members: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Deletes memberships in a single batch
+     * @param characterIds The IDs of the characters that left their guild
+     * @return true if successful, false otherwise
+     */
+    public boolean deleteMembers(Collection<Integer> characterIds) {
+        String sql = "DELETE FROM guild_members WHERE character_id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int characterId : characterIds) {
+                pstmt.setInt(1, characterId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error deleting guild members: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * A guild as stored in the database
+     */
+    public static final class StoredGuild {
+        private final int id;
+        private final String name;
+        private final long createdAt;
+
+        public StoredGuild(int id, String name, long createdAt) {
+            this.id = id;
+            this.name = name;
+            this.createdAt = createdAt;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+    }
+
+    /**
+     * A guild membership as stored in the database
+     */
+    public static final class StoredMember {
+        private final int characterId;
+        private final int guildId;
+        private final UUID playerId;
+        private final String characterName;
+        private final int rank;
+        private final long joinedAt;
+
+        public StoredMember(int characterId, int guildId, UUID playerId, String characterName, int rank, long joinedAt) {
+            this.characterId = characterId;
+            this.guildId = guildId;
+            this.playerId = playerId;
+            this.characterName = characterName;
+            this.rank = rank;
+            this.joinedAt = joinedAt;
+        }
+
+        public int getCharacterId() {
+            return characterId;
+        }
+
+        public int getGuildId() {
+            return guildId;
+        }
+
+        public UUID getPlayerId() {
+            return playerId;
+        }
+
+        public String getCharacterName() {
+            return characterName;
+        }
+
+        /**
+         * @return The ordinal of the member's GuildRank
+         */
+        public int getRank() {
+            return rank;
+        }
+
+        public long getJoinedAt() {
+            return joinedAt;
+        }
+    }
+}
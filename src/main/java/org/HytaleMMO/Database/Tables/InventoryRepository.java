@@ -0,0 +1,171 @@
+package org.HytaleMMO.Database.Tables;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+
+public class InventoryRepository {
+    private final Connection connection;
+    private final HytaleLogger logger;
+
+    public InventoryRepository(Connection connection, HytaleLogger logger) {
+        this.connection = connection;
+        this.logger = logger;
+    }
+
+    /**
+     * Loads the compacted inventory of a character and every delta written after it
+     * @param characterId The character ID
+     * @return The stored inventory (empty if the character has none), or null on error
+     */
+    public StoredInventory load(int characterId) {
+        String baseSql = "SELECT data, last_delta_id FROM character_inventory WHERE character_id = ?";
+        String deltaSql = "SELECT data FROM character_inventory_delta WHERE character_id = ? AND id > ? ORDER BY id";
+
+        try {
+            byte[] base = null;
+            long lastDeltaId = 0;
+            try (PreparedStatement pstmt = connection.prepareStatement(baseSql)) {
+                pstmt.setInt(1, characterId);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        base = rs.getBytes("data");
+                        lastDeltaId = rs.getLong("last_delta_id");
+                    }
+                }
+            }
+
+            List<byte[]> deltas = new ArrayList<>();
+            try (PreparedStatement pstmt = connection.prepareStatement(deltaSql)) {
+                pstmt.setInt(1, characterId);
+                pstmt.setLong(2, lastDeltaId);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        deltas.add(rs.getBytes("data"));
+                    }
+                }
+            }
+            return new StoredInventory(base, deltas);
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error loading inventory: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Appends inventory deltas in a single batch
+     * @param deltas The encoded deltas, one per character
+     * @return true if successful, false otherwise
+     */
+    public boolean appendDeltas(List<InventoryData> deltas) {
+        String sql = "INSERT INTO character_inventory_delta (character_id, data) VALUES (?, ?)";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (InventoryData delta : deltas) {
+                pstmt.setInt(1, delta.getCharacterId());
+                pstmt.setBytes(2, delta.getData());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error writing inventory deltas: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Replaces the compacted inventories of several characters and removes the deltas folded into them
+     * Deltas are only applied on load if they are newer than the compacted blob,
+     * so a failed cleanup leaves stale rows behind but never changes the inventory
+     * @param inventories The full encoded inventories, one per character
+     * @return true if successful, false otherwise
+     */
+    public boolean saveCompacted(List<InventoryData> inventories) {
+        String upsertSql = "INSERT INTO character_inventory (character_id, data, last_delta_id, updated_at) " +
+                "VALUES (?, ?, (SELECT COALESCE(MAX(id), 0) FROM character_inventory_delta WHERE character_id = ?), ?) " +
+                "ON DUPLICATE KEY UPDATE data = VALUES(data), last_delta_id = VALUES(last_delta_id), updated_at = VALUES(updated_at)";
+        String cleanupSql = "DELETE FROM character_inventory_delta WHERE character_id = ? AND id <= " +
+                "(SELECT last_delta_id FROM character_inventory WHERE character_id = ?)";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(upsertSql)) {
+            long now = System.currentTimeMillis();
+            for (InventoryData inventory : inventories) {
+                pstmt.setInt(1, inventory.getCharacterId());
+                pstmt.setBytes(2, inventory.getData());
+                pstmt.setInt(3, inventory.getCharacterId());
+                pstmt.setLong(4, now);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error writing inventories: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        try (PreparedStatement pstmt = connection.prepareStatement(cleanupSql)) {
+            for (InventoryData inventory : inventories) {
+                pstmt.setInt(1, inventory.getCharacterId());
+                pstmt.setInt(2, inventory.getCharacterId());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            logger.at(Level.WARNING).log("Error removing compacted inventory deltas: " + e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * An encoded inventory or delta for one character
+     */
+    public static final class InventoryData {
+        private final int characterId;
+        private final byte[] data;
+
+        public InventoryData(int characterId, byte[] data) {
+            this.characterId = characterId;
+            this.data = data;
+        }
+
+        public int getCharacterId() {
+            return characterId;
+        }
+
+        public byte[] getData() {
+            return data;
+        }
+    }
+
+    /**
+     * The compacted inventory of a character plus the deltas written since
+     */
+    public static final class StoredInventory {
+        private final byte[] base;
+        private final List<byte[]> deltas;
+
+        public StoredInventory(byte[] base, List<byte[]> deltas) {
+            this.base = base;
+            this.deltas = deltas;
+        }
+
+        /**
+         * @return The compacted blob, or null if the character has never stored an inventory
+         */
+        public byte[] getBase() {
+            return base;
+        }
+
+        public List<byte[]> getDeltas() {
+            return deltas;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.HytaleMMO.Database.Tables;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+
+public class KillStatsRepository {
+    private final Connection connection;
+    private final HytaleLogger logger;
+
+    public KillStatsRepository(Connection connection, HytaleLogger logger) {
+        this.connection = connection;
+        this.logger = logger;
+    }
+
+    /**
+     * Adds kill count deltas to the stored totals in a single batch
+     * @param deltas The kill count deltas to add
+     * @return true if successful, false otherwise
+     */
+    public boolean incrementBatch(List<KillCount> deltas) {
+        String sql = "INSERT INTO kill_stats (player_id, mob_type, kill_count) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE kill_count = kill_count + ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (KillCount delta : deltas) {
+                pstmt.setString(1, delta.getPlayerId().toString());
+                pstmt.setString(2, delta.getMobType());
+                pstmt.setLong(3, delta.getCount());
+                pstmt.setLong(4, delta.getCount());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error updating kill stats: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Finds the kill totals of a player
+     * @param playerId The player's UUID
+     * @return Map of mob type to kill count
+     */
+    public Map<String, Long> findByPlayer(UUID playerId) {
+        Map<String, Long> kills = new HashMap<>();
+        String sql = "SELECT mob_type, kill_count FROM kill_stats WHERE player_id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            pstmt.setString(1, playerId.toString());
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    kills.put(rs.getString("mob_type"), rs.getLong("kill_count"));
+                }
+            }
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error finding kill stats: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return kills;
+    }
+
+    /**
+     * A kill count for one player and mob type
+     */
+    public static final class KillCount {
+        private final UUID playerId;
+        private final String mobType;
+        private final long count;
+
+        public KillCount(UUID playerId, String mobType, long count) {
+            this.playerId = playerId;
+            this.mobType = mobType;
+            this.count = count;
+        }
+
+        public UUID getPlayerId() {
+            return playerId;
+        }
+
+        public String getMobType() {
+            return mobType;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
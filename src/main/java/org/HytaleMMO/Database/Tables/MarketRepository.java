@@ -0,0 +1,260 @@
+package org.HytaleMMO.Database.Tables;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+
+public class MarketRepository {
+    private final Connection connection;
+    private final HytaleLogger logger;
+
+    public MarketRepository(Connection connection, HytaleLogger logger) {
+        this.connection = connection;
+        this.logger = logger;
+    }
+
+    /**
+     * Inserts new listings and updates the quantity of existing ones in a single batch
+     * @param listings The listings to write
+     * @return true if successful, false otherwise
+     */
+    public boolean upsertListings(Collection<StoredListing> listings) {
+        String sql = "INSERT INTO market_listings (id, seller_character_id, seller_player_id, seller_name, item_id, " +
+                "quantity, unit_price, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (StoredListing listing : listings) {
+                pstmt.setLong(1, listing.getId());
+                pstmt.setInt(2, listing.getSellerCharacterId());
+                pstmt.setString(3, listing.getSellerPlayerId().toString());
+                pstmt.setString(4, listing.getSellerName());
+                pstmt.setString(5, listing.getItemId());
+                pstmt.setInt(6, listing.getQuantity());
+                pstmt.setInt(7, listing.getUnitPrice());
+                pstmt.setLong(8, listing.getCreatedAt());
+                pstmt.setLong(9, listing.getExpiresAt());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error writing market listings: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Deletes sold, cancelled or expired listings in a single batch
+     * @param listingIds The IDs of the listings to delete
+     * @return true if successful, false otherwise
+     */
+    public boolean deleteListings(Collection<Long> listingIds) {
+        String sql = "DELETE FROM market_listings WHERE id = ?";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (Long listingId : listingIds) {
+                pstmt.setLong(1, listingId);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error deleting market listings: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Receives one row of the listing scan
+     */
+    public interface ListingRowHandler {
+        void accept(long id, int sellerCharacterId, UUID sellerPlayerId, String sellerName, String itemId,
+                    int quantity, int unitPrice, long createdAt, long expiresAt);
+    }
+
+    /**
+     * Streams every open listing without buffering the whole table
+     * @param handler Called once per listing
+     * @return The number of listings read, or -1 on error
+     */
+    public int forEachListing(ListingRowHandler handler) {
+        String sql = "SELECT id, seller_character_id, seller_player_id, seller_name, item_id, quantity, unit_price, " +
+                "created_at, expires_at FROM market_listings";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            // Fetch rows in chunks instead of buffering the full result
+            pstmt.setFetchSize(1000);
+
+            int count = 0;
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(rs.getLong(1), rs.getInt(2), UUID.fromString(rs.getString(3)), rs.getString(4),
+                            rs.getString(5), rs.getInt(6), rs.getInt(7), rs.getLong(8), rs.getLong(9));
+                    count++;
+                }
+            }
+            return count;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error reading market listings: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Writes the quantity waiting for a character per item in a single batch
+     * A claim with quantity 0 is deleted
+     * @param claims The claims to write
+     * @return true if successful, false otherwise
+     */
+    public boolean writeClaims(Collection<StoredClaim> claims) {
+        String upsertSql = "INSERT INTO market_claims (character_id, item_id, quantity) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)";
+        String deleteSql = "DELETE FROM market_claims WHERE character_id = ? AND item_id = ?";
+
+        try (PreparedStatement upsert = connection.prepareStatement(upsertSql);
+             PreparedStatement delete = connection.prepareStatement(deleteSql)) {
+            boolean upserts = false;
+            boolean deletes = false;
+            for (StoredClaim claim : claims) {
+                if (claim.getQuantity() > 0) {
+                    upsert.setInt(1, claim.getCharacterId());
+                    upsert.setString(2, claim.getItemId());
+                    upsert.setInt(3, claim.getQuantity());
+                    upsert.addBatch();
+                    upserts = true;
+                } else {
+                    delete.setInt(1, claim.getCharacterId());
+                    delete.setString(2, claim.getItemId());
+                    delete.addBatch();
+                    deletes = true;
+                }
+            }
+            if (upserts) {
+                upsert.executeBatch();
+            }
+            if (deletes) {
+                delete.executeBatch();
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error writing market claims: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    /**
+     * Loads every uncollected claim
+     * @return List of claims, or null on error
+     */
+    public List<StoredClaim> findAllClaims() {
+        List<StoredClaim> claims = new ArrayList<>();
+        String sql = "SELECT character_id, item_id, quantity FROM market_claims";
+
+        try (PreparedStatement pstmt = connection.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                claims.add(new StoredClaim(rs.getInt(1), rs.getString(2), rs.getInt(3)));
+            }
+            return claims;
+        } catch (SQLException e) {
+            logger.at(Level.SEVERE).log("Error loading market claims: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public static final class StoredListing {
+        private final long id;
+        private final int sellerCharacterId;
+        private final UUID sellerPlayerId;
+        private final String sellerName;
+        private final String itemId;
+        private final int quantity;
+        private final int unitPrice;
+        private final long createdAt;
+        private final long expiresAt;
+
+        public StoredListing(long id, int sellerCharacterId, UUID sellerPlayerId, String sellerName, String itemId,
+                             int quantity, int unitPrice, long createdAt, long expiresAt) {
+            this.id = id;
+            this.sellerCharacterId = sellerCharacterId;
+            this.sellerPlayerId = sellerPlayerId;
+            this.sellerName = sellerName;
+            this.itemId = itemId;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+            this.createdAt = createdAt;
+            this.expiresAt = expiresAt;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public int getSellerCharacterId() {
+            return sellerCharacterId;
+        }
+
+        public UUID getSellerPlayerId() {
+            return sellerPlayerId;
+        }
+
+        public String getSellerName() {
+            return sellerName;
+        }
+
+        public String getItemId() {
+            return itemId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public int getUnitPrice() {
+            return unitPrice;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+
+    public static final class StoredClaim {
+        private final int characterId;
+        private final String itemId;
+        private final int quantity;
+
+        public StoredClaim(int characterId, String itemId, int quantity) {
+            this.characterId = characterId;
+            this.itemId = itemId;
+            this.quantity = quantity;
+        }
+
+        public int getCharacterId() {
+            return characterId;
+        }
+
+        public String getItemId() {
+            return itemId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.HytaleMMO.Events;
+
+import com.hypixel.hytale.world.entity.player.Player;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.HytaleMMO.Broadcast.BroadcastService;
+import org.HytaleMMO.Bus.MmoEvent;
+import org.HytaleMMO.Bus.MmoEventHandler;
+import org.HytaleMMO.Listeners.ServerTickScheduler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds and sends kill messages to players.
+ * Message components are built once per mob type and cached. When an
+ * aggregation window is configured, kills are counted per player and flushed
+ * as a single message (e.g. "Você matou 7x Zombie!") at the end of each window
+ * instead of sending one chat packet per kill. Level-ups are also announced
+ * to the players nearby when a BroadcastService is set.
+ */
+public class KillFeed implements MmoEventHandler {
+    private static final Component SINGLE_PREFIX = Component.text("Você matou um ", NamedTextColor.GREEN);
+    private static final Component MULTI_PREFIX = Component.text("Você matou ", NamedTextColor.GREEN);
+    private static final Component SEPARATOR = Component.text(", ", NamedTextColor.GREEN);
+    private static final Component SUFFIX = Component.text("!", NamedTextColor.GREEN);
+    private static final Component LEVEL_UP_PREFIX = Component.text("Você alcançou o nível ", NamedTextColor.GOLD);
+    private static final Component LEVEL_UP_SUFFIX = Component.text("!", NamedTextColor.GOLD);
+    private static final Component NEARBY_LEVEL_UP = Component.text(" alcançou o nível ", NamedTextColor.GOLD);
+    private static final double LEVEL_UP_RADIUS = 48;
+
+    private final Map<String, Component> singleKillMessages;
+    private final Map<String, Component> mobNames;
+    private final Map<UUID, PendingKills> pendingKills;
+    private final long windowMs;
+    private BroadcastService broadcasts;
+    private ServerTickScheduler.RepeatingTask flushTask;
+
+    /**
+     * Creates a new kill feed
+     * @param windowMs The aggregation window in milliseconds, or 0 to send every kill immediately
+     */
+    public KillFeed(long windowMs) {
+        this.singleKillMessages = new ConcurrentHashMap<>();
+        this.mobNames = new ConcurrentHashMap<>();
+        this.pendingKills = new ConcurrentHashMap<>();
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Sets the broadcast service used to announce level-ups to nearby players
+     * @param broadcasts The broadcast service
+     */
+    public void setBroadcasts(BroadcastService broadcasts) {
+        this.broadcasts = broadcasts;
+    }
+
+    /**
+     * Flushes the aggregated kills on the server tick once per window, if aggregation is enabled
+     * @param scheduler The server tick scheduler
+     */
+    public void start(ServerTickScheduler scheduler) {
+        if (windowMs <= 0 || flushTask != null) {
+            return;
+        }
+
+        flushTask = scheduler.schedule("kill feed flush", this::flush, ServerTickScheduler.ticks(windowMs));
+    }
+
+    /**
+     * Stops the flushes and sends any pending messages
+     */
+    public void stop() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+        flush();
+    }
+
+    @Override
+    public void onEvent(MmoEvent event, long sequence, boolean endOfBatch) {
+        if (event.getType() == MmoEvent.MOB_KILL) {
+            recordKill((Player) event.getSource(), event.getName());
+        }
+    }
+
+    /**
+     * Records a kill and sends or queues the corresponding message
+     * @param player The player who killed the mob
+     * @param mobName The mob type name
+     */
+    public void recordKill(Player player, String mobName) {
+        if (windowMs <= 0) {
+            player.sendMessage(getSingleKillMessage(mobName));
+            return;
+        }
+
+        while (true) {
+            PendingKills pending = pendingKills.computeIfAbsent(player.getUniqueId(), id -> new PendingKills());
+            if (pending.add(player, mobName)) {
+                return;
+            }
+            // The buffer was retired by a concurrent flush; retry with a fresh instance
+        }
+    }
+
+    /**
+     * Sends one aggregated message to every player with kills in the current window
+     */
+    public void flush() {
+        for (Map.Entry<UUID, PendingKills> entry : pendingKills.entrySet()) {
+            PendingKills pending = entry.getValue();
+            Component message;
+            Player player;
+
+            synchronized (pending) {
+                if (pending.counts.isEmpty()) {
+                    // No kills for a whole window; drop the buffer so offline players do not leak
+                    pending.retired = true;
+                    pendingKills.remove(entry.getKey(), pending);
+                    continue;
+                }
+                player = pending.player;
+                message = buildMessage(pending.counts);
+                pending.counts.clear();
+            }
+
+            player.sendMessage(message);
+        }
+    }
+
+    /**
+     * Sends a level-up message to a player and announces it to the players nearby
+     * @param player The player who levelled up
+     * @param level The new level
+     */
+    public void sendLevelUp(Player player, int level) {
+        Component levelText = Component.text(String.valueOf(level), NamedTextColor.YELLOW);
+        player.sendMessage(LEVEL_UP_PREFIX.append(levelText).append(LEVEL_UP_SUFFIX));
+
+        BroadcastService broadcasts = this.broadcasts;
+        if (broadcasts != null) {
+            broadcasts.sendAround(player.getUniqueId(), LEVEL_UP_RADIUS, Component.text(player.getName(), NamedTextColor.YELLOW)
+                    .append(NEARBY_LEVEL_UP).append(levelText).append(LEVEL_UP_SUFFIX));
+        }
+    }
+
+    /**
+     * Gets the cached message for a single kill of a mob type
+     * @param mobName The mob type name
+     * @return The message component
+     */
+    public Component getSingleKillMessage(String mobName) {
+        return singleKillMessages.computeIfAbsent(mobName, name -> SINGLE_PREFIX
+                .append(getMobName(name))
+                .append(SUFFIX));
+    }
+
+    private Component getMobName(String mobName) {
+        return mobNames.computeIfAbsent(mobName, name -> Component.text(name, NamedTextColor.YELLOW));
+    }
+
+    private Component buildMessage(Map<String, int[]> counts) {
+        if (counts.size() == 1) {
+            Map.Entry<String, int[]> only = counts.entrySet().iterator().next();
+            if (only.getValue()[0] == 1) {
+                return getSingleKillMessage(only.getKey());
+            }
+        }
+
+        Component message = MULTI_PREFIX;
+        boolean first = true;
+        for (Map.Entry<String, int[]> kill : counts.entrySet()) {
+            if (!first) {
+                message = message.append(SEPARATOR);
+            }
+            message = message
+                    .append(Component.text(kill.getValue()[0] + "x ", NamedTextColor.YELLOW))
+                    .append(getMobName(kill.getKey()));
+            first = false;
+        }
+        return message.append(SUFFIX);
+    }
+
+    private static final class PendingKills {
+        private final Map<String, int[]> counts = new LinkedHashMap<>();
+        private Player player;
+        private boolean retired;
+
+        /**
+         * @return false if the buffer has been retired by a flush and the kill was not recorded
+         */
+        private synchronized boolean add(Player player, String mobName) {
+            if (retired) {
+                return false;
+            }
+            this.player = player;
+            counts.computeIfAbsent(mobName, name -> new int[1])[0]++;
+            return true;
+        }
+    }
+}
@@ -6,14 +6,104 @@ import com.hypixel.hytale.world.entity.Entity;
 import com.hypixel.hytale.world.entity.LivingEntity;
 import com.hypixel.hytale.world.entity.Mob;
 import com.hypixel.hytale.world.entity.player.Player;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.format.NamedTextColor;
+import org.HytaleMMO.Bus.MmoEvent;
+import org.HytaleMMO.Bus.MmoEventBus;
+import org.HytaleMMO.Bus.MmoEventHandler;
+import org.HytaleMMO.Loot.LootService;
+import org.HytaleMMO.Mobs.MobTypeRegistry;
+import org.HytaleMMO.Profiling.Profiler;
+import org.HytaleMMO.Progression.ExperienceService;
+import org.HytaleMMO.Quests.QuestService;
+import org.HytaleMMO.Spawning.SpawnController;
+import org.HytaleMMO.Stats.KillStatsTracker;
+
+import java.util.UUID;
 
 /**
  * Event listener for handling mob death events.
- * Sends a chat message to the player whenever they kill an enemy mob.
+ * Sends a chat message to the player whenever they kill an enemy mob
+ * and awards the kill's experience to the player's character.
+ * 
+ * When an event bus is set, the death callback only publishes a kill event;
+ * kill statistics and experience are processed by this listener as a bus
+ * consumer, and messages by the kill feed as a separate consumer.
  */
-public class MobDeathListener {
+public class MobDeathListener implements MmoEventHandler {
+    private final KillFeed killFeed;
+    private final MobTypeRegistry mobTypes;
+    private final ExperienceService experienceService;
+    private final KillStatsTracker killStats;
+    private MmoEventBus eventBus;
+    private QuestService quests;
+    private LootService loot;
+    private SpawnController spawns;
+    private Profiler profiler = Profiler.DISABLED;
+
+    public MobDeathListener() {
+        this(new KillFeed(0), new MobTypeRegistry(), null, null);
+    }
+
+    /**
+     * Creates a listener that sends kill messages through the given kill feed
+     * @param killFeed The kill feed (may aggregate messages per player)
+     * @param mobTypes The mob type registry
+     * @param experienceService The experience service, or null if characters are unavailable
+     * @param killStats The kill statistics tracker, or null if the database is unavailable
+     */
+    public MobDeathListener(KillFeed killFeed, MobTypeRegistry mobTypes, ExperienceService experienceService, KillStatsTracker killStats) {
+        this.killFeed = killFeed;
+        this.mobTypes = mobTypes;
+        this.experienceService = experienceService;
+        this.killStats = killStats;
+    }
+
+    /**
+     * Routes kills through the event bus instead of handling them inline
+     * The listener and the kill feed must also be added to the bus as consumers
+     * @param eventBus The event bus
+     */
+    public void setEventBus(MmoEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Counts kills towards the killer's quest objectives
+     * @param quests The quest service
+     */
+    public void setQuests(QuestService quests) {
+        this.quests = quests;
+    }
+
+    /**
+     * Rolls the killed mob's loot table into the killer's inventory
+     * @param loot The loot service
+     */
+    public void setLoot(LootService loot) {
+        this.loot = loot;
+    }
+
+    /**
+     * Reports every mob death, whoever the killer, to the spawn controller so it can refill the chunk
+     * @param spawns The spawn controller
+     */
+    public void setSpawns(SpawnController spawns) {
+        this.spawns = spawns;
+    }
+
+    /**
+     * Records the time spent in the death callback while the profiler is running
+     * @param profiler The profiler
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    @Override
+    public void onEvent(MmoEvent event, long sequence, boolean endOfBatch) {
+        if (event.getType() == MmoEvent.MOB_KILL) {
+            processKill((Player) event.getSource(), event.getPlayerId(), event.getValue());
+        }
+    }
 
     /**
      * Handles entity death events and sends a message when a player kills a mob.
@@ -22,12 +112,21 @@ public class MobDeathListener {
      */
     @EventListener
     public void onEntityDeath(EntityDeathEvent event) {
+        profiler.time("MobDeathListener.onEntityDeath", () -> handleEntityDeath(event));
+    }
+
+    private void handleEntityDeath(EntityDeathEvent event) {
         Entity entity = event.getEntity();
         
         // Check if the killed entity is a mob (enemy)
         if (entity instanceof Mob) {
             Mob mob = (Mob) entity;
             
+            // Free the mob's place in its chunk's spawn budget, also for deaths without a player killer
+            if (spawns != null) {
+                spawns.onMobDeath(mob.getUniqueId());
+            }
+            
             // Get the entity that killed the mob
             LivingEntity killer = event.getKiller();
             
@@ -45,13 +144,49 @@ public class MobDeathListener {
             }
             
             String mobName = mob.getType().getName();
+            int mobTypeId = mobTypes.idOf(mobName);
             
-            // Create and send a message to the player in Portuguese
-            Component message = Component.text("Você matou um ", NamedTextColor.GREEN)
-                .append(Component.text(mobName, NamedTextColor.YELLOW))
-                .append(Component.text("!", NamedTextColor.GREEN));
+            if (eventBus != null) {
+                long sequence = eventBus.next();
+                eventBus.get(sequence).reset(MmoEvent.MOB_KILL, player.getUniqueId()).name(mobName).value(mobTypeId).source(player);
+                eventBus.publish(sequence);
+                return;
+            }
             
-            player.sendMessage(message);
+            // Send (or queue, when aggregating) the cached message in Portuguese
+            killFeed.recordKill(player, mobName);
+            processKill(player, player.getUniqueId(), mobTypeId);
+        }
+    }
+
+    /**
+     * Records kill statistics, awards experience and loot and advances quests for a kill
+     * @param player The player who killed the mob
+     * @param playerId The player's UUID
+     * @param mobTypeId The interned mob type id
+     */
+    private void processKill(Player player, UUID playerId, int mobTypeId) {
+        // Count the kill; counters are flushed to the database in batches
+        if (killStats != null) {
+            killStats.recordKill(playerId, mobTypeId);
+        }
+        
+        // Award experience to the in-memory character
+        if (experienceService != null) {
+            int newLevel = experienceService.awardKill(playerId, mobTypeId);
+            if (newLevel > 0) {
+                killFeed.sendLevelUp(player, newLevel);
+            }
+        }
+        
+        // Roll the mob's loot table into the killer's inventory
+        if (loot != null) {
+            loot.awardLoot(playerId, mobTypeId);
+        }
+        
+        // Advance quest objectives that target this mob type
+        if (quests != null) {
+            quests.onKill(player, playerId, mobTypeId);
         }
     }
 }
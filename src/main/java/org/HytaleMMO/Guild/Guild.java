@@ -0,0 +1,74 @@
+package org.HytaleMMO.Guild;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-memory state of one guild
+ * Only accessed by the GuildManager while holding the lock of the guild's shard.
+ */
+final class Guild {
+    private final int id;
+    private final String name;
+    private final long createdAt;
+    private final Map<Integer, GuildMember> members;
+    private final Map<String, Integer> memberIdsByName;
+    private final Map<Integer, UUID> onlineMembers;
+
+    Guild(int id, String name, long createdAt) {
+        this.id = id;
+        this.name = name;
+        this.createdAt = createdAt;
+        this.members = new HashMap<>();
+        this.memberIdsByName = new HashMap<>();
+        this.onlineMembers = new HashMap<>();
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    Map<Integer, GuildMember> getMembers() {
+        return members;
+    }
+
+    /**
+     * Online members by character ID, mapped to the owning player's UUID
+     */
+    Map<Integer, UUID> getOnlineMembers() {
+        return onlineMembers;
+    }
+
+    GuildMember getMember(int characterId) {
+        return members.get(characterId);
+    }
+
+    GuildMember findMember(String characterName) {
+        Integer characterId = memberIdsByName.get(characterName.toLowerCase(Locale.ROOT));
+        return characterId != null ? members.get(characterId) : null;
+    }
+
+    void putMember(GuildMember member) {
+        members.put(member.getCharacterId(), member);
+        memberIdsByName.put(member.getCharacterName().toLowerCase(Locale.ROOT), member.getCharacterId());
+    }
+
+    GuildMember removeMember(int characterId) {
+        GuildMember member = members.remove(characterId);
+        if (member != null) {
+            memberIdsByName.remove(member.getCharacterName().toLowerCase(Locale.ROOT), characterId);
+            onlineMembers.remove(characterId);
+        }
+        return member;
+    }
+}
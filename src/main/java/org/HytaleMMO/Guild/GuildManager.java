@@ -0,0 +1,834 @@
+package org.HytaleMMO.Guild;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.world.entity.player.Player;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.HytaleMMO.Character.CharacterListener;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Database.Tables.GuildRepository;
+import org.HytaleMMO.Database.Tables.GuildRepository.StoredGuild;
+import org.HytaleMMO.Database.Tables.GuildRepository.StoredMember;
+import org.HytaleMMO.Listeners.OnlinePlayers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+
+/**
+ * Guilds, their members and ranks, kept in memory.
+ * Guilds are spread over a fixed number of shards by guild ID, each with its
+ * own read/write lock, so activity in one guild never blocks guilds in other
+ * shards. Which members are online is tracked from the CharacterManager's
+ * load and unload notifications, so broadcasts only visit online members and
+ * roster listings and permission checks never touch the database.
+ * Membership changes are coalesced per character and written in batches on
+ * a timer; only creating and disbanding a guild write immediately.
+ */
+public class GuildManager implements CharacterListener {
+    private static final int SHARDS = 16;
+    private static final long INVITE_TTL_MS = 5 * 60 * 1000L;
+    private static final Comparator<GuildMember> ROSTER_ORDER = Comparator
+            .comparingInt((GuildMember member) -> member.getRank().getId())
+            .thenComparing(GuildMember::getCharacterName, String.CASE_INSENSITIVE_ORDER);
+
+    private final GuildRepository repository;
+    private final OnlinePlayers onlinePlayers;
+    private final HytaleLogger logger;
+    private final Shard[] shards;
+    private final Map<Integer, Integer> guildOfCharacter;
+    private final Map<String, Integer> guildIdsByName;
+    private final Map<Integer, Invite> invites;
+    private final Map<Integer, StoredMember> pendingUpserts;
+    private final Set<Integer> pendingDeletes;
+    private final Map<Integer, String> pendingGuildDeletes;
+    private final long flushIntervalMs;
+    private Timer flushTimer;
+
+    /**
+     * Result of a guild operation
+     */
+    public enum Result {
+        SUCCESS,
+        NO_GUILD,
+        ALREADY_IN_GUILD,
+        NAME_TAKEN,
+        NOT_PERMITTED,
+        NOT_FOUND,
+        NO_INVITE,
+        FAILED
+    }
+
+    /**
+     * Creates a new guild manager
+     * @param repository The guild repository
+     * @param onlinePlayers The online player registry used to deliver guild messages
+     * @param logger The logger instance
+     * @param flushIntervalSeconds The interval between membership writes in seconds
+     */
+    public GuildManager(GuildRepository repository, OnlinePlayers onlinePlayers, HytaleLogger logger, int flushIntervalSeconds) {
+        this.repository = repository;
+        this.onlinePlayers = onlinePlayers;
+        this.logger = logger;
+        this.shards = new Shard[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard();
+        }
+        this.guildOfCharacter = new ConcurrentHashMap<>();
+        this.guildIdsByName = new ConcurrentHashMap<>();
+        this.invites = new ConcurrentHashMap<>();
+        this.pendingUpserts = new HashMap<>();
+        this.pendingDeletes = new LinkedHashSet<>();
+        this.pendingGuildDeletes = new HashMap<>();
+        this.flushIntervalMs = flushIntervalSeconds * 1000L;
+    }
+
+    /**
+     * Loads all guilds and memberships into memory
+     * @return true if successful, false otherwise
+     */
+    public boolean load() {
+        List<StoredGuild> storedGuilds = repository.findAllGuilds();
+        List<StoredMember> storedMembers = storedGuilds != null ? repository.findAllMembers() : null;
+        if (storedMembers == null) {
+            logger.at(Level.SEVERE).log("Failed to load guilds");
+            return false;
+        }
+
+        for (StoredGuild stored : storedGuilds) {
+            Guild guild = new Guild(stored.getId(), stored.getName(), stored.getCreatedAt());
+            shard(guild.getId()).guilds.put(guild.getId(), guild);
+            guildIdsByName.put(key(guild.getName()), guild.getId());
+        }
+
+        int orphaned = 0;
+        for (StoredMember stored : storedMembers) {
+            Guild guild = shard(stored.getGuildId()).guilds.get(stored.getGuildId());
+            if (guild == null) {
+                // Left behind by a disband that was interrupted
+                orphaned++;
+                continue;
+            }
+            guild.putMember(new GuildMember(stored.getCharacterId(), stored.getPlayerId(), stored.getCharacterName(),
+                    GuildRank.fromId(stored.getRank()), stored.getJoinedAt()));
+            guildOfCharacter.put(stored.getCharacterId(), guild.getId());
+        }
+
+        int empty = 0;
+        for (StoredGuild stored : storedGuilds) {
+            Guild guild = shard(stored.getId()).guilds.get(stored.getId());
+            if (guild.getMembers().isEmpty()) {
+                // Left behind by a create or disband that was interrupted; free the name
+                shard(guild.getId()).guilds.remove(guild.getId());
+                deleteGuildRow(guild);
+                empty++;
+            }
+        }
+
+        logger.at(Level.INFO).log("Loaded " + (storedGuilds.size() - empty) + " guild(s) with "
+                + (storedMembers.size() - orphaned) + " member(s)");
+        if (orphaned > 0) {
+            logger.at(Level.WARNING).log("Ignored " + orphaned + " membership(s) of guilds that no longer exist");
+        }
+        if (empty > 0) {
+            logger.at(Level.WARNING).log("Removed " + empty + " guild(s) without members");
+        }
+        return true;
+    }
+
+    /**
+     * Starts the membership flush timer
+     */
+    public void start() {
+        if (flushTimer != null) {
+            logger.at(Level.WARNING).log("Guild flush timer is already running");
+            return;
+        }
+
+        flushTimer = new Timer("GuildFlush", true);
+        flushTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (Exception e) {
+                    logger.at(Level.SEVERE).log("Error flushing guild memberships: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }, flushIntervalMs, flushIntervalMs);
+
+        logger.at(Level.INFO).log("Guild manager started (flush interval: " + (flushIntervalMs / 1000) + " seconds)");
+    }
+
+    /**
+     * Stops the flush timer and writes any pending membership changes
+     */
+    public void stop() {
+        if (flushTimer != null) {
+            flushTimer.cancel();
+            flushTimer = null;
+        }
+        flush();
+    }
+
+    @Override
+    public void onCharacterLoaded(Character character) {
+        Integer guildId = guildOfCharacter.get(character.getId());
+        if (guildId == null) {
+            return;
+        }
+        Shard shard = shard(guildId);
+        shard.lock.writeLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            if (guild != null && guild.getMember(character.getId()) != null) {
+                guild.getOnlineMembers().put(character.getId(), character.getPlayerId());
+            }
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onCharacterUnloading(Character character) {
+        Integer guildId = guildOfCharacter.get(character.getId());
+        if (guildId == null) {
+            return;
+        }
+        Shard shard = shard(guildId);
+        shard.lock.writeLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            if (guild != null) {
+                guild.getOnlineMembers().remove(character.getId());
+            }
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Creates a guild led by a character
+     * @param leader The founding character
+     * @param name The guild name
+     * @return The result
+     */
+    public Result create(Character leader, String name) {
+        if (leader.getId() <= 0) {
+            return Result.FAILED;
+        }
+        if (guildOfCharacter.containsKey(leader.getId())) {
+            return Result.ALREADY_IN_GUILD;
+        }
+        // Reserve the name so two founders cannot race for it
+        if (guildIdsByName.putIfAbsent(key(name), 0) != null) {
+            return Result.NAME_TAKEN;
+        }
+
+        long now = System.currentTimeMillis();
+        int guildId = repository.createGuild(name, now);
+        if (guildId <= 0) {
+            guildIdsByName.remove(key(name), 0);
+            return Result.FAILED;
+        }
+        // Write the leader right away; a guild without members would hold its name forever
+        StoredMember stored = new StoredMember(leader.getId(), guildId, leader.getPlayerId(),
+                leader.getCharacterName(), GuildRank.LEADER.getId(), now);
+        if (!repository.upsertMembers(Collections.singletonList(stored))) {
+            repository.deleteGuild(guildId);
+            guildIdsByName.remove(key(name), 0);
+            return Result.FAILED;
+        }
+        if (guildOfCharacter.putIfAbsent(leader.getId(), guildId) != null) {
+            // Joined another guild while this one was being created
+            repository.deleteGuild(guildId);
+            guildIdsByName.remove(key(name), 0);
+            return Result.ALREADY_IN_GUILD;
+        }
+
+        Guild guild = new Guild(guildId, name, now);
+        GuildMember member = new GuildMember(leader.getId(), leader.getPlayerId(), leader.getCharacterName(), GuildRank.LEADER, now);
+        guild.putMember(member);
+        guild.getOnlineMembers().put(leader.getId(), leader.getPlayerId());
+        Shard shard = shard(guildId);
+        shard.lock.writeLock().lock();
+        try {
+            shard.guilds.put(guildId, guild);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        guildIdsByName.put(key(name), guildId);
+
+        logger.at(Level.INFO).log("Guild created: " + name + " (leader: " + leader.getCharacterName() + ")");
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Invites a character into the inviter's guild; the invite expires after five minutes
+     * @param inviter The inviting character
+     * @param target The invited character
+     * @return The result
+     */
+    public Result invite(Character inviter, Character target) {
+        int guildId = getGuildId(inviter.getId());
+        GuildMember member = getMember(inviter.getId());
+        if (guildId < 0 || member == null) {
+            return Result.NO_GUILD;
+        }
+        if (!member.getRank().has(GuildPermission.INVITE)) {
+            return Result.NOT_PERMITTED;
+        }
+        if (target.getId() <= 0) {
+            return Result.NOT_FOUND;
+        }
+        if (guildOfCharacter.containsKey(target.getId())) {
+            return Result.ALREADY_IN_GUILD;
+        }
+
+        invites.put(target.getId(), new Invite(guildId, System.currentTimeMillis() + INVITE_TTL_MS));
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Accepts the pending invite of a character
+     * @param character The invited character
+     * @return The result
+     */
+    public Result accept(Character character) {
+        Invite invite = invites.remove(character.getId());
+        if (invite == null || invite.expiresAt < System.currentTimeMillis()) {
+            return Result.NO_INVITE;
+        }
+        if (guildOfCharacter.putIfAbsent(character.getId(), invite.guildId) != null) {
+            return Result.ALREADY_IN_GUILD;
+        }
+
+        GuildMember member = new GuildMember(character.getId(), character.getPlayerId(), character.getCharacterName(),
+                GuildRank.RECRUIT, System.currentTimeMillis());
+        Shard shard = shard(invite.guildId);
+        shard.lock.writeLock().lock();
+        try {
+            Guild guild = shard.guilds.get(invite.guildId);
+            if (guild == null) {
+                // Disbanded after the invite was sent
+                guildOfCharacter.remove(character.getId(), invite.guildId);
+                return Result.NOT_FOUND;
+            }
+            guild.putMember(member);
+            guild.getOnlineMembers().put(character.getId(), character.getPlayerId());
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        queueUpsert(invite.guildId, member);
+
+        broadcast(invite.guildId, Component.text(character.getCharacterName() + " joined the guild.", NamedTextColor.GREEN));
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Leaves the character's guild; a leader can only leave by disbanding, unless they are the last member
+     * @param character The leaving character
+     * @return The result
+     */
+    public Result leave(Character character) {
+        Integer guildId = guildOfCharacter.get(character.getId());
+        if (guildId == null) {
+            return Result.NO_GUILD;
+        }
+
+        Guild disbanded = null;
+        List<UUID> online = null;
+        Shard shard = shard(guildId);
+        shard.lock.writeLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            GuildMember member = guild != null ? guild.getMember(character.getId()) : null;
+            if (member == null) {
+                return Result.NO_GUILD;
+            }
+            if (member.getRank() == GuildRank.LEADER) {
+                if (guild.getMembers().size() > 1) {
+                    return Result.NOT_PERMITTED;
+                }
+                disbanded = guild;
+                online = removeLocked(shard, guild);
+            } else {
+                guild.removeMember(character.getId());
+                guildOfCharacter.remove(character.getId(), guildId);
+            }
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        if (disbanded != null) {
+            finishDisband(disbanded, online);
+            return Result.SUCCESS;
+        }
+        queueDelete(character.getId());
+
+        broadcast(guildId, Component.text(character.getCharacterName() + " left the guild.", NamedTextColor.YELLOW));
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Removes a lower ranked member from the actor's guild
+     * @param actor The kicking character
+     * @param targetName The name of the member to remove
+     * @return The result
+     */
+    public Result kick(Character actor, String targetName) {
+        Integer guildId = guildOfCharacter.get(actor.getId());
+        if (guildId == null) {
+            return Result.NO_GUILD;
+        }
+
+        GuildMember target;
+        Shard shard = shard(guildId);
+        shard.lock.writeLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            GuildMember member = guild != null ? guild.getMember(actor.getId()) : null;
+            if (member == null) {
+                return Result.NO_GUILD;
+            }
+            target = guild.findMember(targetName);
+            if (target == null) {
+                return Result.NOT_FOUND;
+            }
+            if (!member.getRank().has(GuildPermission.KICK) || !member.getRank().outranks(target.getRank())) {
+                return Result.NOT_PERMITTED;
+            }
+            guild.removeMember(target.getCharacterId());
+            guildOfCharacter.remove(target.getCharacterId(), guildId);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        queueDelete(target.getCharacterId());
+
+        broadcast(guildId, Component.text(target.getCharacterName() + " was removed from the guild.", NamedTextColor.YELLOW));
+        Player kicked = onlinePlayers.get(target.getPlayerId());
+        if (kicked != null) {
+            kicked.sendMessage(Component.text("You were removed from the guild.", NamedTextColor.RED));
+        }
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Moves a member one rank up or down; members can only change ranks below their own
+     * @param actor The character changing the rank
+     * @param targetName The name of the member
+     * @param promote true to promote, false to demote
+     * @return The result
+     */
+    public Result changeRank(Character actor, String targetName, boolean promote) {
+        Integer guildId = guildOfCharacter.get(actor.getId());
+        if (guildId == null) {
+            return Result.NO_GUILD;
+        }
+
+        GuildMember changed;
+        Shard shard = shard(guildId);
+        shard.lock.writeLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            GuildMember member = guild != null ? guild.getMember(actor.getId()) : null;
+            if (member == null) {
+                return Result.NO_GUILD;
+            }
+            GuildMember target = guild.findMember(targetName);
+            if (target == null) {
+                return Result.NOT_FOUND;
+            }
+            GuildRank rank = promote ? target.getRank().above() : target.getRank().below();
+            if (rank == null || !member.getRank().has(GuildPermission.PROMOTE)
+                    || !member.getRank().outranks(target.getRank()) || !member.getRank().outranks(rank)) {
+                return Result.NOT_PERMITTED;
+            }
+            changed = target.withRank(rank);
+            guild.putMember(changed);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        queueUpsert(guildId, changed);
+
+        broadcast(guildId, Component.text(changed.getCharacterName() + " is now " + rankName(changed.getRank()) + ".", NamedTextColor.AQUA));
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Disbands the actor's guild
+     * @param actor The character disbanding the guild
+     * @return The result
+     */
+    public Result disband(Character actor) {
+        Integer guildId = guildOfCharacter.get(actor.getId());
+        if (guildId == null) {
+            return Result.NO_GUILD;
+        }
+
+        Guild guild;
+        List<UUID> online;
+        Shard shard = shard(guildId);
+        shard.lock.writeLock().lock();
+        try {
+            guild = shard.guilds.get(guildId);
+            GuildMember member = guild != null ? guild.getMember(actor.getId()) : null;
+            if (member == null) {
+                return Result.NO_GUILD;
+            }
+            if (!member.getRank().has(GuildPermission.DISBAND)) {
+                return Result.NOT_PERMITTED;
+            }
+            online = removeLocked(shard, guild);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+        finishDisband(guild, online);
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Removes a guild from memory; the shard's write lock must be held
+     * @return The players of the guild's online members
+     */
+    private List<UUID> removeLocked(Shard shard, Guild guild) {
+        List<UUID> online = new ArrayList<>(guild.getOnlineMembers().values());
+        for (Integer characterId : guild.getMembers().keySet()) {
+            guildOfCharacter.remove(characterId, guild.getId());
+            // Cancel pending writes; the rows themselves go with the guild
+            queueDelete(characterId);
+        }
+        shard.guilds.remove(guild.getId());
+        return online;
+    }
+
+    /**
+     * Deletes a removed guild's rows and tells its online members; called outside the shard lock
+     */
+    private void finishDisband(Guild guild, List<UUID> online) {
+        deleteGuildRow(guild);
+
+        Component message = Component.text("The guild " + guild.getName() + " was disbanded.", NamedTextColor.RED);
+        for (UUID playerId : online) {
+            Player player = onlinePlayers.get(playerId);
+            if (player != null) {
+                player.sendMessage(message);
+            }
+        }
+        logger.at(Level.INFO).log("Guild disbanded: " + guild.getName());
+    }
+
+    /**
+     * Deletes a guild's rows and frees its name
+     * If the delete fails, the name stays taken and the delete is retried by the next flush
+     */
+    private void deleteGuildRow(Guild guild) {
+        if (repository.deleteGuild(guild.getId())) {
+            guildIdsByName.remove(key(guild.getName()), guild.getId());
+            return;
+        }
+        synchronized (pendingUpserts) {
+            pendingGuildDeletes.put(guild.getId(), guild.getName());
+        }
+        logger.at(Level.WARNING).log("Failed to delete guild " + guild.getName() + ", the delete will be retried");
+    }
+
+    /**
+     * Sends a chat message from a member to every online member of their guild
+     * @param sender The sending character
+     * @param text The message
+     * @return The result
+     */
+    public Result chat(Character sender, String text) {
+        GuildMember member = getMember(sender.getId());
+        if (member == null) {
+            return Result.NO_GUILD;
+        }
+        if (!member.getRank().has(GuildPermission.CHAT)) {
+            return Result.NOT_PERMITTED;
+        }
+
+        broadcast(guildOfCharacter.get(sender.getId()), Component.text("[Guild] ", NamedTextColor.DARK_GREEN)
+                .append(Component.text(sender.getCharacterName() + ": ", NamedTextColor.GREEN))
+                .append(Component.text(text, NamedTextColor.WHITE)));
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Sends a message to every online member of a guild
+     * Only online members are visited, so the cost does not grow with the size of the roster
+     * @param guildId The guild ID
+     * @param message The message
+     * @return The number of players the message was sent to
+     */
+    public int broadcast(int guildId, Component message) {
+        List<UUID> recipients;
+        Shard shard = shard(guildId);
+        shard.lock.readLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            if (guild == null) {
+                return 0;
+            }
+            recipients = new ArrayList<>(guild.getOnlineMembers().values());
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+
+        // Send outside the lock so slow connections never hold up the shard
+        int sent = 0;
+        for (UUID playerId : recipients) {
+            Player player = onlinePlayers.get(playerId);
+            if (player != null) {
+                player.sendMessage(message);
+                sent++;
+            }
+        }
+        return sent;
+    }
+
+    /**
+     * Checks whether a character may perform a guild action
+     * @param characterId The character's ID
+     * @param permission The permission
+     * @return true if the character is in a guild and its rank grants the permission
+     */
+    public boolean hasPermission(int characterId, GuildPermission permission) {
+        GuildMember member = getMember(characterId);
+        return member != null && member.getRank().has(permission);
+    }
+
+    /**
+     * Gets the guild membership of a character
+     * @param characterId The character's ID
+     * @return The membership, or null if the character is not in a guild
+     */
+    public GuildMember getMember(int characterId) {
+        Integer guildId = guildOfCharacter.get(characterId);
+        if (guildId == null) {
+            return null;
+        }
+        Shard shard = shard(guildId);
+        shard.lock.readLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            return guild != null ? guild.getMember(characterId) : null;
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the guild of a character
+     * @param characterId The character's ID
+     * @return The guild ID, or -1 if the character is not in a guild
+     */
+    public int getGuildId(int characterId) {
+        Integer guildId = guildOfCharacter.get(characterId);
+        return guildId != null ? guildId : -1;
+    }
+
+    /**
+     * Gets the name of a guild
+     * @param guildId The guild ID
+     * @return The name, or null if the guild does not exist
+     */
+    public String getGuildName(int guildId) {
+        Shard shard = shard(guildId);
+        shard.lock.readLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            return guild != null ? guild.getName() : null;
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a snapshot of a guild's members, highest rank first, then by name
+     * @param guildId The guild ID
+     * @return The members
+     */
+    public List<GuildMember> getRoster(int guildId) {
+        List<GuildMember> roster;
+        Shard shard = shard(guildId);
+        shard.lock.readLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            if (guild == null) {
+                return Collections.emptyList();
+            }
+            roster = new ArrayList<>(guild.getMembers().values());
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+        roster.sort(ROSTER_ORDER);
+        return roster;
+    }
+
+    /**
+     * Checks whether a guild member is online
+     * @param guildId The guild ID
+     * @param characterId The member's character ID
+     * @return true if the member's character is loaded
+     */
+    public boolean isOnline(int guildId, int characterId) {
+        Shard shard = shard(guildId);
+        shard.lock.readLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            return guild != null && guild.getOnlineMembers().containsKey(characterId);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of online members of a guild
+     * @param guildId The guild ID
+     * @return The number of online members
+     */
+    public int getOnlineCount(int guildId) {
+        Shard shard = shard(guildId);
+        shard.lock.readLock().lock();
+        try {
+            Guild guild = shard.guilds.get(guildId);
+            return guild != null ? guild.getOnlineMembers().size() : 0;
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of guilds
+     * @return The guild count
+     */
+    public int size() {
+        int count = 0;
+        for (Shard shard : shards) {
+            shard.lock.readLock().lock();
+            try {
+                count += shard.guilds.size();
+            } finally {
+                shard.lock.readLock().unlock();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Writes every membership change since the last flush in one batch per kind
+     * @return The number of memberships written
+     */
+    public synchronized int flush() {
+        // Drop invites nobody accepted
+        long now = System.currentTimeMillis();
+        invites.values().removeIf(invite -> invite.expiresAt < now);
+
+        Map<Integer, String> guildDeletes;
+        synchronized (pendingUpserts) {
+            guildDeletes = new HashMap<>(pendingGuildDeletes);
+            pendingGuildDeletes.clear();
+        }
+        for (Map.Entry<Integer, String> entry : guildDeletes.entrySet()) {
+            deleteGuildRow(new Guild(entry.getKey(), entry.getValue(), 0));
+        }
+
+        List<StoredMember> upserts;
+        List<Integer> deletes;
+        synchronized (pendingUpserts) {
+            if (pendingUpserts.isEmpty() && pendingDeletes.isEmpty()) {
+                return 0;
+            }
+            upserts = new ArrayList<>(pendingUpserts.values());
+            deletes = new ArrayList<>(pendingDeletes);
+            pendingUpserts.clear();
+            pendingDeletes.clear();
+        }
+
+        boolean upserted = upserts.isEmpty() || repository.upsertMembers(upserts);
+        boolean deleted = deletes.isEmpty() || repository.deleteMembers(deletes);
+        synchronized (pendingUpserts) {
+            // Put failed writes back unless the character changed again in the meantime
+            if (!upserted) {
+                for (StoredMember member : upserts) {
+                    if (!pendingDeletes.contains(member.getCharacterId())) {
+                        pendingUpserts.putIfAbsent(member.getCharacterId(), member);
+                    }
+                }
+            }
+            if (!deleted) {
+                for (Integer characterId : deletes) {
+                    if (!pendingUpserts.containsKey(characterId)) {
+                        pendingDeletes.add(characterId);
+                    }
+                }
+            }
+        }
+
+        if (!upserted || !deleted) {
+            logger.at(Level.WARNING).log("Guild membership flush failed, changes will be retried");
+            return 0;
+        }
+        return upserts.size() + deletes.size();
+    }
+
+    private void queueUpsert(int guildId, GuildMember member) {
+        StoredMember stored = new StoredMember(member.getCharacterId(), guildId, member.getPlayerId(),
+                member.getCharacterName(), member.getRank().getId(), member.getJoinedAt());
+        synchronized (pendingUpserts) {
+            pendingDeletes.remove(member.getCharacterId());
+            pendingUpserts.put(member.getCharacterId(), stored);
+        }
+    }
+
+    private void queueDelete(int characterId) {
+        synchronized (pendingUpserts) {
+            pendingUpserts.remove(characterId);
+            pendingDeletes.add(characterId);
+        }
+    }
+
+    private Shard shard(int guildId) {
+        return shards[guildId & (SHARDS - 1)];
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static String rankName(GuildRank rank) {
+        String name = rank.name().toLowerCase(Locale.ROOT);
+        return java.lang.Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Guilds of one shard, guarded by the shard's lock
+     */
+    private static final class Shard {
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Integer, Guild> guilds = new HashMap<>();
+    }
+
+    private static final class Invite {
+        private final int guildId;
+        private final long expiresAt;
+
+        private Invite(int guildId, long expiresAt) {
+            this.guildId = guildId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.HytaleMMO.Guild;
+
+import java.util.UUID;
+
+/**
+ * One character's membership in a guild
+ * Immutable; a rank change replaces the member
+ */
+public final class GuildMember {
+    private final int characterId;
+    private final UUID playerId;
+    private final String characterName;
+    private final GuildRank rank;
+    private final long joinedAt;
+
+    public GuildMember(int characterId, UUID playerId, String characterName, GuildRank rank, long joinedAt) {
+        this.characterId = characterId;
+        this.playerId = playerId;
+        this.characterName = characterName;
+        this.rank = rank;
+        this.joinedAt = joinedAt;
+    }
+
+    /**
+     * Creates a copy of this member with another rank
+     * @param rank The new rank
+     * @return The changed member
+     */
+    public GuildMember withRank(GuildRank rank) {
+        return new GuildMember(characterId, playerId, characterName, rank, joinedAt);
+    }
+
+    public int getCharacterId() {
+        return characterId;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getCharacterName() {
+        return characterName;
+    }
+
+    public GuildRank getRank() {
+        return rank;
+    }
+
+    public long getJoinedAt() {
+        return joinedAt;
+    }
+}
@@ -0,0 +1,20 @@
+package org.HytaleMMO.Guild;
+
+/**
+ * Actions a guild rank may be allowed to perform
+ */
+public enum GuildPermission {
+    CHAT,
+    INVITE,
+    KICK,
+    PROMOTE,
+    DISBAND;
+
+    /**
+     * Gets the bit of this permission in a rank's permission mask
+     * @return The bit
+     */
+    public int getBit() {
+        return 1 << ordinal();
+    }
+}
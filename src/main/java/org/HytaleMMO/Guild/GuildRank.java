@@ -0,0 +1,77 @@
+package org.HytaleMMO.Guild;
+
+/**
+ * Guild ranks, highest authority first
+ * The id is what is stored in the database and must not change.
+ */
+public enum GuildRank {
+    LEADER(0, GuildPermission.CHAT, GuildPermission.INVITE, GuildPermission.KICK, GuildPermission.PROMOTE, GuildPermission.DISBAND),
+    OFFICER(1, GuildPermission.CHAT, GuildPermission.INVITE, GuildPermission.KICK, GuildPermission.PROMOTE),
+    MEMBER(2, GuildPermission.CHAT, GuildPermission.INVITE),
+    RECRUIT(3, GuildPermission.CHAT);
+
+    private static final GuildRank[] BY_ID = values();
+
+    private final int id;
+    private final int permissions;
+
+    GuildRank(int id, GuildPermission... permissions) {
+        this.id = id;
+        int mask = 0;
+        for (GuildPermission permission : permissions) {
+            mask |= permission.getBit();
+        }
+        this.permissions = mask;
+    }
+
+    /**
+     * Gets the stored id of this rank
+     * @return The id
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Checks whether this rank grants a permission
+     * @param permission The permission
+     * @return true if granted
+     */
+    public boolean has(GuildPermission permission) {
+        return (permissions & permission.getBit()) != 0;
+    }
+
+    /**
+     * Checks whether this rank has authority over another rank
+     * @param other The other rank
+     * @return true if this rank is higher
+     */
+    public boolean outranks(GuildRank other) {
+        return id < other.id;
+    }
+
+    /**
+     * Gets the next higher rank
+     * @return The rank above, or null for the leader
+     */
+    public GuildRank above() {
+        return id > 0 ? BY_ID[id - 1] : null;
+    }
+
+    /**
+     * Gets the next lower rank
+     * @return The rank below, or null for the lowest rank
+     */
+    public GuildRank below() {
+        return id < BY_ID.length - 1 ? BY_ID[id + 1] : null;
+    }
+
+    /**
+     * Gets a rank by its stored id
+     * @param id The id
+     * @return The rank, or RECRUIT for unknown ids
+     */
+    public static GuildRank fromId(int id) {
+        return id >= 0 && id < BY_ID.length ? BY_ID[id] : RECRUIT;
+    }
+}
@@ -0,0 +1,332 @@
+package org.HytaleMMO.Inventory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The inventory of a loaded character.
+ * Kept as the encoded blobs read from the database until a slot is first
+ * accessed, then decoded once into a slot array. Every change marks its slot
+ * in a dirty bit set, so a save only writes the changed slots as a delta.
+ * Inventories that have not been touched for a while are encoded back into a
+ * single blob to free the decoded slots.
+ */
+public class CharacterInventory {
+    public static final int DEFAULT_SIZE = 100;
+
+    private final int size;
+    private byte[] base;
+    private List<byte[]> deltas;
+    private ItemStack[] slots;
+    private final long[] dirty;
+    private int dirtyCount;
+    private int storedDeltas;
+    private long lastAccess;
+
+    /**
+     * Creates an inventory from stored data
+     * @param base The compacted blob, or null for an empty inventory
+     * @param deltas The deltas written after the compacted blob, oldest first
+     */
+    public CharacterInventory(byte[] base, List<byte[]> deltas) {
+        this.size = base != null ? Math.max(DEFAULT_SIZE, InventoryCodec.slotCount(base)) : DEFAULT_SIZE;
+        this.base = base;
+        this.deltas = deltas.isEmpty() ? Collections.emptyList() : new ArrayList<>(deltas);
+        this.dirty = new long[(size + 63) >>> 6];
+        this.storedDeltas = deltas.size();
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    /**
+     * Creates an empty inventory
+     */
+    public CharacterInventory() {
+        this(null, Collections.emptyList());
+    }
+
+    /**
+     * Gets the number of slots
+     * @return The inventory size
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the stack in a slot
+     * @param slot The slot index
+     * @return The stack, or null if the slot is empty
+     */
+    public synchronized ItemStack getItem(int slot) {
+        checkSlot(slot);
+        return decoded()[slot];
+    }
+
+    /**
+     * Sets the stack in a slot
+     * @param slot The slot index
+     * @param stack The stack, or null to empty the slot
+     */
+    public synchronized void setItem(int slot, ItemStack stack) {
+        checkSlot(slot);
+        ItemStack[] current = decoded();
+        if (stack == null ? current[slot] == null : stack.equals(current[slot])) {
+            return;
+        }
+        current[slot] = stack;
+        markDirty(slot);
+    }
+
+    /**
+     * Finds the first empty slot
+     * @return The slot index, or -1 if the inventory is full
+     */
+    public synchronized int firstEmptySlot() {
+        ItemStack[] current = decoded();
+        for (int slot = 0; slot < current.length; slot++) {
+            if (current[slot] == null) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the items with an ID across all slots
+     * @param itemId The item ID
+     * @return The total quantity
+     */
+    public synchronized int count(String itemId) {
+        int total = 0;
+        for (ItemStack stack : decoded()) {
+            if (stack != null && stack.getItemId().equals(itemId)) {
+                total += stack.getQuantity();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Removes several items at once, or nothing if any of them is missing
+     * @param items Quantity to remove per item ID
+     * @return true if all items were removed, false if the inventory did not contain them
+     */
+    public synchronized boolean removeItems(Map<String, Integer> items) {
+        ItemStack[] current = decoded();
+        for (Map.Entry<String, Integer> item : items.entrySet()) {
+            if (count(item.getKey()) < item.getValue()) {
+                return false;
+            }
+        }
+
+        for (Map.Entry<String, Integer> item : items.entrySet()) {
+            int remaining = item.getValue();
+            for (int slot = 0; slot < current.length && remaining > 0; slot++) {
+                ItemStack stack = current[slot];
+                if (stack == null || !stack.getItemId().equals(item.getKey())) {
+                    continue;
+                }
+                int taken = Math.min(remaining, stack.getQuantity());
+                current[slot] = taken == stack.getQuantity() ? null : stack.withQuantity(stack.getQuantity() - taken);
+                markDirty(slot);
+                remaining -= taken;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds items, merging them into an existing stack of the same item if there is one
+     * @param itemId The item ID
+     * @param quantity The quantity to add
+     * @return true if the items were added, false if there was no room
+     */
+    public synchronized boolean addItems(String itemId, int quantity) {
+        ItemStack[] current = decoded();
+        int empty = -1;
+        for (int slot = 0; slot < current.length; slot++) {
+            ItemStack stack = current[slot];
+            if (stack == null) {
+                if (empty < 0) {
+                    empty = slot;
+                }
+            } else if (stack.getItemId().equals(itemId) && stack.getDurability() == 0
+                    && stack.getQuantity() <= Integer.MAX_VALUE - quantity) {
+                current[slot] = stack.withQuantity(stack.getQuantity() + quantity);
+                markDirty(slot);
+                return true;
+            }
+        }
+
+        if (empty < 0) {
+            return false;
+        }
+        current[empty] = new ItemStack(itemId, quantity);
+        markDirty(empty);
+        return true;
+    }
+
+    /**
+     * Sums the quantity of every item ID across all slots
+     * @return Map of item ID to total quantity
+     */
+    public synchronized Map<String, Integer> getItemCounts() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (ItemStack stack : decoded()) {
+            if (stack != null) {
+                counts.merge(stack.getItemId(), stack.getQuantity(), Integer::sum);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Copies the current slots
+     * @return A copy of the slot array
+     */
+    public synchronized ItemStack[] getContents() {
+        return decoded().clone();
+    }
+
+    /**
+     * Checks if the stored blobs have been decoded
+     * @return true if decoded, false if the inventory is still encoded
+     */
+    public synchronized boolean isDecoded() {
+        return slots != null;
+    }
+
+    /**
+     * Checks if any slot changed since the last save
+     * @return true if there are unsaved changes
+     */
+    public synchronized boolean isDirty() {
+        return dirtyCount > 0;
+    }
+
+    /**
+     * Gets the number of deltas stored in the database since the last compaction
+     * @return The delta count
+     */
+    public synchronized int getStoredDeltas() {
+        return storedDeltas;
+    }
+
+    /**
+     * Takes the unsaved changes for writing
+     * The dirty slots are cleared; pass the returned write to commit() or rollback()
+     * @param compactAfterDeltas Number of stored deltas after which the full inventory is written instead
+     * @return The write to perform, or null if nothing changed
+     */
+    public synchronized PendingWrite takeChanges(int compactAfterDeltas) {
+        if (dirtyCount == 0) {
+            return null;
+        }
+
+        long[] taken = dirty.clone();
+        boolean full = storedDeltas + 1 >= compactAfterDeltas;
+        byte[] data = InventoryCodec.encode(slots, full ? null : taken);
+        Arrays.fill(dirty, 0L);
+        dirtyCount = 0;
+        return new PendingWrite(data, full, taken);
+    }
+
+    /**
+     * Records a successful write
+     * @param write The write returned by takeChanges()
+     */
+    public synchronized void commit(PendingWrite write) {
+        storedDeltas = write.full ? 0 : storedDeltas + 1;
+    }
+
+    /**
+     * Marks the slots of a failed write as dirty again so the next save retries them
+     * @param write The write returned by takeChanges()
+     */
+    public synchronized void rollback(PendingWrite write) {
+        for (int i = 0; i < dirty.length; i++) {
+            long restored = write.slots[i] & ~dirty[i];
+            dirty[i] |= restored;
+            dirtyCount += Long.bitCount(restored);
+        }
+    }
+
+    /**
+     * Encodes a clean inventory back into a single blob if it has not been accessed recently
+     * @param idleMs Time since the last access after which the decoded slots are released
+     * @return true if the slots were released
+     */
+    public synchronized boolean releaseIfIdle(long idleMs) {
+        if (slots == null || dirtyCount > 0 || System.currentTimeMillis() - lastAccess < idleMs) {
+            return false;
+        }
+        base = InventoryCodec.encode(slots, null);
+        deltas = Collections.emptyList();
+        slots = null;
+        return true;
+    }
+
+    private ItemStack[] decoded() {
+        lastAccess = System.currentTimeMillis();
+        if (slots == null) {
+            ItemStack[] decoded = new ItemStack[size];
+            if (base != null) {
+                InventoryCodec.apply(base, decoded);
+            }
+            for (byte[] delta : deltas) {
+                InventoryCodec.apply(delta, decoded);
+            }
+            slots = decoded;
+            base = null;
+            deltas = Collections.emptyList();
+        }
+        return slots;
+    }
+
+    private void markDirty(int slot) {
+        long bit = 1L << slot;
+        if ((dirty[slot >>> 6] & bit) == 0) {
+            dirty[slot >>> 6] |= bit;
+            dirtyCount++;
+        }
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Inventory slot " + slot + " out of range 0-" + (size - 1));
+        }
+    }
+
+    /**
+     * Encoded changes taken from an inventory, waiting to be written
+     */
+    public static final class PendingWrite {
+        private final byte[] data;
+        private final boolean full;
+        private final long[] slots;
+
+        private PendingWrite(byte[] data, boolean full, long[] slots) {
+            this.data = data;
+            this.full = full;
+            this.slots = slots;
+        }
+
+        /**
+         * @return The encoded full inventory or delta
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * @return true if this write replaces the compacted inventory, false if it is a delta
+         */
+        public boolean isFull() {
+            return full;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.HytaleMMO.Inventory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binary format for inventories and inventory deltas.
+ *
+ * Layout (every number is an unsigned LEB128 varint):
+ *   version byte, slot count,
+ *   dictionary size, then per item ID: UTF-8 length and bytes,
+ *   entry count, then per entry: gap to the previous entry's slot,
+ *   item reference (0 = empty slot, otherwise dictionary index + 1),
+ *   and for non-empty slots the quantity and durability.
+ *
+ * A full inventory lists only occupied slots; a delta lists every changed
+ * slot, including slots that were emptied. Each item ID is stored once per
+ * blob, so a 100-slot inventory typically takes a few hundred bytes and a
+ * single changed slot a dozen.
+ */
+public final class InventoryCodec {
+    private static final int VERSION = 1;
+    private static final Map<String, String> CANONICAL_IDS = new ConcurrentHashMap<>();
+
+    private InventoryCodec() {
+    }
+
+    /**
+     * Encodes the slots selected by a mask
+     * @param slots The inventory slots
+     * @param mask Bit set of the slots to encode, or null for every occupied slot
+     * @return The encoded blob
+     */
+    public static byte[] encode(ItemStack[] slots, long[] mask) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        String[] names = new String[8];
+        int entryCount = 0;
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (!selected(slots, mask, slot)) {
+                continue;
+            }
+            entryCount++;
+            ItemStack stack = slots[slot];
+            if (stack != null && !dictionary.containsKey(stack.getItemId())) {
+                int index = dictionary.size();
+                dictionary.put(stack.getItemId(), index);
+                if (index == names.length) {
+                    names = Arrays.copyOf(names, names.length * 2);
+                }
+                names[index] = stack.getItemId();
+            }
+        }
+
+        Writer out = new Writer(16 + entryCount * 6 + dictionary.size() * 24);
+        out.writeByte(VERSION);
+        out.writeVarint(slots.length);
+        out.writeVarint(dictionary.size());
+        for (int i = 0; i < dictionary.size(); i++) {
+            byte[] bytes = names[i].getBytes(StandardCharsets.UTF_8);
+            out.writeVarint(bytes.length);
+            out.writeBytes(bytes);
+        }
+
+        out.writeVarint(entryCount);
+        int previous = -1;
+        for (int slot = 0; slot < slots.length; slot++) {
+            if (!selected(slots, mask, slot)) {
+                continue;
+            }
+            out.writeVarint(slot - previous - 1);
+            previous = slot;
+
+            ItemStack stack = slots[slot];
+            if (stack == null) {
+                out.writeVarint(0);
+            } else {
+                out.writeVarint(dictionary.get(stack.getItemId()) + 1);
+                out.writeVarint(stack.getQuantity());
+                out.writeVarint(stack.getDurability());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads the slot count of a blob without decoding it
+     * @param data The encoded blob
+     * @return The slot count
+     */
+    public static int slotCount(byte[] data) {
+        Reader in = new Reader(data);
+        in.readVersion();
+        return in.readVarint();
+    }
+
+    /**
+     * Applies a full inventory or a delta to a slot array
+     * Entries beyond the end of the array are ignored
+     * @param data The encoded blob
+     * @param slots The slots to update
+     */
+    public static void apply(byte[] data, ItemStack[] slots) {
+        Reader in = new Reader(data);
+        in.readVersion();
+        in.readVarint(); // slot count, see slotCount()
+
+        String[] names = new String[in.readVarint()];
+        for (int i = 0; i < names.length; i++) {
+            String name = in.readString(in.readVarint());
+            names[i] = CANONICAL_IDS.computeIfAbsent(name, id -> id);
+        }
+
+        int entryCount = in.readVarint();
+        int slot = -1;
+        for (int i = 0; i < entryCount; i++) {
+            slot += in.readVarint() + 1;
+            int reference = in.readVarint();
+            ItemStack stack = null;
+            if (reference > 0) {
+                stack = new ItemStack(names[reference - 1], in.readVarint(), in.readVarint());
+            }
+            if (slot < slots.length) {
+                slots[slot] = stack;
+            }
+        }
+    }
+
+    private static boolean selected(ItemStack[] slots, long[] mask, int slot) {
+        if (mask == null) {
+            return slots[slot] != null;
+        }
+        return (mask[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int size;
+
+        private Writer(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        private void writeByte(int value) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            writeByte(value);
+        }
+
+        private void writeBytes(byte[] bytes) {
+            if (size + bytes.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + bytes.length));
+            }
+            System.arraycopy(bytes, 0, buffer, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        private Reader(byte[] data) {
+            this.data = data;
+        }
+
+        private void readVersion() {
+            int version = data[position++];
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported inventory format version: " + version);
+            }
+        }
+
+        private int readVarint() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (shift > 28) {
+                    throw new IllegalArgumentException("Malformed varint in inventory data");
+                }
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        private String readString(int length) {
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
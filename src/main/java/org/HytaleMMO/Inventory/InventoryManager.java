@@ -0,0 +1,133 @@
+package org.HytaleMMO.Inventory;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Database.Tables.InventoryRepository;
+import org.HytaleMMO.Database.Tables.InventoryRepository.InventoryData;
+import org.HytaleMMO.Database.Tables.InventoryRepository.StoredInventory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * Loads inventories when characters are loaded and writes their changes.
+ * Changed slots are appended as small delta rows in one batch; after a number
+ * of deltas the full inventory is written instead and the deltas folded into
+ * it are removed, which keeps both the write size and the load cost bounded.
+ */
+public class InventoryManager {
+    private final InventoryRepository repository;
+    private final HytaleLogger logger;
+    private final int compactAfterDeltas;
+    private final long releaseAfterMs;
+
+    /**
+     * Creates a new inventory manager
+     * @param repository The inventory repository
+     * @param logger The logger instance
+     * @param compactAfterDeltas Number of deltas per character after which the full inventory is rewritten
+     * @param releaseAfterMs Time without access after which a saved inventory is encoded again to save memory
+     */
+    public InventoryManager(InventoryRepository repository, HytaleLogger logger, int compactAfterDeltas, long releaseAfterMs) {
+        this.repository = repository;
+        this.logger = logger;
+        this.compactAfterDeltas = compactAfterDeltas;
+        this.releaseAfterMs = releaseAfterMs;
+    }
+
+    /**
+     * Loads the stored inventory of a character and attaches it
+     * The blobs are only decoded when the inventory is first accessed
+     * @param character The character
+     */
+    public void attach(Character character) {
+        if (character.getId() <= 0) {
+            character.setInventory(new CharacterInventory());
+            return;
+        }
+
+        StoredInventory stored = repository.load(character.getId());
+        if (stored == null) {
+            logger.at(Level.WARNING).log("Failed to load inventory for character: " + character.getCharacterName());
+            stored = new StoredInventory(null, new ArrayList<>());
+        }
+        character.setInventory(new CharacterInventory(stored.getBase(), stored.getDeltas()));
+    }
+
+    /**
+     * Writes the changed slots of several characters
+     * Failed writes are kept as unsaved changes and retried by the next save
+     * @param characters The characters to save
+     * @return The number of inventories written
+     */
+    public synchronized int flush(Collection<Character> characters) {
+        List<Character> deltaOwners = new ArrayList<>();
+        List<CharacterInventory.PendingWrite> deltaWrites = new ArrayList<>();
+        List<InventoryData> deltas = new ArrayList<>();
+        List<Character> fullOwners = new ArrayList<>();
+        List<CharacterInventory.PendingWrite> fullWrites = new ArrayList<>();
+        List<InventoryData> fulls = new ArrayList<>();
+
+        for (Character character : characters) {
+            CharacterInventory inventory = character.getInventory();
+            if (inventory == null || character.getId() <= 0) {
+                continue;
+            }
+
+            CharacterInventory.PendingWrite write = inventory.takeChanges(compactAfterDeltas);
+            if (write == null) {
+                inventory.releaseIfIdle(releaseAfterMs);
+                continue;
+            }
+
+            InventoryData data = new InventoryData(character.getId(), write.getData());
+            if (write.isFull()) {
+                fullOwners.add(character);
+                fullWrites.add(write);
+                fulls.add(data);
+            } else {
+                deltaOwners.add(character);
+                deltaWrites.add(write);
+                deltas.add(data);
+            }
+        }
+
+        int written = 0;
+        if (!deltas.isEmpty()) {
+            written += complete(deltaOwners, deltaWrites, repository.appendDeltas(deltas));
+        }
+        if (!fulls.isEmpty()) {
+            written += complete(fullOwners, fullWrites, repository.saveCompacted(fulls));
+        }
+        return written;
+    }
+
+    /**
+     * Writes full inventories that were saved elsewhere (e.g. spooled during a database outage)
+     * Each one replaces the stored inventory and every delta before it
+     * @param inventories The fully encoded inventories
+     * @return true if successful, false otherwise
+     */
+    public synchronized boolean restore(List<InventoryData> inventories) {
+        return repository.saveCompacted(inventories);
+    }
+
+    private int complete(List<Character> owners, List<CharacterInventory.PendingWrite> writes, boolean success) {
+        for (int i = 0; i < owners.size(); i++) {
+            CharacterInventory inventory = owners.get(i).getInventory();
+            if (success) {
+                inventory.commit(writes.get(i));
+            } else {
+                inventory.rollback(writes.get(i));
+            }
+        }
+
+        if (!success) {
+            logger.at(Level.WARNING).log("Failed to save " + owners.size() + " inventory(ies), will retry on next save");
+            return 0;
+        }
+        return owners.size();
+    }
+}
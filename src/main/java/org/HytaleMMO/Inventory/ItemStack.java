@@ -0,0 +1,75 @@
+package org.HytaleMMO.Inventory;
+
+/**
+ * An immutable stack of items in an inventory slot
+ */
+public final class ItemStack {
+    private final String itemId;
+    private final int quantity;
+    private final int durability;
+
+    /**
+     * Creates a new item stack
+     * @param itemId The item ID (e.g. "Weapon_Sword_Iron")
+     * @param quantity The number of items, at least 1
+     * @param durability The remaining durability, or 0 for items without durability
+     */
+    public ItemStack(String itemId, int quantity, int durability) {
+        if (itemId == null || itemId.isEmpty()) {
+            throw new IllegalArgumentException("Item ID must not be empty");
+        }
+        if (quantity < 1 || durability < 0) {
+            throw new IllegalArgumentException("Invalid stack of " + itemId + ": quantity " + quantity + ", durability " + durability);
+        }
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.durability = durability;
+    }
+
+    public ItemStack(String itemId, int quantity) {
+        this(itemId, quantity, 0);
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public int getDurability() {
+        return durability;
+    }
+
+    /**
+     * Creates a copy of this stack with a different quantity
+     * @param quantity The new quantity
+     * @return The new stack
+     */
+    public ItemStack withQuantity(int quantity) {
+        return new ItemStack(itemId, quantity, durability);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ItemStack)) {
+            return false;
+        }
+        ItemStack other = (ItemStack) o;
+        return quantity == other.quantity && durability == other.durability && itemId.equals(other.itemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * itemId.hashCode() + quantity) + durability;
+    }
+
+    @Override
+    public String toString() {
+        return itemId + " x" + quantity;
+    }
+}
@@ -0,0 +1,63 @@
+package org.HytaleMMO.Leaderboard;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Snapshot of one character's standing on the leaderboards
+ * Entries are immutable; a change in level or experience replaces the entry
+ */
+public final class LeaderboardEntry {
+    /** Highest level first, then most experience, then oldest character (lowest ID) */
+    public static final Comparator<LeaderboardEntry> ORDER = (a, b) -> {
+        if (a.level != b.level) {
+            return Integer.compare(b.level, a.level);
+        }
+        if (a.experience != b.experience) {
+            return Integer.compare(b.experience, a.experience);
+        }
+        return Integer.compare(a.characterId, b.characterId);
+    };
+
+    private final int characterId;
+    private final UUID playerId;
+    private final String characterName;
+    private final String characterClass;
+    private final int level;
+    private final int experience;
+
+    public LeaderboardEntry(int characterId, UUID playerId, String characterName, String characterClass,
+                            int level, int experience) {
+        this.characterId = characterId;
+        this.playerId = playerId;
+        this.characterName = characterName != null ? characterName : "";
+        // The class column is nullable; unclassed characters share one board
+        this.characterClass = characterClass != null ? characterClass : "";
+        this.level = level;
+        this.experience = experience;
+    }
+
+    public int getCharacterId() {
+        return characterId;
+    }
+
+    public UUID getPlayerId() {
+        return playerId;
+    }
+
+    public String getCharacterName() {
+        return characterName;
+    }
+
+    public String getCharacterClass() {
+        return characterClass;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getExperience() {
+        return experience;
+    }
+}
@@ -0,0 +1,240 @@
+package org.HytaleMMO.Leaderboard;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Character.CharacterListener;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Database.Tables.CharacterRepository;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+
+/**
+ * Level and experience leaderboards kept entirely in memory.
+ * Seeded once from a streaming read of the characters table at startup and
+ * then updated incrementally whenever a loaded character gains experience,
+ * so top-N, rank and neighbourhood queries never touch the database. There is
+ * one global board and one board per class; each is a ranked skip list, so
+ * updates and queries are O(log n).
+ */
+public class LeaderboardService implements CharacterListener {
+    private final HytaleLogger logger;
+    private final RankedSkipList<LeaderboardEntry> global;
+    private final Map<String, RankedSkipList<LeaderboardEntry>> byClass;
+    private final Map<Integer, LeaderboardEntry> entries;
+    private final ReentrantReadWriteLock lock;
+
+    public LeaderboardService(HytaleLogger logger) {
+        this.logger = logger;
+        this.global = new RankedSkipList<>(LeaderboardEntry.ORDER);
+        this.byClass = new HashMap<>();
+        this.entries = new HashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+    }
+
+    /**
+     * Loads the standing of every stored character
+     * @param repository The character repository to read from
+     * @return true if successful, false otherwise
+     */
+    public boolean seed(CharacterRepository repository) {
+        long start = System.currentTimeMillis();
+        int count;
+        lock.writeLock().lock();
+        try {
+            count = repository.forEachRanking((id, playerId, name, characterClass, level, experience) ->
+                    put(new LeaderboardEntry(id, playerId, name, characterClass, level, experience)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (count < 0) {
+            logger.at(Level.WARNING).log("Failed to seed leaderboards");
+            return false;
+        }
+        logger.at(Level.INFO).log("Leaderboards seeded with " + count + " character(s) in "
+                + (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    @Override
+    public void onCharacterLoaded(Character character) {
+        update(character);
+    }
+
+    @Override
+    public void onProgressChanged(Character character) {
+        update(character);
+    }
+
+    /**
+     * Moves a character to its current position on the leaderboards
+     * @param character The character
+     */
+    public void update(Character character) {
+        if (character.getId() <= 0) {
+            // Not stored yet; picked up again once it has an ID
+            return;
+        }
+
+        LeaderboardEntry entry = new LeaderboardEntry(character.getId(), character.getPlayerId(),
+                character.getCharacterName(), character.getCharacterClass(), character.getLevel(), character.getExperience());
+        lock.writeLock().lock();
+        try {
+            LeaderboardEntry current = entries.get(entry.getCharacterId());
+            if (current != null && current.getLevel() == entry.getLevel()
+                    && current.getExperience() == entry.getExperience()
+                    && current.getCharacterClass().equals(entry.getCharacterClass())
+                    && current.getCharacterName().equals(entry.getCharacterName())) {
+                return;
+            }
+            put(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a character from the leaderboards, e.g. after it was deleted
+     * @param characterId The character's ID
+     */
+    public void remove(int characterId) {
+        lock.writeLock().lock();
+        try {
+            LeaderboardEntry current = entries.remove(characterId);
+            if (current != null) {
+                global.remove(current);
+                board(current.getCharacterClass(), false).remove(current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the highest ranked characters
+     * @param count The maximum number of entries
+     * @param characterClass The class to rank within, or null for the global board
+     * @return The entries, highest first
+     */
+    public List<LeaderboardEntry> getTop(int count, String characterClass) {
+        return getRange(1, count, characterClass);
+    }
+
+    /**
+     * Gets consecutive entries of a board
+     * @param fromRank The 1-based rank of the first entry
+     * @param count The maximum number of entries
+     * @param characterClass The class to rank within, or null for the global board
+     * @return The entries, highest first
+     */
+    public List<LeaderboardEntry> getRange(int fromRank, int count, String characterClass) {
+        lock.readLock().lock();
+        try {
+            RankedSkipList<LeaderboardEntry> board = board(characterClass);
+            return board != null ? board.range(fromRank, count) : Collections.emptyList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the rank of a character
+     * @param characterId The character's ID
+     * @param characterClass The class to rank within, or null for the global board
+     * @return The 1-based rank, or 0 if the character is not on that board
+     */
+    public int getRank(int characterId, String characterClass) {
+        lock.readLock().lock();
+        try {
+            LeaderboardEntry entry = entries.get(characterId);
+            RankedSkipList<LeaderboardEntry> board = board(characterClass);
+            return entry != null && board != null ? board.rankOf(entry) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the entries ranked around a character, including the character itself
+     * @param characterId The character's ID
+     * @param radius The number of entries to include above and below
+     * @param characterClass The class to rank within, or null for the global board
+     * @return The entries, highest first, or an empty list if the character is not on that board
+     */
+    public List<LeaderboardEntry> getAround(int characterId, int radius, String characterClass) {
+        lock.readLock().lock();
+        try {
+            LeaderboardEntry entry = entries.get(characterId);
+            RankedSkipList<LeaderboardEntry> board = board(characterClass);
+            int rank = entry != null && board != null ? board.rankOf(entry) : 0;
+            if (rank == 0) {
+                return Collections.emptyList();
+            }
+            int from = Math.max(1, rank - radius);
+            return board.range(from, rank + radius - from + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the current entry of a character
+     * @param characterId The character's ID
+     * @return The entry, or null if the character is not ranked
+     */
+    public LeaderboardEntry getEntry(int characterId) {
+        lock.readLock().lock();
+        try {
+            return entries.get(characterId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of characters on a board
+     * @param characterClass The class, or null for the global board
+     * @return The number of ranked characters
+     */
+    public int size(String characterClass) {
+        lock.readLock().lock();
+        try {
+            RankedSkipList<LeaderboardEntry> board = board(characterClass);
+            return board != null ? board.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a character's entry; the write lock must be held
+     */
+    private void put(LeaderboardEntry entry) {
+        LeaderboardEntry previous = entries.put(entry.getCharacterId(), entry);
+        if (previous != null) {
+            global.remove(previous);
+            board(previous.getCharacterClass(), false).remove(previous);
+        }
+        global.insert(entry);
+        board(entry.getCharacterClass(), true).insert(entry);
+    }
+
+    private RankedSkipList<LeaderboardEntry> board(String characterClass) {
+        return characterClass == null ? global : byClass.get(characterClass.toLowerCase(Locale.ROOT));
+    }
+
+    private RankedSkipList<LeaderboardEntry> board(String characterClass, boolean create) {
+        String key = characterClass.toLowerCase(Locale.ROOT);
+        RankedSkipList<LeaderboardEntry> board = byClass.get(key);
+        if (board == null && create) {
+            board = new RankedSkipList<>(LeaderboardEntry.ORDER);
+            byClass.put(key, board);
+        }
+        return board;
+    }
+}
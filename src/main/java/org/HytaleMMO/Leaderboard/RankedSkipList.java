@@ -0,0 +1,202 @@
+package org.HytaleMMO.Leaderboard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Skip list that also knows the position of every element.
+ * Every link stores how many elements it skips, so insert, remove, the rank
+ * of an element and the element at a rank are all O(log n) expected.
+ * The comparator must be a total order: elements that compare equal are the
+ * same element. Not thread-safe.
+ *
+ * @param <T> The element type
+ */
+public class RankedSkipList<T> {
+    private static final int MAX_LEVEL = 32;
+
+    private final Comparator<? super T> comparator;
+    private final Node<T> head;
+    private int level;
+    private int size;
+
+    public RankedSkipList(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+        this.head = new Node<>(null, MAX_LEVEL);
+        this.level = 1;
+    }
+
+    /**
+     * Inserts an element
+     * @param value The element; must not already be in the list
+     */
+    @SuppressWarnings("unchecked")
+    public void insert(T value) {
+        Node<T>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+
+        Node<T> node = new Node<>(value, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    /**
+     * Removes an element
+     * @param value The element
+     * @return true if the element was in the list
+     */
+    @SuppressWarnings("unchecked")
+    public boolean remove(T value) {
+        Node<T>[] update = new Node[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        x = x.next[0];
+        if (x == null || comparator.compare(x.value, value) != 0) {
+            return false;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].next[i] = x.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the position of an element
+     * @param value The element
+     * @return The 1-based rank, or 0 if the element is not in the list
+     */
+    public int rankOf(T value) {
+        int rank = 0;
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && comparator.compare(x.value, value) == 0) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Gets the element at a position
+     * @param rank The 1-based rank
+     * @return The element, or null if the rank is out of range
+     */
+    public T get(int rank) {
+        Node<T> node = nodeAt(rank);
+        return node != null ? node.value : null;
+    }
+
+    /**
+     * Gets consecutive elements
+     * @param fromRank The 1-based rank of the first element
+     * @param count The maximum number of elements
+     * @return The elements in order
+     */
+    public List<T> range(int fromRank, int count) {
+        List<T> values = new ArrayList<>(Math.max(0, Math.min(count, size - fromRank + 1)));
+        Node<T> node = nodeAt(Math.max(1, fromRank));
+        while (node != null && values.size() < count) {
+            values.add(node.value);
+            node = node.next[0];
+        }
+        return values;
+    }
+
+    /**
+     * Gets the number of elements
+     * @return The size
+     */
+    public int size() {
+        return size;
+    }
+
+    private Node<T> nodeAt(int rank) {
+        if (rank < 1 || rank > size) {
+            return null;
+        }
+        int traversed = 0;
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= rank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == rank) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private static int randomLevel() {
+        // Each level is kept with probability 1/4
+        int level = 1;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (level < MAX_LEVEL && (random.nextInt() & 3) == 0) {
+            level++;
+        }
+        return level;
+    }
+
+    private static final class Node<T> {
+        private final T value;
+        private final Node<T>[] next;
+        private final int[] span;
+
+        @SuppressWarnings("unchecked")
+        private Node(T value, int level) {
+            this.value = value;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
@@ -1,134 +1,338 @@
 package org.HytaleMMO.Listeners;
 
+import com.hypixel.hytale.event.EventListener;
+import com.hypixel.hytale.event.entity.EntityDamageEvent;
+import com.hypixel.hytale.event.player.PlayerDeathEvent;
+import com.hypixel.hytale.event.player.PlayerJoinEvent;
+import com.hypixel.hytale.event.player.PlayerMoveEvent;
+import com.hypixel.hytale.event.player.PlayerQuitEvent;
+import com.hypixel.hytale.event.player.PlayerRespawnEvent;
 import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.api.world.Location;
+import com.hypixel.hytale.world.entity.player.Player;
 import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Combat.DamageAccumulator;
+import org.HytaleMMO.Combat.RegenerationSystem;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Profiling.Profiler;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
 
 /**
- * Example integration class showing how to connect PlayerEventListener
- * to actual Hytale events.
- * 
- * IMPORTANT: This is an EXAMPLE/TEMPLATE class showing the integration pattern.
- * The actual event classes and annotations will depend on the Hytale API.
- * 
- * To complete the integration:
- * 1. Replace the commented event annotations with the actual Hytale event system
- * 2. Replace placeholder event types (PlayerJoinEvent, etc.) with actual Hytale event classes
- * 3. Update player data extraction to use actual Hytale Player API
- * 4. Register this listener in Main.java's setup() method
- * 
- * Common event system patterns to look for:
- * - Bukkit/Spigot style: @EventHandler annotation
- * - Sponge style: @Listener annotation  
- * - Forge style: @SubscribeEvent annotation
- * - Custom Hytale style: Check official documentation
+ * Connects Hytale's player events to the PlayerEventListener.
+ * Registered through the plugin's event registry in Main.
+ *
+ * Join, quit, death and respawn are forwarded as they happen. Movement and
+ * damage fire far more often: movement is only sampled into a per-player slot
+ * (latest position) and damage is summed by the DamageAccumulator, and both
+ * are applied in one batch per tick. Deaths caused by accumulated damage are
+ * resolved in that pass and not forwarded a second time by the death event.
+ * The time spent inside every callback is measured per event type.
  */
 public class HytaleEventBridge {
+    public static final int JOIN = 0;
+    public static final int QUIT = 1;
+    public static final int DEATH = 2;
+    public static final int RESPAWN = 3;
+    public static final int MOVE = 4;
+    public static final int DAMAGE = 5;
+    public static final int TICK = 6;
+    private static final String[] EVENT_NAMES = {"join", "quit", "death", "respawn", "move", "damage", "tick"};
+
     private final PlayerEventListener eventListener;
+    private final OnlinePlayers onlinePlayers;
+    private final DamageAccumulator damageAccumulator;
     private final HytaleLogger logger;
+    private final Map<UUID, PlayerSample> samples;
+    private final AtomicLongArray eventCounts;
+    private final AtomicLongArray eventNanos;
+    private final long tickMs;
+    private volatile RegenerationSystem regeneration;
+    private Profiler profiler = Profiler.DISABLED;
+    private ServerTickScheduler.RepeatingTask tickTask;
 
-    public HytaleEventBridge(CharacterManager characterManager, HytaleLogger logger) {
-        this.eventListener = new PlayerEventListener(characterManager, logger);
+    /**
+     * Creates a new event bridge
+     * @param eventListener The listener that handles the MMO side of player events
+     * @param onlinePlayers The online player registry to keep up to date
+     * @param characterManager The character manager holding loaded characters
+     * @param logger The logger instance
+     * @param tickMs The interval between batched dispatches of sampled movement and damage
+     */
+    public HytaleEventBridge(PlayerEventListener eventListener, OnlinePlayers onlinePlayers, CharacterManager characterManager,
+                             HytaleLogger logger, long tickMs) {
+        this.eventListener = eventListener;
+        this.onlinePlayers = onlinePlayers;
+        this.damageAccumulator = new DamageAccumulator(characterManager, this::onAccumulatedDeath);
         this.logger = logger;
+        this.samples = new ConcurrentHashMap<>();
+        this.eventCounts = new AtomicLongArray(EVENT_NAMES.length);
+        this.eventNanos = new AtomicLongArray(EVENT_NAMES.length);
+        this.tickMs = tickMs;
     }
 
     /**
-     * Example: How to handle player join events
-     * 
-     * Uncomment and adapt when you have access to actual Hytale API:
-     * 
-     * @EventHandler  // or @Listener or @SubscribeEvent - check Hytale docs
-     * public void onPlayerJoin(PlayerJoinEvent event) {
-     *     Player player = event.getPlayer();
-     *     UUID playerId = player.getUniqueId();
-     *     String playerName = player.getName();
-     *     Location location = player.getLocation();
-     *     
-     *     eventListener.onPlayerJoin(
-     *         playerId,
-     *         playerName,
-     *         location.getX(),
-     *         location.getY(),
-     *         location.getZ(),
-     *         location.getWorld().getName()
-     *     );
-     * }
+     * Runs health and mana regeneration from the tick, after accumulated damage is applied
+     * @param regeneration The regeneration system
      */
+    public void setRegeneration(RegenerationSystem regeneration) {
+        this.regeneration = regeneration;
+    }
 
     /**
-     * Example: How to handle player disconnect events
-     * 
-     * Uncomment and adapt when you have access to actual Hytale API:
-     * 
-     * @EventHandler  // or @Listener or @SubscribeEvent - check Hytale docs
-     * public void onPlayerQuit(PlayerQuitEvent event) {
-     *     Player player = event.getPlayer();
-     *     UUID playerId = player.getUniqueId();
-     *     String playerName = player.getName();
-     *     
-     *     eventListener.onPlayerDisconnect(playerId, playerName);
-     * }
+     * Records the time spent in the event callbacks while the profiler is running
+     * @param profiler The profiler
      */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
 
     /**
-     * Example: How to handle player death events
-     * 
-     * Uncomment and adapt when you have access to actual Hytale API:
-     * 
-     * @EventHandler  // or @Listener or @SubscribeEvent - check Hytale docs
-     * public void onPlayerDeath(PlayerDeathEvent event) {
-     *     Player player = event.getPlayer();
-     *     UUID playerId = player.getUniqueId();
-     *     String playerName = player.getName();
-     *     Location deathLoc = player.getLocation();
-     *     
-     *     eventListener.onPlayerDeath(
-     *         playerId,
-     *         playerName,
-     *         deathLoc.getX(),
-     *         deathLoc.getY(),
-     *         deathLoc.getZ(),
-     *         deathLoc.getWorld().getName()
-     *     );
-     * }
+     * Dispatches sampled movement and damage on the server tick
+     * @param scheduler The server tick scheduler
      */
+    public void start(ServerTickScheduler scheduler) {
+        if (tickTask != null) {
+            logger.at(Level.WARNING).log("Event bridge tick is already running");
+            return;
+        }
+
+        tickTask = scheduler.schedule("event bridge", this::tick, ServerTickScheduler.ticks(tickMs));
+
+        logger.at(Level.INFO).log("Hytale event bridge started (tick: " + tickMs + " ms)");
+    }
 
     /**
-     * Example: How to handle player respawn events to update position
-     * 
-     * Uncomment and adapt when you have access to actual Hytale API:
-     * 
-     * @EventHandler  // or @Listener or @SubscribeEvent - check Hytale docs
-     * public void onPlayerRespawn(PlayerRespawnEvent event) {
-     *     Player player = event.getPlayer();
-     *     UUID playerId = player.getUniqueId();
-     *     Location respawnLoc = event.getRespawnLocation();
-     *     
-     *     eventListener.updatePlayerPosition(
-     *         playerId,
-     *         respawnLoc.getX(),
-     *         respawnLoc.getY(),
-     *         respawnLoc.getZ(),
-     *         respawnLoc.getWorld().getName()
-     *     );
-     * }
+     * Stops the tick and dispatches any pending samples
      */
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        tick();
+        logger.at(Level.INFO).log(getOverheadReport());
+        if (regeneration != null) {
+            regeneration.logReport();
+        }
+    }
+
+    @EventListener
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        profiler.time("HytaleEventBridge.onPlayerJoin", () -> handlePlayerJoin(event));
+    }
+
+    private void handlePlayerJoin(PlayerJoinEvent event) {
+        long start = System.nanoTime();
+        Player player = event.getPlayer();
+        Location location = player.getLocation();
+
+        onlinePlayers.add(player);
+        samples.put(player.getUniqueId(), new PlayerSample());
+        eventListener.onPlayerJoin(
+                player.getUniqueId(),
+                player.getName(),
+                location.getX(),
+                location.getY(),
+                location.getZ(),
+                location.getWorld().getName()
+        );
+        record(JOIN, start);
+    }
+
+    @EventListener
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        profiler.time("HytaleEventBridge.onPlayerQuit", () -> handlePlayerQuit(event));
+    }
+
+    private void handlePlayerQuit(PlayerQuitEvent event) {
+        long start = System.nanoTime();
+        Player player = event.getPlayer();
+        UUID playerId = player.getUniqueId();
+
+        // Dispatch the last sampled position and health before the final save
+        PlayerSample sample = samples.remove(playerId);
+        if (sample != null) {
+            dispatch(playerId, sample);
+        }
+        onlinePlayers.remove(playerId);
+        eventListener.onPlayerDisconnect(playerId, player.getName());
+        record(QUIT, start);
+    }
+
+    @EventListener
+    public void onPlayerDeath(PlayerDeathEvent event) {
+        profiler.time("HytaleEventBridge.onPlayerDeath", () -> handlePlayerDeath(event));
+    }
+
+    private void handlePlayerDeath(PlayerDeathEvent event) {
+        long start = System.nanoTime();
+        Player player = event.getPlayer();
+        Location location = player.getLocation();
+
+        // Already handled if accumulated damage killed the player during a tick
+        if (!damageAccumulator.markDead(player.getUniqueId())) {
+            record(DEATH, start);
+            return;
+        }
+        
+        // The death handler stores the death location and resets health; drop stale samples
+        PlayerSample sample = samples.get(player.getUniqueId());
+        if (sample != null) {
+            sample.clear();
+        }
+        eventListener.onPlayerDeath(
+                player.getUniqueId(),
+                player.getName(),
+                location.getX(),
+                location.getY(),
+                location.getZ(),
+                location.getWorld().getName()
+        );
+        record(DEATH, start);
+    }
+
+    @EventListener
+    public void onPlayerRespawn(PlayerRespawnEvent event) {
+        profiler.time("HytaleEventBridge.onPlayerRespawn", () -> handlePlayerRespawn(event));
+    }
+
+    private void handlePlayerRespawn(PlayerRespawnEvent event) {
+        long start = System.nanoTime();
+        Location location = event.getRespawnLocation();
+        damageAccumulator.revive(event.getPlayer().getUniqueId());
+        PlayerSample sample = samples.get(event.getPlayer().getUniqueId());
+        if (sample != null) {
+            sample.setPosition(location.getX(), location.getY(), location.getZ(), location.getWorld().getName());
+        }
+        record(RESPAWN, start);
+    }
+
+    @EventListener
+    public void onPlayerMove(PlayerMoveEvent event) {
+        boolean profiled = profiler.enter("HytaleEventBridge.onPlayerMove");
+        try {
+            handlePlayerMove(event);
+        } finally {
+            if (profiled) {
+                profiler.exit();
+            }
+        }
+    }
+
+    private void handlePlayerMove(PlayerMoveEvent event) {
+        long start = System.nanoTime();
+        PlayerSample sample = samples.get(event.getPlayer().getUniqueId());
+        if (sample != null) {
+            Location to = event.getTo();
+            sample.setPosition(to.getX(), to.getY(), to.getZ(), to.getWorld().getName());
+        }
+        record(MOVE, start);
+    }
+
+    @EventListener
+    public void onEntityDamage(EntityDamageEvent event) {
+        boolean profiled = profiler.enter("HytaleEventBridge.onEntityDamage");
+        try {
+            handleEntityDamage(event);
+        } finally {
+            if (profiled) {
+                profiler.exit();
+            }
+        }
+    }
+
+    private void handleEntityDamage(EntityDamageEvent event) {
+        if (!(event.getEntity() instanceof Player)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Player player = (Player) event.getEntity();
+        damageAccumulator.addDamage(player.getUniqueId(), (int) Math.ceil(event.getDamage()));
+        record(DAMAGE, start);
+    }
+
+    /**
+     * Dispatches the latest sampled position of every player that moved since the last tick,
+     * applies the damage accumulated during the tick and runs regeneration when it is due
+     */
+    public void tick() {
+        long start = System.nanoTime();
+        for (Map.Entry<UUID, PlayerSample> entry : samples.entrySet()) {
+            dispatch(entry.getKey(), entry.getValue());
+        }
+        damageAccumulator.tick();
+        RegenerationSystem regen = regeneration;
+        if (regen != null) {
+            regen.tick(System.currentTimeMillis());
+        }
+        record(TICK, start);
+    }
+
+    /**
+     * Forwards a death resolved by the damage accumulator, at the last known position
+     */
+    private void onAccumulatedDeath(Character character) {
+        eventListener.onPlayerDeath(
+                character.getPlayerId(),
+                character.getCharacterName(),
+                character.getPosX(),
+                character.getPosY(),
+                character.getPosZ(),
+                character.getWorld()
+        );
+    }
+
+    private void dispatch(UUID playerId, PlayerSample sample) {
+        synchronized (sample) {
+            if (sample.positionDirty) {
+                eventListener.updatePlayerPosition(playerId, sample.x, sample.y, sample.z, sample.world);
+                sample.positionDirty = false;
+            }
+        }
+    }
+
+    private void record(int eventType, long start) {
+        eventNanos.addAndGet(eventType, System.nanoTime() - start);
+        eventCounts.incrementAndGet(eventType);
+    }
+
+    /**
+     * Gets the average time spent in the bridge for an event type
+     * @param eventType The event type (JOIN, QUIT, ...)
+     * @return The average time in nanoseconds, or 0 if the event never fired
+     */
+    public long getAverageNanos(int eventType) {
+        long count = eventCounts.get(eventType);
+        return count == 0 ? 0 : eventNanos.get(eventType) / count;
+    }
+
+    /**
+     * Builds a one-line report of the bridge overhead per event type
+     * @return The report
+     */
+    public String getOverheadReport() {
+        StringBuilder report = new StringBuilder("Event bridge overhead:");
+        for (int i = 0; i < EVENT_NAMES.length; i++) {
+            report.append(' ').append(EVENT_NAMES[i])
+                    .append("=").append(eventCounts.get(i))
+                    .append("x/").append(getAverageNanos(i)).append("ns");
+        }
+        return report.toString();
+    }
 
     /**
-     * Example: How to update character health when player takes damage
-     * 
-     * Uncomment and adapt when you have access to actual Hytale API:
-     * 
-     * @EventHandler  // or @Listener or @SubscribeEvent - check Hytale docs
-     * public void onPlayerDamage(EntityDamageEvent event) {
-     *     if (event.getEntity() instanceof Player) {
-     *         Player player = (Player) event.getEntity();
-     *         UUID playerId = player.getUniqueId();
-     *         int newHealth = (int) player.getHealth();
-     *         
-     *         eventListener.updatePlayerHealth(playerId, newHealth);
-     *     }
-     * }
+     * Gets the damage accumulator
+     * @return the damage accumulator
      */
+    public DamageAccumulator getDamageAccumulator() {
+        return damageAccumulator;
+    }
 
     /**
      * Gets the underlying event listener
@@ -137,4 +341,27 @@ public class HytaleEventBridge {
     public PlayerEventListener getEventListener() {
         return eventListener;
     }
+
+    /**
+     * Latest sampled state of one player, coalesced between ticks
+     */
+    private static final class PlayerSample {
+        private double x;
+        private double y;
+        private double z;
+        private String world;
+        private boolean positionDirty;
+
+        private synchronized void setPosition(double x, double y, double z, String world) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.world = world;
+            this.positionDirty = true;
+        }
+
+        private synchronized void clear() {
+            this.positionDirty = false;
+        }
+    }
 }
@@ -0,0 +1,81 @@
+package org.HytaleMMO.Listeners;
+
+import com.hypixel.hytale.world.entity.player.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the player entities currently online
+ * Filled by the HytaleEventBridge on join and quit, so MMO systems can
+ * message or locate a player from its UUID or name
+ */
+public class OnlinePlayers {
+    private final Map<UUID, Player> players;
+    private final Map<String, Player> playersByName;
+
+    public OnlinePlayers() {
+        this.players = new ConcurrentHashMap<>();
+        this.playersByName = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Adds a player that joined the server
+     * @param player The player entity
+     */
+    public void add(Player player) {
+        players.put(player.getUniqueId(), player);
+        playersByName.put(player.getName().toLowerCase(Locale.ROOT), player);
+    }
+
+    /**
+     * Removes a player that left the server
+     * @param playerId The player's UUID
+     * @return The removed player, or null if the player was not online
+     */
+    public Player remove(UUID playerId) {
+        Player player = players.remove(playerId);
+        if (player != null) {
+            playersByName.remove(player.getName().toLowerCase(Locale.ROOT), player);
+        }
+        return player;
+    }
+
+    /**
+     * Gets an online player by UUID
+     * @param playerId The player's UUID
+     * @return The player, or null if not online
+     */
+    public Player get(UUID playerId) {
+        return players.get(playerId);
+    }
+
+    /**
+     * Gets an online player by name (case-insensitive)
+     * @param name The player's name
+     * @return The player, or null if not online
+     */
+    public Player getByName(String name) {
+        return playersByName.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Gets a live read-only view of all online players
+     * @return The online players
+     */
+    public Collection<Player> all() {
+        return Collections.unmodifiableCollection(players.values());
+    }
+
+    /**
+     * Gets the number of online players
+     * @return The player count
+     */
+    public int size() {
+        return players.size();
+    }
+}
@@ -1,8 +1,20 @@
 package org.HytaleMMO.Listeners;
 
 import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.api.command.CommandSender;
+import com.hypixel.hytale.world.entity.player.Player;
+import net.kyori.adventure.text.Component;
+import org.HytaleMMO.Bus.MmoEvent;
+import org.HytaleMMO.Bus.MmoEventBus;
+import org.HytaleMMO.Bus.MmoEventHandler;
 import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Character.SaveLane;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Database.Tables.CharacterSummary;
+import org.HytaleMMO.Profiling.Profiler;
+import org.HytaleMMO.Startup.ReadinessGate;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.logging.Level;
 
@@ -10,16 +22,116 @@ import java.util.logging.Level;
  * Handles player-related events such as join, disconnect, and death
  * Note: Event handling methods will need to be connected to actual Hytale events
  * using the appropriate event system when available
+ * 
+ * When an event bus is set, the public methods only publish a compact event
+ * and the actual work runs on bus consumer threads. Position, health and death
+ * updates are applied by this listener; joins, disconnects and character
+ * selection and creation, which wait on the database, are handled by the
+ * persistence handler on a consumer of their own, so the frequent updates never
+ * queue behind a character load. The database events stay in publication order,
+ * so selection and creation never overlap a join or disconnect of the same player.
+ * 
+ * When a readiness gate is set, joins that arrive before startup has finished
+ * are held until the gate opens, and the player is disconnected with a
+ * message if it does not open in time
  */
-public class PlayerEventListener {
+public class PlayerEventListener implements MmoEventHandler {
     private final CharacterManager characterManager;
     private final HytaleLogger logger;
+    private MmoEventBus eventBus;
+    private ReadinessGate readinessGate;
+    private OnlinePlayers onlinePlayers;
+    private ServerTickScheduler serverTasks;
+    private long readinessTimeoutMs;
+    private Profiler profiler = Profiler.DISABLED;
+    private final PersistenceHandler persistence = new PersistenceHandler();
 
     public PlayerEventListener(CharacterManager characterManager, HytaleLogger logger) {
         this.characterManager = characterManager;
         this.logger = logger;
     }
 
+    /**
+     * Routes player events through the event bus instead of handling them inline
+     * The listener and its persistence handler must both be added to the bus as consumers
+     * @param eventBus The event bus
+     */
+    public void setEventBus(MmoEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Holds joins until the plugin has finished starting
+     * @param readinessGate The gate opened when startup has finished
+     * @param onlinePlayers The online player registry, used to message and disconnect held players
+     * @param serverTasks The scheduler that disconnects timed out players on the server thread
+     * @param timeoutMs How long a join may wait before the player is disconnected
+     */
+    public void setReadinessGate(ReadinessGate readinessGate, OnlinePlayers onlinePlayers, ServerTickScheduler serverTasks, long timeoutMs) {
+        this.readinessGate = readinessGate;
+        this.onlinePlayers = onlinePlayers;
+        this.serverTasks = serverTasks;
+        this.readinessTimeoutMs = timeoutMs;
+    }
+
+    /**
+     * Records the time spent in the public event methods while the profiler is running
+     * @param profiler The profiler
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Gets the handler for the events that wait on the database
+     * @return The handler to add to the event bus as a consumer of its own
+     */
+    public MmoEventHandler getPersistenceHandler() {
+        return persistence;
+    }
+
+    @Override
+    public void onEvent(MmoEvent event, long sequence, boolean endOfBatch) {
+        switch (event.getType()) {
+            case MmoEvent.PLAYER_DEATH:
+                handlePlayerDeath(event.getPlayerId(), event.getName(), event.getX(), event.getY(), event.getZ(), event.getWorld());
+                break;
+            case MmoEvent.PLAYER_POSITION:
+                characterManager.updateCharacterPosition(event.getPlayerId(), event.getX(), event.getY(), event.getZ(), event.getWorld());
+                break;
+            case MmoEvent.PLAYER_HEALTH:
+                characterManager.updateCharacterHealth(event.getPlayerId(), event.getValue());
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Handles the player events that load or save characters
+     */
+    private final class PersistenceHandler implements MmoEventHandler {
+        @Override
+        public void onEvent(MmoEvent event, long sequence, boolean endOfBatch) {
+            switch (event.getType()) {
+                case MmoEvent.PLAYER_JOIN:
+                    handlePlayerJoin(event.getPlayerId(), event.getName(), event.getX(), event.getY(), event.getZ(), event.getWorld());
+                    break;
+                case MmoEvent.PLAYER_DISCONNECT:
+                    handlePlayerDisconnect(event.getPlayerId(), event.getName());
+                    break;
+                case MmoEvent.CHARACTER_SELECT:
+                    handleCharacterSelect(event.getPlayerId(), event.getName(), (CommandSender) event.getSource());
+                    break;
+                case MmoEvent.CHARACTER_CREATE:
+                    handleCharacterCreate(event.getPlayerId(), event.getName(), (CommandSender) event.getSource());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
     /**
      * Handles when a player joins the server
      * This method should be called from the actual event handler
@@ -32,6 +144,66 @@ public class PlayerEventListener {
      * @param world The world name
      */
     public void onPlayerJoin(UUID playerId, String playerName, double spawnX, double spawnY, double spawnZ, String world) {
+        profiler.time("PlayerEventListener.onPlayerJoin", () -> dispatchPlayerJoin(playerId, playerName, spawnX, spawnY, spawnZ, world));
+    }
+
+    private void dispatchPlayerJoin(UUID playerId, String playerName, double spawnX, double spawnY, double spawnZ, String world) {
+        if (readinessGate != null) {
+            if (!readinessGate.isOpen()) {
+                holdJoin(playerId, playerName, spawnX, spawnY, spawnZ, world);
+                return;
+            }
+            readinessGate.recordJoin(0);
+        }
+        dispatchJoin(playerId, playerName, spawnX, spawnY, spawnZ, world);
+    }
+
+    /**
+     * Waits for the readiness gate without blocking the calling thread, then dispatches the join
+     */
+    private void holdJoin(UUID playerId, String playerName, double spawnX, double spawnY, double spawnZ, String world) {
+        long heldAt = System.currentTimeMillis();
+        Player player = onlinePlayers.get(playerId);
+        if (player != null) {
+            player.sendMessage(Component.text("The server is still starting up. Your character will load in a moment."));
+        }
+        logger.at(Level.INFO).log("Holding join of " + playerName + " until startup has finished");
+
+        readinessGate.whenOpen(readinessTimeoutMs).whenComplete((ignored, error) -> {
+            // The player may have left while waiting
+            Player current = onlinePlayers.get(playerId);
+            if (current == null) {
+                return;
+            }
+            if (error != null) {
+                readinessGate.recordTimeout();
+                logger.at(Level.WARNING).log("Startup did not finish within " + readinessTimeoutMs
+                        + " ms, disconnecting " + playerName);
+                // This runs on the timeout thread; players may only be disconnected from the server thread
+                serverTasks.execute(() -> {
+                    Player held = onlinePlayers.get(playerId);
+                    if (held != null) {
+                        held.kick("The server is still starting up. Please reconnect in a minute.");
+                    }
+                });
+                return;
+            }
+            readinessGate.recordJoin(System.currentTimeMillis() - heldAt);
+            dispatchJoin(playerId, playerName, spawnX, spawnY, spawnZ, world);
+        });
+    }
+
+    private void dispatchJoin(UUID playerId, String playerName, double spawnX, double spawnY, double spawnZ, String world) {
+        if (eventBus != null) {
+            long sequence = eventBus.next();
+            eventBus.get(sequence).reset(MmoEvent.PLAYER_JOIN, playerId).name(playerName).position(spawnX, spawnY, spawnZ, world);
+            eventBus.publish(sequence);
+            return;
+        }
+        handlePlayerJoin(playerId, playerName, spawnX, spawnY, spawnZ, world);
+    }
+
+    private void handlePlayerJoin(UUID playerId, String playerName, double spawnX, double spawnY, double spawnZ, String world) {
         try {
             logger.at(Level.INFO).log("Player joining: " + playerName + " (" + playerId + ")");
             
@@ -59,15 +231,29 @@ public class PlayerEventListener {
      * @param playerName The player's name
      */
     public void onPlayerDisconnect(UUID playerId, String playerName) {
+        profiler.time("PlayerEventListener.onPlayerDisconnect", () -> dispatchPlayerDisconnect(playerId, playerName));
+    }
+
+    private void dispatchPlayerDisconnect(UUID playerId, String playerName) {
+        if (eventBus != null) {
+            long sequence = eventBus.next();
+            eventBus.get(sequence).reset(MmoEvent.PLAYER_DISCONNECT, playerId).name(playerName);
+            eventBus.publish(sequence);
+            return;
+        }
+        handlePlayerDisconnect(playerId, playerName);
+    }
+
+    private void handlePlayerDisconnect(UUID playerId, String playerName) {
         try {
             logger.at(Level.INFO).log("Player disconnecting: " + playerName + " (" + playerId + ")");
             
-            // Save character before disconnect
+            // Save character before disconnect (highest priority lane)
             if (characterManager.isCharacterLoaded(playerId)) {
-                boolean saved = characterManager.saveCharacter(playerId);
+                boolean saved = characterManager.requestSave(playerId, SaveLane.CRITICAL);
                 
                 if (saved) {
-                    logger.at(Level.INFO).log("Character saved for disconnecting player: " + playerName);
+                    logger.at(Level.INFO).log("Character save queued for disconnecting player: " + playerName);
                 } else {
                     logger.at(Level.WARNING).log("Failed to save character for disconnecting player: " + playerName);
                 }
@@ -93,6 +279,20 @@ public class PlayerEventListener {
      * @param world The world name
      */
     public void onPlayerDeath(UUID playerId, String playerName, double deathX, double deathY, double deathZ, String world) {
+        profiler.time("PlayerEventListener.onPlayerDeath", () -> dispatchPlayerDeath(playerId, playerName, deathX, deathY, deathZ, world));
+    }
+
+    private void dispatchPlayerDeath(UUID playerId, String playerName, double deathX, double deathY, double deathZ, String world) {
+        if (eventBus != null) {
+            long sequence = eventBus.next();
+            eventBus.get(sequence).reset(MmoEvent.PLAYER_DEATH, playerId).name(playerName).position(deathX, deathY, deathZ, world);
+            eventBus.publish(sequence);
+            return;
+        }
+        handlePlayerDeath(playerId, playerName, deathX, deathY, deathZ, world);
+    }
+
+    private void handlePlayerDeath(UUID playerId, String playerName, double deathX, double deathY, double deathZ, String world) {
         try {
             logger.at(Level.INFO).log("Player died: " + playerName + " (" + playerId + ")");
             
@@ -105,11 +305,11 @@ public class PlayerEventListener {
                 characterManager.updateCharacterHealth(playerId, character.getMaxHealth());
             }
             
-            // Save character on death
-            boolean saved = characterManager.saveCharacter(playerId);
+            // Save character on death (highest priority lane)
+            boolean saved = characterManager.requestSave(playerId, SaveLane.CRITICAL);
             
             if (saved) {
-                logger.at(Level.INFO).log("Character saved after death: " + playerName);
+                logger.at(Level.INFO).log("Character save queued after death: " + playerName);
             } else {
                 logger.at(Level.WARNING).log("Failed to save character after death: " + playerName);
             }
@@ -130,6 +330,23 @@ public class PlayerEventListener {
      * @param world World name
      */
     public void updatePlayerPosition(UUID playerId, double x, double y, double z, String world) {
+        boolean profiled = profiler.enter("PlayerEventListener.updatePlayerPosition");
+        try {
+            dispatchPlayerPosition(playerId, x, y, z, world);
+        } finally {
+            if (profiled) {
+                profiler.exit();
+            }
+        }
+    }
+
+    private void dispatchPlayerPosition(UUID playerId, double x, double y, double z, String world) {
+        if (eventBus != null) {
+            long sequence = eventBus.next();
+            eventBus.get(sequence).reset(MmoEvent.PLAYER_POSITION, playerId).position(x, y, z, world);
+            eventBus.publish(sequence);
+            return;
+        }
         characterManager.updateCharacterPosition(playerId, x, y, z, world);
     }
 
@@ -141,6 +358,99 @@ public class PlayerEventListener {
      * @param health Current health value
      */
     public void updatePlayerHealth(UUID playerId, int health) {
+        boolean profiled = profiler.enter("PlayerEventListener.updatePlayerHealth");
+        try {
+            dispatchPlayerHealth(playerId, health);
+        } finally {
+            if (profiled) {
+                profiler.exit();
+            }
+        }
+    }
+
+    private void dispatchPlayerHealth(UUID playerId, int health) {
+        if (eventBus != null) {
+            long sequence = eventBus.next();
+            eventBus.get(sequence).reset(MmoEvent.PLAYER_HEALTH, playerId).value(health);
+            eventBus.publish(sequence);
+            return;
+        }
         characterManager.updateCharacterHealth(playerId, health);
     }
+
+    /**
+     * Switches a player to another of their characters
+     * 
+     * @param playerId The player's UUID
+     * @param characterName The name of the character to play
+     * @param sender Receives the result message
+     */
+    public void selectCharacter(UUID playerId, String characterName, CommandSender sender) {
+        profiler.time("PlayerEventListener.selectCharacter", () -> dispatchCharacterSelect(playerId, characterName, sender));
+    }
+
+    private void dispatchCharacterSelect(UUID playerId, String characterName, CommandSender sender) {
+        if (eventBus != null) {
+            long sequence = eventBus.next();
+            eventBus.get(sequence).reset(MmoEvent.CHARACTER_SELECT, playerId).name(characterName).source(sender);
+            eventBus.publish(sequence);
+            return;
+        }
+        handleCharacterSelect(playerId, characterName, sender);
+    }
+
+    private void handleCharacterSelect(UUID playerId, String characterName, CommandSender sender) {
+        try {
+            Character character = characterManager.selectCharacter(playerId, characterName);
+            if (character == null) {
+                sender.sendMessage("Could not switch to a character named " + characterName + ".");
+                return;
+            }
+            sender.sendMessage("Now playing " + character.getCharacterName() + " (level " + character.getLevel() + ").");
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).log("Error selecting character: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Creates an additional character for a player without loading it
+     * 
+     * @param playerId The player's UUID
+     * @param characterName The new character's name
+     * @param sender Receives the result message
+     */
+    public void createCharacter(UUID playerId, String characterName, CommandSender sender) {
+        profiler.time("PlayerEventListener.createCharacter", () -> dispatchCharacterCreate(playerId, characterName, sender));
+    }
+
+    private void dispatchCharacterCreate(UUID playerId, String characterName, CommandSender sender) {
+        if (eventBus != null) {
+            long sequence = eventBus.next();
+            eventBus.get(sequence).reset(MmoEvent.CHARACTER_CREATE, playerId).name(characterName).source(sender);
+            eventBus.publish(sequence);
+            return;
+        }
+        handleCharacterCreate(playerId, characterName, sender);
+    }
+
+    private void handleCharacterCreate(UUID playerId, String characterName, CommandSender sender) {
+        try {
+            List<CharacterSummary> summaries = characterManager.getCharacterSummaries(playerId);
+            if (summaries != null && summaries.size() >= CharacterManager.MAX_CHARACTERS) {
+                sender.sendMessage("You already have the maximum of " + CharacterManager.MAX_CHARACTERS + " characters.");
+                return;
+            }
+
+            CharacterSummary summary = characterManager.createCharacter(playerId, characterName);
+            if (summary == null) {
+                sender.sendMessage("Could not create " + characterName + ". The name may already be taken.");
+                return;
+            }
+            sender.sendMessage("Created " + summary.getCharacterName() + ". Use /character select " + summary.getCharacterName() + " to play it.");
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).log("Error creating character: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
 }
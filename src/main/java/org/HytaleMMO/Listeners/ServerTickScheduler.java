@@ -0,0 +1,149 @@
+package org.HytaleMMO.Listeners;
+
+import com.hypixel.hytale.event.EventListener;
+import com.hypixel.hytale.event.server.ServerTickEvent;
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Profiling.Profiler;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+
+/**
+ * Runs plugin work on the server thread.
+ * Registered through the plugin's event registry in Main.
+ *
+ * The world may only be changed from the server thread, so work that spawns,
+ * moves or removes entities or disconnects players must not run on the
+ * plugin's own timer or pool threads. Such threads hand single tasks over
+ * with execute(); work that repeats is scheduled every n server ticks.
+ * Note: The tick event name may differ in the actual Hytale API
+ */
+public class ServerTickScheduler {
+    /**
+     * Length of a server tick in milliseconds (20 ticks per second)
+     */
+    public static final long TICK_MS = 50;
+
+    private final HytaleLogger logger;
+    private final Queue<Runnable> tasks;
+    private final List<RepeatingTask> repeating;
+    private long tick;
+    private Profiler profiler = Profiler.DISABLED;
+
+    public ServerTickScheduler(HytaleLogger logger) {
+        this.logger = logger;
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.repeating = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Records the time spent in the tick and in each task while the profiler is running
+     * @param profiler The profiler
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Runs a task once on the next server tick
+     * May be called from any thread
+     * @param task The task
+     */
+    public void execute(Runnable task) {
+        tasks.add(task);
+    }
+
+    /**
+     * Converts an interval to server ticks
+     * @param intervalMs The interval in milliseconds
+     * @return The number of ticks, at least 1
+     */
+    public static int ticks(long intervalMs) {
+        return (int) Math.max(1, Math.round((double) intervalMs / TICK_MS));
+    }
+
+    /**
+     * Runs a task on the server thread every n ticks
+     * @param name The task name, used in error messages and profiles
+     * @param task The task
+     * @param intervalTicks The number of server ticks between runs
+     * @return The scheduled task, used to cancel it
+     */
+    public RepeatingTask schedule(String name, Runnable task, int intervalTicks) {
+        RepeatingTask scheduled = new RepeatingTask(name, task, Math.max(1, intervalTicks));
+        repeating.add(scheduled);
+        return scheduled;
+    }
+
+    @EventListener
+    public void onServerTick(ServerTickEvent event) {
+        boolean profiled = profiler.enter("ServerTickScheduler.onServerTick");
+        try {
+            runTick(event);
+        } finally {
+            if (profiled) {
+                profiler.exit();
+            }
+        }
+    }
+
+    private void runTick(ServerTickEvent event) {
+        tick++;
+
+        // Only tasks queued before this tick run now, so a task that queues another cannot stall the tick
+        for (int pending = tasks.size(); pending > 0; pending--) {
+            Runnable task = tasks.poll();
+            if (task == null) {
+                break;
+            }
+            run("ServerTickScheduler.queuedTask", "queued task", task);
+        }
+
+        for (RepeatingTask task : repeating) {
+            if (tick % task.intervalTicks == 0) {
+                run(task.frame, task.name, task.task);
+            }
+        }
+    }
+
+    private void run(String frame, String name, Runnable task) {
+        boolean profiled = profiler.enter(frame);
+        try {
+            task.run();
+        } catch (Exception e) {
+            logger.at(Level.SEVERE).log("Error in server tick task " + name + ": " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            if (profiled) {
+                profiler.exit();
+            }
+        }
+    }
+
+    /**
+     * A task that runs every n server ticks until it is cancelled
+     */
+    public final class RepeatingTask {
+        private final String name;
+        private final String frame;
+        private final Runnable task;
+        private final int intervalTicks;
+
+        private RepeatingTask(String name, Runnable task, int intervalTicks) {
+            this.name = name;
+            this.frame = "ServerTickScheduler." + name;
+            this.task = task;
+            this.intervalTicks = intervalTicks;
+        }
+
+        /**
+         * Stops running the task; a run in progress finishes
+         */
+        public void cancel() {
+            repeating.remove(this);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.HytaleMMO.Loot;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Mobs.MobTypeRegistry;
+import org.HytaleMMO.Util.AssetFiles;
+import org.HytaleMMO.Util.JsonReader;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+
+/**
+ * Loot tables from the assets under Server/Item/Loot, compiled at load time.
+ * Tables with a "Mob" field are indexed by interned mob type id, so finding
+ * the table for a kill is one array read. reload() builds a complete new
+ * index and swaps it in at once.
+ */
+public class LootRegistry {
+    public static final String LOOT_PATH = "Server/Item/Loot/";
+
+    private final MobTypeRegistry mobTypes;
+    private final HytaleLogger logger;
+    private volatile Map<String, LootTable> byId = Collections.emptyMap();
+    private volatile LootTable[] byMobType = new LootTable[0];
+
+    public LootRegistry(MobTypeRegistry mobTypes, HytaleLogger logger) {
+        this.mobTypes = mobTypes;
+        this.logger = logger;
+    }
+
+    /**
+     * Reads and compiles every loot table shipped with the plugin and replaces the current tables
+     * Tables that fail to parse, reference a missing table or are part of a cycle are skipped.
+     * On failure the current tables are kept
+     * @return true if the tables were reloaded, false otherwise
+     */
+    public synchronized boolean reload() {
+        long start = System.nanoTime();
+        Map<String, String> sources;
+        try {
+            sources = AssetFiles.readJson(LOOT_PATH);
+        } catch (IOException | URISyntaxException e) {
+            logger.at(Level.SEVERE).log("Error reading loot tables: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        Map<String, LootTable> tables = new HashMap<>();
+        int failed = 0;
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            try {
+                tables.put(source.getKey(), LootTable.fromJson(source.getKey(), JsonReader.parseObject(source.getValue())));
+            } catch (RuntimeException e) {
+                failed++;
+                logger.at(Level.WARNING).log("Skipping invalid loot table " + source.getKey() + ": " + e.getMessage());
+            }
+        }
+
+        // Drop tables that cannot be resolved, repeating until the remaining ones only reference each other
+        Set<String> invalid = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (LootTable table : tables.values()) {
+                if (invalid.contains(table.getId())) {
+                    continue;
+                }
+                String problem = null;
+                for (String nested : table.getNestedIds()) {
+                    if (!tables.containsKey(nested) || invalid.contains(nested)) {
+                        problem = "unknown or invalid nested table " + nested;
+                        break;
+                    }
+                }
+                if (problem == null && reachesItself(table.getId(), tables)) {
+                    problem = "nested tables form a cycle";
+                }
+                if (problem != null) {
+                    logger.at(Level.WARNING).log("Skipping loot table " + table.getId() + ": " + problem);
+                    invalid.add(table.getId());
+                    changed = true;
+                }
+            }
+        }
+        tables.keySet().removeAll(invalid);
+        failed += invalid.size();
+
+        LootTable[] mobIndex = new LootTable[0];
+        for (LootTable table : tables.values()) {
+            table.link(tables);
+            if (table.getMob() != null) {
+                int mobTypeId = mobTypes.idOf(table.getMob());
+                if (mobTypeId >= mobIndex.length) {
+                    mobIndex = Arrays.copyOf(mobIndex, mobTypeId + 1);
+                }
+                if (mobIndex[mobTypeId] != null) {
+                    logger.at(Level.WARNING).log("Loot tables " + mobIndex[mobTypeId].getId() + " and " + table.getId()
+                            + " both drop for " + table.getMob() + ", using " + table.getId());
+                }
+                mobIndex[mobTypeId] = table;
+            }
+        }
+
+        this.byId = tables;
+        this.byMobType = mobIndex;
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        logger.at(Level.INFO).log("Loaded " + tables.size() + " loot table(s) in " + elapsedMs + " ms"
+                + (failed > 0 ? " (" + failed + " failed)" : ""));
+        return true;
+    }
+
+    private static boolean reachesItself(String id, Map<String, LootTable> tables) {
+        Set<String> visited = new HashSet<>();
+        ArrayDeque<String> pending = new ArrayDeque<>(tables.get(id).getNestedIds());
+        while (!pending.isEmpty()) {
+            String next = pending.pop();
+            if (next.equals(id)) {
+                return true;
+            }
+            LootTable table = tables.get(next);
+            if (table != null && visited.add(next)) {
+                pending.addAll(table.getNestedIds());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets a loot table by ID
+     * @param id The table ID (path below Server/Item/Loot without extension)
+     * @return The table, or null if not found
+     */
+    public LootTable getTable(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Gets the loot table for kills of a mob type
+     * @param mobTypeId The interned mob type id
+     * @return The table, or null if the mob drops nothing
+     */
+    public LootTable getTableForMob(int mobTypeId) {
+        LootTable[] index = byMobType;
+        return mobTypeId >= 0 && mobTypeId < index.length ? index[mobTypeId] : null;
+    }
+
+    /**
+     * Gets the number of loot tables
+     * @return The table count
+     */
+    public int size() {
+        return byId.size();
+    }
+}
@@ -0,0 +1,89 @@
+package org.HytaleMMO.Loot;
+
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Inventory.CharacterInventory;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rolls the loot table of a killed mob into the killer's inventory.
+ * Each thread reuses one sink that writes into the current inventory, so
+ * a kill allocates nothing beyond the item stacks the inventory stores.
+ * Drops that do not fit in the inventory are lost and counted.
+ */
+public class LootService {
+    private final LootRegistry registry;
+    private final CharacterManager characterManager;
+    private final ThreadLocal<InventorySink> sinks;
+    private final LongAdder dropped;
+    private final LongAdder lost;
+
+    /**
+     * Creates a new loot service
+     * @param registry The loot tables
+     * @param characterManager The character manager holding loaded characters
+     */
+    public LootService(LootRegistry registry, CharacterManager characterManager) {
+        this.registry = registry;
+        this.characterManager = characterManager;
+        this.sinks = ThreadLocal.withInitial(InventorySink::new);
+        this.dropped = new LongAdder();
+        this.lost = new LongAdder();
+    }
+
+    /**
+     * Rolls the loot of a kill into the killer's inventory
+     * @param playerId The UUID of the killer
+     * @param mobTypeId The interned mob type id
+     * @return The number of item stacks dropped
+     */
+    public int awardLoot(UUID playerId, int mobTypeId) {
+        LootTable table = registry.getTableForMob(mobTypeId);
+        if (table == null) {
+            return 0;
+        }
+        Character character = characterManager.getCharacter(playerId);
+        if (character == null || character.getInventory() == null) {
+            return 0;
+        }
+
+        InventorySink sink = sinks.get();
+        sink.inventory = character.getInventory();
+        try {
+            return table.roll(character.getLevel(), sink);
+        } finally {
+            sink.inventory = null;
+        }
+    }
+
+    /**
+     * Gets the loot tables
+     * @return The loot registry
+     */
+    public LootRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Builds a one-line report of the drops so far
+     * @return The report
+     */
+    public String getReport() {
+        return "Loot: " + dropped.sum() + " stack(s) dropped, " + lost.sum() + " lost to full inventories";
+    }
+
+    private final class InventorySink implements LootSink {
+        private CharacterInventory inventory;
+
+        @Override
+        public void drop(String itemId, int quantity) {
+            if (inventory.addItems(itemId, quantity)) {
+                dropped.increment();
+            } else {
+                lost.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.HytaleMMO.Loot;
+
+/**
+ * Receives the items of a loot roll
+ * Implementations are reused across rolls, so rolling allocates nothing itself
+ */
+public interface LootSink {
+    /**
+     * Called once per dropped item stack
+     * @param itemId The item ID
+     * @param quantity The quantity
+     */
+    void drop(String itemId, int quantity);
+}
@@ -0,0 +1,332 @@
+package org.HytaleMMO.Loot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A loot table parsed from a Server/Item/Loot asset and compiled for rolling.
+ *
+ * A table has one or more pools, each rolled independently. Every pool is
+ * compiled into an alias table (Vose's method), so a weighted draw is one
+ * random number and two array reads regardless of the number of entries.
+ * An entry drops an item, rolls another table, or drops nothing. Pools and
+ * entries can carry conditions (killer level range and an extra chance);
+ * a drawn entry whose conditions fail drops nothing, which keeps the other
+ * entries' odds as written.
+ *
+ * Rolling uses ThreadLocalRandom and hands drops straight to a LootSink,
+ * so it allocates nothing.
+ */
+public final class LootTable {
+    /** Nested tables deeper than this are not rolled */
+    public static final int MAX_DEPTH = 8;
+
+    private static final int EMPTY = 0;
+    private static final int ITEM = 1;
+    private static final int TABLE = 2;
+
+    private final String id;
+    private final String mob;
+    private final Pool[] pools;
+
+    private LootTable(String id, String mob, Pool[] pools) {
+        this.id = id;
+        this.mob = mob;
+        this.pools = pools;
+    }
+
+    /**
+     * Parses a loot table from its JSON asset
+     * Nested tables are referenced by ID and resolved later with link()
+     * @param id The table ID (path below Server/Item/Loot without extension)
+     * @param json The parsed JSON object
+     * @return The table
+     * @throws IllegalArgumentException if a required field is missing or invalid
+     */
+    public static LootTable fromJson(String id, Map<String, Object> json) {
+        Object poolsJson = json.get("Pools");
+        if (!(poolsJson instanceof List) || ((List<?>) poolsJson).isEmpty()) {
+            throw new IllegalArgumentException("Missing Pools");
+        }
+        List<?> poolList = (List<?>) poolsJson;
+        Pool[] pools = new Pool[poolList.size()];
+        for (int i = 0; i < pools.length; i++) {
+            pools[i] = Pool.fromJson(object(poolList.get(i), "Pools"));
+        }
+        Object mob = json.get("Mob");
+        return new LootTable(id, mob instanceof String ? (String) mob : null, pools);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the mob type this table drops for
+     * @return The mob type name, or null if the table is only used nested or by ID
+     */
+    public String getMob() {
+        return mob;
+    }
+
+    /**
+     * Gets the IDs of the tables this table rolls
+     * @return The nested table IDs
+     */
+    List<String> getNestedIds() {
+        List<String> ids = new ArrayList<>();
+        for (Pool pool : pools) {
+            for (String tableId : pool.tableIds) {
+                if (tableId != null) {
+                    ids.add(tableId);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Resolves nested table references
+     * @param tables The tables by ID
+     * @throws IllegalArgumentException if a referenced table does not exist
+     */
+    void link(Map<String, LootTable> tables) {
+        for (Pool pool : pools) {
+            for (int i = 0; i < pool.tableIds.length; i++) {
+                if (pool.tableIds[i] == null) {
+                    continue;
+                }
+                LootTable nested = tables.get(pool.tableIds[i]);
+                if (nested == null) {
+                    throw new IllegalArgumentException("Unknown nested table " + pool.tableIds[i]);
+                }
+                pool.tables[i] = nested;
+            }
+        }
+    }
+
+    /**
+     * Rolls every pool of the table
+     * @param level The killer's level, checked against level conditions
+     * @param sink Receives the dropped items
+     * @return The number of item stacks dropped
+     */
+    public int roll(int level, LootSink sink) {
+        return roll(level, sink, ThreadLocalRandom.current(), 0);
+    }
+
+    private int roll(int level, LootSink sink, ThreadLocalRandom random, int depth) {
+        int drops = 0;
+        for (Pool pool : pools) {
+            if (!pool.condition.test(level, random)) {
+                continue;
+            }
+            int rolls = pool.maxRolls > pool.minRolls ? random.nextInt(pool.minRolls, pool.maxRolls + 1) : pool.minRolls;
+            for (int r = 0; r < rolls; r++) {
+                int entry = pool.draw(random);
+                if (pool.kinds[entry] == EMPTY || !pool.conditions[entry].test(level, random)) {
+                    continue;
+                }
+                if (pool.kinds[entry] == ITEM) {
+                    int min = pool.minQuantity[entry];
+                    int max = pool.maxQuantity[entry];
+                    sink.drop(pool.itemIds[entry], max > min ? random.nextInt(min, max + 1) : min);
+                    drops++;
+                } else if (depth < MAX_DEPTH) {
+                    drops += pool.tables[entry].roll(level, sink, random, depth + 1);
+                }
+            }
+        }
+        return drops;
+    }
+
+    private static Map<?, ?> object(Object value, String field) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected an object in " + field);
+        }
+        return (Map<?, ?>) value;
+    }
+
+    private static int number(Object value, int defaultValue) {
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * Killer level range plus an independent chance
+     */
+    private static final class Condition {
+        private static final Condition ALWAYS = new Condition(Integer.MIN_VALUE, Integer.MAX_VALUE, 1.0);
+
+        private final int minLevel;
+        private final int maxLevel;
+        private final double chance;
+
+        private Condition(int minLevel, int maxLevel, double chance) {
+            this.minLevel = minLevel;
+            this.maxLevel = maxLevel;
+            this.chance = chance;
+        }
+
+        static Condition fromJson(Object json) {
+            if (json == null) {
+                return ALWAYS;
+            }
+            Map<?, ?> conditions = object(json, "Conditions");
+            Object chance = conditions.get("Chance");
+            double probability = chance instanceof Number ? ((Number) chance).doubleValue() : 1.0;
+            if (probability < 0 || probability > 1) {
+                throw new IllegalArgumentException("Chance must be between 0 and 1");
+            }
+            return new Condition(number(conditions.get("MinLevel"), Integer.MIN_VALUE),
+                    number(conditions.get("MaxLevel"), Integer.MAX_VALUE), probability);
+        }
+
+        boolean test(int level, ThreadLocalRandom random) {
+            return level >= minLevel && level <= maxLevel && (chance >= 1.0 || random.nextDouble() < chance);
+        }
+    }
+
+    /**
+     * One weighted pool, stored as parallel arrays indexed by entry
+     */
+    private static final class Pool {
+        private final int minRolls;
+        private final int maxRolls;
+        private final Condition condition;
+        private final double[] probability;
+        private final int[] alias;
+        private final int[] kinds;
+        private final String[] itemIds;
+        private final int[] minQuantity;
+        private final int[] maxQuantity;
+        private final String[] tableIds;
+        private final LootTable[] tables;
+        private final Condition[] conditions;
+
+        private Pool(int minRolls, int maxRolls, Condition condition, double[] weights, int[] kinds, String[] itemIds,
+                     int[] minQuantity, int[] maxQuantity, String[] tableIds, Condition[] conditions) {
+            this.minRolls = minRolls;
+            this.maxRolls = maxRolls;
+            this.condition = condition;
+            this.kinds = kinds;
+            this.itemIds = itemIds;
+            this.minQuantity = minQuantity;
+            this.maxQuantity = maxQuantity;
+            this.tableIds = tableIds;
+            this.tables = new LootTable[kinds.length];
+            this.conditions = conditions;
+            this.probability = new double[weights.length];
+            this.alias = new int[weights.length];
+            buildAlias(weights);
+        }
+
+        static Pool fromJson(Map<?, ?> json) {
+            Object entriesJson = json.get("Entries");
+            if (!(entriesJson instanceof List) || ((List<?>) entriesJson).isEmpty()) {
+                throw new IllegalArgumentException("Missing pool Entries");
+            }
+            List<?> entries = (List<?>) entriesJson;
+            int n = entries.size();
+            double[] weights = new double[n];
+            int[] kinds = new int[n];
+            String[] itemIds = new String[n];
+            int[] minQuantity = new int[n];
+            int[] maxQuantity = new int[n];
+            String[] tableIds = new String[n];
+            Condition[] conditions = new Condition[n];
+
+            for (int i = 0; i < n; i++) {
+                Map<?, ?> entry = object(entries.get(i), "Entries");
+                Object weight = entry.get("Weight");
+                weights[i] = weight instanceof Number ? ((Number) weight).doubleValue() : 1.0;
+                if (!(weights[i] > 0) || Double.isInfinite(weights[i])) {
+                    throw new IllegalArgumentException("Entry Weight must be positive");
+                }
+                conditions[i] = Condition.fromJson(entry.get("Conditions"));
+
+                Object itemId = entry.get("ItemId");
+                Object table = entry.get("Table");
+                if (itemId instanceof String) {
+                    kinds[i] = ITEM;
+                    itemIds[i] = (String) itemId;
+                    minQuantity[i] = number(entry.get("Min"), 1);
+                    maxQuantity[i] = number(entry.get("Max"), minQuantity[i]);
+                    if (minQuantity[i] < 1 || maxQuantity[i] < minQuantity[i]) {
+                        throw new IllegalArgumentException("Invalid Min/Max for " + itemId);
+                    }
+                } else if (table instanceof String) {
+                    kinds[i] = TABLE;
+                    tableIds[i] = (String) table;
+                } else {
+                    kinds[i] = EMPTY;
+                }
+            }
+
+            int minRolls = number(json.get("MinRolls"), number(json.get("Rolls"), 1));
+            int maxRolls = number(json.get("MaxRolls"), minRolls);
+            if (minRolls < 0 || maxRolls < minRolls) {
+                throw new IllegalArgumentException("Invalid pool Rolls");
+            }
+            return new Pool(minRolls, maxRolls, Condition.fromJson(json.get("Conditions")), weights, kinds, itemIds,
+                    minQuantity, maxQuantity, tableIds, conditions);
+        }
+
+        /**
+         * Vose's alias method: every column holds at most two entries, its own
+         * (with probability[i]) and alias[i] for the rest
+         */
+        private void buildAlias(double[] weights) {
+            int n = weights.length;
+            double total = 0;
+            for (double weight : weights) {
+                total += weight;
+            }
+
+            double[] scaled = new double[n];
+            int[] small = new int[n];
+            int[] large = new int[n];
+            int smallCount = 0;
+            int largeCount = 0;
+            for (int i = 0; i < n; i++) {
+                scaled[i] = weights[i] * n / total;
+                if (scaled[i] < 1.0) {
+                    small[smallCount++] = i;
+                } else {
+                    large[largeCount++] = i;
+                }
+            }
+
+            while (smallCount > 0 && largeCount > 0) {
+                int less = small[--smallCount];
+                int more = large[--largeCount];
+                probability[less] = scaled[less];
+                alias[less] = more;
+                scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+                if (scaled[more] < 1.0) {
+                    small[smallCount++] = more;
+                } else {
+                    large[largeCount++] = more;
+                }
+            }
+            // Whatever is left is 1 up to rounding error
+            while (largeCount > 0) {
+                int i = large[--largeCount];
+                probability[i] = 1.0;
+                alias[i] = i;
+            }
+            while (smallCount > 0) {
+                int i = small[--smallCount];
+                probability[i] = 1.0;
+                alias[i] = i;
+            }
+        }
+
+        int draw(ThreadLocalRandom random) {
+            double u = random.nextDouble() * probability.length;
+            int column = Math.min((int) u, probability.length - 1);
+            return u - column < probability[column] ? column : alias[column];
+        }
+    }
+}
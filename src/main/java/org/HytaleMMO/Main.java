@@ -3,14 +3,59 @@ package org.HytaleMMO;
 import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
+import org.HytaleMMO.Broadcast.BroadcastService;
+import org.HytaleMMO.Bus.MmoEventBus;
+import org.HytaleMMO.Combat.RegenerationSystem;
+import org.HytaleMMO.Combat.StatusEffectEngine;
+import org.HytaleMMO.Commands.CharacterSelect;
+import org.HytaleMMO.Commands.GuildCommand;
+import org.HytaleMMO.Commands.Leaderboard;
+import org.HytaleMMO.Commands.LootRoll;
+import org.HytaleMMO.Commands.MarketCommand;
+import org.HytaleMMO.Commands.MmoProfile;
+import org.HytaleMMO.Commands.QuestCommand;
+import org.HytaleMMO.Commands.ReloadRecipes;
 import org.HytaleMMO.Commands.SpawnNPC;
+import org.HytaleMMO.Crafting.CraftingService;
+import org.HytaleMMO.Database.CharacterSpool;
+import org.HytaleMMO.Database.DatabaseHealthMonitor;
 import org.HytaleMMO.NPC.NpcHandler;
+import org.HytaleMMO.Profiling.Profiler;
 import org.HytaleMMO.Character.CharacterAutoSave;
 import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Events.KillFeed;
 import org.HytaleMMO.Events.MobDeathListener;
 import org.HytaleMMO.Database.DatabaseConnection;
+import org.HytaleMMO.Database.Tables.CharacterRepository;
+import org.HytaleMMO.Database.Tables.CraftingJobRepository;
+import org.HytaleMMO.Database.Tables.GuildRepository;
+import org.HytaleMMO.Database.Tables.KillStatsRepository;
+import org.HytaleMMO.Database.Tables.MarketRepository;
+import org.HytaleMMO.Guild.GuildManager;
+import org.HytaleMMO.Leaderboard.LeaderboardService;
+import org.HytaleMMO.Listeners.HytaleEventBridge;
+import org.HytaleMMO.Listeners.OnlinePlayers;
 import org.HytaleMMO.Listeners.PlayerEventListener;
+import org.HytaleMMO.Listeners.ServerTickScheduler;
+import org.HytaleMMO.Mobs.MobTypeRegistry;
+import org.HytaleMMO.Progression.ExperienceService;
+import org.HytaleMMO.Progression.ExperienceTable;
+import org.HytaleMMO.Loot.LootRegistry;
+import org.HytaleMMO.Loot.LootService;
+import org.HytaleMMO.Market.MarketJournal;
+import org.HytaleMMO.Market.MarketService;
+import org.HytaleMMO.Quests.QuestRegistry;
+import org.HytaleMMO.Quests.QuestService;
+import org.HytaleMMO.Recipes.RecipeRegistry;
+import org.HytaleMMO.Spawning.SpawnController;
+import org.HytaleMMO.Startup.ReadinessGate;
+import org.HytaleMMO.Startup.StartupTimer;
+import org.HytaleMMO.Stats.KillStatsTracker;
 
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.logging.Level;
 import javax.annotation.Nonnull;
 
@@ -21,71 +66,380 @@ public class Main extends JavaPlugin {
     private CharacterManager characterManager;
     private PlayerEventListener playerEventListener;
     private CharacterAutoSave autoSave;
+    private KillFeed killFeed;
+    private final MobTypeRegistry mobTypes = new MobTypeRegistry();
+    private ExperienceService experienceService;
+    private KillStatsTracker killStats;
+    private MmoEventBus eventBus;
+    private final OnlinePlayers onlinePlayers = new OnlinePlayers();
+    private HytaleEventBridge eventBridge;
+    private RecipeRegistry recipeRegistry;
+    private CraftingService craftingService;
+    private StatusEffectEngine statusEffects;
+    private LeaderboardService leaderboards;
+    private GuildManager guildManager;
+    private BroadcastService broadcastService;
+    private volatile MarketService market;
+    private LootRegistry lootRegistry;
+    private LootService lootService;
+    private QuestRegistry questRegistry;
+    private QuestService questService;
+    private SpawnController spawnController;
+    private DatabaseHealthMonitor databaseHealth;
+    private CharacterSpool characterSpool;
+    private final StartupTimer startupTimer = new StartupTimer();
+    private ExecutorService startupExecutor;
+    private ReadinessGate readinessGate;
+    private CompletableFuture<Void> assetsLoaded;
+    private Profiler profiler;
+    private ServerTickScheduler serverTasks;
 
     public Main(@Nonnull JavaPluginInit init) {
         super(init);
 
         logger.at(Level.INFO).log("Loading " + this.getName() + " | Version " + this.getManifest().getVersion().toString());
         
-        // Initialize database connection
+        // World changes requested by background threads run here, on the server thread
+        serverTasks = new ServerTickScheduler(logger);
+        
+        // Entry points report their timings here while /mmoprofile is running
+        profiler = new Profiler(logger);
+        serverTasks.setProfiler(profiler);
+        
+        // Game callbacks publish to this bus; the work runs on its consumer threads
+        eventBus = new MmoEventBus(65536, logger);
+        eventBus.setProfiler(profiler);
+        
+        // Connect to the database and run migrations in the background; setup() does not wait for it
+        startupExecutor = Executors.newFixedThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "MMO-Startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        readinessGate = new ReadinessGate(startupTimer, logger);
         databaseConnection = new DatabaseConnection(logger);
-        if (databaseConnection.connect()) {
-            logger.at(Level.INFO).log("Database connection established and migrations completed");
-            
-            // Initialize character management system
-            characterManager = new CharacterManager(databaseConnection.getConnection(), logger);
-            logger.at(Level.INFO).log("Character manager initialized");
-            
-            // Initialize event listener
-            playerEventListener = new PlayerEventListener(characterManager, logger);
-            logger.at(Level.INFO).log("Player event listener initialized");
-            
-            // Start auto-save timer (10 minutes interval)
-            autoSave = new CharacterAutoSave(characterManager, logger, 10);
-            autoSave.start();
-            
+        // Outages, including a failed first connect, are retried with a backoff from 1 s to 60 s
+        databaseHealth = new DatabaseHealthMonitor(databaseConnection, logger, 1000, 60 * 1000L);
+        databaseConnection.setHealthMonitor(databaseHealth);
+        databaseHealth.start();
+        startupTimer.supply("database connection and migrations", databaseHealth::connect, startupExecutor);
+        
+        // Asset registries are parsed while the database phase runs
+        recipeRegistry = new RecipeRegistry(logger);
+        lootRegistry = new LootRegistry(mobTypes, logger);
+        questRegistry = new QuestRegistry(mobTypes, logger);
+        assetsLoaded = CompletableFuture.allOf(
+                startupTimer.supply("recipes", recipeRegistry::reload, startupExecutor),
+                startupTimer.supply("loot tables", lootRegistry::reload, startupExecutor),
+                startupTimer.supply("quests", questRegistry::load, startupExecutor));
+    }
+
+    /**
+     * Creates the services that need the database and registers their listeners
+     * Nothing here touches the database; startCharacterServices() loads their state once it is connected
+     */
+    private void createCharacterServices() {
+        // Initialize character management system
+        characterManager = new CharacterManager(databaseConnection.getConnection(), logger);
+        logger.at(Level.INFO).log("Character manager initialized");
+        
+        // While the database is down, saves go to a local spool
+        characterSpool = new CharacterSpool(Paths.get("HytaleMMO", "character.spool"), logger);
+        if (characterSpool.open()) {
+            characterManager.getSaveScheduler().setSpool(characterSpool, databaseHealth);
         } else {
-            logger.at(Level.SEVERE).log("Failed to connect to database");
+            logger.at(Level.SEVERE).log("Character saves will not be spooled during database outages");
         }
+        characterManager.getSaveScheduler().setProfiler(profiler);
+        
+        // Initialize event listener; joins wait up to 30 seconds for the readiness gate
+        playerEventListener = new PlayerEventListener(characterManager, logger);
+        playerEventListener.setProfiler(profiler);
+        playerEventListener.setEventBus(eventBus);
+        playerEventListener.setReadinessGate(readinessGate, onlinePlayers, serverTasks, 30 * 1000L);
+        eventBus.addConsumer("player-state", playerEventListener);
+        eventBus.addConsumer("persistence", playerEventListener.getPersistenceHandler());
+        logger.at(Level.INFO).log("Player event listener initialized");
+        
+        // Auto-save every 10 minutes once the database is connected
+        autoSave = new CharacterAutoSave(characterManager, logger, 10);
+        autoSave.setProfiler(profiler);
+        
+        // Initialize experience pipeline (level-ups are saved through the level-up lane)
+        experienceService = new ExperienceService(characterManager, new ExperienceTable(mobTypes, logger), mobTypes, logger);
+        
+        // Kill statistics (changed counters are flushed every 30 seconds)
+        killStats = new KillStatsTracker(new KillStatsRepository(databaseConnection.getConnection(), logger), mobTypes, logger, 30);
+        
+        // Joins and /character select|create wait for the readiness gate, so no character is
+        // loaded before the caches below are, and their listeners can be registered right away
+        
+        // Level leaderboards; loaded characters keep them current once seeded
+        leaderboards = new LeaderboardService(logger);
+        characterManager.addListener(leaderboards);
+        
+        // Guilds (membership changes are written every 5 seconds)
+        guildManager = new GuildManager(new GuildRepository(databaseConnection.getConnection(), logger), onlinePlayers, logger, 5);
+        characterManager.addListener(guildManager);
+        
+        // Market order book; listings expire with 1 s resolution, changes are written every 5 seconds
+        market = new MarketService(new MarketRepository(databaseConnection.getConnection(), logger),
+                new MarketJournal(Paths.get("HytaleMMO", "market.journal"), logger), characterManager, onlinePlayers, logger,
+                "Coin", 50, 1000, 5);
+    }
+
+    /**
+     * Starts the services created by createCharacterServices() and loads their caches in parallel
+     * Runs on the startup pool once the database is connected and migrated
+     * @return A future completed when the spooled saves are replayed and the leaderboards, guilds and market are loaded
+     */
+    private CompletableFuture<Void> startCharacterServices() {
+        logger.at(Level.INFO).log("Database connection established and migrations completed");
+        
+        // Start the save writer (disconnect/death saves first, then level-ups, then autosaves)
+        characterManager.getSaveScheduler().start();
+        // Saves spooled before the last shutdown are written before anyone joins
+        CompletableFuture<Boolean> spoolReplayed = startupTimer.supply("character spool",
+                characterManager.getSaveScheduler()::replaySpool, startupExecutor);
+        
+        autoSave.start();
+        killStats.start();
+        
+        // Seed the level leaderboards once
+        CompletableFuture<Boolean> leaderboardsSeeded = startupTimer.supply("leaderboards",
+                () -> leaderboards.seed(new CharacterRepository(databaseConnection.getConnection(), logger)), startupExecutor);
+        
+        // Load guilds into memory
+        CompletableFuture<Void> guildsLoaded = startupTimer.run("guilds", () -> {
+            guildManager.load();
+            guildManager.start();
+        }, startupExecutor);
+        
+        // Rebuild the market order book from the database plus the unflushed journal
+        CompletableFuture<Void> marketLoaded = startupTimer.run("market", () -> {
+            if (market.load()) {
+                market.start();
+            } else {
+                logger.at(Level.SEVERE).log("Failed to load the market, it will be unavailable");
+            }
+        }, startupExecutor);
+        
+        return CompletableFuture.allOf(spoolReplayed, leaderboardsSeeded, guildsLoaded, marketLoaded);
     }
 
     @Override
     protected void setup() {
         logger.at(Level.INFO).log("Setting up plugin " + this.getName());
+        this.getEventRegistry().registerListener(serverTasks);
+        
+        // The services below need the database; setup() does not wait for it, the readiness gate
+        // keeps joins out until it is connected and the caches are loaded
+        createCharacterServices();
+        CompletableFuture<Void> cachesLoaded = databaseHealth.whenConnected()
+                .thenComposeAsync(ignored -> startCharacterServices(), startupExecutor);
         
         // Initialize NPC Handler
+        // Removed NPCs are recycled (up to 32 per template, destroyed after 5 idle minutes, checked every minute)
         this.npcHandler = new NpcHandler();
+        this.npcHandler.setProfiler(profiler);
+        this.npcHandler.enablePooling(32, 5 * 60 * 1000L, serverTasks, 20 * 60);
+        
+        // Buffs, debuffs and cooldowns (expiry resolution: 50 ms)
+        this.statusEffects = new StatusEffectEngine(characterManager, logger, 50);
+        characterManager.addListener(statusEffects);
+        statusEffects.start(serverTasks);
+        
+        // Crafting queues: up to 10 jobs per player and bench, completions checked every 100 ms, saved every 5 seconds
+        this.craftingService = new CraftingService(recipeRegistry, characterManager,
+                new CraftingJobRepository(databaseConnection.getConnection(), logger), logger, 10, 100, 5);
+        characterManager.addListener(craftingService);
+        craftingService.start(serverTasks);
+        
+        // Area and server-wide messages (16-block index cells, up to 200 messages per 50 ms tick)
+        this.broadcastService = new BroadcastService(onlinePlayers, logger, 16, 200, 50);
+        characterManager.addListener(broadcastService);
+        broadcastService.start(serverTasks);
+        
+        // Keep the chunks around players populated with the mobs of the zones under Server/Spawning
+        // (32-block chunks, 2 chunks around each player, up to 64 chunks and 8 spawns every 5 server ticks,
+        // mobs despawn once their chunk has been away from every player for a minute)
+        this.spawnController = new SpawnController(onlinePlayers, logger, 32, 2, 64, 8, 5, 60 * 1000L);
+        CompletableFuture<Boolean> spawnZonesLoaded = startupTimer.supply("spawn zones", spawnController::reload, startupExecutor);
+        characterManager.addListener(spawnController);
+        spawnController.start(serverTasks);
+        
+        // Roll the loot tables (compiled in the background since plugin load) into killers' inventories
+        this.lootService = new LootService(lootRegistry, characterManager);
         
         // Register commands
-        this.getCommandRegistry().registerCommand(new SpawnNPC(npcHandler));
+        this.getCommandRegistry().registerCommand(new SpawnNPC(npcHandler, profiler));
+        this.getCommandRegistry().registerCommand(new ReloadRecipes(recipeRegistry));
+        this.getCommandRegistry().registerCommand(new LootRoll(lootRegistry));
+        this.getCommandRegistry().registerCommand(new MmoProfile(profiler));
+        this.getCommandRegistry().registerCommand(new CharacterSelect(characterManager, readinessGate, playerEventListener));
+        this.getCommandRegistry().registerCommand(new Leaderboard(leaderboards, characterManager));
+        this.getCommandRegistry().registerCommand(new MarketCommand(market, characterManager));
+        this.getCommandRegistry().registerCommand(new GuildCommand(guildManager, characterManager, onlinePlayers));
         
         logger.at(Level.INFO).log("NPC commands registered successfully!");
-    }
-
-    public NpcHandler getNpcHandler() {
-        return npcHandler;
+        
+        // Kill messages are aggregated per player and flushed once per second
+        this.killFeed = new KillFeed(1000);
+        this.killFeed.setBroadcasts(broadcastService);
+        this.killFeed.start(serverTasks);
+        
+        // Quest progress is driven by kills (changed quest states are written every 5 seconds)
+        this.questService = new QuestService(questRegistry, characterManager,
+                new CharacterRepository(databaseConnection.getConnection(), logger), experienceService, killFeed, logger, 5);
+        characterManager.addListener(questService);
+        questService.start();
+        this.getCommandRegistry().registerCommand(new QuestCommand(questService, characterManager));
+        
         // Register event listeners
-        this.getEventRegistry().registerListener(new MobDeathListener());
+        MobDeathListener mobDeathListener = new MobDeathListener(killFeed, mobTypes, experienceService, killStats);
+        mobDeathListener.setProfiler(profiler);
+        mobDeathListener.setEventBus(eventBus);
+        mobDeathListener.setQuests(questService);
+        mobDeathListener.setLoot(lootService);
+        mobDeathListener.setSpawns(spawnController);
+        eventBus.addConsumer("progression", mobDeathListener);
+        eventBus.addConsumer("messaging", killFeed);
+        this.getEventRegistry().registerListener(mobDeathListener);
         
         logger.at(Level.INFO).log("MobDeathListener registered successfully");
         
+        // Connect Hytale's player events to the character system
+        // Movement is sampled and damage is summed, both applied once per tick (50 ms)
+        eventBridge = new HytaleEventBridge(playerEventListener, onlinePlayers, characterManager, logger, 50);
+        eventBridge.setProfiler(profiler);
+        eventBridge.getDamageAccumulator().setStatusEffects(statusEffects);
+        
+        // Regenerate 1 health/s out of combat (5 s after the last hit) and 2 mana/s, once per second
+        RegenerationSystem regeneration = new RegenerationSystem(characterManager, eventBridge.getDamageAccumulator(),
+                logger, 1f, 2f, 5000, 1000);
+        regeneration.setStatusEffects(statusEffects);
+        eventBridge.setRegeneration(regeneration);
+        
+        this.getEventRegistry().registerListener(eventBridge);
+        eventBridge.start(serverTasks);
+        logger.at(Level.INFO).log("HytaleEventBridge registered successfully");
+        
+        // All consumers are registered; start the consumer threads
+        eventBus.start();
+        
+        // Open the gate for joins once the assets and caches are loaded, then report how long each phase took
+        CompletableFuture.allOf(assetsLoaded, cachesLoaded, spawnZonesLoaded).whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.at(Level.SEVERE).log("Error during startup: " + error.getMessage());
+                error.printStackTrace();
+            }
+            logger.at(Level.INFO).log(startupTimer.getReport());
+            readinessGate.open();
+            startupExecutor.shutdown();
+        });
+        
         // LOGGER.atInfo().log("Setting up plugin " + this.getName());
         // this.getCommandRegistry().registerCommand(new Claim());
     }
+
+    public NpcHandler getNpcHandler() {
+        return npcHandler;
+    }
     
     @Override
     public void onDisable() {
+        // Report how long joins waited for startup
+        if (readinessGate != null) {
+            logger.at(Level.INFO).log(readinessGate.getReport());
+        }
+        
+        // Dispatch the last sampled movement and damage
+        if (eventBridge != null) {
+            eventBridge.stop();
+        }
+        
+        // Let the consumers finish every event published so far
+        if (eventBus != null) {
+            logger.at(Level.INFO).log(eventBus.getReport());
+            eventBus.stop(5000);
+        }
+        
+        // Report NPC pool statistics so pool sizes can be tuned, then destroy the parked entities
+        if (npcHandler != null && npcHandler.getPool() != null) {
+            logger.at(Level.INFO).log(npcHandler.getPool().getReport());
+            npcHandler.disablePooling();
+        }
+        
+        // Stop spawning and remove the spawned mobs
+        if (spawnController != null) {
+            spawnController.stop();
+        }
+        
+        // Report loot drops and drops lost to full inventories
+        if (lootService != null) {
+            logger.at(Level.INFO).log(lootService.getReport());
+        }
+        
+        // Flush pending kill messages
+        if (killFeed != null) {
+            killFeed.stop();
+        }
+        
+        // Stop expiring status effects
+        if (statusEffects != null) {
+            statusEffects.stop();
+        }
+        
+        // Save queued crafting jobs
+        if (craftingService != null) {
+            craftingService.stop();
+        }
+        
+        // Send queued announcements
+        if (broadcastService != null) {
+            broadcastService.stop();
+        }
+        
+        // Write pending quest progress
+        if (questService != null) {
+            questService.stop();
+        }
+        
+        // Write pending market changes and close the journal
+        if (market != null && market.isLoaded()) {
+            market.stop();
+        }
+        
+        // Write pending guild membership changes
+        if (guildManager != null) {
+            guildManager.stop();
+        }
+        
+        // Flush pending kill statistics
+        if (killStats != null) {
+            killStats.stop();
+        }
+        
         // Stop auto-save timer
         if (autoSave != null) {
             autoSave.stop();
         }
         
-        // Save all loaded characters before shutdown
+        // Write every queued save, then save all loaded characters before shutdown
         if (characterManager != null) {
+            characterManager.getSaveScheduler().stop();
             logger.at(Level.INFO).log("Saving all characters before shutdown...");
             characterManager.saveAllCharacters();
         }
         
+        // Saves still spooled stay on disk and are replayed on the next start
+        if (characterSpool != null) {
+            characterSpool.close();
+        }
+        if (databaseHealth != null) {
+            databaseHealth.stop();
+        }
+        
         // Disconnect from database when plugin is disabled
         if (databaseConnection != null) {
             databaseConnection.disconnect();
@@ -100,6 +454,22 @@ public class Main extends JavaPlugin {
         return databaseConnection;
     }
     
+    /**
+     * Gets the profiler instance
+     * @return the profiler
+     */
+    public Profiler getProfiler() {
+        return profiler;
+    }
+    
+    /**
+     * Gets the database health monitor instance
+     * @return the database health monitor
+     */
+    public DatabaseHealthMonitor getDatabaseHealth() {
+        return databaseHealth;
+    }
+    
     /**
      * Gets the character manager instance
      * @return the character manager
@@ -108,6 +478,102 @@ public class Main extends JavaPlugin {
         return characterManager;
     }
     
+    /**
+     * Gets the internal event bus instance
+     * @return the event bus
+     */
+    public MmoEventBus getEventBus() {
+        return eventBus;
+    }
+    
+    /**
+     * Gets the registry of online players
+     * @return the online players
+     */
+    public OnlinePlayers getOnlinePlayers() {
+        return onlinePlayers;
+    }
+    
+    /**
+     * Gets the recipe registry instance
+     * @return the recipe registry
+     */
+    public RecipeRegistry getRecipeRegistry() {
+        return recipeRegistry;
+    }
+    
+    /**
+     * Gets the crafting service instance
+     * @return the crafting service, or null if the database is unavailable
+     */
+    public CraftingService getCraftingService() {
+        return craftingService;
+    }
+    
+    /**
+     * Gets the status effect engine instance
+     * @return the status effect engine, or null if the database is unavailable
+     */
+    public StatusEffectEngine getStatusEffects() {
+        return statusEffects;
+    }
+    
+    /**
+     * Gets the leaderboard service instance
+     * @return the leaderboards, or null if the database is unavailable
+     */
+    public LeaderboardService getLeaderboards() {
+        return leaderboards;
+    }
+    
+    /**
+     * Gets the guild manager instance
+     * @return the guild manager, or null if the database is unavailable
+     */
+    public GuildManager getGuildManager() {
+        return guildManager;
+    }
+    
+    /**
+     * Gets the broadcast service instance
+     * @return the broadcast service, or null if the database is unavailable
+     */
+    public BroadcastService getBroadcastService() {
+        return broadcastService;
+    }
+    
+    /**
+     * Gets the loot registry instance
+     * @return the loot registry
+     */
+    public LootRegistry getLootRegistry() {
+        return lootRegistry;
+    }
+    
+    /**
+     * Gets the spawn controller instance
+     * @return the spawn controller, or null if the database is unavailable
+     */
+    public SpawnController getSpawnController() {
+        return spawnController;
+    }
+    
+    /**
+     * Gets the market service instance
+     * @return the market service, or null if the database is unavailable (check isLoaded() before trading)
+     */
+    public MarketService getMarket() {
+        return market;
+    }
+    
+    /**
+     * Gets the quest service instance
+     * @return the quest service, or null if the database is unavailable
+     */
+    public QuestService getQuestService() {
+        return questService;
+    }
+    
     /**
      * Gets the player event listener instance
      * @return the player event listener
@@ -0,0 +1,86 @@
+package org.HytaleMMO.Market;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * One open sell order on the market
+ * The remaining quantity is only changed by the MarketService under its write lock
+ */
+public final class Listing {
+    /** Cheapest first; among equal prices the oldest listing (lowest ID) fills first */
+    public static final Comparator<Listing> ORDER = (a, b) -> {
+        if (a.unitPrice != b.unitPrice) {
+            return Integer.compare(a.unitPrice, b.unitPrice);
+        }
+        return Long.compare(a.id, b.id);
+    };
+
+    private final long id;
+    private final int sellerCharacterId;
+    private final UUID sellerPlayerId;
+    private final String sellerName;
+    private final String itemId;
+    private final int unitPrice;
+    private final long createdAt;
+    private final long expiresAt;
+    private volatile int quantity;
+    long timerHandle = -1;
+
+    Listing(long id, int sellerCharacterId, UUID sellerPlayerId, String sellerName, String itemId, int quantity,
+            int unitPrice, long createdAt, long expiresAt) {
+        this.id = id;
+        this.sellerCharacterId = sellerCharacterId;
+        this.sellerPlayerId = sellerPlayerId;
+        this.sellerName = sellerName;
+        this.itemId = itemId;
+        this.quantity = quantity;
+        this.unitPrice = unitPrice;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getSellerCharacterId() {
+        return sellerCharacterId;
+    }
+
+    public UUID getSellerPlayerId() {
+        return sellerPlayerId;
+    }
+
+    public String getSellerName() {
+        return sellerName;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Gets the quantity still for sale
+     * @return The remaining quantity
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+
+    void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+
+    public int getUnitPrice() {
+        return unitPrice;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
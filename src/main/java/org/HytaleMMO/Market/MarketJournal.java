@@ -0,0 +1,350 @@
+package org.HytaleMMO.Market;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of market mutations, kept on disk between database flushes.
+ *
+ * Every record stores absolute values (the full listing, its new quantity,
+ * or the new claim total), so replaying a record that already reached the
+ * database is harmless. The log is split into numbered segments: a flush
+ * rolls to a new segment before writing, and deletes the older segments once
+ * the database write succeeded. On startup, the segments left behind by a
+ * crash are replayed on top of the database rows.
+ *
+ * Each record is framed as [length][CRC32][payload]; a torn record at the end
+ * of a segment ends the replay of that segment.
+ */
+public class MarketJournal {
+    static final byte OPEN = 1;
+    static final byte QUANTITY = 2;
+    static final byte CLOSE = 3;
+    static final byte CLAIM = 4;
+    private static final int MAX_RECORD = 64 * 1024;
+
+    private final Path directory;
+    private final String prefix;
+    private final HytaleLogger logger;
+    private final ByteArrayOutputStream record;
+    private final DataOutputStream recordOut;
+    private final CRC32 crc;
+    private FileOutputStream file;
+    private DataOutputStream out;
+    private long segment;
+    private boolean failed;
+
+    /**
+     * Receives the replayed records
+     */
+    public interface RecordHandler {
+        void onOpen(long id, int sellerCharacterId, UUID sellerPlayerId, String sellerName, String itemId,
+                    int quantity, int unitPrice, long createdAt, long expiresAt);
+
+        void onQuantity(long id, int quantity);
+
+        void onClose(long id);
+
+        void onClaim(int characterId, String itemId, int quantity);
+    }
+
+    /**
+     * Creates a journal
+     * @param path The journal path; segments are written next to it as path.1, path.2, ...
+     * @param logger The logger instance
+     */
+    public MarketJournal(Path path, HytaleLogger logger) {
+        this.directory = path.toAbsolutePath().getParent();
+        this.prefix = path.getFileName().toString() + ".";
+        this.logger = logger;
+        this.record = new ByteArrayOutputStream(256);
+        this.recordOut = new DataOutputStream(record);
+        this.crc = new CRC32();
+    }
+
+    /**
+     * Replays every segment on disk, oldest first
+     * @param handler Receives the records
+     * @return The number of records replayed
+     * @throws IOException if a segment cannot be read
+     */
+    public synchronized int replay(RecordHandler handler) throws IOException {
+        int count = 0;
+        for (long number : segments()) {
+            segment = Math.max(segment, number);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segmentPath(number))))) {
+                count += replaySegment(in, handler, number);
+            }
+        }
+        return count;
+    }
+
+    private int replaySegment(DataInputStream in, RecordHandler handler, long number) throws IOException {
+        int count = 0;
+        byte[] buffer = new byte[256];
+        while (true) {
+            int length;
+            int checksum;
+            try {
+                length = in.readInt();
+                checksum = in.readInt();
+            } catch (EOFException e) {
+                return count;
+            }
+            if (length <= 0 || length > MAX_RECORD) {
+                logger.at(Level.WARNING).log("Market journal segment " + number + " has an invalid record after " + count + " records, ignoring the rest");
+                return count;
+            }
+            if (buffer.length < length) {
+                buffer = new byte[length];
+            }
+            try {
+                in.readFully(buffer, 0, length);
+            } catch (EOFException e) {
+                logger.at(Level.WARNING).log("Market journal segment " + number + " ends in a partial record, ignoring it");
+                return count;
+            }
+            crc.reset();
+            crc.update(buffer, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                logger.at(Level.WARNING).log("Market journal segment " + number + " has a corrupt record after " + count + " records, ignoring the rest");
+                return count;
+            }
+
+            DataInputStream payload = new DataInputStream(new ByteArrayInputStream(buffer, 0, length));
+            byte type = payload.readByte();
+            switch (type) {
+                case OPEN:
+                    handler.onOpen(payload.readLong(), payload.readInt(), new UUID(payload.readLong(), payload.readLong()),
+                            payload.readUTF(), payload.readUTF(), payload.readInt(), payload.readInt(),
+                            payload.readLong(), payload.readLong());
+                    break;
+                case QUANTITY:
+                    handler.onQuantity(payload.readLong(), payload.readInt());
+                    break;
+                case CLOSE:
+                    handler.onClose(payload.readLong());
+                    break;
+                case CLAIM:
+                    handler.onClaim(payload.readInt(), payload.readUTF(), payload.readInt());
+                    break;
+                default:
+                    logger.at(Level.WARNING).log("Unknown market journal record type " + type + ", ignoring the rest of segment " + number);
+                    return count;
+            }
+            count++;
+        }
+    }
+
+    /**
+     * Opens a new segment for appending, numbered after every existing one
+     * @throws IOException if the segment cannot be created
+     */
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        for (long number : segments()) {
+            segment = Math.max(segment, number);
+        }
+        openSegment(segment + 1);
+    }
+
+    private void openSegment(long number) throws IOException {
+        file = new FileOutputStream(segmentPath(number).toFile(), true);
+        out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024));
+        segment = number;
+    }
+
+    public synchronized void appendOpen(Listing listing) {
+        try {
+            record.reset();
+            recordOut.writeByte(OPEN);
+            recordOut.writeLong(listing.getId());
+            recordOut.writeInt(listing.getSellerCharacterId());
+            recordOut.writeLong(listing.getSellerPlayerId().getMostSignificantBits());
+            recordOut.writeLong(listing.getSellerPlayerId().getLeastSignificantBits());
+            recordOut.writeUTF(listing.getSellerName());
+            recordOut.writeUTF(listing.getItemId());
+            recordOut.writeInt(listing.getQuantity());
+            recordOut.writeInt(listing.getUnitPrice());
+            recordOut.writeLong(listing.getCreatedAt());
+            recordOut.writeLong(listing.getExpiresAt());
+            writeRecord();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void appendQuantity(long listingId, int quantity) {
+        try {
+            record.reset();
+            recordOut.writeByte(QUANTITY);
+            recordOut.writeLong(listingId);
+            recordOut.writeInt(quantity);
+            writeRecord();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void appendClose(long listingId) {
+        try {
+            record.reset();
+            recordOut.writeByte(CLOSE);
+            recordOut.writeLong(listingId);
+            writeRecord();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void appendClaim(int characterId, String itemId, int quantity) {
+        try {
+            record.reset();
+            recordOut.writeByte(CLAIM);
+            recordOut.writeInt(characterId);
+            recordOut.writeUTF(itemId);
+            recordOut.writeInt(quantity);
+            writeRecord();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    private void writeRecord() throws IOException {
+        if (out == null) {
+            return;
+        }
+        crc.reset();
+        crc.update(record.toByteArray(), 0, record.size());
+        out.writeInt(record.size());
+        out.writeInt((int) crc.getValue());
+        record.writeTo(out);
+    }
+
+    /**
+     * Writes buffered records to disk and forces them to the storage device
+     * Called once per tick, so all mutations of a tick share one fsync
+     */
+    public synchronized void sync() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+            file.getFD().sync();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Closes the current segment and starts a new one
+     * Records appended after this call belong to the next database flush
+     * @return The number of the closed segment
+     */
+    public synchronized long roll() {
+        long closed = segment;
+        if (out == null) {
+            return closed;
+        }
+        try {
+            out.flush();
+            file.getFD().sync();
+            out.close();
+            openSegment(closed + 1);
+        } catch (IOException e) {
+            fail(e);
+        }
+        return closed;
+    }
+
+    /**
+     * Deletes the segments whose records are all in the database
+     * @param upToSegment The last segment to delete, as returned by roll()
+     */
+    public synchronized void release(long upToSegment) {
+        try {
+            for (long number : segments()) {
+                if (number <= upToSegment) {
+                    Files.deleteIfExists(segmentPath(number));
+                }
+            }
+        } catch (IOException e) {
+            logger.at(Level.WARNING).log("Error deleting market journal segments: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Flushes and closes the current segment
+     */
+    public synchronized void close() {
+        if (out == null) {
+            return;
+        }
+        sync();
+        try {
+            out.close();
+        } catch (IOException e) {
+            fail(e);
+        }
+        out = null;
+        file = null;
+    }
+
+    /**
+     * Checks whether writing to the journal failed
+     * Mutations after a failure only reach the database with the next flush
+     * @return true if an append or sync failed
+     */
+    public synchronized boolean hasFailed() {
+        return failed;
+    }
+
+    private void fail(IOException e) {
+        if (!failed) {
+            logger.at(Level.SEVERE).log("Error writing market journal: " + e.getMessage());
+            e.printStackTrace();
+        }
+        failed = true;
+    }
+
+    private List<Long> segments() throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return numbers;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path path : files) {
+                String suffix = path.getFileName().toString().substring(prefix.length());
+                try {
+                    numbers.add(Long.parseLong(suffix));
+                } catch (NumberFormatException e) {
+                    // not a segment
+                }
+            }
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve(prefix + number);
+    }
+}
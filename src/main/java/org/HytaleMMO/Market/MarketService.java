@@ -0,0 +1,806 @@
+package org.HytaleMMO.Market;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.world.entity.player.Player;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Database.Tables.MarketRepository;
+import org.HytaleMMO.Database.Tables.MarketRepository.StoredClaim;
+import org.HytaleMMO.Database.Tables.MarketRepository.StoredListing;
+import org.HytaleMMO.Listeners.OnlinePlayers;
+import org.HytaleMMO.Util.TimingWheel;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+
+/**
+ * Player market: sell orders for items, paid in a currency item.
+ *
+ * Every open listing lives in the in-memory OrderBook, so buying and
+ * searching never query the database; searches take the read lock and every
+ * mutation the write lock. Each mutation is appended to the MarketJournal
+ * (synced to disk once per tick) and queued for the database, which is
+ * written in batches on a timer. On startup the book is rebuilt from the
+ * database rows plus the journal segments that had not been flushed yet.
+ *
+ * Trades also change character inventories, which are stored with the
+ * character. The characters a trade changed are written with a CRITICAL save
+ * before the journal is synced or flushed, so a crash cannot keep a listing
+ * or claim while losing the inventory change that paid for it. Trades hold
+ * the shared side of the checkpoint lock, so none can slip in between those
+ * saves and the sync.
+ *
+ * Listing expiry is a timer in a TimingWheel. Proceeds of sales and unsold
+ * items are kept as claims per character until collected, so sellers do
+ * not need to be online.
+ */
+public class MarketService {
+    public enum Result {
+        SUCCESS,
+        NOT_LOADED,
+        INVALID,
+        TOO_MANY_LISTINGS,
+        MISSING_ITEMS,
+        NO_MATCH,
+        INSUFFICIENT_FUNDS,
+        INVENTORY_FULL,
+        NOT_FOUND,
+        NOT_OWNER
+    }
+
+    private final MarketRepository repository;
+    private final MarketJournal journal;
+    private final OnlinePlayers onlinePlayers;
+    private final HytaleLogger logger;
+    private final String currencyItemId;
+    private final int maxListingsPerCharacter;
+    private final long tickMs;
+    private final long flushIntervalMs;
+    private final CharacterManager characterManager;
+    private final ReentrantReadWriteLock lock;
+    private final ReentrantReadWriteLock checkpoint;
+    private final OrderBook book;
+    private final Map<Integer, Map<String, Integer>> claims;
+    private final TimingWheel wheel;
+    private final TimingWheel.ExpiryHandler onExpired = this::onExpired;
+    private final Map<Long, Listing> pendingWrites;
+    private final Set<Long> pendingDeletes;
+    private final Map<Integer, Set<String>> pendingClaims;
+    private final List<Listing> expired;
+    private final Map<Integer, Character> pendingInventories;
+    private long nextId = 1;
+    private long soldCount;
+    private long expiredCount;
+    private Timer timer;
+    private volatile boolean loaded;
+
+    /**
+     * Creates a new market service
+     * @param repository The market repository
+     * @param journal The journal of changes not yet written to the database
+     * @param characterManager The character manager, used to save the inventories of traders
+     * @param onlinePlayers The online player registry, used to notify sellers
+     * @param logger The logger instance
+     * @param currencyItemId The item used to pay for listings
+     * @param maxListingsPerCharacter Maximum number of open listings per character
+     * @param tickMs Resolution of listing expiry and interval between journal syncs in milliseconds
+     * @param flushIntervalSeconds The interval between database writes in seconds
+     */
+    public MarketService(MarketRepository repository, MarketJournal journal, CharacterManager characterManager,
+                         OnlinePlayers onlinePlayers, HytaleLogger logger, String currencyItemId, int maxListingsPerCharacter,
+                         long tickMs, int flushIntervalSeconds) {
+        this.repository = repository;
+        this.journal = journal;
+        this.characterManager = characterManager;
+        this.onlinePlayers = onlinePlayers;
+        this.logger = logger;
+        this.currencyItemId = currencyItemId;
+        this.maxListingsPerCharacter = maxListingsPerCharacter;
+        this.tickMs = tickMs;
+        this.flushIntervalMs = flushIntervalSeconds * 1000L;
+        this.lock = new ReentrantReadWriteLock();
+        this.checkpoint = new ReentrantReadWriteLock();
+        this.book = new OrderBook();
+        this.claims = new HashMap<>();
+        this.wheel = new TimingWheel(tickMs, 4096);
+        this.pendingWrites = new LinkedHashMap<>();
+        this.pendingDeletes = new LinkedHashSet<>();
+        this.pendingClaims = new LinkedHashMap<>();
+        this.expired = new ArrayList<>();
+        this.pendingInventories = new LinkedHashMap<>();
+    }
+
+    /**
+     * Rebuilds the order book from the database and replays the journal on top of it
+     * Replayed changes are written to the database right away
+     * @return true if the market was loaded, false otherwise
+     */
+    public boolean load() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            int rows = repository.forEachListing((id, sellerCharacterId, sellerPlayerId, sellerName, itemId, quantity,
+                                                   unitPrice, createdAt, expiresAt) -> {
+                book.add(new Listing(id, sellerCharacterId, sellerPlayerId, sellerName, itemId, quantity, unitPrice,
+                        createdAt, expiresAt));
+                nextId = Math.max(nextId, id + 1);
+            });
+            List<StoredClaim> storedClaims = repository.findAllClaims();
+            if (rows < 0 || storedClaims == null) {
+                return false;
+            }
+            for (StoredClaim claim : storedClaims) {
+                claims.computeIfAbsent(claim.getCharacterId(), id -> new HashMap<>()).put(claim.getItemId(), claim.getQuantity());
+            }
+
+            int replayed;
+            try {
+                replayed = journal.replay(new Replay());
+                journal.open();
+            } catch (IOException e) {
+                logger.at(Level.SEVERE).log("Error reading market journal: " + e.getMessage());
+                e.printStackTrace();
+                return false;
+            }
+
+            for (Listing listing : book.all()) {
+                listing.timerHandle = wheel.scheduleAt(listing.getExpiresAt(), listing.getId());
+            }
+            logger.at(Level.INFO).log("Loaded " + book.size() + " market listing(s) for " + book.itemCount() + " item(s) ("
+                    + rows + " from database, " + replayed + " journal record(s)) in " + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        flush();
+        loaded = true;
+        return true;
+    }
+
+    /**
+     * Checks whether the market has been loaded and can be traded on
+     * @return true once load() has succeeded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Starts the expiry and flush timers
+     */
+    public void start() {
+        if (timer != null) {
+            logger.at(Level.WARNING).log("Market service is already running");
+            return;
+        }
+
+        timer = new Timer("MarketTick", true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    tick();
+                } catch (Exception e) {
+                    logger.at(Level.SEVERE).log("Error expiring market listings: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }, tickMs, tickMs);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (Exception e) {
+                    logger.at(Level.SEVERE).log("Error saving market changes: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }, flushIntervalMs, flushIntervalMs);
+
+        logger.at(Level.INFO).log("Market service started (tick: " + tickMs + " ms, flush interval: " + (flushIntervalMs / 1000) + " seconds)");
+    }
+
+    /**
+     * Stops the timers, writes all pending changes and closes the journal
+     */
+    public void stop() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        flush();
+        journal.close();
+        logger.at(Level.INFO).log(getReport());
+    }
+
+    /**
+     * Puts items from a character's inventory up for sale
+     * @param seller The selling character
+     * @param itemId The item ID
+     * @param quantity The quantity to sell
+     * @param unitPrice The price per item in currency
+     * @param durationMs How long the listing stays open
+     * @return The result
+     */
+    public Result list(Character seller, String itemId, int quantity, int unitPrice, long durationMs) {
+        if (seller.getInventory() == null || seller.getId() <= 0) {
+            return Result.NOT_LOADED;
+        }
+        if (quantity <= 0 || unitPrice <= 0 || durationMs <= 0 || itemId.equals(currencyItemId)
+                || (long) quantity * unitPrice > Integer.MAX_VALUE) {
+            return Result.INVALID;
+        }
+
+        checkpoint.readLock().lock();
+        lock.writeLock().lock();
+        try {
+            if (book.countBySeller(seller.getId()) >= maxListingsPerCharacter) {
+                return Result.TOO_MANY_LISTINGS;
+            }
+            if (!seller.getInventory().removeItems(Collections.singletonMap(itemId, quantity))) {
+                return Result.MISSING_ITEMS;
+            }
+            pendingInventories.put(seller.getId(), seller);
+
+            long now = System.currentTimeMillis();
+            Listing listing = new Listing(nextId++, seller.getId(), seller.getPlayerId(), seller.getCharacterName(),
+                    itemId, quantity, unitPrice, now, now + durationMs);
+            book.add(listing);
+            listing.timerHandle = wheel.scheduleAt(listing.getExpiresAt(), listing.getId());
+            journal.appendOpen(listing);
+            pendingWrites.put(listing.getId(), listing);
+        } finally {
+            lock.writeLock().unlock();
+            checkpoint.readLock().unlock();
+        }
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Buys up to a quantity of an item from the cheapest listings at or below a price
+     * Stops early when the buyer runs out of currency
+     * @param buyer The buying character
+     * @param itemId The item ID
+     * @param quantity The quantity to buy
+     * @param maxUnitPrice The highest price per item the buyer accepts
+     * @return The purchase
+     */
+    public Purchase buy(Character buyer, String itemId, int quantity, int maxUnitPrice) {
+        if (buyer.getInventory() == null) {
+            return new Purchase(Result.NOT_LOADED, 0, 0);
+        }
+        if (quantity <= 0 || maxUnitPrice <= 0) {
+            return new Purchase(Result.INVALID, 0, 0);
+        }
+
+        List<Sale> sales = new ArrayList<>();
+        int bought = 0;
+        long cost = 0;
+        checkpoint.readLock().lock();
+        lock.writeLock().lock();
+        try {
+            // Match against the cheapest offers first, within the buyer's funds
+            long funds = buyer.getInventory().count(currencyItemId);
+            boolean matched = false;
+            for (Listing listing : book.offers(itemId, maxUnitPrice)) {
+                if (bought == quantity) {
+                    break;
+                }
+                if (listing.getSellerCharacterId() == buyer.getId()) {
+                    continue;
+                }
+                matched = true;
+                long affordable = (funds - cost) / listing.getUnitPrice();
+                int take = (int) Math.min(Math.min(quantity - bought, listing.getQuantity()), affordable);
+                if (take <= 0) {
+                    break;
+                }
+                sales.add(new Sale(listing, take));
+                bought += take;
+                cost += (long) take * listing.getUnitPrice();
+            }
+            if (sales.isEmpty()) {
+                return new Purchase(matched ? Result.INSUFFICIENT_FUNDS : Result.NO_MATCH, 0, 0);
+            }
+            if (cost > Integer.MAX_VALUE) {
+                return new Purchase(Result.INVALID, 0, 0);
+            }
+
+            if (!buyer.getInventory().removeItems(Collections.singletonMap(currencyItemId, (int) cost))) {
+                return new Purchase(Result.INSUFFICIENT_FUNDS, 0, 0);
+            }
+            if (!buyer.getInventory().addItems(itemId, bought)) {
+                buyer.getInventory().addItems(currencyItemId, (int) cost);
+                return new Purchase(Result.INVENTORY_FULL, 0, 0);
+            }
+            pendingInventories.put(buyer.getId(), buyer);
+
+            for (Sale sale : sales) {
+                Listing listing = sale.listing;
+                int remaining = listing.getQuantity() - sale.quantity;
+                if (remaining == 0) {
+                    close(listing);
+                } else {
+                    listing.setQuantity(remaining);
+                    journal.appendQuantity(listing.getId(), remaining);
+                    pendingWrites.put(listing.getId(), listing);
+                }
+                addClaim(listing.getSellerCharacterId(), currencyItemId, sale.quantity * listing.getUnitPrice());
+                soldCount += sale.quantity;
+            }
+        } finally {
+            lock.writeLock().unlock();
+            checkpoint.readLock().unlock();
+        }
+
+        for (Sale sale : sales) {
+            notifySeller(sale.listing, Component.text("Sold " + sale.quantity + "x " + itemId + " for "
+                    + (sale.quantity * sale.listing.getUnitPrice()) + " " + currencyItemId + ". Use /market collect.", NamedTextColor.GREEN));
+        }
+        return new Purchase(Result.SUCCESS, bought, (int) cost);
+    }
+
+    /**
+     * Cancels a character's listing and returns the unsold items
+     * The items go to the inventory, or to the character's claims if there is no room
+     * @param seller The selling character
+     * @param listingId The listing ID
+     * @return The result
+     */
+    public Result cancel(Character seller, long listingId) {
+        checkpoint.readLock().lock();
+        lock.writeLock().lock();
+        try {
+            Listing listing = book.get(listingId);
+            if (listing == null) {
+                return Result.NOT_FOUND;
+            }
+            if (listing.getSellerCharacterId() != seller.getId()) {
+                return Result.NOT_OWNER;
+            }
+            close(listing);
+            if (seller.getInventory() == null || !seller.getInventory().addItems(listing.getItemId(), listing.getQuantity())) {
+                addClaim(seller.getId(), listing.getItemId(), listing.getQuantity());
+            } else {
+                pendingInventories.put(seller.getId(), seller);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            checkpoint.readLock().unlock();
+        }
+        return Result.SUCCESS;
+    }
+
+    /**
+     * Moves a character's claims (sale proceeds and returned items) into its inventory
+     * Claims that do not fit stay for a later collect
+     * @param character The character
+     * @return The number of items collected, or -1 if the inventory is not loaded
+     */
+    public int collect(Character character) {
+        if (character.getInventory() == null) {
+            return -1;
+        }
+
+        int collected = 0;
+        checkpoint.readLock().lock();
+        lock.writeLock().lock();
+        try {
+            Map<String, Integer> own = claims.get(character.getId());
+            if (own == null) {
+                return 0;
+            }
+            Iterator<Map.Entry<String, Integer>> it = own.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<String, Integer> claim = it.next();
+                if (!character.getInventory().addItems(claim.getKey(), claim.getValue())) {
+                    continue;
+                }
+                collected += claim.getValue();
+                it.remove();
+                journal.appendClaim(character.getId(), claim.getKey(), 0);
+                markClaim(character.getId(), claim.getKey());
+            }
+            if (own.isEmpty()) {
+                claims.remove(character.getId());
+            }
+            if (collected > 0) {
+                pendingInventories.put(character.getId(), character);
+            }
+        } finally {
+            lock.writeLock().unlock();
+            checkpoint.readLock().unlock();
+        }
+        return collected;
+    }
+
+    /**
+     * Gets a page of the listings of an item, cheapest first
+     * @param itemId The item ID
+     * @param maxUnitPrice The highest unit price to include
+     * @param offset The number of listings to skip
+     * @param limit The maximum number of listings to return
+     * @return The listings
+     */
+    public List<Listing> search(String itemId, int maxUnitPrice, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return book.search(itemId, maxUnitPrice, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of listings of an item
+     * @param itemId The item ID
+     * @return The listing count
+     */
+    public int count(String itemId) {
+        lock.readLock().lock();
+        try {
+            return book.count(itemId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a character's open listings, oldest first
+     * @param characterId The character ID
+     * @return The listings
+     */
+    public List<Listing> getListings(int characterId) {
+        lock.readLock().lock();
+        try {
+            return book.bySeller(characterId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets what a character can collect
+     * @param characterId The character ID
+     * @return Quantity per item ID
+     */
+    public Map<String, Integer> getClaims(int characterId) {
+        lock.readLock().lock();
+        try {
+            Map<String, Integer> own = claims.get(characterId);
+            return own != null ? new HashMap<>(own) : new HashMap<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of open listings
+     * @return The listing count
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return book.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Expires every listing whose time has come and syncs the journal
+     * @return The number of listings expired
+     */
+    public int tick() {
+        List<Listing> done;
+        lock.writeLock().lock();
+        try {
+            wheel.advance(System.currentTimeMillis(), onExpired);
+            done = expired.isEmpty() ? Collections.emptyList() : new ArrayList<>(expired);
+            expired.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        // One fsync per tick covers every mutation since the last one, after the inventories they changed
+        checkpoint.writeLock().lock();
+        try {
+            saveInventories();
+            journal.sync();
+        } finally {
+            checkpoint.writeLock().unlock();
+        }
+
+        for (Listing listing : done) {
+            notifySeller(listing, Component.text("Your listing of " + listing.getQuantity() + "x " + listing.getItemId()
+                    + " expired. Use /market collect.", NamedTextColor.YELLOW));
+        }
+        return done.size();
+    }
+
+    private void onExpired(long listingId) {
+        Listing listing = book.get(listingId);
+        if (listing == null) {
+            return;
+        }
+        listing.timerHandle = -1;
+        close(listing);
+        addClaim(listing.getSellerCharacterId(), listing.getItemId(), listing.getQuantity());
+        expiredCount++;
+        expired.add(listing);
+    }
+
+    /**
+     * Writes every change since the last flush to the database in batches
+     * The journal rolls to a new segment first; older segments are deleted once the writes succeeded
+     * @return The number of rows written
+     */
+    public synchronized int flush() {
+        List<StoredListing> writes;
+        List<Long> deletes;
+        List<StoredClaim> claimWrites;
+        long segment;
+        // No trade runs between saving the traders' inventories and rolling the segment holding their records
+        checkpoint.writeLock().lock();
+        try {
+            saveInventories();
+            lock.writeLock().lock();
+            try {
+                if (pendingWrites.isEmpty() && pendingDeletes.isEmpty() && pendingClaims.isEmpty()) {
+                    return 0;
+                }
+                writes = new ArrayList<>(pendingWrites.size());
+                for (Listing listing : pendingWrites.values()) {
+                    writes.add(new StoredListing(listing.getId(), listing.getSellerCharacterId(), listing.getSellerPlayerId(),
+                            listing.getSellerName(), listing.getItemId(), listing.getQuantity(), listing.getUnitPrice(),
+                            listing.getCreatedAt(), listing.getExpiresAt()));
+                }
+                deletes = new ArrayList<>(pendingDeletes);
+                claimWrites = new ArrayList<>();
+                for (Map.Entry<Integer, Set<String>> entry : pendingClaims.entrySet()) {
+                    Map<String, Integer> own = claims.get(entry.getKey());
+                    for (String itemId : entry.getValue()) {
+                        Integer quantity = own != null ? own.get(itemId) : null;
+                        claimWrites.add(new StoredClaim(entry.getKey(), itemId, quantity != null ? quantity : 0));
+                    }
+                }
+                pendingWrites.clear();
+                pendingDeletes.clear();
+                pendingClaims.clear();
+                segment = journal.roll();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            checkpoint.writeLock().unlock();
+        }
+
+        boolean written = writes.isEmpty() || repository.upsertListings(writes);
+        boolean deleted = deletes.isEmpty() || repository.deleteListings(deletes);
+        boolean claimed = claimWrites.isEmpty() || repository.writeClaims(claimWrites);
+        if (written && deleted && claimed) {
+            journal.release(segment);
+            return writes.size() + deletes.size() + claimWrites.size();
+        }
+
+        // Queue the failed writes again; the journal keeps the segments until a flush succeeds
+        lock.writeLock().lock();
+        try {
+            if (!written) {
+                for (StoredListing stored : writes) {
+                    Listing listing = book.get(stored.getId());
+                    if (listing != null) {
+                        pendingWrites.putIfAbsent(listing.getId(), listing);
+                    }
+                }
+            }
+            if (!deleted) {
+                pendingDeletes.addAll(deletes);
+            }
+            if (!claimed) {
+                for (StoredClaim claim : claimWrites) {
+                    markClaim(claim.getCharacterId(), claim.getItemId());
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.at(Level.WARNING).log("Market flush failed, changes will be retried");
+        return 0;
+    }
+
+    /**
+     * Writes the characters whose inventories were changed by trades since the last call
+     * Caller holds the checkpoint write lock, so no trade runs until the journal is synced
+     */
+    private void saveInventories() {
+        List<Character> traders;
+        lock.writeLock().lock();
+        try {
+            if (pendingInventories.isEmpty()) {
+                return;
+            }
+            traders = new ArrayList<>(pendingInventories.values());
+            pendingInventories.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (Character trader : traders) {
+            // A character that was unloaded and loaded again reads its saved state; never write the old copy over it
+            Character current = characterManager.getCharacter(trader.getPlayerId());
+            if (current != null && current != trader) {
+                continue;
+            }
+            if (!characterManager.getSaveScheduler().writeNow(trader)) {
+                logger.at(Level.WARNING).log("Failed to save the inventory of " + trader.getCharacterName() + " after a market trade");
+            }
+        }
+    }
+
+    /**
+     * Removes a listing from the book and its expiry timer; caller holds the write lock
+     */
+    private void close(Listing listing) {
+        book.remove(listing.getId());
+        if (listing.timerHandle >= 0) {
+            wheel.cancel(listing.timerHandle);
+            listing.timerHandle = -1;
+        }
+        journal.appendClose(listing.getId());
+        pendingWrites.remove(listing.getId());
+        pendingDeletes.add(listing.getId());
+    }
+
+    /**
+     * Adds to a character's claim; caller holds the write lock
+     */
+    private void addClaim(int characterId, String itemId, int quantity) {
+        Map<String, Integer> own = claims.computeIfAbsent(characterId, id -> new HashMap<>());
+        int total = own.merge(itemId, quantity, (a, b) -> (int) Math.min(Integer.MAX_VALUE, (long) a + b));
+        journal.appendClaim(characterId, itemId, total);
+        markClaim(characterId, itemId);
+    }
+
+    private void markClaim(int characterId, String itemId) {
+        pendingClaims.computeIfAbsent(characterId, id -> new LinkedHashSet<>()).add(itemId);
+    }
+
+    private void notifySeller(Listing listing, Component message) {
+        Player player = onlinePlayers.get(listing.getSellerPlayerId());
+        if (player != null) {
+            player.sendMessage(message);
+        }
+    }
+
+    /**
+     * Gets the currency item
+     * @return The currency item ID
+     */
+    public String getCurrencyItemId() {
+        return currencyItemId;
+    }
+
+    /**
+     * Builds a one-line report of the market state
+     * @return The report
+     */
+    public String getReport() {
+        lock.readLock().lock();
+        try {
+            return "Market: " + book.size() + " listing(s) for " + book.itemCount() + " item(s), " + soldCount
+                    + " item(s) sold, " + expiredCount + " listing(s) expired";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Outcome of a buy
+     */
+    public static final class Purchase {
+        private final Result result;
+        private final int quantity;
+        private final int cost;
+
+        Purchase(Result result, int quantity, int cost) {
+            this.result = result;
+            this.quantity = quantity;
+            this.cost = cost;
+        }
+
+        public Result getResult() {
+            return result;
+        }
+
+        /**
+         * Gets the quantity bought
+         * @return The quantity, 0 unless the result is SUCCESS
+         */
+        public int getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * Gets the currency paid
+         * @return The total cost
+         */
+        public int getCost() {
+            return cost;
+        }
+    }
+
+    private static final class Sale {
+        private final Listing listing;
+        private final int quantity;
+
+        private Sale(Listing listing, int quantity) {
+            this.listing = listing;
+            this.quantity = quantity;
+        }
+    }
+
+    /**
+     * Applies journal records on top of the rows loaded from the database
+     * Everything replayed is queued so the next flush writes it
+     */
+    private final class Replay implements MarketJournal.RecordHandler {
+        @Override
+        public void onOpen(long id, int sellerCharacterId, UUID sellerPlayerId, String sellerName, String itemId,
+                           int quantity, int unitPrice, long createdAt, long expiresAt) {
+            Listing listing = new Listing(id, sellerCharacterId, sellerPlayerId, sellerName, itemId, quantity, unitPrice,
+                    createdAt, expiresAt);
+            book.add(listing);
+            pendingDeletes.remove(id);
+            pendingWrites.put(id, listing);
+            nextId = Math.max(nextId, id + 1);
+        }
+
+        @Override
+        public void onQuantity(long id, int quantity) {
+            Listing listing = book.get(id);
+            if (listing != null) {
+                listing.setQuantity(quantity);
+                pendingWrites.put(id, listing);
+            }
+        }
+
+        @Override
+        public void onClose(long id) {
+            book.remove(id);
+            pendingWrites.remove(id);
+            pendingDeletes.add(id);
+            nextId = Math.max(nextId, id + 1);
+        }
+
+        @Override
+        public void onClaim(int characterId, String itemId, int quantity) {
+            Map<String, Integer> own = claims.computeIfAbsent(characterId, id -> new HashMap<>());
+            if (quantity > 0) {
+                own.put(itemId, quantity);
+            } else {
+                own.remove(itemId);
+                if (own.isEmpty()) {
+                    claims.remove(characterId);
+                }
+            }
+            markClaim(characterId, itemId);
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package org.HytaleMMO.Market;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * All open listings, indexed by ID, by item (ordered by price, then age)
+ * and by seller. Adding, removing and finding the cheapest listing of an
+ * item are O(log n) in the listings of that item; nothing here touches the
+ * database.
+ *
+ * Not thread-safe: the MarketService guards it with a read/write lock.
+ */
+public class OrderBook {
+    private final Map<Long, Listing> byId;
+    private final Map<String, TreeSet<Listing>> byItem;
+    private final Map<Integer, Set<Listing>> bySeller;
+
+    public OrderBook() {
+        this.byId = new HashMap<>();
+        this.byItem = new HashMap<>();
+        this.bySeller = new HashMap<>();
+    }
+
+    /**
+     * Adds a listing, replacing any listing with the same ID
+     * @param listing The listing
+     */
+    public void add(Listing listing) {
+        remove(listing.getId());
+        byId.put(listing.getId(), listing);
+        byItem.computeIfAbsent(listing.getItemId(), item -> new TreeSet<>(Listing.ORDER)).add(listing);
+        bySeller.computeIfAbsent(listing.getSellerCharacterId(), seller -> new LinkedHashSet<>()).add(listing);
+    }
+
+    /**
+     * Removes a listing
+     * @param listingId The listing ID
+     * @return The removed listing, or null if there was none
+     */
+    public Listing remove(long listingId) {
+        Listing listing = byId.remove(listingId);
+        if (listing == null) {
+            return null;
+        }
+        TreeSet<Listing> offers = byItem.get(listing.getItemId());
+        offers.remove(listing);
+        if (offers.isEmpty()) {
+            byItem.remove(listing.getItemId());
+        }
+        Set<Listing> own = bySeller.get(listing.getSellerCharacterId());
+        own.remove(listing);
+        if (own.isEmpty()) {
+            bySeller.remove(listing.getSellerCharacterId());
+        }
+        return listing;
+    }
+
+    /**
+     * Gets a listing by ID
+     * @param listingId The listing ID
+     * @return The listing, or null if not found
+     */
+    public Listing get(long listingId) {
+        return byId.get(listingId);
+    }
+
+    /**
+     * Gets the listings of an item at or below a price, cheapest first
+     * The returned view is live; callers must not modify the book while iterating it
+     * @param itemId The item ID
+     * @param maxUnitPrice The highest unit price to include
+     * @return The matching listings
+     */
+    public NavigableSet<Listing> offers(String itemId, int maxUnitPrice) {
+        TreeSet<Listing> offers = byItem.get(itemId);
+        if (offers == null) {
+            return Collections.emptyNavigableSet();
+        }
+        if (maxUnitPrice == Integer.MAX_VALUE) {
+            return offers;
+        }
+        // Sorts after every listing at maxUnitPrice, whatever its ID
+        Listing bound = new Listing(Long.MAX_VALUE, 0, null, null, itemId, 0, maxUnitPrice, 0, 0);
+        return offers.headSet(bound, false);
+    }
+
+    /**
+     * Gets a page of the listings of an item, cheapest first
+     * @param itemId The item ID
+     * @param maxUnitPrice The highest unit price to include
+     * @param offset The number of listings to skip
+     * @param limit The maximum number of listings to return
+     * @return The listings
+     */
+    public List<Listing> search(String itemId, int maxUnitPrice, int offset, int limit) {
+        List<Listing> page = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Listing> it = offers(itemId, maxUnitPrice).iterator();
+        for (int i = 0; i < offset && it.hasNext(); i++) {
+            it.next();
+        }
+        while (page.size() < limit && it.hasNext()) {
+            page.add(it.next());
+        }
+        return page;
+    }
+
+    /**
+     * Gets the cheapest listing of an item
+     * @param itemId The item ID
+     * @return The listing, or null if the item is not for sale
+     */
+    public Listing cheapest(String itemId) {
+        TreeSet<Listing> offers = byItem.get(itemId);
+        return offers != null ? offers.first() : null;
+    }
+
+    /**
+     * Gets the number of listings of an item
+     * @param itemId The item ID
+     * @return The listing count
+     */
+    public int count(String itemId) {
+        TreeSet<Listing> offers = byItem.get(itemId);
+        return offers != null ? offers.size() : 0;
+    }
+
+    /**
+     * Gets the listings of a seller, oldest first
+     * @param characterId The seller's character ID
+     * @return A copy of the seller's listings
+     */
+    public List<Listing> bySeller(int characterId) {
+        Set<Listing> own = bySeller.get(characterId);
+        return own != null ? new ArrayList<>(own) : new ArrayList<>();
+    }
+
+    /**
+     * Gets the number of listings of a seller
+     * @param characterId The seller's character ID
+     * @return The listing count
+     */
+    public int countBySeller(int characterId) {
+        Set<Listing> own = bySeller.get(characterId);
+        return own != null ? own.size() : 0;
+    }
+
+    /**
+     * Gets every listing
+     * @return The listings, in no particular order
+     */
+    public Iterable<Listing> all() {
+        return byId.values();
+    }
+
+    /**
+     * Gets the number of open listings
+     * @return The listing count
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Gets the number of distinct items for sale
+     * @return The item count
+     */
+    public int itemCount() {
+        return byItem.size();
+    }
+}
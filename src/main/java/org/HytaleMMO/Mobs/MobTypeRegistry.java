@@ -0,0 +1,80 @@
+package org.HytaleMMO.Mobs;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns mob type names to dense int ids.
+ * Ids are assigned on first use and never change while the server runs, so
+ * they can index primitive lookup tables (XP values, kill counters, ...).
+ * Ids are not stable across restarts and must not be persisted.
+ */
+public class MobTypeRegistry {
+    private final Map<String, Integer> ids;
+    private volatile String[] names;
+    private int nextId;
+
+    public MobTypeRegistry() {
+        this.ids = new ConcurrentHashMap<>();
+        this.names = new String[64];
+    }
+
+    /**
+     * Gets the id of a mob type, assigning a new one if the type has not been seen yet
+     * @param mobName The mob type name
+     * @return The mob type id
+     */
+    public int idOf(String mobName) {
+        Integer id = ids.get(mobName);
+        if (id != null) {
+            return id;
+        }
+        return register(mobName);
+    }
+
+    /**
+     * Gets the id of a mob type without registering it
+     * @param mobName The mob type name
+     * @return The mob type id, or -1 if the type is unknown
+     */
+    public int find(String mobName) {
+        Integer id = ids.get(mobName);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Gets the name of a mob type
+     * @param id The mob type id
+     * @return The mob type name, or null if the id is unknown
+     */
+    public String nameOf(int id) {
+        String[] current = names;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+
+    /**
+     * Gets the number of registered mob types
+     * @return The mob type count
+     */
+    public synchronized int size() {
+        return nextId;
+    }
+
+    private synchronized int register(String mobName) {
+        Integer existing = ids.get(mobName);
+        if (existing != null) {
+            return existing;
+        }
+
+        int id = nextId++;
+        String[] current = names;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[id] = mobName;
+        names = current;
+        ids.put(mobName, id);
+        return id;
+    }
+}
@@ -4,21 +4,78 @@ import com.hypixel.hytale.server.api.entity.Entity;
 import com.hypixel.hytale.server.api.entity.EntityType;
 import com.hypixel.hytale.server.api.world.Location;
 import com.hypixel.hytale.server.api.world.World;
+import org.HytaleMMO.Listeners.ServerTickScheduler;
+import org.HytaleMMO.Profiling.Profiler;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
  * Handles NPC spawning and management
+ * Spawned NPCs are tracked in a concurrent registry, so they can be listed and
+ * looked up from any thread while the world thread spawns and removes them
  */
 public class NpcHandler {
-    private final Map<UUID, Entity> spawnedNPCs;
+    private final NpcRegistry registry;
+    private volatile NpcPool pool;
+    private ServerTickScheduler.RepeatingTask trimTask;
+    private Profiler profiler = Profiler.DISABLED;
 
     public NpcHandler() {
-        this.spawnedNPCs = new HashMap<>();
+        this.registry = new NpcRegistry();
+    }
+
+    /**
+     * Records the time spent spawning, removing and recycling NPCs while the profiler is running
+     * @param profiler The profiler
+     */
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Enables entity recycling: removed NPCs are parked and reused by later spawns
+     * Parked entities idle for longer than the limit are destroyed on the server thread
+     * @param maxPerTemplate Maximum number of parked entities per template
+     * @param maxIdleMs How long a parked entity may stay idle before it is destroyed
+     * @param scheduler The server tick scheduler that runs the idle trimming
+     * @param trimIntervalTicks The number of server ticks between idle checks
+     */
+    public void enablePooling(int maxPerTemplate, long maxIdleMs, ServerTickScheduler scheduler, int trimIntervalTicks) {
+        if (pool == null) {
+            NpcPool created = new NpcPool(maxPerTemplate, maxIdleMs);
+            pool = created;
+            trimTask = scheduler.schedule("NPC pool trim", () -> profiler.time("NpcPool.trimIdle", created::trimIdle), trimIntervalTicks);
+        }
+    }
+
+    /**
+     * Disables entity recycling and destroys every parked entity
+     * Must be called on the server thread
+     */
+    public void disablePooling() {
+        profiler.time("NpcHandler.disablePooling", () -> clearPool());
+    }
+
+    private void clearPool() {
+        if (trimTask != null) {
+            trimTask.cancel();
+            trimTask = null;
+        }
+        NpcPool current = pool;
+        if (current != null) {
+            pool = null;
+            current.clear();
+        }
+    }
+
+    /**
+     * Gets the NPC pool
+     * @return The pool, or null if pooling is disabled
+     */
+    public NpcPool getPool() {
+        return pool;
     }
 
     /**
@@ -28,11 +85,23 @@ public class NpcHandler {
      * @return The spawned entity UUID
      */
     public UUID spawnNPC(Location location, String name) {
+        return profiler.time("NpcHandler.spawnNPC", () -> spawnEntity(location, name));
+    }
+
+    private UUID spawnEntity(Location location, String name) {
         World world = location.getWorld();
+        String template = NpcPool.templateKey(world.getName(), name);
         
-        // Spawn an NPC entity (using a human-like entity type)
-        // Note: The exact entity type may need to be adjusted based on Hytale API
-        Entity npc = world.spawnEntity(location, EntityType.NPC);
+        // Reuse a parked entity when pooling is enabled
+        Entity npc = pool != null ? pool.acquire(template) : null;
+        if (npc != null) {
+            npc.teleport(location);
+            npc.setInvisible(false);
+        } else {
+            // Spawn an NPC entity (using a human-like entity type)
+            // Note: The exact entity type may need to be adjusted based on Hytale API
+            npc = world.spawnEntity(location, EntityType.NPC);
+        }
         
         // Set the NPC name
         npc.setCustomName(name);
@@ -45,10 +114,9 @@ public class NpcHandler {
         npc.setInvulnerable(true);
         
         // Track the NPC
-        UUID npcId = npc.getUniqueId();
-        spawnedNPCs.put(npcId, npc);
+        registry.register(npc, name, world.getName(), template);
         
-        return npcId;
+        return npc.getUniqueId();
     }
 
     /**
@@ -57,9 +125,17 @@ public class NpcHandler {
      * @return true if the NPC was found and removed, false otherwise
      */
     public boolean removeNPC(UUID npcId) {
-        Entity npc = spawnedNPCs.remove(npcId);
-        if (npc != null) {
-            npc.remove();
+        return profiler.time("NpcHandler.removeNPC", () -> removeEntity(npcId));
+    }
+
+    private boolean removeEntity(UUID npcId) {
+        NpcRegistry.NpcEntry entry = registry.remove(npcId);
+        if (entry != null) {
+            // Park the entity for reuse, or destroy it if pooling is off or the pool is full
+            Entity npc = entry.getEntity();
+            if (pool == null || !pool.release(entry.getTemplate(), npc)) {
+                npc.remove();
+            }
             return true;
         }
         return false;
@@ -67,20 +143,55 @@ public class NpcHandler {
 
     /**
      * Gets the list of spawned NPC UUIDs
+     * The returned list is an immutable snapshot shared between callers until the registry changes
      * @return List of NPC UUIDs
      */
     public List<UUID> getSpawnedNPCs() {
-        return new ArrayList<>(spawnedNPCs.keySet());
+        return registry.snapshot();
+    }
+
+    /**
+     * Finds spawned NPCs by name
+     * @param name The NPC name
+     * @return Read-only set of matching NPC UUIDs
+     */
+    public Set<UUID> findNPCsByName(String name) {
+        return registry.findByName(name);
+    }
+
+    /**
+     * Finds spawned NPCs in a world
+     * @param worldName The world name
+     * @return Read-only set of matching NPC UUIDs
+     */
+    public Set<UUID> findNPCsInWorld(String worldName) {
+        return registry.findByWorld(worldName);
+    }
+
+    /**
+     * Gets the NPC registry
+     * @return The registry
+     */
+    public NpcRegistry getRegistry() {
+        return registry;
     }
 
     /**
      * Removes all NPCs from the world and clears the tracking list
+     * Parked entities are destroyed as well
      */
     public void removeAllNPCs() {
-        for (Entity npc : spawnedNPCs.values()) {
-            npc.remove();
+        profiler.time("NpcHandler.removeAllNPCs", () -> removeAllEntities());
+    }
+
+    private void removeAllEntities() {
+        for (NpcRegistry.NpcEntry entry : registry.clear()) {
+            entry.getEntity().remove();
+        }
+        
+        if (pool != null) {
+            pool.clear();
         }
-        spawnedNPCs.clear();
     }
 
     /**
@@ -89,6 +200,7 @@ public class NpcHandler {
      * @return The NPC entity, or null if not found
      */
     public Entity getNPC(UUID npcId) {
-        return spawnedNPCs.get(npcId);
+        NpcRegistry.NpcEntry entry = registry.get(npcId);
+        return entry != null ? entry.getEntity() : null;
     }
 }
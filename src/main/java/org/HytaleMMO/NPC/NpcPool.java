@@ -0,0 +1,188 @@
+package org.HytaleMMO.NPC;
+
+import com.hypixel.hytale.server.api.entity.Entity;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Recycling pool for NPC entities.
+ * Removed NPCs are parked (hidden and inert) in per-template pools and
+ * re-initialised on the next spawn instead of being destroyed and recreated.
+ * A template is identified by the world and the NPC name, since a parked
+ * entity can only be reused in the world it lives in.
+ */
+public class NpcPool {
+    private final Map<String, ArrayDeque<PooledEntity>> pools;
+    private final int maxPerTemplate;
+    private final long maxIdleMs;
+
+    private long hits;
+    private long misses;
+    private long parked;
+    private long overflowed;
+    private long trimmed;
+    private final long createdAt;
+
+    /**
+     * Creates a new NPC pool
+     * @param maxPerTemplate Maximum number of parked entities kept per template
+     * @param maxIdleMs How long a parked entity may stay idle before it is destroyed
+     */
+    public NpcPool(int maxPerTemplate, long maxIdleMs) {
+        this.pools = new HashMap<>();
+        this.maxPerTemplate = maxPerTemplate;
+        this.maxIdleMs = maxIdleMs;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Builds the pool key for a template
+     * @param world The world name
+     * @param name The NPC name
+     * @return The template key
+     */
+    public static String templateKey(String world, String name) {
+        return world + '\u0000' + name;
+    }
+
+    /**
+     * Takes a parked entity for the given template
+     * @param template The template key
+     * @return A parked entity, or null if the pool is empty
+     */
+    public synchronized Entity acquire(String template) {
+        ArrayDeque<PooledEntity> pool = pools.get(template);
+        if (pool != null) {
+            // Most recently parked first, so the oldest entries stay at the tail for trimming
+            PooledEntity pooled;
+            while ((pooled = pool.pollFirst()) != null) {
+                if (pooled.entity.isValid()) {
+                    hits++;
+                    return pooled.entity;
+                }
+            }
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * Parks an entity so it can be reused later
+     * @param template The template key
+     * @param entity The entity to park
+     * @return true if the entity was parked, false if the pool is full and the entity must be destroyed
+     */
+    public synchronized boolean release(String template, Entity entity) {
+        long now = System.currentTimeMillis();
+        ArrayDeque<PooledEntity> pool = pools.computeIfAbsent(template, key -> new ArrayDeque<>());
+        trimPool(pool, now);
+
+        if (pool.size() >= maxPerTemplate) {
+            overflowed++;
+            return false;
+        }
+
+        // Hide the entity and make it inert until it is reused
+        entity.setCustomNameVisible(false);
+        entity.setInvisible(true);
+        entity.setAI(false);
+        entity.setGravity(false);
+        entity.setInvulnerable(true);
+
+        pool.addFirst(new PooledEntity(entity, now));
+        parked++;
+        return true;
+    }
+
+    /**
+     * Destroys parked entities that have been idle for longer than the idle limit
+     * @return The number of entities destroyed
+     */
+    public synchronized int trimIdle() {
+        long now = System.currentTimeMillis();
+        int removed = 0;
+
+        Iterator<ArrayDeque<PooledEntity>> iterator = pools.values().iterator();
+        while (iterator.hasNext()) {
+            ArrayDeque<PooledEntity> pool = iterator.next();
+            removed += trimPool(pool, now);
+            if (pool.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Destroys every parked entity
+     * @return The number of entities destroyed
+     */
+    public synchronized int clear() {
+        int removed = 0;
+        for (ArrayDeque<PooledEntity> pool : pools.values()) {
+            for (PooledEntity pooled : pool) {
+                pooled.entity.remove();
+                removed++;
+            }
+        }
+        pools.clear();
+        return removed;
+    }
+
+    private int trimPool(ArrayDeque<PooledEntity> pool, long now) {
+        int removed = 0;
+        PooledEntity oldest;
+        while ((oldest = pool.peekLast()) != null && now - oldest.parkedAt > maxIdleMs) {
+            pool.pollLast();
+            oldest.entity.remove();
+            removed++;
+        }
+        trimmed += removed;
+        return removed;
+    }
+
+    /**
+     * Gets the number of parked entities across all templates
+     * @return The parked entity count
+     */
+    public synchronized int getParkedCount() {
+        int count = 0;
+        for (ArrayDeque<PooledEntity> pool : pools.values()) {
+            count += pool.size();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the fraction of spawns that were served from the pool
+     * @return The hit rate between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    /**
+     * Builds a one-line report of the pool statistics, including how many
+     * entity allocations per minute the pool has saved since it was created
+     * @return The report
+     */
+    public synchronized String getReport() {
+        double minutes = Math.max(1, System.currentTimeMillis() - createdAt) / 60000.0;
+        return String.format("NPC pool: parked=%d hits=%d misses=%d hitRate=%.1f%% released=%d overflowed=%d trimmed=%d savedAllocs/min=%.1f",
+                getParkedCount(), hits, misses, getHitRate() * 100, parked, overflowed, trimmed, hits / minutes);
+    }
+
+    private static final class PooledEntity {
+        private final Entity entity;
+        private final long parkedAt;
+
+        private PooledEntity(Entity entity, long parkedAt) {
+            this.entity = entity;
+            this.parkedAt = parkedAt;
+        }
+    }
+}
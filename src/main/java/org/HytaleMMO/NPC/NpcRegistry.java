@@ -0,0 +1,226 @@
+package org.HytaleMMO.NPC;
+
+import com.hypixel.hytale.server.api.entity.Entity;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe registry of spawned NPCs.
+ * The world thread mutates the registry while commands, AI workers and metrics
+ * read it without locking. Listings are served from an immutable snapshot that
+ * is only rebuilt after the registry has changed, and secondary indexes allow
+ * lookups by name and by world without scanning every NPC.
+ */
+public class NpcRegistry {
+    private final Map<UUID, NpcEntry> entries;
+    private final Map<String, Set<UUID>> byName;
+    private final Map<String, Set<UUID>> byWorld;
+    private final AtomicLong version;
+    private volatile Snapshot snapshot;
+
+    public NpcRegistry() {
+        this.entries = new ConcurrentHashMap<>();
+        this.byName = new ConcurrentHashMap<>();
+        this.byWorld = new ConcurrentHashMap<>();
+        this.version = new AtomicLong();
+        this.snapshot = new Snapshot(0, List.of());
+    }
+
+    /**
+     * Registers a spawned NPC
+     * @param entity The NPC entity
+     * @param name The NPC name
+     * @param world The world name
+     * @param template The pool template key of the NPC
+     * @return The registry entry
+     */
+    public NpcEntry register(Entity entity, String name, String world, String template) {
+        NpcEntry entry = new NpcEntry(entity.getUniqueId(), entity, name, world, template);
+        NpcEntry previous = entries.put(entry.getId(), entry);
+        if (previous != null) {
+            unindex(previous);
+        }
+        index(byName, name, entry.getId());
+        index(byWorld, world, entry.getId());
+        version.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Removes an NPC from the registry
+     * @param npcId The UUID of the NPC
+     * @return The removed entry, or null if the NPC was not registered
+     */
+    public NpcEntry remove(UUID npcId) {
+        NpcEntry entry = entries.remove(npcId);
+        if (entry != null) {
+            unindex(entry);
+            version.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Removes every NPC from the registry
+     * @return The entries that were removed
+     */
+    public Collection<NpcEntry> clear() {
+        List<NpcEntry> removed = List.copyOf(entries.values());
+        for (NpcEntry entry : removed) {
+            remove(entry.getId());
+        }
+        return removed;
+    }
+
+    /**
+     * Gets a registry entry by UUID
+     * @param npcId The UUID of the NPC
+     * @return The entry, or null if not registered
+     */
+    public NpcEntry get(UUID npcId) {
+        return entries.get(npcId);
+    }
+
+    /**
+     * Gets an immutable snapshot of the registered NPC UUIDs.
+     * The same list instance is returned until the registry changes, so
+     * repeated listings do not allocate.
+     * @return The NPC UUIDs
+     */
+    public List<UUID> snapshot() {
+        long current = version.get();
+        Snapshot cached = snapshot;
+        if (cached.version == current) {
+            return cached.ids;
+        }
+
+        // The version is read before copying, so a snapshot raced by a writer is
+        // tagged with the older version and rebuilt by the next reader
+        List<UUID> ids = List.copyOf(entries.keySet());
+        snapshot = new Snapshot(current, ids);
+        return ids;
+    }
+
+    /**
+     * Gets a live, weakly consistent view of all entries for iteration without copying
+     * @return The entries
+     */
+    public Collection<NpcEntry> entries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    /**
+     * Finds NPCs by name
+     * @param name The NPC name
+     * @return A live read-only view of the matching NPC UUIDs
+     */
+    public Set<UUID> findByName(String name) {
+        return view(byName, name);
+    }
+
+    /**
+     * Finds NPCs in a world
+     * @param world The world name
+     * @return A live read-only view of the matching NPC UUIDs
+     */
+    public Set<UUID> findByWorld(String world) {
+        return view(byWorld, world);
+    }
+
+    /**
+     * Gets the number of registered NPCs
+     * @return The NPC count
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void unindex(NpcEntry entry) {
+        unindex(byName, entry.getName(), entry.getId());
+        unindex(byWorld, entry.getWorld(), entry.getId());
+    }
+
+    private static void index(Map<String, Set<UUID>> index, String key, UUID npcId) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(npcId);
+            return ids;
+        });
+    }
+
+    private static void unindex(Map<String, Set<UUID>> index, String key, UUID npcId) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(npcId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<UUID> view(Map<String, Set<UUID>> index, String key) {
+        Set<UUID> ids = key == null ? null : index.get(key);
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final List<UUID> ids;
+
+        private Snapshot(long version, List<UUID> ids) {
+            this.version = version;
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * A registered NPC with the attributes it is indexed by
+     */
+    public static final class NpcEntry {
+        private final UUID id;
+        private final Entity entity;
+        private final String name;
+        private final String world;
+        private final String template;
+
+        private NpcEntry(UUID id, Entity entity, String name, String world, String template) {
+            this.id = id;
+            this.entity = entity;
+            this.name = name;
+            this.world = world;
+            this.template = template;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public Entity getEntity() {
+            return entity;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getWorld() {
+            return world;
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package org.HytaleMMO.Profiling;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Measures how much time the plugin's entry points take
+ *
+ * Work is recorded at the plugin's boundaries (game event callbacks, event bus
+ * dispatch, server tick tasks, the save writer, commands), so the instrumented
+ * methods themselves stay unchanged.
+ * Each thread keeps its own call tree, written only by that thread, so
+ * recording takes no lock and shares nothing; a dump merges the trees of all
+ * threads. While the profiler is stopped, enter() is a single volatile read.
+ *
+ * Usage:
+ * <pre>
+ * profiler.time("NpcHandler.spawnNPC", () -&gt; npcHandler.spawnNPC(location, name));
+ * </pre>
+ * Hot paths that must not allocate a lambda bracket their work with enter()/exit().
+ */
+public final class Profiler {
+    /**
+     * A profiler that is never started, the default of components whose profiler was not set
+     */
+    public static final Profiler DISABLED = new Profiler(null);
+
+    private final HytaleLogger logger;
+    private final ConcurrentLinkedQueue<ThreadProfile> threads;
+    private final ThreadLocal<ThreadProfile> local;
+    private volatile boolean running;
+    private volatile int generation;
+    private volatile long startedAt;
+    private volatile long stoppedAt;
+
+    /**
+     * Creates a stopped profiler
+     * @param logger The logger instance
+     */
+    public Profiler(HytaleLogger logger) {
+        this.logger = logger;
+        this.threads = new ConcurrentLinkedQueue<>();
+        this.local = ThreadLocal.withInitial(() -> {
+            ThreadProfile profile = new ThreadProfile(Thread.currentThread());
+            threads.add(profile);
+            return profile;
+        });
+    }
+
+    /**
+     * Discards the current profile and starts recording a new one
+     * @return true if started, false if the profiler was already running
+     */
+    public synchronized boolean start() {
+        if (running || this == DISABLED) {
+            return false;
+        }
+        pruneDeadThreads();
+        generation++;
+        startedAt = System.nanoTime();
+        stoppedAt = 0;
+        running = true;
+        logger.at(Level.INFO).log("Profiler started");
+        return true;
+    }
+
+    /**
+     * Stops recording; the profile is kept until the next start or reset
+     * @return true if stopped, false if the profiler was not running
+     */
+    public synchronized boolean stop() {
+        if (!running) {
+            return false;
+        }
+        running = false;
+        stoppedAt = System.nanoTime();
+        logger.at(Level.INFO).log("Profiler stopped after " + (stoppedAt - startedAt) / 1_000_000 + " ms");
+        return true;
+    }
+
+    /**
+     * Discards the recorded profile; a running profiler keeps recording into a new one
+     */
+    public synchronized void reset() {
+        generation++;
+        startedAt = System.nanoTime();
+        stoppedAt = running ? 0 : startedAt;
+    }
+
+    /**
+     * Drops the profiles of threads that have ended (e.g. replaced pool threads)
+     */
+    private void pruneDeadThreads() {
+        threads.removeIf(profile -> !profile.isAlive());
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Enters a frame on the calling thread
+     * Every call that returns true must be paired with an exit() on the same thread
+     * @param frame The frame name, normally a constant "Class.method"
+     * @return true if the frame is recorded, false if the profiler is stopped
+     */
+    public boolean enter(String frame) {
+        if (!running) {
+            return false;
+        }
+        local.get().enter(frame, generation);
+        return true;
+    }
+
+    /**
+     * Leaves the frame entered last on the calling thread
+     */
+    public void exit() {
+        local.get().exit();
+    }
+
+    /**
+     * Runs work inside a frame
+     * @param frame The frame name, normally a constant "Class.method"
+     * @param work The work
+     */
+    public void time(String frame, Runnable work) {
+        boolean profiled = enter(frame);
+        try {
+            work.run();
+        } finally {
+            if (profiled) {
+                exit();
+            }
+        }
+    }
+
+    /**
+     * Runs work inside a frame and returns its result
+     * @param frame The frame name, normally a constant "Class.method"
+     * @param work The work
+     * @return The result of the work
+     */
+    public <T> T time(String frame, Supplier<T> work) {
+        boolean profiled = enter(frame);
+        try {
+            return work.get();
+        } finally {
+            if (profiled) {
+                exit();
+            }
+        }
+    }
+
+    /**
+     * Merges the call trees of all threads into one tree per thread name
+     * @return The merged tree; its children are the threads
+     */
+    private Node merge() {
+        int current = generation;
+        Node merged = new Node(null, "all");
+        for (ThreadProfile profile : threads) {
+            if (profile.generation == current) {
+                // Threads of a pool share a name and are merged into one tree
+                merged.child(profile.root.frame).add(profile.root);
+            }
+        }
+        for (Node thread : merged.children) {
+            thread.calls = 0;
+            thread.totalNanos = 0;
+            for (Node child : thread.children) {
+                thread.totalNanos += child.totalNanos;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Builds the text report: the call tree of each thread, then the frames with the most self time
+     * @param maxTopFrames Maximum number of frames in the self time summary
+     * @return The report
+     */
+    public String getReport(int maxTopFrames) {
+        Node merged = merge();
+        long end = stoppedAt != 0 ? stoppedAt : System.nanoTime();
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Profile of %.1f s (%s)%n", (end - startedAt) / 1e9, running ? "running" : "stopped"));
+        report.append(String.format("%10s %10s %10s %10s  %s%n", "total ms", "self ms", "calls", "avg us", "frame"));
+        for (Node thread : sorted(merged.children)) {
+            report.append(String.format("%10.1f %10s %10s %10s  [%s]%n", thread.totalNanos / 1e6, "", "", "", thread.frame));
+            appendTree(report, thread, 1);
+        }
+
+        report.append(String.format("%nTop frames by self time%n"));
+        for (Node frame : getTopFrames(merged, maxTopFrames)) {
+            report.append(String.format("%10.1f ms self  %10d calls  %s%n", frame.selfNanos() / 1e6, frame.calls, frame.frame));
+        }
+        return report.toString();
+    }
+
+    private static void appendTree(StringBuilder report, Node node, int depth) {
+        for (Node child : sorted(node.children)) {
+            report.append(String.format("%10.1f %10.1f %10d %10.1f  ", child.totalNanos / 1e6, child.selfNanos() / 1e6,
+                    child.calls, child.calls > 0 ? child.totalNanos / 1e3 / child.calls : 0.0));
+            for (int i = 1; i < depth; i++) {
+                report.append("  ");
+            }
+            report.append(child.frame).append(System.lineSeparator());
+            appendTree(report, child, depth + 1);
+        }
+    }
+
+    /**
+     * Gets the frames with the most self time, summed over every thread and call path
+     * @param maxFrames Maximum number of frames
+     * @return A summary line per frame
+     */
+    public List<String> getTopFrames(int maxFrames) {
+        List<String> lines = new ArrayList<>();
+        for (Node frame : getTopFrames(merge(), maxFrames)) {
+            lines.add(String.format("%s: %.1f ms self, %d calls", frame.frame, frame.selfNanos() / 1e6, frame.calls));
+        }
+        return lines;
+    }
+
+    private static List<Node> getTopFrames(Node merged, int maxFrames) {
+        Map<String, Node> byFrame = new HashMap<>();
+        for (Node thread : merged.children) {
+            sumFrames(thread, byFrame);
+        }
+        List<Node> frames = new ArrayList<>(byFrame.values());
+        frames.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        return frames.subList(0, Math.min(maxFrames, frames.size()));
+    }
+
+    private static void sumFrames(Node node, Map<String, Node> byFrame) {
+        for (Node child : node.children) {
+            // totalNanos of the summary nodes holds self time only
+            Node sum = byFrame.computeIfAbsent(child.frame, frame -> new Node(null, frame));
+            sum.calls += child.calls;
+            sum.totalNanos += child.selfNanos();
+            sumFrames(child, byFrame);
+        }
+    }
+
+    /**
+     * Builds the profile in collapsed stack format ("thread;frame;frame self-microseconds"),
+     * the input format of flame graph tools
+     * @return The collapsed stacks, one per line
+     */
+    public String getCollapsed() {
+        StringBuilder collapsed = new StringBuilder();
+        for (Node thread : merge().children) {
+            appendCollapsed(collapsed, thread.frame, thread);
+        }
+        return collapsed.toString();
+    }
+
+    private static void appendCollapsed(StringBuilder collapsed, String stack, Node node) {
+        for (Node child : node.children) {
+            String childStack = stack + ";" + child.frame;
+            long selfMicros = child.selfNanos() / 1000;
+            if (selfMicros > 0) {
+                collapsed.append(childStack).append(' ').append(selfMicros).append('\n');
+            }
+            appendCollapsed(collapsed, childStack, child);
+        }
+    }
+
+    /**
+     * Writes the text report and the collapsed stacks to a directory
+     * @param directory The target directory
+     * @return The path of the text report (the collapsed stacks are next to it), or null on error
+     */
+    public Path dump(Path directory) {
+        String name = "profile-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        Path report = directory.resolve(name + ".txt");
+        try {
+            Files.createDirectories(directory);
+            try (Writer writer = Files.newBufferedWriter(report, StandardCharsets.UTF_8)) {
+                writer.write(getReport(50));
+            }
+            try (Writer writer = Files.newBufferedWriter(directory.resolve(name + ".collapsed"), StandardCharsets.UTF_8)) {
+                writer.write(getCollapsed());
+            }
+            logger.at(Level.INFO).log("Profile written to " + report.toAbsolutePath());
+            pruneDeadThreads();
+            return report;
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error writing profile: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static List<Node> sorted(Node[] nodes) {
+        List<Node> list = new ArrayList<>(Arrays.asList(nodes));
+        list.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        return list;
+    }
+
+    /**
+     * The call tree of one thread, only ever modified by that thread
+     */
+    private static final class ThreadProfile {
+        private final WeakReference<Thread> thread;
+        private final String name;
+        private volatile Node root;
+        private volatile int generation;
+        private Node current;
+        private long[] starts = new long[16];
+        private int depth;
+
+        ThreadProfile(Thread thread) {
+            this.thread = new WeakReference<>(thread);
+            this.name = thread.getName();
+            this.root = new Node(null, name);
+            this.current = root;
+        }
+
+        boolean isAlive() {
+            Thread owner = thread.get();
+            return owner != null && owner.isAlive();
+        }
+
+        void enter(String frame, int profilerGeneration) {
+            if (depth == 0 && generation != profilerGeneration) {
+                // Start a new tree after a start or reset; frames still open belong to the old one
+                root = new Node(null, name);
+                current = root;
+                generation = profilerGeneration;
+            }
+            if (depth == starts.length) {
+                starts = Arrays.copyOf(starts, depth * 2);
+            }
+            current = current.child(frame);
+            starts[depth++] = System.nanoTime();
+        }
+
+        void exit() {
+            if (depth == 0) {
+                return;
+            }
+            long elapsed = System.nanoTime() - starts[--depth];
+            Node node = current;
+            node.calls = node.calls + 1;
+            node.totalNanos = node.totalNanos + elapsed;
+            current = node.parent;
+        }
+    }
+
+    /**
+     * A frame in a call tree
+     * The counters are written by a single thread and read by dumps without locking
+     */
+    private static final class Node {
+        private static final Node[] NONE = new Node[0];
+
+        private final Node parent;
+        private final String frame;
+        private volatile Node[] children = NONE;
+        private volatile long calls;
+        private volatile long totalNanos;
+
+        Node(Node parent, String frame) {
+            this.parent = parent;
+            this.frame = frame;
+        }
+
+        /**
+         * Gets or adds a child frame
+         * The array is replaced rather than modified, so dumps can read it concurrently
+         */
+        Node child(String name) {
+            Node[] current = children;
+            for (Node child : current) {
+                if (child.frame == name || child.frame.equals(name)) {
+                    return child;
+                }
+            }
+            Node child = new Node(this, name);
+            Node[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = child;
+            children = grown;
+            return child;
+        }
+
+        /**
+         * Adds another tree's counters into this one (used only on merged copies)
+         */
+        void add(Node other) {
+            calls += other.calls;
+            totalNanos += other.totalNanos;
+            for (Node child : other.children) {
+                child(child.frame).add(child);
+            }
+        }
+
+        long selfNanos() {
+            long self = totalNanos;
+            for (Node child : children) {
+                self -= child.totalNanos;
+            }
+            return Math.max(0, self);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.HytaleMMO.Progression;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Character.SaveLane;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Mobs.MobTypeRegistry;
+
+import java.util.UUID;
+
+/**
+ * Awards experience for mob kills and quest rewards.
+ * A kill is a table lookup plus a field update on the in-memory character.
+ * Level-ups are queued in the level-up lane of the save scheduler, which
+ * writes them in batches; plain XP gains without a level-up are persisted by
+ * the regular character saves.
+ */
+public class ExperienceService {
+    private final CharacterManager characterManager;
+    private final ExperienceTable table;
+    private final MobTypeRegistry mobTypes;
+    private final HytaleLogger logger;
+
+    /**
+     * Creates a new experience service
+     * @param characterManager The character manager holding loaded characters
+     * @param table The precomputed experience table
+     * @param mobTypes The mob type registry
+     * @param logger The logger instance
+     */
+    public ExperienceService(CharacterManager characterManager, ExperienceTable table, MobTypeRegistry mobTypes,
+                             HytaleLogger logger) {
+        this.characterManager = characterManager;
+        this.table = table;
+        this.mobTypes = mobTypes;
+        this.logger = logger;
+    }
+
+    /**
+     * Awards the experience for a mob kill
+     * @param playerId The UUID of the killer
+     * @param mobName The mob type name
+     * @return The character's new level if it levelled up, or 0 otherwise
+     */
+    public int awardKill(UUID playerId, String mobName) {
+        return awardKill(playerId, mobTypes.idOf(mobName));
+    }
+
+    /**
+     * Awards the experience for a mob kill
+     * @param playerId The UUID of the killer
+     * @param mobTypeId The interned mob type id
+     * @return The character's new level if it levelled up, or 0 otherwise
+     */
+    public int awardKill(UUID playerId, int mobTypeId) {
+        return awardExperience(playerId, table.experienceForMob(mobTypeId));
+    }
+
+    /**
+     * Awards a fixed amount of experience, e.g. a quest reward
+     * @param playerId The UUID of the player
+     * @param amount The experience to award
+     * @return The character's new level if it levelled up, or 0 otherwise
+     */
+    public int awardExperience(UUID playerId, int amount) {
+        int levelsGained = characterManager.addExperience(playerId, amount, table);
+        if (levelsGained == 0) {
+            return 0;
+        }
+
+        // Level and experience are written from the level-up save lane
+        characterManager.requestSave(playerId, SaveLane.LEVEL_UP);
+        Character character = characterManager.getCharacter(playerId);
+        return character != null ? character.getLevel() : 0;
+    }
+
+    /**
+     * Gets the experience table
+     * @return The experience table
+     */
+    public ExperienceTable getTable() {
+        return table;
+    }
+}
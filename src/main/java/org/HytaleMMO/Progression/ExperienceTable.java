@@ -0,0 +1,164 @@
+package org.HytaleMMO.Progression;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Mobs.MobTypeRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+
+/**
+ * Precomputed experience lookup tables.
+ * XP rewards per mob type and cumulative XP thresholds per class are loaded
+ * from experience.properties once at startup and stored in primitive arrays,
+ * so awarding XP for a kill never parses configuration or allocates.
+ */
+public class ExperienceTable {
+    private static final String MOB_PREFIX = "xp.mob.";
+    private static final String CURVE_PREFIX = "curve.";
+    private static final String DEFAULT_CURVE = "default";
+
+    private final HytaleLogger logger;
+    private final MobTypeRegistry mobTypes;
+    private final Map<String, Integer> classIds;
+    private int[] mobExperience;
+    private int defaultExperience;
+    private int maxLevel;
+    private int[][] levelThresholds;
+
+    public ExperienceTable(MobTypeRegistry mobTypes, HytaleLogger logger) {
+        this.mobTypes = mobTypes;
+        this.logger = logger;
+        this.classIds = new HashMap<>();
+        load(loadProperties());
+    }
+
+    /**
+     * Loads experience configuration from experience.properties file
+     */
+    private Properties loadProperties() {
+        Properties properties = new Properties();
+        try (InputStream input = getClass().getClassLoader().getResourceAsStream("experience.properties")) {
+            if (input == null) {
+                logger.at(Level.WARNING).log("Unable to find experience.properties, using defaults");
+                return properties;
+            }
+            properties.load(input);
+        } catch (IOException e) {
+            logger.at(Level.SEVERE).log("Error loading experience.properties: " + e.getMessage());
+        }
+        return properties;
+    }
+
+    /**
+     * Builds the lookup tables from the configuration
+     */
+    private void load(Properties properties) {
+        defaultExperience = Integer.parseInt(properties.getProperty("xp.default", "5"));
+        maxLevel = Integer.parseInt(properties.getProperty("level.max", "60"));
+
+        // XP per mob type, indexed by interned mob type id
+        mobExperience = new int[0];
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(MOB_PREFIX)) {
+                int mobTypeId = mobTypes.idOf(key.substring(MOB_PREFIX.length()));
+                if (mobTypeId >= mobExperience.length) {
+                    int oldLength = mobExperience.length;
+                    mobExperience = Arrays.copyOf(mobExperience, mobTypeId + 1);
+                    Arrays.fill(mobExperience, oldLength, mobExperience.length, -1);
+                }
+                mobExperience[mobTypeId] = Integer.parseInt(properties.getProperty(key).trim());
+            }
+        }
+
+        // Level curves per class; class id 0 is always the default curve
+        classIds.put(DEFAULT_CURVE, 0);
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith(CURVE_PREFIX) && key.endsWith(".base")) {
+                String className = key.substring(CURVE_PREFIX.length(), key.length() - ".base".length());
+                classIds.putIfAbsent(className, classIds.size());
+            }
+        }
+
+        levelThresholds = new int[classIds.size()][];
+        for (Map.Entry<String, Integer> entry : classIds.entrySet()) {
+            levelThresholds[entry.getValue()] = buildCurve(properties, entry.getKey());
+        }
+
+        logger.at(Level.INFO).log("Experience tables loaded: " + (classIds.size() - 1) + " class curve(s), max level " + maxLevel);
+    }
+
+    /**
+     * Builds the cumulative XP thresholds for a class.
+     * thresholds[level] is the total experience needed to reach level + 1.
+     */
+    private int[] buildCurve(Properties properties, String className) {
+        double base = Double.parseDouble(properties.getProperty(CURVE_PREFIX + className + ".base",
+                properties.getProperty(CURVE_PREFIX + DEFAULT_CURVE + ".base", "100")));
+        double exponent = Double.parseDouble(properties.getProperty(CURVE_PREFIX + className + ".exponent",
+                properties.getProperty(CURVE_PREFIX + DEFAULT_CURVE + ".exponent", "1.5")));
+
+        int[] thresholds = new int[maxLevel + 1];
+        long total = 0;
+        for (int level = 1; level < maxLevel; level++) {
+            total += Math.round(base * Math.pow(level, exponent));
+            thresholds[level] = (int) Math.min(Integer.MAX_VALUE, total);
+        }
+        // Nothing beyond the max level
+        thresholds[maxLevel] = Integer.MAX_VALUE;
+        return thresholds;
+    }
+
+    /**
+     * Gets the XP awarded for killing a mob type
+     * @param mobTypeId The interned mob type id
+     * @return The XP reward
+     */
+    public int experienceForMob(int mobTypeId) {
+        if (mobTypeId >= 0 && mobTypeId < mobExperience.length) {
+            int experience = mobExperience[mobTypeId];
+            if (experience >= 0) {
+                return experience;
+            }
+        }
+        return defaultExperience;
+    }
+
+    /**
+     * Gets the curve id of a character class
+     * @param characterClass The class name
+     * @return The curve id (0 for classes without their own curve)
+     */
+    public int classId(String characterClass) {
+        Integer id = characterClass != null ? classIds.get(characterClass) : null;
+        return id != null ? id : 0;
+    }
+
+    /**
+     * Computes the level a character has with the given total experience
+     * @param classId The curve id of the character class
+     * @param currentLevel The character's current level (levels are never lost)
+     * @param experience The total experience
+     * @return The new level
+     */
+    public int levelFor(int classId, int currentLevel, int experience) {
+        int[] thresholds = levelThresholds[classId];
+        int level = Math.max(1, Math.min(currentLevel, maxLevel));
+        while (level < maxLevel && experience >= thresholds[level]) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Gets the maximum level
+     * @return The level cap
+     */
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+}
@@ -0,0 +1,144 @@
+package org.HytaleMMO.Quests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable quest definition parsed from a quest asset file
+ * The index is the quest's bit in every character's completed-quest bitset
+ * and must never change or be reused once a quest has shipped.
+ */
+public final class Quest {
+    /** Maximum number of quest indexes; bounds the completed bitset */
+    public static final int MAX_QUESTS = 4096;
+    /** Maximum number of objectives per quest */
+    public static final int MAX_OBJECTIVES = 8;
+
+    private final String id;
+    private final int index;
+    private final String name;
+    private final int minLevel;
+    private final boolean repeatable;
+    private final List<Objective> objectives;
+    private final int rewardExperience;
+
+    private Quest(String id, int index, String name, int minLevel, boolean repeatable, List<Objective> objectives,
+                  int rewardExperience) {
+        this.id = id;
+        this.index = index;
+        this.name = name;
+        this.minLevel = minLevel;
+        this.repeatable = repeatable;
+        this.objectives = Collections.unmodifiableList(objectives);
+        this.rewardExperience = rewardExperience;
+    }
+
+    /**
+     * Parses a quest from its JSON asset
+     * @param id The quest ID (path below Server/Quests without extension)
+     * @param json The parsed JSON object
+     * @return The quest
+     * @throws IllegalArgumentException if a required field is missing or invalid
+     */
+    public static Quest fromJson(String id, Map<String, Object> json) {
+        int index = number(json.get("Index"), -1);
+        if (index < 0 || index >= MAX_QUESTS) {
+            throw new IllegalArgumentException("Index must be between 0 and " + (MAX_QUESTS - 1));
+        }
+
+        Object objectivesJson = json.get("Objectives");
+        if (!(objectivesJson instanceof List) || ((List<?>) objectivesJson).isEmpty()) {
+            throw new IllegalArgumentException("Missing Objectives");
+        }
+        List<Objective> objectives = new ArrayList<>();
+        for (Object objective : (List<?>) objectivesJson) {
+            if (!(objective instanceof Map)) {
+                throw new IllegalArgumentException("Expected an object in Objectives");
+            }
+            objectives.add(Objective.fromJson((Map<?, ?>) objective));
+        }
+        if (objectives.size() > MAX_OBJECTIVES) {
+            throw new IllegalArgumentException("At most " + MAX_OBJECTIVES + " objectives are supported");
+        }
+
+        Object name = json.get("Name");
+        return new Quest(id, index, name instanceof String ? (String) name : id,
+                number(json.get("MinLevel"), 1), Boolean.TRUE.equals(json.get("Repeatable")),
+                objectives, number(json.get("RewardExperience"), 0));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMinLevel() {
+        return minLevel;
+    }
+
+    public boolean isRepeatable() {
+        return repeatable;
+    }
+
+    public List<Objective> getObjectives() {
+        return objectives;
+    }
+
+    public int getRewardExperience() {
+        return rewardExperience;
+    }
+
+    private static int number(Object value, int defaultValue) {
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * Kill a number of mobs of one type
+     */
+    public static final class Objective {
+        private final String target;
+        private final int count;
+
+        private Objective(String target, int count) {
+            this.target = target;
+            this.count = count;
+        }
+
+        static Objective fromJson(Map<?, ?> json) {
+            Object type = json.get("Type");
+            if (type != null && !"Kill".equals(type)) {
+                throw new IllegalArgumentException("Unsupported objective type: " + type);
+            }
+            Object target = json.get("Target");
+            if (!(target instanceof String)) {
+                throw new IllegalArgumentException("Missing objective Target");
+            }
+            int count = number(json.get("Count"), 1);
+            if (count <= 0) {
+                throw new IllegalArgumentException("Objective Count must be positive");
+            }
+            return new Objective((String) target, count);
+        }
+
+        /**
+         * Gets the mob type to kill
+         * @return The mob type name
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        public int getCount() {
+            return count;
+        }
+    }
+}
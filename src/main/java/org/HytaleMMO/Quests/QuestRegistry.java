@@ -0,0 +1,157 @@
+package org.HytaleMMO.Quests;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Mobs.MobTypeRegistry;
+import org.HytaleMMO.Util.AssetFiles;
+import org.HytaleMMO.Util.JsonReader;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+
+/**
+ * Quest definitions from the assets under Server/Quests.
+ * Besides lookup by ID and by bit index, the registry keeps a reverse index
+ * from interned mob type id to the objectives that count kills of that mob,
+ * so a kill only visits the objectives that care about it.
+ */
+public class QuestRegistry {
+    public static final String QUEST_PATH = "Server/Quests/";
+    private static final int[] NONE = new int[0];
+
+    private final MobTypeRegistry mobTypes;
+    private final HytaleLogger logger;
+    private volatile Quest[] byIndex = new Quest[0];
+    private volatile Map<String, Quest> byId = Collections.emptyMap();
+    private volatile int[][] objectivesByMobType = new int[0][];
+
+    public QuestRegistry(MobTypeRegistry mobTypes, HytaleLogger logger) {
+        this.mobTypes = mobTypes;
+        this.logger = logger;
+    }
+
+    /**
+     * Reads every quest file shipped with the plugin
+     * @return true if the quests were loaded, false otherwise
+     */
+    public synchronized boolean load() {
+        Map<String, String> sources;
+        try {
+            sources = AssetFiles.readJson(QUEST_PATH);
+        } catch (IOException | URISyntaxException e) {
+            logger.at(Level.SEVERE).log("Error reading quest files: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        Quest[] quests = new Quest[0];
+        Map<String, Quest> ids = new HashMap<>();
+        int failed = 0;
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            Quest quest;
+            try {
+                quest = Quest.fromJson(source.getKey(), JsonReader.parseObject(source.getValue()));
+            } catch (RuntimeException e) {
+                failed++;
+                logger.at(Level.WARNING).log("Skipping invalid quest " + source.getKey() + ": " + e.getMessage());
+                continue;
+            }
+            if (quest.getIndex() < quests.length && quests[quest.getIndex()] != null) {
+                failed++;
+                logger.at(Level.WARNING).log("Skipping quest " + quest.getId() + ": index " + quest.getIndex()
+                        + " is already used by " + quests[quest.getIndex()].getId());
+                continue;
+            }
+            if (quest.getIndex() >= quests.length) {
+                quests = Arrays.copyOf(quests, quest.getIndex() + 1);
+            }
+            quests[quest.getIndex()] = quest;
+            ids.put(quest.getId(), quest);
+        }
+
+        // Reverse index: mob type id -> packed (quest index * MAX_OBJECTIVES + objective)
+        Map<Integer, List<Integer>> interested = new HashMap<>();
+        int maxMobType = -1;
+        for (Quest quest : quests) {
+            if (quest == null) {
+                continue;
+            }
+            for (int i = 0; i < quest.getObjectives().size(); i++) {
+                int mobType = mobTypes.idOf(quest.getObjectives().get(i).getTarget());
+                interested.computeIfAbsent(mobType, key -> new ArrayList<>()).add(quest.getIndex() * Quest.MAX_OBJECTIVES + i);
+                maxMobType = Math.max(maxMobType, mobType);
+            }
+        }
+        int[][] reverse = new int[maxMobType + 1][];
+        for (Map.Entry<Integer, List<Integer>> entry : interested.entrySet()) {
+            reverse[entry.getKey()] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        this.byIndex = quests;
+        this.byId = ids;
+        this.objectivesByMobType = reverse;
+        logger.at(Level.INFO).log("Loaded " + ids.size() + " quest(s) tracking " + interested.size() + " mob type(s)"
+                + (failed > 0 ? " (" + failed + " failed)" : ""));
+        return true;
+    }
+
+    /**
+     * Gets the objectives that count kills of a mob type
+     * @param mobTypeId The interned mob type id
+     * @return Packed entries of quest index * Quest.MAX_OBJECTIVES + objective index; empty if none
+     */
+    public int[] getObjectivesFor(int mobTypeId) {
+        int[][] reverse = objectivesByMobType;
+        if (mobTypeId < 0 || mobTypeId >= reverse.length || reverse[mobTypeId] == null) {
+            return NONE;
+        }
+        return reverse[mobTypeId];
+    }
+
+    /**
+     * Gets a quest by ID
+     * @param id The quest ID (path below Server/Quests without extension)
+     * @return The quest, or null if not found
+     */
+    public Quest getQuest(String id) {
+        return byId.get(id);
+    }
+
+    /**
+     * Gets a quest by its bit index
+     * @param index The quest index
+     * @return The quest, or null if no quest uses the index
+     */
+    public Quest getQuest(int index) {
+        Quest[] quests = byIndex;
+        return index >= 0 && index < quests.length ? quests[index] : null;
+    }
+
+    /**
+     * Gets all quests
+     * @return The quests, ordered by index
+     */
+    public List<Quest> getAll() {
+        List<Quest> quests = new ArrayList<>();
+        for (Quest quest : byIndex) {
+            if (quest != null) {
+                quests.add(quest);
+            }
+        }
+        return quests;
+    }
+
+    /**
+     * Gets the number of quests
+     * @return The quest count
+     */
+    public int size() {
+        return byId.size();
+    }
+}
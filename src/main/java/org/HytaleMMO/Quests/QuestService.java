@@ -0,0 +1,339 @@
+package org.HytaleMMO.Quests;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.world.entity.player.Player;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.HytaleMMO.Character.CharacterListener;
+import org.HytaleMMO.Character.CharacterManager;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Database.Tables.CharacterRepository;
+import org.HytaleMMO.Events.KillFeed;
+import org.HytaleMMO.Progression.ExperienceService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Tracks quest progress of loaded characters.
+ * Kills are matched through the registry's reverse index, so a kill of a mob
+ * no quest asks for costs one array lookup. Changed quest states are only
+ * marked dirty by character ID; a timer writes the dirty ones in one batch,
+ * and a character's state is written once more when it is unloaded. Only the
+ * currently loaded copy of a character is ever written, so a write that is
+ * retried after the character was unloaded (its unload save already holds the
+ * state) cannot overwrite newer progress.
+ */
+public class QuestService implements CharacterListener {
+    private final QuestRegistry registry;
+    private final CharacterManager characterManager;
+    private final CharacterRepository repository;
+    private final ExperienceService experienceService;
+    private final KillFeed killFeed;
+    private final HytaleLogger logger;
+    private final Map<Integer, UUID> dirty;
+    private final Set<UUID> unsaved;
+    private final long flushIntervalMs;
+    private Timer flushTimer;
+
+    public enum Result {
+        STARTED,
+        ABANDONED,
+        UNKNOWN_QUEST,
+        LEVEL_TOO_LOW,
+        ALREADY_ACTIVE,
+        ALREADY_COMPLETED,
+        TOO_MANY_ACTIVE,
+        NOT_ACTIVE,
+        UNAVAILABLE
+    }
+
+    /**
+     * Creates a new quest service
+     * @param registry The quest definitions
+     * @param characterManager The character manager holding loaded characters
+     * @param repository The character repository used to write quest states
+     * @param experienceService The experience service used for quest rewards
+     * @param killFeed The kill feed used for level-up messages
+     * @param logger The logger instance
+     * @param flushIntervalSeconds The interval between quest state writes in seconds
+     */
+    public QuestService(QuestRegistry registry, CharacterManager characterManager, CharacterRepository repository,
+                        ExperienceService experienceService, KillFeed killFeed, HytaleLogger logger, int flushIntervalSeconds) {
+        this.registry = registry;
+        this.characterManager = characterManager;
+        this.repository = repository;
+        this.experienceService = experienceService;
+        this.killFeed = killFeed;
+        this.logger = logger;
+        this.dirty = new ConcurrentHashMap<>();
+        this.unsaved = ConcurrentHashMap.newKeySet();
+        this.flushIntervalMs = flushIntervalSeconds * 1000L;
+    }
+
+    /**
+     * Starts the quest state flush timer
+     */
+    public void start() {
+        if (flushTimer != null) {
+            logger.at(Level.WARNING).log("Quest flush timer is already running");
+            return;
+        }
+
+        flushTimer = new Timer("QuestFlush", true);
+        flushTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (Exception e) {
+                    logger.at(Level.SEVERE).log("Error flushing quest states: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }, flushIntervalMs, flushIntervalMs);
+
+        logger.at(Level.INFO).log("Quest service started (flush interval: " + (flushIntervalMs / 1000) + " seconds)");
+    }
+
+    /**
+     * Stops the flush timer and writes any pending quest states
+     */
+    public void stop() {
+        if (flushTimer != null) {
+            flushTimer.cancel();
+            flushTimer = null;
+        }
+        flush();
+    }
+
+    @Override
+    public void onCharacterUnloading(Character character) {
+        // The character leaves memory; write its state now instead of at the next flush
+        if (dirty.remove(character.getId()) != null) {
+            write(Collections.singletonList(character));
+        }
+        unsaved.remove(character.getPlayerId());
+    }
+
+    /**
+     * Counts a kill towards every active objective that targets the mob type
+     * @param player The player who killed the mob
+     * @param playerId The player's UUID
+     * @param mobTypeId The interned mob type id
+     */
+    public void onKill(Player player, UUID playerId, int mobTypeId) {
+        int[] objectives = registry.getObjectivesFor(mobTypeId);
+        if (objectives.length == 0) {
+            return;
+        }
+        Character character = characterManager.getCharacter(playerId);
+        QuestState state = character != null ? character.getQuestState() : null;
+        if (state == null) {
+            return;
+        }
+
+        for (int packed : objectives) {
+            Quest quest = registry.getQuest(packed / Quest.MAX_OBJECTIVES);
+            if (quest == null) {
+                continue;
+            }
+            Quest.Objective objective = quest.getObjectives().get(packed % Quest.MAX_OBJECTIVES);
+            int progress = state.increment(quest.getIndex(), packed % Quest.MAX_OBJECTIVES, objective.getCount());
+            if (progress < 0) {
+                continue;
+            }
+            markDirty(character);
+
+            if (progress == objective.getCount() && state.isReadyToComplete(quest)) {
+                complete(player, character, state, quest);
+            } else if (player != null) {
+                player.sendMessage(Component.text(quest.getName() + ": ", NamedTextColor.AQUA)
+                        .append(Component.text(objective.getTarget() + " " + progress + "/" + objective.getCount(), NamedTextColor.WHITE)));
+            }
+        }
+    }
+
+    private void complete(Player player, Character character, QuestState state, Quest quest) {
+        if (!state.complete(quest.getIndex(), !quest.isRepeatable())) {
+            return;
+        }
+        if (player != null) {
+            player.sendMessage(Component.text("Quest completed: ", NamedTextColor.GOLD)
+                    .append(Component.text(quest.getName(), NamedTextColor.YELLOW)));
+        }
+        if (quest.getRewardExperience() > 0 && experienceService != null) {
+            int newLevel = experienceService.awardExperience(character.getPlayerId(), quest.getRewardExperience());
+            if (newLevel > 0 && player != null) {
+                killFeed.sendLevelUp(player, newLevel);
+            }
+        }
+    }
+
+    /**
+     * Starts a quest for a character
+     * @param character The character
+     * @param questId The quest ID
+     * @return The result of the action
+     */
+    public Result accept(Character character, String questId) {
+        Quest quest = registry.getQuest(questId);
+        if (quest == null) {
+            return Result.UNKNOWN_QUEST;
+        }
+        QuestState state = character.getQuestState();
+        if (state == null) {
+            return Result.UNAVAILABLE;
+        }
+        if (character.getLevel() < quest.getMinLevel()) {
+            return Result.LEVEL_TOO_LOW;
+        }
+        if (state.activeSlot(quest.getIndex()) >= 0) {
+            return Result.ALREADY_ACTIVE;
+        }
+        if (state.isCompleted(quest.getIndex())) {
+            return Result.ALREADY_COMPLETED;
+        }
+        if (!state.start(quest.getIndex())) {
+            return Result.TOO_MANY_ACTIVE;
+        }
+        markDirty(character);
+        return Result.STARTED;
+    }
+
+    /**
+     * Drops a quest in progress and its progress
+     * @param character The character
+     * @param questId The quest ID
+     * @return The result of the action
+     */
+    public Result abandon(Character character, String questId) {
+        Quest quest = registry.getQuest(questId);
+        if (quest == null) {
+            return Result.UNKNOWN_QUEST;
+        }
+        QuestState state = character.getQuestState();
+        if (state == null) {
+            return Result.UNAVAILABLE;
+        }
+        if (!state.abandon(quest.getIndex())) {
+            return Result.NOT_ACTIVE;
+        }
+        markDirty(character);
+        return Result.ABANDONED;
+    }
+
+    /**
+     * Gets the quests a character could accept now
+     * @param character The character
+     * @return The available quests
+     */
+    public List<Quest> getAvailable(Character character) {
+        List<Quest> available = new ArrayList<>();
+        QuestState state = character.getQuestState();
+        if (state == null) {
+            return available;
+        }
+        for (Quest quest : registry.getAll()) {
+            if (character.getLevel() >= quest.getMinLevel() && !state.isCompleted(quest.getIndex())
+                    && state.activeSlot(quest.getIndex()) < 0) {
+                available.add(quest);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Writes the state of every character changed since the last flush in one batch
+     * @return The number of quest states written
+     */
+    public int flush() {
+        if (dirty.isEmpty() && unsaved.isEmpty()) {
+            return 0;
+        }
+        List<Character> characters = new ArrayList<>(dirty.size() + unsaved.size());
+        for (UUID playerId : unsaved) {
+            Character character = characterManager.getCharacter(playerId);
+            if (unsaved.remove(playerId) && character != null) {
+                characters.add(character);
+            }
+        }
+        for (Map.Entry<Integer, UUID> entry : dirty.entrySet()) {
+            Character character = characterManager.getCharacter(entry.getValue());
+            if (dirty.remove(entry.getKey(), entry.getValue()) && character != null && character.getId() == entry.getKey()) {
+                characters.add(character);
+            }
+        }
+        return write(characters);
+    }
+
+    private void markDirty(Character character) {
+        if (character.getId() > 0) {
+            dirty.put(character.getId(), character.getPlayerId());
+        } else {
+            unsaved.add(character.getPlayerId());
+        }
+    }
+
+    private synchronized int write(List<Character> characters) {
+        Map<Integer, byte[]> states = new HashMap<>();
+        List<Character> written = new ArrayList<>(characters.size());
+        for (Character character : characters) {
+            QuestState state = character.getQuestState();
+            if (state == null) {
+                continue;
+            }
+            // Unloaded since it was marked; its unload save holds the state and it may be loaded again with newer progress
+            if (characterManager.getCharacter(character.getPlayerId()) != character) {
+                continue;
+            }
+            // Not saved yet; keep it pending until the character has a row
+            if (character.getId() <= 0) {
+                markDirty(character);
+                continue;
+            }
+            states.put(character.getId(), state.takeSnapshot());
+            written.add(character);
+        }
+        if (states.isEmpty()) {
+            return 0;
+        }
+
+        // Quest states spooled during an outage are older than these and must be written first
+        int updated = characterManager.getSaveScheduler().replaySpool() ? repository.updateQuestStates(states) : -1;
+        if (updated < 0) {
+            for (Character character : written) {
+                character.getQuestState().markDirty();
+                markDirty(character);
+            }
+            logger.at(Level.WARNING).log("Quest state flush failed, changes will be retried");
+            return 0;
+        }
+        return updated;
+    }
+
+    /**
+     * Gets the quest registry
+     * @return The quest registry
+     */
+    public QuestRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Gets the number of characters with unsaved quest progress
+     * @return The pending count
+     */
+    public int getPendingCount() {
+        return dirty.size() + unsaved.size();
+    }
+}
@@ -0,0 +1,317 @@
+package org.HytaleMMO.Quests;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Quest progress of one character.
+ * Completed quests are one bit per quest index in a long[] bitset; active
+ * quests and their objective counters are primitive int arrays, with the
+ * counters of active slot s at [s * Quest.MAX_OBJECTIVES, (s + 1) * Quest.MAX_OBJECTIVES).
+ * The state is persisted as a small binary blob (see encode/decode) and
+ * carries its own dirty flag so only changed characters are written.
+ */
+public final class QuestState {
+    /** Maximum number of quests a character can have in progress at once */
+    public static final int MAX_ACTIVE = 20;
+    private static final int VERSION = 1;
+
+    private long[] completed;
+    private final int[] activeQuests;
+    private final int[] counters;
+    private int activeCount;
+    private boolean dirty;
+
+    public QuestState() {
+        this.completed = new long[0];
+        this.activeQuests = new int[MAX_ACTIVE];
+        this.counters = new int[MAX_ACTIVE * Quest.MAX_OBJECTIVES];
+    }
+
+    /**
+     * Checks whether a quest was completed
+     * @param questIndex The quest index
+     * @return true if the quest's bit is set
+     */
+    public synchronized boolean isCompleted(int questIndex) {
+        int word = questIndex >>> 6;
+        return word < completed.length && (completed[word] & (1L << questIndex)) != 0;
+    }
+
+    /**
+     * Gets the active slot of a quest
+     * @param questIndex The quest index
+     * @return The slot, or -1 if the quest is not in progress
+     */
+    public synchronized int activeSlot(int questIndex) {
+        for (int i = 0; i < activeCount; i++) {
+            if (activeQuests[i] == questIndex) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Starts a quest with all counters at zero
+     * @param questIndex The quest index
+     * @return true if the quest was started, false if it is already active or the active list is full
+     */
+    public synchronized boolean start(int questIndex) {
+        if (activeCount >= MAX_ACTIVE || activeSlot(questIndex) >= 0) {
+            return false;
+        }
+        activeQuests[activeCount] = questIndex;
+        Arrays.fill(counters, activeCount * Quest.MAX_OBJECTIVES, (activeCount + 1) * Quest.MAX_OBJECTIVES, 0);
+        activeCount++;
+        dirty = true;
+        return true;
+    }
+
+    /**
+     * Drops an active quest and its progress
+     * @param questIndex The quest index
+     * @return true if the quest was active
+     */
+    public synchronized boolean abandon(int questIndex) {
+        int slot = activeSlot(questIndex);
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    /**
+     * Adds one to an objective counter of an active quest, up to the objective's count
+     * @param questIndex The quest index
+     * @param objective The objective index
+     * @param max The objective's required count
+     * @return The new counter value, or -1 if the quest is not active or the objective was already done
+     */
+    public synchronized int increment(int questIndex, int objective, int max) {
+        int slot = activeSlot(questIndex);
+        if (slot < 0) {
+            return -1;
+        }
+        int offset = slot * Quest.MAX_OBJECTIVES + objective;
+        if (counters[offset] >= max) {
+            return -1;
+        }
+        dirty = true;
+        return ++counters[offset];
+    }
+
+    /**
+     * Checks whether every objective of an active quest reached its count
+     * @param quest The quest
+     * @return true if the quest is active and all objectives are done
+     */
+    public synchronized boolean isReadyToComplete(Quest quest) {
+        int slot = activeSlot(quest.getIndex());
+        if (slot < 0) {
+            return false;
+        }
+        for (int i = 0; i < quest.getObjectives().size(); i++) {
+            if (counters[slot * Quest.MAX_OBJECTIVES + i] < quest.getObjectives().get(i).getCount()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes a quest from the active list and optionally sets its completed bit
+     * @param questIndex The quest index
+     * @param record Whether to set the completed bit (false for repeatable quests)
+     * @return true if the quest was active
+     */
+    public synchronized boolean complete(int questIndex, boolean record) {
+        int slot = activeSlot(questIndex);
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        if (record) {
+            int word = questIndex >>> 6;
+            if (word >= completed.length) {
+                completed = Arrays.copyOf(completed, word + 1);
+            }
+            completed[word] |= 1L << questIndex;
+        }
+        return true;
+    }
+
+    /**
+     * Gets the counter of an objective
+     * @param questIndex The quest index
+     * @param objective The objective index
+     * @return The counter, or 0 if the quest is not active
+     */
+    public synchronized int getProgress(int questIndex, int objective) {
+        int slot = activeSlot(questIndex);
+        return slot < 0 ? 0 : counters[slot * Quest.MAX_OBJECTIVES + objective];
+    }
+
+    /**
+     * Gets the indexes of the quests in progress
+     * @return A copy of the active quest indexes
+     */
+    public synchronized int[] getActiveQuests() {
+        return Arrays.copyOf(activeQuests, activeCount);
+    }
+
+    /**
+     * Gets the number of completed quests
+     * @return The number of set bits
+     */
+    public synchronized int getCompletedCount() {
+        int count = 0;
+        for (long word : completed) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public synchronized boolean isDirty() {
+        return dirty;
+    }
+
+    public synchronized void markDirty() {
+        this.dirty = true;
+    }
+
+    /**
+     * Encodes the state and clears the dirty flag in one step,
+     * so changes made after the snapshot mark the state dirty again
+     * @return The encoded state
+     */
+    public synchronized byte[] takeSnapshot() {
+        dirty = false;
+        return encode();
+    }
+
+    /**
+     * Encodes the state: a version byte, the number of completed words
+     * (trailing zero words dropped) and the words, then the active quests,
+     * each as its index followed by its objective counters. Counts and
+     * values are unsigned varints, so typical states fit in a few dozen bytes.
+     * @return The encoded state
+     */
+    public synchronized byte[] encode() {
+        int words = completed.length;
+        while (words > 0 && completed[words - 1] == 0) {
+            words--;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + words * 8 + activeCount * 4);
+        out.write(VERSION);
+        writeVarint(out, words);
+        for (int i = 0; i < words; i++) {
+            long word = completed[i];
+            for (int shift = 0; shift < 64; shift += 8) {
+                out.write((int) (word >>> shift));
+            }
+        }
+        writeVarint(out, activeCount);
+        for (int slot = 0; slot < activeCount; slot++) {
+            writeVarint(out, activeQuests[slot]);
+            int objectives = Quest.MAX_OBJECTIVES;
+            while (objectives > 0 && counters[slot * Quest.MAX_OBJECTIVES + objectives - 1] == 0) {
+                objectives--;
+            }
+            writeVarint(out, objectives);
+            for (int i = 0; i < objectives; i++) {
+                writeVarint(out, counters[slot * Quest.MAX_OBJECTIVES + i]);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a state written by encode()
+     * @param data The encoded state, or null for a character without quest data
+     * @return The decoded state (not dirty)
+     * @throws IllegalArgumentException if the data is malformed
+     */
+    public static QuestState decode(byte[] data) {
+        QuestState state = new QuestState();
+        if (data == null || data.length == 0) {
+            return state;
+        }
+
+        int[] position = {0};
+        if (data[position[0]++] != VERSION) {
+            throw new IllegalArgumentException("Unsupported quest state version " + data[0]);
+        }
+        int words = readVarint(data, position);
+        if (words > (Quest.MAX_QUESTS + 63) / 64 || position[0] + words * 8 > data.length) {
+            throw new IllegalArgumentException("Invalid completed quest length " + words);
+        }
+        state.completed = new long[words];
+        for (int i = 0; i < words; i++) {
+            long word = 0;
+            for (int shift = 0; shift < 64; shift += 8) {
+                word |= (data[position[0]++] & 0xFFL) << shift;
+            }
+            state.completed[i] = word;
+        }
+        int active = readVarint(data, position);
+        if (active > MAX_ACTIVE) {
+            throw new IllegalArgumentException("Too many active quests: " + active);
+        }
+        for (int slot = 0; slot < active; slot++) {
+            int questIndex = readVarint(data, position);
+            int objectives = readVarint(data, position);
+            if (questIndex >= Quest.MAX_QUESTS || objectives > Quest.MAX_OBJECTIVES) {
+                throw new IllegalArgumentException("Invalid active quest entry " + questIndex);
+            }
+            state.activeQuests[slot] = questIndex;
+            for (int i = 0; i < objectives; i++) {
+                state.counters[slot * Quest.MAX_OBJECTIVES + i] = readVarint(data, position);
+            }
+        }
+        state.activeCount = active;
+        if (position[0] != data.length) {
+            throw new IllegalArgumentException("Trailing bytes in quest state");
+        }
+        return state;
+    }
+
+    private void removeSlot(int slot) {
+        // Move the last slot into the gap; the order of active quests does not matter
+        int last = activeCount - 1;
+        if (slot != last) {
+            activeQuests[slot] = activeQuests[last];
+            System.arraycopy(counters, last * Quest.MAX_OBJECTIVES, counters, slot * Quest.MAX_OBJECTIVES, Quest.MAX_OBJECTIVES);
+        }
+        activeCount = last;
+        dirty = true;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(byte[] data, int[] position) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (position[0] >= data.length) {
+                throw new IllegalArgumentException("Truncated quest state");
+            }
+            byte b = data[position[0]++];
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) {
+                    throw new IllegalArgumentException("Negative value in quest state");
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in quest state");
+    }
+}
@@ -0,0 +1,199 @@
+package org.HytaleMMO.Recipes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable crafting recipe parsed from a Server/Item/Recipes asset
+ */
+public final class Recipe {
+    private final String id;
+    private final List<Ingredient> inputs;
+    private final Ingredient primaryOutput;
+    private final List<BenchRequirement> benchRequirements;
+    private final double seconds;
+
+    public Recipe(String id, List<Ingredient> inputs, Ingredient primaryOutput, List<BenchRequirement> benchRequirements, double seconds) {
+        this.id = id;
+        this.inputs = Collections.unmodifiableList(new ArrayList<>(inputs));
+        this.primaryOutput = primaryOutput;
+        this.benchRequirements = Collections.unmodifiableList(new ArrayList<>(benchRequirements));
+        this.seconds = seconds;
+    }
+
+    /**
+     * Creates a recipe from its parsed JSON
+     * @param id The recipe ID (path below Server/Item/Recipes without extension)
+     * @param json The root object of the recipe file
+     * @return The recipe
+     * @throws IllegalArgumentException if a required field is missing or invalid
+     */
+    public static Recipe fromJson(String id, Map<String, Object> json) {
+        List<Ingredient> inputs = new ArrayList<>();
+        for (Object input : list(json.get("Input"))) {
+            inputs.add(Ingredient.fromJson(object(input, "Input")));
+        }
+
+        Object output = json.get("PrimaryOutput");
+        if (output == null) {
+            throw new IllegalArgumentException("Missing PrimaryOutput");
+        }
+
+        List<BenchRequirement> benches = new ArrayList<>();
+        for (Object bench : list(json.get("BenchRequirement"))) {
+            benches.add(BenchRequirement.fromJson(object(bench, "BenchRequirement")));
+        }
+
+        Object seconds = json.get("Seconds");
+        return new Recipe(id, inputs, Ingredient.fromJson(object(output, "PrimaryOutput")), benches,
+                seconds instanceof Number ? ((Number) seconds).doubleValue() : 0.0);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public List<Ingredient> getInputs() {
+        return inputs;
+    }
+
+    public Ingredient getPrimaryOutput() {
+        return primaryOutput;
+    }
+
+    public List<BenchRequirement> getBenchRequirements() {
+        return benchRequirements;
+    }
+
+    /**
+     * Gets the crafting time
+     * @return The time in seconds
+     */
+    public double getSeconds() {
+        return seconds;
+    }
+
+    /**
+     * Checks if the recipe can be crafted at a bench
+     * @param benchId The bench ID, or null for hand crafting
+     * @return true if the recipe has no bench requirement or requires this bench
+     */
+    public boolean isCraftableAt(String benchId) {
+        if (benchRequirements.isEmpty()) {
+            return true;
+        }
+        for (BenchRequirement bench : benchRequirements) {
+            if (bench.getId().equals(benchId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return id + " -> " + primaryOutput;
+    }
+
+    private static List<?> list(Object value) {
+        if (value == null) {
+            return Collections.emptyList();
+        }
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("Expected an array but found " + value);
+        }
+        return (List<?>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> object(Object value, String field) {
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected an object in " + field);
+        }
+        return (Map<String, Object>) value;
+    }
+
+    /**
+     * An item ID and quantity used as recipe input or output
+     */
+    public static final class Ingredient {
+        private final String itemId;
+        private final int quantity;
+
+        public Ingredient(String itemId, int quantity) {
+            this.itemId = itemId;
+            this.quantity = quantity;
+        }
+
+        static Ingredient fromJson(Map<String, Object> json) {
+            Object itemId = json.get("ItemId");
+            if (!(itemId instanceof String) || ((String) itemId).isEmpty()) {
+                throw new IllegalArgumentException("Missing ItemId");
+            }
+            Object quantity = json.get("Quantity");
+            int amount = quantity instanceof Number ? ((Number) quantity).intValue() : 1;
+            if (amount < 1) {
+                throw new IllegalArgumentException("Invalid Quantity for " + itemId + ": " + amount);
+            }
+            return new Ingredient(((String) itemId).intern(), amount);
+        }
+
+        public String getItemId() {
+            return itemId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public String toString() {
+            return itemId + " x" + quantity;
+        }
+    }
+
+    /**
+     * A bench the recipe can be crafted at
+     */
+    public static final class BenchRequirement {
+        private final String id;
+        private final String type;
+        private final List<String> categories;
+
+        public BenchRequirement(String id, String type, List<String> categories) {
+            this.id = id;
+            this.type = type;
+            this.categories = Collections.unmodifiableList(new ArrayList<>(categories));
+        }
+
+        static BenchRequirement fromJson(Map<String, Object> json) {
+            Object id = json.get("Id");
+            if (!(id instanceof String) || ((String) id).isEmpty()) {
+                throw new IllegalArgumentException("Missing bench Id");
+            }
+            Object type = json.get("Type");
+            List<String> categories = new ArrayList<>();
+            for (Object category : list(json.get("Categories"))) {
+                categories.add(String.valueOf(category).intern());
+            }
+            return new BenchRequirement(((String) id).intern(), type instanceof String ? (String) type : null, categories);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return The bench type (e.g. "Crafting"), or null if not specified
+         */
+        public String getType() {
+            return type;
+        }
+
+        public List<String> getCategories() {
+            return categories;
+        }
+    }
+}
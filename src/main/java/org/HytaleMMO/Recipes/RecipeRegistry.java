@@ -0,0 +1,316 @@
+package org.HytaleMMO.Recipes;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Inventory.CharacterInventory;
+import org.HytaleMMO.Util.AssetFiles;
+import org.HytaleMMO.Util.JsonReader;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory view of the recipe assets under Server/Item/Recipes.
+ * All recipe files are parsed in parallel into immutable recipes and indexed
+ * by input item, output item, bench and bench category. Queries read the
+ * current index without locking; reload() builds a complete new index and
+ * swaps it in at once, so readers see either the old or the new recipes,
+ * never a mix.
+ */
+public class RecipeRegistry {
+    public static final String RECIPE_PATH = "Server/Item/Recipes/";
+
+    private final HytaleLogger logger;
+    private volatile RecipeIndex index = RecipeIndex.EMPTY;
+
+    public RecipeRegistry(HytaleLogger logger) {
+        this.logger = logger;
+    }
+
+    /**
+     * Reads every recipe file shipped with the plugin and replaces the current index
+     * On failure the current index is kept
+     * @return true if the recipes were reloaded, false otherwise
+     */
+    public synchronized boolean reload() {
+        Map<String, String> sources;
+        try {
+            sources = AssetFiles.readJson(RECIPE_PATH);
+        } catch (IOException | URISyntaxException e) {
+            logger.at(Level.SEVERE).log("Error reading recipe files: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+        load(sources);
+        return true;
+    }
+
+    /**
+     * Parses recipe sources and replaces the current index
+     * Invalid recipes are skipped
+     * @param sources The recipe JSON by recipe ID
+     * @return The number of recipes loaded
+     */
+    public synchronized int load(Map<String, String> sources) {
+        long start = System.nanoTime();
+        AtomicInteger failed = new AtomicInteger();
+        List<Recipe> recipes = sources.entrySet().parallelStream()
+                .map(source -> parse(source, failed))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+
+        RecipeIndex next = new RecipeIndex(recipes, index.version + 1);
+        index = next;
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        logger.at(Level.INFO).log("Loaded " + next.byId.size() + " recipe(s) from " + sources.size() +
+                " file(s) in " + elapsedMs + " ms" + (failed.get() > 0 ? " (" + failed.get() + " failed)" : ""));
+        return next.byId.size();
+    }
+
+    private Recipe parse(Map.Entry<String, String> source, AtomicInteger failed) {
+        try {
+            return Recipe.fromJson(source.getKey(), JsonReader.parseObject(source.getValue()));
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            logger.at(Level.WARNING).log("Skipping invalid recipe " + source.getKey() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Gets a recipe by ID
+     * @param id The recipe ID (path below Server/Item/Recipes without extension)
+     * @return The recipe, or null if not found
+     */
+    public Recipe getRecipe(String id) {
+        return index.byId.get(id);
+    }
+
+    /**
+     * Gets the recipes that use an item as input
+     * @param itemId The item ID
+     * @return The recipes (immutable)
+     */
+    public List<Recipe> getRecipesUsing(String itemId) {
+        return index.byInput.getOrDefault(itemId, Collections.emptyList());
+    }
+
+    /**
+     * Gets the recipes that produce an item
+     * @param itemId The item ID
+     * @return The recipes (immutable)
+     */
+    public List<Recipe> getRecipesFor(String itemId) {
+        return index.byOutput.getOrDefault(itemId, Collections.emptyList());
+    }
+
+    /**
+     * Gets the recipes that can be crafted at a bench
+     * @param benchId The bench ID, or null for recipes without bench requirement
+     * @return The recipes (immutable)
+     */
+    public List<Recipe> getRecipesAt(String benchId) {
+        RecipeIndex current = index;
+        return benchId == null ? current.handCrafted : current.byBench.getOrDefault(benchId, Collections.emptyList());
+    }
+
+    /**
+     * Gets the recipes listed under a category of a bench
+     * @param benchId The bench ID
+     * @param category The category (e.g. "Tools")
+     * @return The recipes (immutable)
+     */
+    public List<Recipe> getRecipesAt(String benchId, String category) {
+        return index.byBenchCategory.getOrDefault(benchId + '/' + category, Collections.emptyList());
+    }
+
+    /**
+     * Finds the recipes a player can craft at a bench with the items in their inventory
+     * @param benchId The bench ID, or null for hand crafting
+     * @param inventory The player's inventory
+     * @return The craftable recipes
+     */
+    public List<Recipe> findCraftable(String benchId, CharacterInventory inventory) {
+        return findCraftable(benchId, inventory.getItemCounts());
+    }
+
+    /**
+     * Finds the recipes that can be crafted at a bench with the given items
+     * Only recipes reachable through the smaller of the bench index and the
+     * input index of the available items are checked
+     * @param benchId The bench ID, or null for hand crafting
+     * @param items Available quantity per item ID
+     * @return The craftable recipes
+     */
+    public List<Recipe> findCraftable(String benchId, Map<String, Integer> items) {
+        RecipeIndex current = index;
+        List<Recipe> atBench = benchId == null ? current.handCrafted : current.byBench.getOrDefault(benchId, Collections.emptyList());
+        List<Recipe> craftable = new ArrayList<>();
+        if (atBench.isEmpty()) {
+            return craftable;
+        }
+
+        int viaInputs = 0;
+        for (String itemId : items.keySet()) {
+            viaInputs += current.byInput.getOrDefault(itemId, Collections.emptyList()).size();
+        }
+
+        if (atBench.size() <= viaInputs) {
+            for (Recipe recipe : atBench) {
+                if (hasInputs(recipe, items)) {
+                    craftable.add(recipe);
+                }
+            }
+            return craftable;
+        }
+
+        Set<Recipe> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String itemId : items.keySet()) {
+            for (Recipe recipe : current.byInput.getOrDefault(itemId, Collections.emptyList())) {
+                if (seen.add(recipe) && recipe.isCraftableAt(benchId) && hasInputs(recipe, items)) {
+                    craftable.add(recipe);
+                }
+            }
+        }
+        for (Recipe recipe : current.withoutInputs) {
+            if (recipe.isCraftableAt(benchId)) {
+                craftable.add(recipe);
+            }
+        }
+        return craftable;
+    }
+
+    private static boolean hasInputs(Recipe recipe, Map<String, Integer> items) {
+        for (Recipe.Ingredient input : recipe.getInputs()) {
+            Integer available = items.get(input.getItemId());
+            if (available == null || available < input.getQuantity()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets every loaded recipe
+     * @return The recipes (immutable)
+     */
+    public List<Recipe> getAll() {
+        return index.all;
+    }
+
+    /**
+     * Gets the number of loaded recipes
+     * @return The recipe count
+     */
+    public int size() {
+        return index.byId.size();
+    }
+
+    /**
+     * Gets the version of the current index, incremented on every reload
+     * @return The version
+     */
+    public long getVersion() {
+        return index.version;
+    }
+
+    /**
+     * Immutable set of recipes with all lookup indexes
+     */
+    private static final class RecipeIndex {
+        private static final RecipeIndex EMPTY = new RecipeIndex(Collections.emptyList(), 0);
+
+        private final long version;
+        private final List<Recipe> all;
+        private final Map<String, Recipe> byId;
+        private final Map<String, List<Recipe>> byInput;
+        private final Map<String, List<Recipe>> byOutput;
+        private final Map<String, List<Recipe>> byBench;
+        private final Map<String, List<Recipe>> byBenchCategory;
+        private final List<Recipe> handCrafted;
+        private final List<Recipe> withoutInputs;
+
+        private RecipeIndex(List<Recipe> recipes, long version) {
+            this.version = version;
+            Map<String, Recipe> ids = new HashMap<>();
+            Map<String, List<Recipe>> inputs = new HashMap<>();
+            Map<String, List<Recipe>> outputs = new HashMap<>();
+            Map<String, List<Recipe>> benches = new HashMap<>();
+            Map<String, List<Recipe>> categories = new HashMap<>();
+            List<Recipe> hand = new ArrayList<>();
+            List<Recipe> free = new ArrayList<>();
+
+            for (Recipe recipe : recipes) {
+                ids.put(recipe.getId(), recipe);
+            }
+            // Index only the recipe that won its ID, so indexes and byId agree
+            for (Recipe recipe : ids.values()) {
+                for (Recipe.Ingredient input : distinctInputs(recipe)) {
+                    inputs.computeIfAbsent(input.getItemId(), k -> new ArrayList<>()).add(recipe);
+                }
+                if (recipe.getInputs().isEmpty()) {
+                    free.add(recipe);
+                }
+                outputs.computeIfAbsent(recipe.getPrimaryOutput().getItemId(), k -> new ArrayList<>()).add(recipe);
+
+                if (recipe.getBenchRequirements().isEmpty()) {
+                    hand.add(recipe);
+                }
+                for (Recipe.BenchRequirement bench : recipe.getBenchRequirements()) {
+                    List<Recipe> atBench = benches.computeIfAbsent(bench.getId(), k -> new ArrayList<>());
+                    if (atBench.isEmpty() || atBench.get(atBench.size() - 1) != recipe) {
+                        atBench.add(recipe);
+                    }
+                    for (String category : bench.getCategories()) {
+                        categories.computeIfAbsent(bench.getId() + '/' + category, k -> new ArrayList<>()).add(recipe);
+                    }
+                }
+            }
+
+            this.all = Collections.unmodifiableList(new ArrayList<>(ids.values()));
+            this.byId = Collections.unmodifiableMap(ids);
+            this.byInput = freeze(inputs);
+            this.byOutput = freeze(outputs);
+            this.byBench = freeze(benches);
+            this.byBenchCategory = freeze(categories);
+            this.handCrafted = Collections.unmodifiableList(hand);
+            this.withoutInputs = Collections.unmodifiableList(free);
+        }
+
+        private static List<Recipe.Ingredient> distinctInputs(Recipe recipe) {
+            List<Recipe.Ingredient> distinct = new ArrayList<>(recipe.getInputs().size());
+            for (Recipe.Ingredient input : recipe.getInputs()) {
+                boolean duplicate = false;
+                for (Recipe.Ingredient seen : distinct) {
+                    if (seen.getItemId().equals(input.getItemId())) {
+                        duplicate = true;
+                        break;
+                    }
+                }
+                if (!duplicate) {
+                    distinct.add(input);
+                }
+            }
+            return distinct;
+        }
+
+        private static Map<String, List<Recipe>> freeze(Map<String, List<Recipe>> index) {
+            Map<String, List<Recipe>> frozen = new HashMap<>(index.size() * 2);
+            for (Map.Entry<String, List<Recipe>> entry : index.entrySet()) {
+                frozen.put(entry.getKey(), Collections.unmodifiableList(entry.getValue()));
+            }
+            return Collections.unmodifiableMap(frozen);
+        }
+    }
+}
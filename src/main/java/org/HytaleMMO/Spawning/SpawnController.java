@@ -0,0 +1,595 @@
+package org.HytaleMMO.Spawning;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.api.entity.Entity;
+import com.hypixel.hytale.server.api.entity.EntityType;
+import com.hypixel.hytale.server.api.world.Location;
+import com.hypixel.hytale.server.api.world.World;
+import com.hypixel.hytale.world.entity.player.Player;
+import org.HytaleMMO.Character.CharacterListener;
+import org.HytaleMMO.Database.Tables.Character;
+import org.HytaleMMO.Listeners.OnlinePlayers;
+import org.HytaleMMO.Listeners.ServerTickScheduler;
+import org.HytaleMMO.Util.AssetFiles;
+import org.HytaleMMO.Util.JsonReader;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Keeps the chunks around online players populated with the mobs of the
+ * spawn zones under Server/Spawning.
+ * Each tracked chunk counts the mobs spawned in it per category; spawns add
+ * to the count and deaths reported by the MobDeathListener subtract from it,
+ * so the population is never recounted by scanning the world. Each tick
+ * visits a fixed number of chunks around players (round-robin across all
+ * players) and spawns at most a fixed number of mobs, so the work per tick
+ * does not grow with the size of the world or the number of players. Chunks
+ * that have been away from every player for a while despawn their mobs and
+ * are forgotten.
+ *
+ * The tick runs on the server thread, since it spawns and removes entities.
+ * Player positions and deaths may be reported from any thread; they are
+ * handed to the tick, which owns all chunk state.
+ */
+public class SpawnController implements CharacterListener {
+    public static final String SPAWN_PATH = "Server/Spawning/";
+
+    private final OnlinePlayers onlinePlayers;
+    private final HytaleLogger logger;
+    private final int chunkSize;
+    private final int radius;
+    private final int chunksPerTick;
+    private final int spawnsPerTick;
+    private final int tickInterval;
+    private final long idleMs;
+    private final Random random;
+
+    // Shared with the character and death callbacks
+    private final Map<UUID, Anchor> anchors;
+    private final Queue<UUID> deaths;
+    private volatile List<SpawnZone> zones;
+    private volatile boolean anchorsChanged;
+
+    // Owned by the tick
+    private final Map<String, Map<Long, SpawnChunk>> chunks;
+    private final List<SpawnChunk> tracked;
+    private final Map<UUID, SpawnedMob> mobs;
+    private final Set<String> unknownTypes;
+    private Anchor[] active;
+    private Map<String, Set<Long>> occupied;
+    private int anchorCursor;
+    private int offsetCursor;
+    private int sweepCursor;
+
+    private final AtomicLong spawned;
+    private final AtomicLong died;
+    private final AtomicLong despawned;
+    private final AtomicLong ticks;
+    private final AtomicLong tickNanos;
+    private ServerTickScheduler.RepeatingTask tickTask;
+
+    /**
+     * Creates a new spawn controller
+     * @param onlinePlayers The online player registry, used to find the world around each player
+     * @param logger The logger instance
+     * @param chunkSize The edge length of a chunk in blocks
+     * @param radius How many chunks around a player are kept populated
+     * @param chunksPerTick The maximum number of chunks refilled and checked for despawn per tick
+     * @param spawnsPerTick The maximum number of mobs spawned per tick
+     * @param tickInterval The number of server ticks between spawn ticks
+     * @param idleMs How long a chunk may be away from every player before its mobs despawn
+     */
+    public SpawnController(OnlinePlayers onlinePlayers, HytaleLogger logger, int chunkSize, int radius,
+                           int chunksPerTick, int spawnsPerTick, int tickInterval, long idleMs) {
+        this.onlinePlayers = onlinePlayers;
+        this.logger = logger;
+        this.chunkSize = chunkSize;
+        this.radius = radius;
+        this.chunksPerTick = chunksPerTick;
+        this.spawnsPerTick = spawnsPerTick;
+        this.tickInterval = tickInterval;
+        this.idleMs = idleMs;
+        this.random = new Random();
+        this.anchors = new ConcurrentHashMap<>();
+        this.deaths = new ConcurrentLinkedQueue<>();
+        this.zones = Collections.emptyList();
+        this.chunks = new HashMap<>();
+        this.tracked = new ArrayList<>();
+        this.mobs = new HashMap<>();
+        this.unknownTypes = new HashSet<>();
+        this.active = new Anchor[0];
+        this.occupied = Collections.emptyMap();
+        this.spawned = new AtomicLong();
+        this.died = new AtomicLong();
+        this.despawned = new AtomicLong();
+        this.ticks = new AtomicLong();
+        this.tickNanos = new AtomicLong();
+    }
+
+    /**
+     * Reads every spawn zone shipped with the plugin and replaces the current zones
+     * Tracked chunks pick up the new zones the next time they are refilled.
+     * On failure the current zones are kept
+     * @return true if the zones were reloaded, false otherwise
+     */
+    public synchronized boolean reload() {
+        Map<String, String> sources;
+        try {
+            sources = AssetFiles.readJson(SPAWN_PATH);
+        } catch (IOException | URISyntaxException e) {
+            logger.at(Level.SEVERE).log("Error reading spawn zones: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+
+        List<SpawnZone> loaded = new ArrayList<>();
+        int failed = 0;
+        for (Map.Entry<String, String> source : sources.entrySet()) {
+            try {
+                loaded.add(SpawnZone.fromJson(source.getKey(), JsonReader.parseObject(source.getValue())));
+            } catch (RuntimeException e) {
+                failed++;
+                logger.at(Level.WARNING).log("Skipping invalid spawn zone " + source.getKey() + ": " + e.getMessage());
+            }
+        }
+        // Highest priority first, so the first matching zone wins where zones overlap
+        loaded.sort((a, b) -> a.getPriority() != b.getPriority()
+                ? Integer.compare(b.getPriority(), a.getPriority()) : a.getId().compareTo(b.getId()));
+
+        this.zones = Collections.unmodifiableList(loaded);
+        logger.at(Level.INFO).log("Loaded " + loaded.size() + " spawn zone(s)" + (failed > 0 ? " (" + failed + " failed)" : ""));
+        return true;
+    }
+
+    /**
+     * Starts the spawn tick on the server thread
+     * @param scheduler The server tick scheduler
+     */
+    public void start(ServerTickScheduler scheduler) {
+        if (tickTask != null) {
+            logger.at(Level.WARNING).log("Spawn tick is already running");
+            return;
+        }
+
+        tickTask = scheduler.schedule("spawn tick", this::tick, tickInterval);
+
+        logger.at(Level.INFO).log("Spawn controller started (" + chunksPerTick + " chunks and " + spawnsPerTick
+                + " spawns every " + tickInterval + " server ticks)");
+    }
+
+    /**
+     * Stops the spawn tick and removes every mob it spawned
+     * Populations are not persisted, so spawned mobs must not outlive the controller
+     * Must be called on the server thread
+     */
+    public void stop() {
+        if (tickTask != null) {
+            tickTask.cancel();
+            tickTask = null;
+        }
+        synchronized (this) {
+            for (SpawnedMob mob : mobs.values()) {
+                mob.entity.remove();
+            }
+            despawned.addAndGet(mobs.size());
+            mobs.clear();
+            chunks.clear();
+            tracked.clear();
+        }
+        logger.at(Level.INFO).log(getReport());
+    }
+
+    @Override
+    public void onCharacterLoaded(Character character) {
+        moveAnchor(character);
+    }
+
+    @Override
+    public void onPositionChanged(Character character) {
+        moveAnchor(character);
+    }
+
+    @Override
+    public void onCharacterUnloading(Character character) {
+        if (anchors.remove(character.getPlayerId()) != null) {
+            anchorsChanged = true;
+        }
+    }
+
+    private void moveAnchor(Character character) {
+        String world = character.getWorld() != null ? character.getWorld() : "";
+        int chunkX = chunkOf(character.getPosX());
+        int chunkZ = chunkOf(character.getPosZ());
+        Anchor previous = anchors.put(character.getPlayerId(),
+                new Anchor(character.getPlayerId(), world, chunkX, chunkZ, character.getPosY()));
+        // Only a move into another chunk changes which chunks are active
+        if (previous == null || previous.chunkX != chunkX || previous.chunkZ != chunkZ || !previous.world.equals(world)) {
+            anchorsChanged = true;
+        }
+    }
+
+    /**
+     * Reports the death of a mob, which frees its place in its chunk's budget
+     * Deaths of mobs this controller did not spawn are ignored
+     * @param entityId The UUID of the dead mob
+     */
+    public void onMobDeath(UUID entityId) {
+        deaths.add(entityId);
+    }
+
+    /**
+     * Applies reported deaths, refills chunks around players and despawns abandoned chunks
+     * Runs on the server thread
+     */
+    synchronized void tick() {
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+
+        UUID deadId;
+        while ((deadId = deaths.poll()) != null) {
+            SpawnedMob mob = mobs.remove(deadId);
+            if (mob != null) {
+                mob.chunk.unlink(mob);
+                died.incrementAndGet();
+            }
+        }
+
+        if (anchorsChanged) {
+            anchorsChanged = false;
+            rebuildActive();
+        }
+
+        refill(now);
+        sweep(now);
+
+        ticks.incrementAndGet();
+        tickNanos.addAndGet(System.nanoTime() - start);
+    }
+
+    /**
+     * Rebuilds the list of player chunks the refill cycles through
+     * Players standing in the same chunk share one entry
+     */
+    private void rebuildActive() {
+        Map<String, Set<Long>> players = new HashMap<>();
+        List<Anchor> unique = new ArrayList<>();
+        for (Anchor anchor : anchors.values()) {
+            if (players.computeIfAbsent(anchor.world, key -> new HashSet<>()).add(chunkKey(anchor.chunkX, anchor.chunkZ))) {
+                unique.add(anchor);
+            }
+        }
+        active = unique.toArray(new Anchor[0]);
+        occupied = players;
+        if (anchorCursor >= active.length) {
+            anchorCursor = 0;
+            offsetCursor = 0;
+        }
+    }
+
+    private void refill(long now) {
+        Anchor[] current = active;
+        if (current.length == 0 || zones.isEmpty()) {
+            return;
+        }
+
+        int side = radius * 2 + 1;
+        int area = side * side;
+        // Never visit the same chunk twice in one tick when few players are online
+        int visits = Math.min(chunksPerTick, current.length * area);
+        int budget = spawnsPerTick;
+        World world = null;
+        Anchor worldAnchor = null;
+        for (int i = 0; i < visits && budget > 0; i++) {
+            Anchor anchor = current[anchorCursor];
+            if (anchor != worldAnchor) {
+                worldAnchor = anchor;
+                world = worldOf(anchor);
+            }
+            if (world != null) {
+                int chunkX = anchor.chunkX + offsetCursor % side - radius;
+                int chunkZ = anchor.chunkZ + offsetCursor / side - radius;
+                budget -= refillChunk(world, anchor, chunkX, chunkZ, budget, now);
+            }
+
+            if (++offsetCursor == area) {
+                offsetCursor = 0;
+                if (++anchorCursor == current.length) {
+                    anchorCursor = 0;
+                }
+            }
+        }
+    }
+
+    private World worldOf(Anchor anchor) {
+        Player player = onlinePlayers.get(anchor.playerId);
+        if (player == null) {
+            return null;
+        }
+        Location location = player.getLocation();
+        return location != null ? location.getWorld() : null;
+    }
+
+    /**
+     * Spawns mobs in a chunk until every category reaches its zone's target or the budget runs out
+     * @return The number of mobs spawned
+     */
+    private int refillChunk(World world, Anchor anchor, int chunkX, int chunkZ, int budget, long now) {
+        SpawnChunk chunk = chunk(anchor.world, chunkX, chunkZ, true);
+        chunk.lastActive = now;
+
+        List<SpawnZone> currentZones = zones;
+        if (chunk.zones != currentZones) {
+            chunk.zones = currentZones;
+            chunk.zone = zoneAt(currentZones, anchor.world, chunkX * chunkSize + chunkSize / 2, chunkZ * chunkSize + chunkSize / 2);
+        }
+        SpawnZone zone = chunk.zone;
+        if (zone == null) {
+            return 0;
+        }
+
+        // Mobs removed by other means than dying (e.g. unloaded with their chunk) no longer count
+        for (int i = chunk.mobs.size() - 1; i >= 0; i--) {
+            SpawnedMob mob = chunk.mobs.get(i);
+            if (!mob.entity.isValid()) {
+                mobs.remove(mob.entity.getUniqueId());
+                chunk.unlink(mob);
+            }
+        }
+
+        int count = 0;
+        for (SpawnZone.Category category : SpawnZone.Category.values()) {
+            int missing = zone.getPerChunk(category) - chunk.counts[category.ordinal()];
+            while (missing-- > 0 && count < budget) {
+                if (!spawn(world, chunk, zone, category, anchor.y)) {
+                    break;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean spawn(World world, SpawnChunk chunk, SpawnZone zone, SpawnZone.Category category, double anchorY) {
+        String mobType = zone.pickMob(category, random);
+        EntityType type = EntityType.byName(mobType);
+        if (type == null) {
+            if (unknownTypes.add(mobType)) {
+                logger.at(Level.WARNING).log("Spawn zone " + zone.getId() + " uses unknown mob type " + mobType);
+            }
+            return false;
+        }
+
+        double x = (double) chunk.chunkX * chunkSize + random.nextInt(chunkSize) + 0.5;
+        double z = (double) chunk.chunkZ * chunkSize + random.nextInt(chunkSize) + 0.5;
+        double y = Double.isNaN(zone.getSpawnY()) ? anchorY : zone.getSpawnY();
+        Entity entity;
+        try {
+            entity = world.spawnEntity(new Location(world, x, y, z), type);
+        } catch (RuntimeException e) {
+            logger.at(Level.WARNING).log("Error spawning " + mobType + " in zone " + zone.getId() + ": " + e.getMessage());
+            return false;
+        }
+        if (entity == null) {
+            return false;
+        }
+
+        SpawnedMob mob = new SpawnedMob(entity, chunk, category);
+        mobs.put(entity.getUniqueId(), mob);
+        chunk.link(mob);
+        spawned.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Checks a slice of the tracked chunks and despawns the ones no player has been near for too long
+     */
+    private void sweep(long now) {
+        int checks = Math.min(chunksPerTick, tracked.size());
+        for (int i = 0; i < checks; i++) {
+            if (sweepCursor >= tracked.size()) {
+                sweepCursor = 0;
+            }
+            SpawnChunk chunk = tracked.get(sweepCursor);
+            if (isNearPlayer(chunk)) {
+                chunk.lastActive = now;
+            } else if (now - chunk.lastActive > idleMs) {
+                for (SpawnedMob mob : chunk.mobs) {
+                    mobs.remove(mob.entity.getUniqueId());
+                    mob.entity.remove();
+                }
+                despawned.addAndGet(chunk.mobs.size());
+                untrack(chunk);
+                // The last tracked chunk was swapped into this slot; check it next
+                continue;
+            }
+            sweepCursor++;
+        }
+    }
+
+    private boolean isNearPlayer(SpawnChunk chunk) {
+        Set<Long> players = occupied.get(chunk.world);
+        if (players == null) {
+            return false;
+        }
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                if (players.contains(chunkKey(chunk.chunkX + dx, chunk.chunkZ + dz))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private SpawnChunk chunk(String world, int chunkX, int chunkZ, boolean create) {
+        Map<Long, SpawnChunk> worldChunks = chunks.get(world);
+        long key = chunkKey(chunkX, chunkZ);
+        SpawnChunk chunk = worldChunks != null ? worldChunks.get(key) : null;
+        if (chunk == null && create) {
+            chunk = new SpawnChunk(world, chunkX, chunkZ);
+            chunks.computeIfAbsent(world, k -> new HashMap<>()).put(key, chunk);
+            chunk.index = tracked.size();
+            tracked.add(chunk);
+        }
+        return chunk;
+    }
+
+    private void untrack(SpawnChunk chunk) {
+        Map<Long, SpawnChunk> worldChunks = chunks.get(chunk.world);
+        worldChunks.remove(chunkKey(chunk.chunkX, chunk.chunkZ));
+        if (worldChunks.isEmpty()) {
+            chunks.remove(chunk.world);
+        }
+        SpawnChunk last = tracked.remove(tracked.size() - 1);
+        if (last != chunk) {
+            tracked.set(chunk.index, last);
+            last.index = chunk.index;
+        }
+    }
+
+    private static SpawnZone zoneAt(List<SpawnZone> zones, String world, int x, int z) {
+        for (SpawnZone zone : zones) {
+            if (zone.contains(world, x, z)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    private int chunkOf(double coordinate) {
+        return Math.floorDiv((int) Math.floor(coordinate), chunkSize);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the number of mobs currently spawned by the controller
+     * @return The mob count
+     */
+    public synchronized int getMobCount() {
+        return mobs.size();
+    }
+
+    /**
+     * Gets the number of spawned mobs of a category in a chunk
+     * @param world The world name
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @param category The category
+     * @return The mob count, 0 if the chunk is not tracked
+     */
+    public synchronized int getPopulation(String world, int chunkX, int chunkZ, SpawnZone.Category category) {
+        SpawnChunk chunk = chunk(world, chunkX, chunkZ, false);
+        return chunk != null ? chunk.counts[category.ordinal()] : 0;
+    }
+
+    /**
+     * Gets the loaded spawn zones, highest priority first
+     * @return The zones (immutable)
+     */
+    public List<SpawnZone> getZones() {
+        return zones;
+    }
+
+    /**
+     * Gets spawn statistics
+     * @return A one-line report
+     */
+    public String getReport() {
+        long tickCount = ticks.get();
+        long averageMicros = tickCount > 0 ? tickNanos.get() / tickCount / 1000 : 0;
+        int tracking;
+        int chunkCount;
+        synchronized (this) {
+            tracking = mobs.size();
+            chunkCount = tracked.size();
+        }
+        return "Spawn controller: " + spawned.get() + " spawned, " + died.get() + " died, " + despawned.get()
+                + " despawned, " + tracking + " alive in " + chunkCount + " chunk(s), " + averageMicros + " us per tick";
+    }
+
+    /**
+     * Chunk a player stands in, as last reported by the CharacterManager
+     */
+    private static final class Anchor {
+        private final UUID playerId;
+        private final String world;
+        private final int chunkX;
+        private final int chunkZ;
+        private final double y;
+
+        private Anchor(UUID playerId, String world, int chunkX, int chunkZ, double y) {
+            this.playerId = playerId;
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.y = y;
+        }
+    }
+
+    /**
+     * Spawn state of one chunk: its zone and the mobs spawned in it per category
+     */
+    private static final class SpawnChunk {
+        private final String world;
+        private final int chunkX;
+        private final int chunkZ;
+        private final List<SpawnedMob> mobs;
+        private final int[] counts;
+        private List<SpawnZone> zones;
+        private SpawnZone zone;
+        private long lastActive;
+        private int index;
+
+        private SpawnChunk(String world, int chunkX, int chunkZ) {
+            this.world = world;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.mobs = new ArrayList<>(4);
+            this.counts = new int[SpawnZone.Category.values().length];
+        }
+
+        private void link(SpawnedMob mob) {
+            mobs.add(mob);
+            counts[mob.category.ordinal()]++;
+        }
+
+        private void unlink(SpawnedMob mob) {
+            if (mobs.remove(mob)) {
+                counts[mob.category.ordinal()]--;
+            }
+        }
+    }
+
+    /**
+     * A mob spawned by the controller, counted against the chunk it spawned in
+     */
+    private static final class SpawnedMob {
+        private final Entity entity;
+        private final SpawnChunk chunk;
+        private final SpawnZone.Category category;
+
+        private SpawnedMob(Entity entity, SpawnChunk chunk, SpawnZone.Category category) {
+            this.entity = entity;
+            this.chunk = chunk;
+            this.category = category;
+        }
+    }
+}
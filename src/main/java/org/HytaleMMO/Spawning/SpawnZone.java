@@ -0,0 +1,220 @@
+package org.HytaleMMO.Spawning;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * An immutable spawn zone parsed from a spawn asset file
+ * A zone covers a horizontal rectangle of one world (or of every world when
+ * no World is set) and lists, per category, the mobs that spawn there and how
+ * many of them each chunk should hold.
+ */
+public final class SpawnZone {
+    /**
+     * Mob categories with separate density budgets
+     */
+    public enum Category {
+        HOSTILE("Hostile"),
+        AMBIENT("Ambient");
+
+        private final String key;
+
+        Category(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Gets the JSON field holding this category's spawn settings
+         * @return The field name
+         */
+        public String getKey() {
+            return key;
+        }
+    }
+
+    private final String id;
+    private final String world;
+    private final int priority;
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+    private final double spawnY;
+    private final MobTable[] tables;
+
+    private SpawnZone(String id, String world, int priority, int minX, int minZ, int maxX, int maxZ, double spawnY,
+                      MobTable[] tables) {
+        this.id = id;
+        this.world = world;
+        this.priority = priority;
+        this.minX = minX;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxZ = maxZ;
+        this.spawnY = spawnY;
+        this.tables = tables;
+    }
+
+    /**
+     * Parses a spawn zone from its JSON asset
+     * @param id The zone ID (path below Server/Spawning without extension)
+     * @param json The parsed JSON object
+     * @return The zone
+     * @throws IllegalArgumentException if a field is invalid or the zone spawns nothing
+     */
+    public static SpawnZone fromJson(String id, Map<String, Object> json) {
+        Object world = json.get("World");
+        int minX = number(json.get("MinX"), Integer.MIN_VALUE);
+        int minZ = number(json.get("MinZ"), Integer.MIN_VALUE);
+        int maxX = number(json.get("MaxX"), Integer.MAX_VALUE);
+        int maxZ = number(json.get("MaxZ"), Integer.MAX_VALUE);
+        if (minX > maxX || minZ > maxZ) {
+            throw new IllegalArgumentException("MinX/MinZ must not be greater than MaxX/MaxZ");
+        }
+
+        MobTable[] tables = new MobTable[Category.values().length];
+        boolean spawnsAnything = false;
+        for (Category category : Category.values()) {
+            Object table = json.get(category.getKey());
+            if (table == null) {
+                continue;
+            }
+            if (!(table instanceof Map)) {
+                throw new IllegalArgumentException("Expected an object in " + category.getKey());
+            }
+            tables[category.ordinal()] = MobTable.fromJson(category.getKey(), (Map<?, ?>) table);
+            spawnsAnything |= tables[category.ordinal()].perChunk > 0;
+        }
+        if (!spawnsAnything) {
+            throw new IllegalArgumentException("Zone has no Hostile or Ambient mobs to spawn");
+        }
+
+        Object spawnY = json.get("SpawnY");
+        return new SpawnZone(id, world instanceof String ? (String) world : null, number(json.get("Priority"), 0),
+                minX, minZ, maxX, maxZ, spawnY instanceof Number ? ((Number) spawnY).doubleValue() : Double.NaN, tables);
+    }
+
+    /**
+     * Checks whether a block column lies inside the zone
+     * @param worldName The world name
+     * @param x Block X coordinate
+     * @param z Block Z coordinate
+     * @return true if the zone covers the column
+     */
+    public boolean contains(String worldName, int x, int z) {
+        return (world == null || world.equals(worldName)) && x >= minX && x <= maxX && z >= minZ && z <= maxZ;
+    }
+
+    /**
+     * Gets the number of mobs of a category each chunk of the zone should hold
+     * @param category The category
+     * @return The target count per chunk
+     */
+    public int getPerChunk(Category category) {
+        MobTable table = tables[category.ordinal()];
+        return table != null ? table.perChunk : 0;
+    }
+
+    /**
+     * Picks a mob type of a category, weighted by the configured weights
+     * @param category The category
+     * @param random The random source
+     * @return The mob type name, or null if the category has no mobs
+     */
+    public String pickMob(Category category, Random random) {
+        MobTable table = tables[category.ordinal()];
+        if (table == null) {
+            return null;
+        }
+        int roll = random.nextInt(table.totalWeight);
+        int i = 0;
+        while (roll >= table.cumulativeWeights[i]) {
+            i++;
+        }
+        return table.mobs[i];
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the world the zone applies to
+     * @return The world name, or null for every world
+     */
+    public String getWorld() {
+        return world;
+    }
+
+    /**
+     * Gets the priority used when zones overlap (highest wins)
+     * @return The priority
+     */
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * Gets the height mobs spawn at
+     * @return The Y coordinate, or NaN to spawn at the height of the nearby player
+     */
+    public double getSpawnY() {
+        return spawnY;
+    }
+
+    private static int number(Object value, int defaultValue) {
+        return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+    }
+
+    /**
+     * Weighted mob types of one category, with the cumulative weights used to pick one
+     */
+    private static final class MobTable {
+        private final int perChunk;
+        private final String[] mobs;
+        private final int[] cumulativeWeights;
+        private final int totalWeight;
+
+        private MobTable(int perChunk, String[] mobs, int[] cumulativeWeights) {
+            this.perChunk = perChunk;
+            this.mobs = mobs;
+            this.cumulativeWeights = cumulativeWeights;
+            this.totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+        }
+
+        static MobTable fromJson(String key, Map<?, ?> json) {
+            int perChunk = number(json.get("PerChunk"), 0);
+            if (perChunk < 0) {
+                throw new IllegalArgumentException(key + " PerChunk must not be negative");
+            }
+            Object mobsJson = json.get("Mobs");
+            if (!(mobsJson instanceof List) || ((List<?>) mobsJson).isEmpty()) {
+                throw new IllegalArgumentException("Missing " + key + " Mobs");
+            }
+
+            List<?> entries = (List<?>) mobsJson;
+            String[] mobs = new String[entries.size()];
+            int[] cumulative = new int[entries.size()];
+            int total = 0;
+            for (int i = 0; i < entries.size(); i++) {
+                if (!(entries.get(i) instanceof Map)) {
+                    throw new IllegalArgumentException("Expected an object in " + key + " Mobs");
+                }
+                Map<?, ?> entry = (Map<?, ?>) entries.get(i);
+                Object type = entry.get("Type");
+                if (!(type instanceof String)) {
+                    throw new IllegalArgumentException("Missing " + key + " mob Type");
+                }
+                int weight = number(entry.get("Weight"), 1);
+                if (weight <= 0) {
+                    throw new IllegalArgumentException(key + " mob Weight must be positive");
+                }
+                total += weight;
+                mobs[i] = (String) type;
+                cumulative[i] = total;
+            }
+            return new MobTable(perChunk, mobs, cumulative);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.HytaleMMO.Startup;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Opens once the background startup phases have finished.
+ * Joins that arrive earlier wait on the gate instead of loading characters
+ * against caches that are still filling; waiting never blocks the caller,
+ * it only delays the continuation.
+ */
+public class ReadinessGate {
+    private final StartupTimer timer;
+    private final HytaleLogger logger;
+    private final CompletableFuture<Void> opened;
+    private final AtomicBoolean firstJoin;
+    private final AtomicInteger held;
+    private final AtomicInteger timedOut;
+    private volatile long openedAfterMs;
+
+    /**
+     * Creates a closed gate
+     * @param timer The startup timer, used to report times since plugin load
+     * @param logger The logger instance
+     */
+    public ReadinessGate(StartupTimer timer, HytaleLogger logger) {
+        this.timer = timer;
+        this.logger = logger;
+        this.opened = new CompletableFuture<>();
+        this.firstJoin = new AtomicBoolean();
+        this.held = new AtomicInteger();
+        this.timedOut = new AtomicInteger();
+        this.openedAfterMs = -1;
+    }
+
+    /**
+     * Opens the gate and releases every waiting join
+     */
+    public void open() {
+        if (!opened.isDone()) {
+            openedAfterMs = timer.elapsedMs();
+            int waiting = held.get() - timedOut.get();
+            logger.at(Level.INFO).log("Ready for players " + openedAfterMs + " ms after plugin load"
+                    + (waiting > 0 ? " (" + waiting + " join(s) waiting)" : ""));
+            opened.complete(null);
+        }
+    }
+
+    /**
+     * Checks whether the gate is open
+     * @return true if startup has finished
+     */
+    public boolean isOpen() {
+        return opened.isDone();
+    }
+
+    /**
+     * Waits for the gate to open without blocking
+     * @param timeoutMs How long to wait
+     * @return A future completed when the gate opens, or exceptionally with a TimeoutException
+     */
+    public CompletableFuture<Void> whenOpen(long timeoutMs) {
+        if (opened.isDone()) {
+            return opened;
+        }
+        held.incrementAndGet();
+        return opened.copy().orTimeout(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records that a held join gave up waiting
+     */
+    public void recordTimeout() {
+        timedOut.incrementAndGet();
+    }
+
+    /**
+     * Records a join that is being processed, logging the time to first join
+     * @param heldMs How long the join waited on the gate
+     */
+    public void recordJoin(long heldMs) {
+        if (firstJoin.compareAndSet(false, true)) {
+            logger.at(Level.INFO).log("First player join processed " + timer.elapsedMs() + " ms after plugin load"
+                    + (heldMs > 0 ? " (held " + heldMs + " ms by startup)" : ""));
+        }
+    }
+
+    /**
+     * Gets gate statistics
+     * @return A one-line report
+     */
+    public String getReport() {
+        return "Readiness gate: " + (openedAfterMs >= 0 ? "opened " + openedAfterMs + " ms after load" : "never opened")
+                + ", " + held.get() + " join(s) held, " + timedOut.get() + " timed out";
+    }
+}
@@ -0,0 +1,114 @@
+package org.HytaleMMO.Startup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs and times the phases of plugin startup.
+ * Phases may run on the caller's thread or in parallel on an executor; each
+ * one records when it started and how long it took relative to the moment
+ * the timer was created, so the report shows both the critical path and
+ * what overlapped.
+ */
+public final class StartupTimer {
+    private final long originNanos;
+    private final Queue<Phase> phases;
+
+    public StartupTimer() {
+        this.originNanos = System.nanoTime();
+        this.phases = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Runs a phase on an executor
+     * @param name The phase name
+     * @param work The work to run
+     * @param executor The executor to run it on
+     * @return A future completed with the work's result, or exceptionally if it threw
+     */
+    public <T> CompletableFuture<T> supply(String name, Supplier<T> work, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> time(name, work), executor);
+    }
+
+    /**
+     * Runs a phase without result on an executor
+     * @param name The phase name
+     * @param work The work to run
+     * @param executor The executor to run it on
+     * @return A future completed when the work is done, or exceptionally if it threw
+     */
+    public CompletableFuture<Void> run(String name, Runnable work, Executor executor) {
+        return CompletableFuture.runAsync(() -> time(name, work), executor);
+    }
+
+    /**
+     * Runs a phase on the current thread
+     * @param name The phase name
+     * @param work The work to run
+     * @return The work's result
+     */
+    public <T> T time(String name, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            phases.add(new Phase(name, Thread.currentThread().getName(), start - originNanos, System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Runs a phase without result on the current thread
+     * @param name The phase name
+     * @param work The work to run
+     */
+    public void time(String name, Runnable work) {
+        time(name, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Gets the time since the timer was created
+     * @return The elapsed time in milliseconds
+     */
+    public long elapsedMs() {
+        return (System.nanoTime() - originNanos) / 1_000_000;
+    }
+
+    /**
+     * Gets the recorded phases in the order they started
+     * @return A multi-line report, one phase per line with its start offset and duration
+     */
+    public String getReport() {
+        List<Phase> sorted = new ArrayList<>(phases);
+        sorted.sort(Comparator.comparingLong(phase -> phase.startNanos));
+        StringBuilder report = new StringBuilder("Startup phases (" + sorted.size() + ", " + elapsedMs() + " ms since load):");
+        for (Phase phase : sorted) {
+            report.append("\n  +").append(phase.startNanos / 1_000_000).append(" ms  ")
+                    .append(phase.name).append(": ").append(phase.durationNanos / 1_000_000).append(" ms [")
+                    .append(phase.thread).append(']');
+        }
+        return report.toString();
+    }
+
+    private static final class Phase {
+        private final String name;
+        private final String thread;
+        private final long startNanos;
+        private final long durationNanos;
+
+        private Phase(String name, String thread, long startNanos, long durationNanos) {
+            this.name = name;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.HytaleMMO.Stats;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import org.HytaleMMO.Database.Tables.KillStatsRepository;
+import org.HytaleMMO.Database.Tables.KillStatsRepository.KillCount;
+import org.HytaleMMO.Mobs.MobTypeRegistry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+/**
+ * Counts kills per player and mob type in memory and flushes them to the
+ * kill_stats table on a timer.
+ * Counters are int arrays indexed by interned mob type id, so recording a
+ * kill never touches the database. Each flush only writes the counters that
+ * changed since the previous flush, as increments.
+ */
+public class KillStatsTracker {
+    private final KillStatsRepository repository;
+    private final MobTypeRegistry mobTypes;
+    private final HytaleLogger logger;
+    private final Map<UUID, PlayerCounters> counters;
+    private final long flushIntervalMs;
+    private Timer flushTimer;
+
+    /**
+     * Creates a new kill stats tracker
+     * @param repository The kill stats repository
+     * @param mobTypes The mob type registry
+     * @param logger The logger instance
+     * @param flushIntervalSeconds The interval between flushes in seconds
+     */
+    public KillStatsTracker(KillStatsRepository repository, MobTypeRegistry mobTypes, HytaleLogger logger, int flushIntervalSeconds) {
+        this.repository = repository;
+        this.mobTypes = mobTypes;
+        this.logger = logger;
+        this.counters = new ConcurrentHashMap<>();
+        this.flushIntervalMs = flushIntervalSeconds * 1000L;
+    }
+
+    /**
+     * Starts the flush timer
+     */
+    public void start() {
+        if (flushTimer != null) {
+            logger.at(Level.WARNING).log("Kill stats flush timer is already running");
+            return;
+        }
+
+        flushTimer = new Timer("KillStatsFlush", true);
+        flushTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                try {
+                    flush();
+                } catch (Exception e) {
+                    logger.at(Level.SEVERE).log("Error flushing kill stats: " + e.getMessage());
+                    e.printStackTrace();
+                }
+            }
+        }, flushIntervalMs, flushIntervalMs);
+
+        logger.at(Level.INFO).log("Kill stats tracker started (flush interval: " + (flushIntervalMs / 1000) + " seconds)");
+    }
+
+    /**
+     * Stops the flush timer and writes any pending counters
+     */
+    public void stop() {
+        if (flushTimer != null) {
+            flushTimer.cancel();
+            flushTimer = null;
+        }
+        flush();
+    }
+
+    /**
+     * Records a kill
+     * @param playerId The UUID of the killer
+     * @param mobTypeId The interned mob type id
+     */
+    public void recordKill(UUID playerId, int mobTypeId) {
+        add(playerId, mobTypeId, 1);
+    }
+
+    private void add(UUID playerId, int mobTypeId, int count) {
+        while (true) {
+            PlayerCounters playerCounters = counters.computeIfAbsent(playerId, id -> new PlayerCounters());
+            if (playerCounters.add(mobTypeId, count)) {
+                return;
+            }
+            // The counters were retired by a concurrent flush; retry with a fresh instance
+        }
+    }
+
+    /**
+     * Writes every counter that changed since the last flush to the database
+     * @return The number of rows written
+     */
+    public int flush() {
+        List<KillCount> batch = new ArrayList<>();
+
+        for (Map.Entry<UUID, PlayerCounters> entry : counters.entrySet()) {
+            PlayerCounters playerCounters = entry.getValue();
+            if (!playerCounters.drainTo(entry.getKey(), mobTypes, batch)) {
+                // Idle for a whole interval; drop the counters so offline players do not leak
+                counters.remove(entry.getKey(), playerCounters);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        if (!repository.incrementBatch(batch)) {
+            // Put the deltas back so they are retried on the next flush
+            for (KillCount delta : batch) {
+                add(delta.getPlayerId(), mobTypes.find(delta.getMobType()), (int) delta.getCount());
+            }
+            logger.at(Level.WARNING).log("Kill stats flush failed, " + batch.size() + " counter(s) will be retried");
+            return 0;
+        }
+        return batch.size();
+    }
+
+    /**
+     * Kill counters of a single player, indexed by mob type id
+     */
+    private static final class PlayerCounters {
+        private int[] deltas = new int[16];
+        private boolean dirty;
+        private boolean retired;
+
+        private synchronized boolean add(int mobTypeId, int count) {
+            if (retired) {
+                return false;
+            }
+            if (mobTypeId >= deltas.length) {
+                deltas = Arrays.copyOf(deltas, Math.max(mobTypeId + 1, deltas.length * 2));
+            }
+            deltas[mobTypeId] += count;
+            dirty = true;
+            return true;
+        }
+
+        /**
+         * Moves the pending deltas into the batch and resets them
+         * @return false if there was nothing to drain and the counters have been retired
+         */
+        private synchronized boolean drainTo(UUID playerId, MobTypeRegistry mobTypes, List<KillCount> batch) {
+            if (!dirty) {
+                retired = true;
+                return false;
+            }
+            for (int mobTypeId = 0; mobTypeId < deltas.length; mobTypeId++) {
+                if (deltas[mobTypeId] != 0) {
+                    batch.add(new KillCount(playerId, mobTypes.nameOf(mobTypeId), deltas[mobTypeId]));
+                    deltas[mobTypeId] = 0;
+                }
+            }
+            dirty = false;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.HytaleMMO.Util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads the JSON asset files shipped with the plugin, from the plugin jar or,
+ * when run unpacked, from the resource directory
+ */
+public final class AssetFiles {
+    private AssetFiles() {
+    }
+
+    /**
+     * Reads every .json file under an asset path, including subdirectories
+     * Files in subdirectories get the subdirectory in their ID, so equal file names
+     * in different folders do not collide
+     * @param path The asset path, ending with a slash (e.g. "Server/Item/Recipes/")
+     * @return The file contents by ID (path below the asset path without extension, e.g. "Tools/Iron_Pickaxe")
+     * @throws IOException if a file cannot be read
+     * @throws URISyntaxException if the plugin location cannot be resolved
+     */
+    public static Map<String, String> readJson(String path) throws IOException, URISyntaxException {
+        Path location = Paths.get(AssetFiles.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Map<String, String> files = new LinkedHashMap<>();
+
+        if (Files.isDirectory(location)) {
+            Path directory = location.resolve(path);
+            if (!Files.isDirectory(directory)) {
+                return files;
+            }
+            try (Stream<Path> paths = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) paths::iterator) {
+                    String name = directory.relativize(file).toString().replace(File.separatorChar, '/');
+                    if (Files.isRegularFile(file) && name.endsWith(".json")) {
+                        files.put(idOf(name), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            return files;
+        }
+
+        try (ZipFile jar = new ZipFile(location.toFile())) {
+            Enumeration<? extends ZipEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (entry.isDirectory() || !name.startsWith(path) || !name.endsWith(".json")) {
+                    continue;
+                }
+                try (InputStream in = jar.getInputStream(entry)) {
+                    files.put(idOf(name.substring(path.length())), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return files;
+    }
+
+    private static String idOf(String fileName) {
+        return fileName.substring(0, fileName.length() - ".json".length());
+    }
+}
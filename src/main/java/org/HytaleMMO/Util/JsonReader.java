@@ -0,0 +1,230 @@
+package org.HytaleMMO.Util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON parser for the plugin's asset files.
+ * Objects become LinkedHashMaps, arrays ArrayLists, numbers Doubles, and
+ * true/false/null their Java counterparts. Instances are single-use and not
+ * thread-safe; parse() creates one per call.
+ */
+public final class JsonReader {
+    private final String text;
+    private int position;
+
+    private JsonReader(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Parses a JSON document
+     * @param text The JSON text
+     * @return The parsed value
+     * @throws IllegalArgumentException if the text is not valid JSON
+     */
+    public static Object parse(String text) {
+        JsonReader reader = new JsonReader(text);
+        reader.skipWhitespace();
+        Object value = reader.readValue();
+        reader.skipWhitespace();
+        if (reader.position < text.length()) {
+            throw reader.error("Unexpected trailing content");
+        }
+        return value;
+    }
+
+    /**
+     * Parses a JSON document whose root must be an object
+     * @param text The JSON text
+     * @return The root object
+     * @throws IllegalArgumentException if the text is not a valid JSON object
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private Object readValue() {
+        if (position >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("Unexpected character '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++; // {
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("Expected a property name");
+            }
+            String key = readString();
+            skipWhitespace();
+            if (peek() != ':') {
+                throw error("Expected ':'");
+            }
+            position++;
+            skipWhitespace();
+            object.put(key, readValue());
+            skipWhitespace();
+            char c = peek();
+            position++;
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++; // [
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            skipWhitespace();
+            array.add(readValue());
+            skipWhitespace();
+            char c = peek();
+            position++;
+            if (c == ']') {
+                return array;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or ']'");
+            }
+        }
+    }
+
+    private String readString() {
+        position++; // opening quote
+        StringBuilder builder = null;
+        int start = position;
+        while (true) {
+            if (position >= text.length()) {
+                throw error("Unterminated string");
+            }
+            char c = text.charAt(position);
+            if (c == '"') {
+                String value = builder == null
+                        ? text.substring(start, position)
+                        : builder.append(text, start, position).toString();
+                position++;
+                return value;
+            }
+            if (c != '\\') {
+                position++;
+                continue;
+            }
+
+            if (builder == null) {
+                builder = new StringBuilder();
+            }
+            builder.append(text, start, position);
+            position++;
+            char escaped = peek();
+            position++;
+            switch (escaped) {
+                case '"': builder.append('"'); break;
+                case '\\': builder.append('\\'); break;
+                case '/': builder.append('/'); break;
+                case 'b': builder.append('\b'); break;
+                case 'f': builder.append('\f'); break;
+                case 'n': builder.append('\n'); break;
+                case 'r': builder.append('\r'); break;
+                case 't': builder.append('\t'); break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("Invalid unicode escape");
+                    }
+                    builder.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    throw error("Invalid escape '\\" + escaped + "'");
+            }
+            start = position;
+        }
+    }
+
+    private Double readNumber() {
+        int start = position;
+        while (position < text.length()) {
+            char c = text.charAt(position);
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E') {
+                position++;
+            } else {
+                break;
+            }
+        }
+        try {
+            return Double.valueOf(text.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number");
+        }
+    }
+
+    private void expect(String literal) {
+        if (!text.startsWith(literal, position)) {
+            throw error("Expected '" + literal + "'");
+        }
+        position += literal.length();
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("Unexpected end of input");
+        }
+        return text.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
@@ -0,0 +1,242 @@
+package org.HytaleMMO.Util;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel for large numbers of timers.
+ * Timers live in primitive arrays and are linked into buckets by index, so
+ * scheduling and cancelling are O(1) and allocate nothing once the arrays
+ * have grown to the peak timer count. advance() moves the wheel forward one
+ * tick at a time and fires every timer of a tick in one pass.
+ *
+ * Level 0 has one bucket per tick; every higher level covers a whole
+ * revolution of the level below per bucket, and its timers are cascaded down
+ * when the lower level wraps around. Each timer carries a long payload that is
+ * handed back when it fires.
+ *
+ * Not thread-safe: callers synchronize access.
+ */
+public class TimingWheel {
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_TICKS = (1L << (BITS * LEVELS)) - 1;
+    private static final int NONE = -1;
+
+    private final long tickMs;
+    private final long startMs;
+    private long currentTick;
+
+    // Bucket heads, LEVELS * SLOTS
+    private final int[] heads;
+
+    // Per-timer state indexed by timer index
+    private long[] expiryTick;
+    private long[] payload;
+    private int[] next;
+    private int[] prev;
+    private int[] bucketOf;
+    private int[] generation;
+    private int[] freeList;
+    private int freeCount;
+    private int highWater;
+    private int size;
+
+    /**
+     * Receives the payload of every timer that fires
+     */
+    public interface ExpiryHandler {
+        void onExpired(long payload);
+    }
+
+    /**
+     * Creates a new timing wheel
+     * @param tickMs The duration of one tick in milliseconds
+     * @param initialCapacity The number of timers to allocate space for up front
+     */
+    public TimingWheel(long tickMs, int initialCapacity) {
+        this.tickMs = tickMs;
+        this.startMs = System.currentTimeMillis();
+        this.heads = new int[LEVELS * SLOTS];
+        Arrays.fill(heads, NONE);
+
+        int capacity = Math.max(16, initialCapacity);
+        this.expiryTick = new long[capacity];
+        this.payload = new long[capacity];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.bucketOf = new int[capacity];
+        this.generation = new int[capacity];
+        this.freeList = new int[capacity];
+    }
+
+    /**
+     * Schedules a timer
+     * Delays longer than the wheel's range (2^32 ticks) are clamped to it
+     * @param delayMs The delay in milliseconds; rounded up to whole ticks, at least one
+     * @param payload The value passed to the handler when the timer fires
+     * @return A handle for cancel()
+     */
+    public long schedule(long delayMs, long payload) {
+        long ticks = Math.max(1, (delayMs + tickMs - 1) / tickMs);
+        ticks = Math.min(ticks, MAX_TICKS);
+
+        int timer = allocate();
+        this.expiryTick[timer] = currentTick + ticks;
+        this.payload[timer] = payload;
+        place(timer);
+        size++;
+        return ((long) generation[timer] << 32) | timer;
+    }
+
+    /**
+     * Schedules a timer at an absolute time
+     * @param timeMs The time in milliseconds (System.currentTimeMillis() scale)
+     * @param payload The value passed to the handler when the timer fires
+     * @return A handle for cancel()
+     */
+    public long scheduleAt(long timeMs, long payload) {
+        return schedule(timeMs - (startMs + currentTick * tickMs), payload);
+    }
+
+    /**
+     * Cancels a timer
+     * @param handle The handle returned by schedule()
+     * @return true if the timer was pending, false if it already fired or was cancelled
+     */
+    public boolean cancel(long handle) {
+        int timer = (int) handle;
+        if (timer < 0 || timer >= highWater || generation[timer] != (int) (handle >>> 32) || bucketOf[timer] == NONE) {
+            return false;
+        }
+        unlink(timer);
+        release(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to a point in time and fires every timer that is due
+     * The handler may schedule and cancel timers
+     * @param nowMs The current time in milliseconds
+     * @param handler Receives the payload of every fired timer
+     * @return The number of timers fired
+     */
+    public int advance(long nowMs, ExpiryHandler handler) {
+        long targetTick = (nowMs - startMs) / tickMs;
+        int fired = 0;
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+
+            int bucket = (int) (currentTick & MASK);
+            int timer = heads[bucket];
+            heads[bucket] = NONE;
+            while (timer != NONE) {
+                int following = next[timer];
+                long value = payload[timer];
+                bucketOf[timer] = NONE;
+                release(timer);
+                size--;
+                fired++;
+                handler.onExpired(value);
+                timer = following;
+            }
+        }
+        return fired;
+    }
+
+    /**
+     * Gets the number of pending timers
+     * @return The timer count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the tick duration
+     * @return The tick duration in milliseconds
+     */
+    public long getTickMs() {
+        return tickMs;
+    }
+
+    /**
+     * Moves the timers of the higher-level buckets that just came into range down a level
+     */
+    private void cascade() {
+        // Find the highest level whose lower levels all wrapped around on this tick
+        int level = 0;
+        while (level + 1 < LEVELS && (currentTick & ((1L << (BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+
+        for (; level >= 1; level--) {
+            int bucket = level * SLOTS + (int) ((currentTick >>> (BITS * level)) & MASK);
+            int timer = heads[bucket];
+            heads[bucket] = NONE;
+            while (timer != NONE) {
+                int following = next[timer];
+                place(timer);
+                timer = following;
+            }
+        }
+    }
+
+    private void place(int timer) {
+        long expiry = Math.max(expiryTick[timer], currentTick);
+        long distance = expiry - currentTick;
+        int level = 0;
+        while (level + 1 < LEVELS && distance >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        int bucket = level * SLOTS + (int) ((expiry >>> (BITS * level)) & MASK);
+
+        int head = heads[bucket];
+        next[timer] = head;
+        prev[timer] = NONE;
+        if (head != NONE) {
+            prev[head] = timer;
+        }
+        heads[bucket] = timer;
+        bucketOf[timer] = bucket;
+    }
+
+    private void unlink(int timer) {
+        int before = prev[timer];
+        int after = next[timer];
+        if (before != NONE) {
+            next[before] = after;
+        } else {
+            heads[bucketOf[timer]] = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        }
+        bucketOf[timer] = NONE;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeList[--freeCount];
+        }
+        if (highWater == expiryTick.length) {
+            int capacity = expiryTick.length * 2;
+            expiryTick = Arrays.copyOf(expiryTick, capacity);
+            payload = Arrays.copyOf(payload, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            bucketOf = Arrays.copyOf(bucketOf, capacity);
+            generation = Arrays.copyOf(generation, capacity);
+            freeList = Arrays.copyOf(freeList, capacity);
+        }
+        return highWater++;
+    }
+
+    private void release(int timer) {
+        generation[timer]++;
+        freeList[freeCount++] = timer;
+    }
+}
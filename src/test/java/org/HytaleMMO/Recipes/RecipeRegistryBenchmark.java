@@ -0,0 +1,105 @@
+package org.HytaleMMO.Recipes;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmarks the recipe registry with generated recipes: parsing and indexing
+ * them, and finding craftable recipes for random inventories
+ * Usage: RecipeRegistryBenchmark [recipes] [lookups]
+ */
+public final class RecipeRegistryBenchmark {
+    private static final int DEFAULT_RECIPES = 10_000;
+    private static final int DEFAULT_LOOKUPS = 100_000;
+    private static final int ITEMS = 2_000;
+    private static final int BENCHES = 20;
+    private static final int INVENTORY_SIZE = 24;
+    private static final int WARMUP_LOADS = 5;
+    private static final int MEASURED_LOADS = 10;
+
+    private RecipeRegistryBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int recipes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RECIPES;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_LOOKUPS;
+        Random random = new Random(42);
+
+        Map<String, String> sources = generate(recipes, random);
+        RecipeRegistry registry = new RecipeRegistry(HytaleLogger.getLogger().getSubLogger("RecipeBenchmark"));
+
+        // Load: parse and index every recipe, then swap the index in
+        for (int i = 0; i < WARMUP_LOADS; i++) {
+            registry.load(sources);
+        }
+        long best = Long.MAX_VALUE;
+        long total = 0;
+        for (int i = 0; i < MEASURED_LOADS; i++) {
+            long start = System.nanoTime();
+            registry.load(sources);
+            long elapsed = System.nanoTime() - start;
+            best = Math.min(best, elapsed);
+            total += elapsed;
+        }
+        System.out.println("load: " + registry.getAll().size() + " recipe(s), average " + total / MEASURED_LOADS / 1_000_000
+                + " ms, best " + best / 1_000_000 + " ms");
+
+        // Lookups: a bench and an inventory of random items per call
+        List<Map<String, Integer>> inventories = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            Map<String, Integer> items = new HashMap<>();
+            for (int j = 0; j < INVENTORY_SIZE; j++) {
+                items.put(item(random.nextInt(ITEMS)), 1 + random.nextInt(64));
+            }
+            inventories.add(items);
+        }
+        long found = 0;
+        for (int i = 0; i < lookups; i++) {
+            found += registry.findCraftable(bench(i % BENCHES), inventories.get(i & 1023)).size();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < lookups; i++) {
+            found += registry.findCraftable(bench(i % BENCHES), inventories.get(i & 1023)).size();
+        }
+        long elapsed = Math.max(1, System.nanoTime() - start);
+        System.out.println("findCraftable: " + lookups + " lookup(s), " + elapsed / lookups + " ns per lookup ("
+                + found + " recipe(s) found)");
+    }
+
+    private static Map<String, String> generate(int count, Random random) {
+        Map<String, String> sources = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder json = new StringBuilder("{\"Input\":[");
+            int inputs = 1 + random.nextInt(3);
+            for (int j = 0; j < inputs; j++) {
+                if (j > 0) {
+                    json.append(',');
+                }
+                json.append("{\"ItemId\":\"").append(item(random.nextInt(ITEMS)))
+                        .append("\",\"Quantity\":").append(1 + random.nextInt(10)).append('}');
+            }
+            json.append("],\"PrimaryOutput\":{\"ItemId\":\"").append(item(random.nextInt(ITEMS))).append("\",\"Quantity\":1}");
+            if (random.nextInt(10) > 0) {
+                json.append(",\"BenchRequirement\":[{\"Id\":\"").append(bench(random.nextInt(BENCHES)))
+                        .append("\",\"Type\":\"Crafting\",\"Categories\":[\"Category_").append(random.nextInt(5)).append("\"]}]");
+            }
+            json.append(",\"Seconds\":").append(1 + random.nextInt(30)).append('}');
+            sources.put("Generated/Recipe_" + i, json.toString());
+        }
+        return sources;
+    }
+
+    private static String item(int index) {
+        return "Item_" + index;
+    }
+
+    private static String bench(int index) {
+        return "Bench_" + index;
+    }
+}